@@ -0,0 +1,155 @@
+package com.example.privacydiagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * SHA-256 of whole APK files. Files are hashed in parallel, each through a sequence of
+ * memory-mapped windows so large APKs never need one huge mapping or a copy through the Java
+ * heap. Digests are cached by path, size and mtime, so only updated APKs are re-hashed.
+ */
+public final class ApkDigestCalculator {
+    static final long WINDOW = 16L * 1024 * 1024;
+
+    public static final class Result {
+        final String[] digests;
+        int hashed;
+        int cacheHits;
+        int failed;
+        long bytesHashed;
+        long elapsedMillis;
+
+        Result(int count) {
+            digests = new String[count];
+        }
+
+        /** @return lowercase hex SHA-256 of APK {@code i}, or null if it could not be read */
+        public String getDigest(int i) {
+            return digests[i];
+        }
+
+        public void appendTo(StringBuilder out) {
+            out.append("APK Digests: ").append(hashed).append(" hashed, ").append(cacheHits).append(" cached (")
+               .append(TrackerSdkDetector.formatMegabytes(bytesHashed)).append(", ").append(elapsedMillis).append(" ms)");
+            if (failed > 0) {
+                out.append(", ").append(failed).append(" unreadable");
+            }
+            out.append("\n");
+        }
+    }
+
+    private final FileResultCache cache;
+
+    public ApkDigestCalculator(File cacheFile) {
+        this.cache = new FileResultCache(cacheFile);
+    }
+
+    public Result digest(File[] apks) {
+        long start = System.currentTimeMillis();
+        cache.load();
+        Result result = new Result(apks.length);
+        boolean[] cached = new boolean[apks.length];
+        long[] sizes = new long[apks.length];
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new HashRange(apks, result.digests, cached, sizes, 0, apks.length));
+        } finally {
+            pool.shutdown();
+        }
+        cache.save();
+
+        for (int i = 0; i < apks.length; i++) {
+            if (result.digests[i] == null) {
+                result.failed++;
+            } else if (cached[i]) {
+                result.cacheHits++;
+            } else {
+                result.hashed++;
+                result.bytesHashed += sizes[i];
+            }
+        }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private final class HashRange extends RecursiveAction {
+        private final File[] apks;
+        private final String[] digests;
+        private final boolean[] cached;
+        private final long[] sizes;
+        private final int from;
+        private final int to;
+
+        HashRange(File[] apks, String[] digests, boolean[] cached, long[] sizes, int from, int to) {
+            this.apks = apks;
+            this.digests = digests;
+            this.cached = cached;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            // One APK per task: sizes vary by orders of magnitude, so let work stealing balance them
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new HashRange(apks, digests, cached, sizes, from, mid),
+                          new HashRange(apks, digests, cached, sizes, mid, to));
+                return;
+            }
+            if (from == to) return;
+            File apk = apks[from];
+            String path = apk.getPath();
+            long size = apk.length();
+            long mtime = apk.lastModified();
+            String hit = cache.get(path, size, mtime);
+            if (hit != null) {
+                digests[from] = hit;
+                cached[from] = true;
+                return;
+            }
+            try {
+                digests[from] = sha256(apk);
+                sizes[from] = size;
+                cache.put(path, size, mtime, digests[from]);
+            } catch (IOException e) {
+                digests[from] = null;
+            }
+        }
+    }
+
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long length = channel.size();
+            for (long position = 0; position < length; position += WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW, length - position));
+                digest.update(window);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
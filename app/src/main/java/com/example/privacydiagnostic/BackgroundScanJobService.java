@@ -0,0 +1,201 @@
+package com.example.privacydiagnostic;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unattended scans for managed devices. Each run is a one-shot job that only becomes eligible
+ * while the device is charging, idle and on an unmetered network, and has no deadline, so the
+ * system batches it into a maintenance window instead of waking the device for it. After a
+ * run the next job is scheduled with an adaptive delay: it doubles while scans find nothing
+ * new, and drops to the minimum after a change that worsens the device's posture.
+ */
+public final class BackgroundScanJobService extends JobService {
+    private static final String TAG = "BackgroundScan";
+    static final int JOB_ID = 4101;
+
+    static final long MIN_INTERVAL_MS = 6 * 60 * 60 * 1000L;
+    static final long BASE_INTERVAL_MS = 24 * 60 * 60 * 1000L;
+    static final long MAX_INTERVAL_MS = 7 * 24 * 60 * 60 * 1000L;
+    static final long CPU_BUDGET_MS = 20_000;
+
+    static final int CHANGE_NONE = 0;
+    static final int CHANGE_MINOR = 1;
+    static final int CHANGE_RISKY = 2;
+
+    private static final String PREFS = "background_scan";
+    private static final String PREF_INTERVAL = "interval_ms";
+
+    // Fields whose change can only mean more exposure when it goes in the risky direction
+    private static final String[] RISK_FIELDS = {"USB Debugging", "Developer Options", "Root Detection",
+            "Location Mode", "User Apps", "Apps With Unprotected Components", "Apps With Trackers"};
+
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    private volatile BackgroundScanner running;
+
+    /** Schedules the first background scan unless one is already pending. */
+    static void ensureScheduled(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (isPending(scheduler)) return;
+        schedule(context, prefs(context).getLong(PREF_INTERVAL, BASE_INTERVAL_MS));
+    }
+
+    private static boolean isPending(JobScheduler scheduler) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return scheduler.getPendingJob(JOB_ID) != null;
+        }
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) return true;
+        }
+        return false;
+    }
+
+    private static void schedule(Context context, long delayMillis) {
+        JobInfo.Builder job = new JobInfo.Builder(JOB_ID, new ComponentName(context, BackgroundScanJobService.class))
+                .setMinimumLatency(delayMillis)
+                .setRequiresCharging(true)
+                .setRequiresDeviceIdle(true)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPersisted(true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            job.setRequiresBatteryNotLow(true);
+        }
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        scheduler.schedule(job.build());
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final BackgroundScanner scanner = new BackgroundScanner(getApplicationContext());
+        running = scanner;
+        worker.execute(() -> {
+            try {
+                runScan(scanner);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Background scan failed", e);
+            } finally {
+                // A stopped job is rescheduled by the system with the same constraints
+                if (!scanner.isCancelled()) {
+                    jobFinished(params, false);
+                }
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        BackgroundScanner scanner = running;
+        if (scanner != null) scanner.cancel();
+        return true;
+    }
+
+    private void runScan(BackgroundScanner scanner) {
+        Context context = getApplicationContext();
+        SharedPreferences prefs = prefs(context);
+        long interval = prefs.getLong(PREF_INTERVAL, BASE_INTERVAL_MS);
+        try {
+            long now = System.currentTimeMillis();
+            ScanReport report = scanner.scan(BackgroundScanner.formatTimestamp(now), CPU_BUDGET_MS);
+            if (scanner.isCancelled()) return;
+
+            ScanHistoryStore store = ScanHistoryStore.get(context);
+            ScanReport previous = store.loadLatestScan(ScanHistoryStore.TRIGGER_SCHEDULED);
+            store.insertScan(now, ScanHistoryStore.TRIGGER_SCHEDULED, scanner.getCpuMillis(), scanner.isComplete(), report);
+
+            // A partial scan says nothing about the fields it skipped, so it keeps the pace
+            if (scanner.isComplete()) {
+                interval = nextInterval(interval, compare(previous, report));
+            }
+            prefs.edit().putLong(PREF_INTERVAL, interval).apply();
+        } finally {
+            // Each job schedules the next, so a run that fails must still do so or the chain ends
+            if (!scanner.isCancelled()) {
+                schedule(context, interval);
+            }
+        }
+    }
+
+    /** Backs off while nothing changes, returns to daily on minor changes, tightens on risky ones. */
+    static long nextInterval(long current, int change) {
+        switch (change) {
+            case CHANGE_RISKY:
+                return MIN_INTERVAL_MS;
+            case CHANGE_MINOR:
+                return Math.min(current, BASE_INTERVAL_MS);
+            default:
+                return Math.min(current * 2, MAX_INTERVAL_MS);
+        }
+    }
+
+    /** Classifies the difference between two scans' fields; no previous scan counts as minor. */
+    static int compare(ScanReport previous, ScanReport current) {
+        if (previous == null) return CHANGE_MINOR;
+        int change = CHANGE_NONE;
+        for (ScanReport.Section section : current.getSections()) {
+            for (int i = 0; i < section.size(); i++) {
+                String key = section.getKey(i);
+                if (key == null) continue;
+                String before = previous.get(section.getTitle(), key);
+                String after = section.getValue(i);
+                if (before == null || before.equals(after)) continue;
+                if (isRiskField(key) && isWorse(key, before, after)) return CHANGE_RISKY;
+                change = CHANGE_MINOR;
+            }
+        }
+        return change;
+    }
+
+    private static boolean isRiskField(String key) {
+        for (String field : RISK_FIELDS) {
+            if (field.equals(key)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts are worse when they grow, the location mode when it moves to a more precise one,
+     * and other flags when they leave their safe value.
+     */
+    private static boolean isWorse(String key, String before, String after) {
+        if ("Location Mode".equals(key)) {
+            int rank = locationModeRank(after);
+            return rank > locationModeRank(before) && locationModeRank(before) >= 0;
+        }
+        try {
+            return Integer.parseInt(after) > Integer.parseInt(before);
+        } catch (NumberFormatException e) {
+            return !("No".equals(after) || "Off".equals(after) || "No root detected".equals(after));
+        }
+    }
+
+    /** Precision of a {@link DevicePosture#locationMode} value; -1 if it is not known. */
+    private static int locationModeRank(String mode) {
+        switch (mode) {
+            case "Off":
+                return 0;
+            case "Sensors Only":
+            case "Battery Saving":
+                return 1;
+            case "High Accuracy":
+                return 2;
+            default:
+                return -1;
+        }
+    }
+}
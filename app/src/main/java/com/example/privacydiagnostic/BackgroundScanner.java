@@ -0,0 +1,144 @@
+package com.example.privacydiagnostic;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.location.LocationManager;
+import android.os.Process;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The unattended subset of the scan: probes that need no activity, no user-facing permission
+ * prompt and no sensors, producing stable values that can be compared scan to scan. Probes run
+ * cheapest first and the CPU budget is checked between them, so an exhausted budget drops the
+ * expensive APK inspection rather than the settings checks. CPU time is the whole process's,
+ * since the APK probes fan out to worker threads.
+ */
+final class BackgroundScanner {
+    static final String FIELD_BUDGET_EXHAUSTED = "Skipped (CPU budget)";
+
+    /** A probe filling some report fields; checked against the budget before it starts. */
+    private interface Step {
+        void run(ScanReport report) throws Exception;
+    }
+
+    private final Context context;
+    private final ContentResolver resolver;
+    private volatile boolean cancelled;
+    private long cpuMillis;
+    private boolean complete;
+
+    BackgroundScanner(Context context) {
+        this.context = context;
+        this.resolver = context.getContentResolver();
+    }
+
+    /** Stops the scan before its next probe; the probe already running finishes. */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** CPU time the last {@link #scan} used, in milliseconds. */
+    long getCpuMillis() {
+        return cpuMillis;
+    }
+
+    /** False if the budget or a cancellation cut the last scan short. */
+    boolean isComplete() {
+        return complete;
+    }
+
+    ScanReport scan(String completedAt, long cpuBudgetMillis) {
+        ScanReport report = new ScanReport(completedAt);
+        Step[] steps = {this::settings, this::appCounts, this::exportedComponents, this::trackers};
+        long start = Process.getElapsedCpuTime();
+        complete = true;
+        for (Step step : steps) {
+            if (cancelled || Process.getElapsedCpuTime() - start >= cpuBudgetMillis) {
+                complete = false;
+                break;
+            }
+            try {
+                step.run(report);
+            } catch (Exception e) {
+                report.section(ScanReport.SECTION_CONCERNS).text("Error: " + e.getMessage());
+            }
+        }
+        cpuMillis = Process.getElapsedCpuTime() - start;
+        if (!complete) {
+            report.section(ScanReport.SECTION_CONCERNS).put("Background Scan", FIELD_BUDGET_EXHAUSTED);
+        }
+        return report;
+    }
+
+    private void settings(ScanReport report) {
+        LocationManager lm = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        report.section(ScanReport.SECTION_LOCATION)
+              .put("GPS Enabled", lm != null && lm.isProviderEnabled(LocationManager.GPS_PROVIDER) ? "Yes" : "No")
+              .put("Location Mode", DevicePosture.locationMode(resolver));
+        report.section(ScanReport.SECTION_SETTINGS)
+              .put("Auto Time", DevicePosture.autoTime(resolver))
+              .put("Auto Time Zone", DevicePosture.autoTimeZone(resolver));
+        report.section(ScanReport.SECTION_CONCERNS)
+              .put("Root Detection", DevicePosture.detectRoot())
+              .put("Developer Options", DevicePosture.developerOptions(resolver))
+              .put("USB Debugging", DevicePosture.usbDebugging(resolver));
+    }
+
+    private void appCounts(ScanReport report) {
+        List<ApplicationInfo> apps = context.getPackageManager().getInstalledApplications(0);
+        int user = 0;
+        for (ApplicationInfo app : apps) {
+            if ((app.flags & ApplicationInfo.FLAG_SYSTEM) == 0) user++;
+        }
+        report.section(ScanReport.SECTION_APPS)
+              .put("Total Apps", String.valueOf(apps.size()))
+              .put("User Apps", String.valueOf(user));
+    }
+
+    private void exportedComponents(ScanReport report) throws InterruptedException {
+        ExportedComponentInventory inventory = new ExportedComponentInventory(context);
+        inventory.collect();
+        report.section(ScanReport.SECTION_APPS)
+              .put("Apps With Unprotected Components", String.valueOf(inventory.countAppsAtRisk()));
+    }
+
+    private void trackers(ScanReport report) {
+        TrackerSdkDetector detector = new TrackerSdkDetector(new File(context.getFilesDir(), "tracker_scan.cache"));
+        report.section(ScanReport.SECTION_APPS)
+              .put("Apps With Trackers", String.valueOf(scanInstalledTrackers(context, detector).getAppsWithTrackers()));
+    }
+
+    /** Local time in the same shape as the interactive scan's completion stamp. */
+    static String formatTimestamp(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US).format(new Date(millis));
+    }
+
+    /**
+     * Tracker scan over user-installed and updated system apps. System images are large and
+     * rarely embed third-party SDKs, so untouched system apps are skipped.
+     */
+    static TrackerSdkDetector.Result scanInstalledTrackers(Context context, TrackerSdkDetector detector) {
+        List<ApplicationInfo> apps = context.getPackageManager().getInstalledApplications(0);
+        List<String> names = new ArrayList<>();
+        List<File> apks = new ArrayList<>();
+        for (ApplicationInfo app : apps) {
+            boolean system = (app.flags & ApplicationInfo.FLAG_SYSTEM) != 0;
+            boolean updated = (app.flags & ApplicationInfo.FLAG_UPDATED_SYSTEM_APP) != 0;
+            if ((system && !updated) || app.sourceDir == null) continue;
+            names.add(app.packageName);
+            apks.add(new File(app.sourceDir));
+        }
+        return detector.scan(names.toArray(new String[0]), apks.toArray(new File[0]));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+import android.graphics.ImageFormat;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.os.Build;
+import android.util.Size;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the Camera2 characteristics of every logical and physical camera.
+ * Camera hardware only changes with an OTA, so the rendered report is cached in a
+ * cache-dir file headed by Build.FINGERPRINT and reused until the build changes.
+ * Must be called off the UI thread: getCameraCharacteristics is a binder call per camera.
+ */
+final class CameraCapabilityProbe {
+    // A file rather than prefs: the dump runs to hundreds of KB on multi-camera phones
+    private static final String CACHE_FILE = "camera_capabilities.txt";
+
+    private final Context context;
+    private boolean fromCache;
+
+    CameraCapabilityProbe(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    boolean isFromCache() {
+        return fromCache;
+    }
+
+    String collect() throws CameraAccessException {
+        File cacheFile = new File(context.getCacheDir(), CACHE_FILE);
+        String cached = readCache(cacheFile);
+        if (cached != null) {
+            fromCache = true;
+            return cached;
+        }
+
+        CameraManager cameraManager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
+        StringBuilder report = new StringBuilder();
+        String[] cameraIds = cameraManager.getCameraIdList();
+        report.append("Available Cameras: ").append(cameraIds.length).append("\n\n");
+        for (String cameraId : cameraIds) {
+            CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraId);
+            appendCamera(report, "Camera " + cameraId, characteristics);
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                for (String physicalId : characteristics.getPhysicalCameraIds()) {
+                    appendCamera(report, "  Physical camera " + physicalId + " (of " + cameraId + ")",
+                            cameraManager.getCameraCharacteristics(physicalId));
+                }
+            }
+        }
+
+        String rendered = report.toString();
+        writeCache(cacheFile, rendered);
+        fromCache = false;
+        return rendered;
+    }
+
+    /** @return the cached report, or null if there is none for this build */
+    private static String readCache(File file) {
+        if (!file.isFile()) return null;
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            if (!Build.FINGERPRINT.equals(in.readLine())) return null;
+            StringBuilder report = new StringBuilder((int) file.length());
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                report.append(buffer, 0, read);
+            }
+            return report.toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeCache(File file, String report) {
+        File temp = null;
+        try {
+            temp = File.createTempFile(CACHE_FILE, ".tmp", file.getParentFile());
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                out.write(Build.FINGERPRINT);
+                out.write('\n');
+                out.write(report);
+            }
+            if (!temp.renameTo(file)) temp.delete();
+        } catch (IOException e) {
+            // Not cached; the next run collects again
+            if (temp != null) temp.delete();
+        }
+    }
+
+    private void appendCamera(StringBuilder report, String title, CameraCharacteristics c) {
+        report.append(title).append(":\n");
+        report.append("• Facing: ").append(facingName(c.get(CameraCharacteristics.LENS_FACING))).append("\n");
+        report.append("• Hardware Level: ").append(hardwareLevelName(c.get(CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL))).append("\n");
+        report.append("• Capabilities: ").append(capabilityNames(c.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES))).append("\n");
+
+        StreamConfigurationMap map = c.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+        if (map != null) {
+            report.append("• Output Formats: ").append(map.getOutputFormats().length).append("\n");
+            report.append("• Max JPEG: ").append(largest(map.getOutputSizes(ImageFormat.JPEG))).append("\n");
+            report.append("• Max YUV: ").append(largest(map.getOutputSizes(ImageFormat.YUV_420_888))).append("\n");
+            Size[] raw = map.getOutputSizes(ImageFormat.RAW_SENSOR);
+            report.append("• RAW Capture: ").append(raw != null && raw.length > 0 ? "Yes (" + largest(raw) + ")" : "No").append("\n");
+        }
+
+        // Fixed per-unit optics and sensor geometry are stable device fingerprints
+        report.append("• Sensor Orientation: ").append(format(c.get(CameraCharacteristics.SENSOR_ORIENTATION))).append("\n");
+        report.append("• Pixel Array: ").append(format(c.get(CameraCharacteristics.SENSOR_INFO_PIXEL_ARRAY_SIZE))).append("\n");
+        report.append("• Physical Size: ").append(format(c.get(CameraCharacteristics.SENSOR_INFO_PHYSICAL_SIZE))).append("\n");
+        report.append("• Focal Lengths: ").append(format(c.get(CameraCharacteristics.LENS_INFO_AVAILABLE_FOCAL_LENGTHS))).append("\n");
+        report.append("• Flash: ").append(format(c.get(CameraCharacteristics.FLASH_INFO_AVAILABLE))).append("\n");
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            report.append("• Timestamp Source: ").append(format(c.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE))).append("\n");
+            report.append("• Lens Pose: ").append(format(c.get(CameraCharacteristics.LENS_POSE_TRANSLATION))).append("\n");
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            report.append("• HAL Version: ").append(format(c.get(CameraCharacteristics.INFO_VERSION))).append("\n");
+        }
+
+        List<CameraCharacteristics.Key<?>> keys = c.getKeys();
+        report.append("• All Characteristics (").append(keys.size()).append("):\n");
+        for (CameraCharacteristics.Key<?> key : keys) {
+            Object value;
+            try {
+                value = c.get(key);
+            } catch (Exception e) {
+                value = "unreadable";
+            }
+            report.append("    ").append(key.getName()).append(" = ").append(format(value)).append("\n");
+        }
+        report.append("\n");
+    }
+
+    private static String facingName(Integer facing) {
+        if (facing == null) return "Unknown";
+        switch (facing) {
+            case CameraCharacteristics.LENS_FACING_FRONT: return "Front-facing camera";
+            case CameraCharacteristics.LENS_FACING_BACK: return "Back-facing camera";
+            default: return "External camera";
+        }
+    }
+
+    private static String hardwareLevelName(Integer level) {
+        if (level == null) return "Unknown";
+        switch (level) {
+            case CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY: return "Legacy";
+            case CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_LIMITED: return "Limited";
+            case CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_FULL: return "Full";
+            case CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_3: return "Level 3 (Professional)";
+            case CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_EXTERNAL: return "External";
+            default: return "Unknown";
+        }
+    }
+
+    private static String capabilityNames(int[] capabilities) {
+        if (capabilities == null || capabilities.length == 0) return "None";
+        StringBuilder names = new StringBuilder();
+        for (int capability : capabilities) {
+            if (names.length() > 0) names.append(", ");
+            switch (capability) {
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_BACKWARD_COMPATIBLE: names.append("Backward Compatible"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MANUAL_SENSOR: names.append("Manual Sensor"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MANUAL_POST_PROCESSING: names.append("Manual Post-Processing"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_RAW: names.append("RAW"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_PRIVATE_REPROCESSING: names.append("Private Reprocessing"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_READ_SENSOR_SETTINGS: names.append("Read Sensor Settings"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_BURST_CAPTURE: names.append("Burst Capture"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_YUV_REPROCESSING: names.append("YUV Reprocessing"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_DEPTH_OUTPUT: names.append("Depth Output"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_CONSTRAINED_HIGH_SPEED_VIDEO: names.append("High Speed Video"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MOTION_TRACKING: names.append("Motion Tracking"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_LOGICAL_MULTI_CAMERA: names.append("Logical Multi-Camera"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MONOCHROME: names.append("Monochrome"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_SECURE_IMAGE_DATA: names.append("Secure Image Data"); break;
+                case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_SYSTEM_CAMERA: names.append("System Camera"); break;
+                default: names.append("Capability ").append(capability); break;
+            }
+        }
+        return names.toString();
+    }
+
+    private static String largest(Size[] sizes) {
+        if (sizes == null || sizes.length == 0) return "None";
+        Size best = sizes[0];
+        for (Size size : sizes) {
+            if ((long) size.getWidth() * size.getHeight() > (long) best.getWidth() * best.getHeight()) {
+                best = size;
+            }
+        }
+        return best.toString();
+    }
+
+    private static String format(Object value) {
+        if (value == null) return "n/a";
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < length; i++) {
+                if (i > 0) sb.append(", ");
+                // Long tables such as stream configurations are truncated to stay readable
+                if (i == 16) {
+                    sb.append("... ").append(length - i).append(" more");
+                    break;
+                }
+                sb.append(format(Array.get(value, i)));
+            }
+            return sb.append("]").toString();
+        }
+        if (value instanceof Set) {
+            return "[" + ((Set<?>) value).size() + " entries]";
+        }
+        return value.toString();
+    }
+}
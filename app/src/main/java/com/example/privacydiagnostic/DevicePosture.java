@@ -0,0 +1,67 @@
+package com.example.privacydiagnostic;
+
+import android.content.ContentResolver;
+import android.provider.Settings;
+
+import java.io.File;
+
+/**
+ * Reads the security-relevant device settings that both the interactive scan and the
+ * background scan report, so both render them identically.
+ */
+final class DevicePosture {
+    private static final String[] SU_PATHS = {"/system/app/Superuser.apk", "/sbin/su", "/system/bin/su", "/system/xbin/su",
+            "/data/local/xbin/su", "/data/local/bin/su", "/system/sd/xbin/su", "/system/bin/failsafe/su", "/data/local/su"};
+
+    private DevicePosture() {
+    }
+
+    static String usbDebugging(ContentResolver resolver) {
+        return globalFlag(resolver, Settings.Global.ADB_ENABLED);
+    }
+
+    static String developerOptions(ContentResolver resolver) {
+        return globalFlag(resolver, Settings.Global.DEVELOPMENT_SETTINGS_ENABLED);
+    }
+
+    static String autoTime(ContentResolver resolver) {
+        return globalFlag(resolver, Settings.Global.AUTO_TIME);
+    }
+
+    static String autoTimeZone(ContentResolver resolver) {
+        return globalFlag(resolver, Settings.Global.AUTO_TIME_ZONE);
+    }
+
+    @SuppressWarnings("deprecation")
+    static String locationMode(ContentResolver resolver) {
+        try {
+            int mode = Settings.Secure.getInt(resolver, Settings.Secure.LOCATION_MODE);
+            switch (mode) {
+                case Settings.Secure.LOCATION_MODE_OFF: return "Off";
+                case Settings.Secure.LOCATION_MODE_SENSORS_ONLY: return "Sensors Only";
+                case Settings.Secure.LOCATION_MODE_BATTERY_SAVING: return "Battery Saving";
+                case Settings.Secure.LOCATION_MODE_HIGH_ACCURACY: return "High Accuracy";
+                default: return "Unknown";
+            }
+        } catch (Settings.SettingNotFoundException e) {
+            return "Unknown";
+        }
+    }
+
+    static String detectRoot() {
+        for (String path : SU_PATHS) {
+            if (new File(path).exists()) {
+                return "Root detected - " + path;
+            }
+        }
+        return "No root detected";
+    }
+
+    private static String globalFlag(ContentResolver resolver, String name) {
+        try {
+            return Settings.Global.getInt(resolver, name) == 1 ? "Yes" : "No";
+        } catch (Settings.SettingNotFoundException e) {
+            return "Unknown";
+        }
+    }
+}
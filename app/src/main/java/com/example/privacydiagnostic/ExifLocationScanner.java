@@ -0,0 +1,531 @@
+package com.example.privacydiagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds photos that leak where and with what they were taken. Only the EXIF metadata of each
+ * JPEG/HEIF is read, through positioned channel reads of the segment or box headers; pixel
+ * data is never touched. Files are parsed in parallel and results cached by size + mtime.
+ * Reads made while GPS tags are redacted (Android 10+ without ACCESS_MEDIA_LOCATION) are
+ * cached apart from unredacted ones, so granting the permission takes effect at once.
+ */
+public final class ExifLocationScanner {
+    private static final int MAX_EXIF_BYTES = 64 * 1024;
+    private static final int MAX_META_BYTES = 1024 * 1024;
+    private static final int PARALLEL_THRESHOLD = 32;
+    private static final int MAX_EXAMPLES = 10;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    // Appended to the cache key of results read without location access
+    private static final String REDACTED_KEY = "\u0000redacted";
+
+    private static final int TAG_MAKE = 0x010F;
+    private static final int TAG_MODEL = 0x0110;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD = 0x8769;
+    private static final int TAG_GPS_IFD = 0x8825;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_CAMERA_OWNER = 0xA430;
+    private static final int TAG_BODY_SERIAL = 0xA431;
+    private static final int TAG_LENS_SERIAL = 0xA435;
+    private static final int TAG_GPS_LAT_REF = 0x0001;
+    private static final int TAG_GPS_LAT = 0x0002;
+    private static final int TAG_GPS_LON_REF = 0x0003;
+    private static final int TAG_GPS_LON = 0x0004;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(MAX_EXIF_BYTES);
+        }
+    };
+
+    /** Privacy-relevant EXIF fields of one photo. */
+    public static final class Finding {
+        double latitude = Double.NaN;
+        double longitude = Double.NaN;
+        String model;
+        String serial;
+        String timestamp;
+
+        public boolean hasLocation() {
+            return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        }
+
+        String encode() {
+            return (hasLocation() ? latitude + "," + longitude : "") + "|" + nullToEmpty(model) + "|"
+                    + nullToEmpty(serial) + "|" + nullToEmpty(timestamp);
+        }
+
+        static Finding decode(String encoded) {
+            Finding finding = new Finding();
+            String[] parts = encoded.split("\\|", -1);
+            if (parts.length != 4) return finding;
+            int comma = parts[0].indexOf(',');
+            if (comma > 0) {
+                finding.latitude = Double.parseDouble(parts[0].substring(0, comma));
+                finding.longitude = Double.parseDouble(parts[0].substring(comma + 1));
+            }
+            finding.model = emptyToNull(parts[1]);
+            finding.serial = emptyToNull(parts[2]);
+            finding.timestamp = emptyToNull(parts[3]);
+            return finding;
+        }
+    }
+
+    public static final class Result {
+        int photos;
+        int unreadable;
+        int cacheHits;
+        int withLocation;
+        int withSerial;
+        int withTimestamp;
+        int distinctPlaces;
+        long elapsedMillis;
+        final List<String> examples = new ArrayList<>();
+
+        public int getPhotoCount() {
+            return photos;
+        }
+
+        public int getLocationCount() {
+            return withLocation;
+        }
+
+        public void appendTo(StringBuilder out) {
+            out.append("Photos Scanned: ").append(photos).append(" (").append(cacheHits).append(" cached, ")
+               .append(elapsedMillis).append(" ms)\n");
+            out.append("Photos With GPS: ").append(withLocation);
+            if (photos > 0) {
+                out.append(String.format(Locale.US, " (%.0f%%)", 100.0 * withLocation / photos));
+            }
+            out.append("\n");
+            out.append("Distinct Places (~1 km): ").append(distinctPlaces).append("\n");
+            out.append("Photos With Device Serial: ").append(withSerial).append("\n");
+            out.append("Photos With Capture Time: ").append(withTimestamp).append("\n");
+            if (unreadable > 0) {
+                out.append("Unreadable Photos: ").append(unreadable).append("\n");
+            }
+            for (String example : examples) {
+                out.append("  📍 ").append(example).append("\n");
+            }
+        }
+    }
+
+    private final FileResultCache cache;
+
+    public ExifLocationScanner(File cacheFile) {
+        this.cache = new FileResultCache(cacheFile);
+    }
+
+    /**
+     * @param locationRedacted whether the platform strips GPS tags from this app's reads, in which
+     *                         case results are cached separately from unredacted ones
+     */
+    public Result scan(boolean locationRedacted, File... roots) {
+        long start = System.currentTimeMillis();
+        cache.load();
+        List<File> photos = new ArrayList<>();
+        for (File root : roots) {
+            collectPhotos(root, photos);
+        }
+
+        final File[] files = photos.toArray(new File[0]);
+        final Finding[] findings = new Finding[files.length];
+        final boolean[] cached = new boolean[files.length];
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new ParseRange(files, findings, cached, locationRedacted ? REDACTED_KEY : "", 0, files.length));
+        } finally {
+            pool.shutdown();
+        }
+        cache.save();
+
+        Result result = new Result();
+        result.photos = files.length;
+        Set<Long> places = new HashSet<>();
+        for (int i = 0; i < files.length; i++) {
+            Finding finding = findings[i];
+            if (cached[i]) result.cacheHits++;
+            if (finding == null) {
+                result.unreadable++;
+                continue;
+            }
+            if (finding.serial != null) result.withSerial++;
+            if (finding.timestamp != null) result.withTimestamp++;
+            if (finding.hasLocation()) {
+                result.withLocation++;
+                long cell = (Math.round(finding.latitude * 100) << 32) ^ (Math.round(finding.longitude * 100) & 0xFFFFFFFFL);
+                if (places.add(cell) && result.examples.size() < MAX_EXAMPLES) {
+                    result.examples.add(String.format(Locale.US, "%s: %.3f, %.3f%s", files[i].getName(),
+                            finding.latitude, finding.longitude, finding.timestamp != null ? " at " + finding.timestamp : ""));
+                }
+            }
+        }
+        result.distinctPlaces = places.size();
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private final class ParseRange extends RecursiveAction {
+        private final File[] files;
+        private final Finding[] findings;
+        private final boolean[] cached;
+        private final String keySuffix;
+        private final int from;
+        private final int to;
+
+        ParseRange(File[] files, Finding[] findings, boolean[] cached, String keySuffix, int from, int to) {
+            this.files = files;
+            this.findings = findings;
+            this.cached = cached;
+            this.keySuffix = keySuffix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseRange(files, findings, cached, keySuffix, from, mid),
+                          new ParseRange(files, findings, cached, keySuffix, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                File file = files[i];
+                String path = file.getPath() + keySuffix;
+                long size = file.length();
+                long mtime = file.lastModified();
+                String hit = cache.get(path, size, mtime);
+                if (hit != null) {
+                    findings[i] = Finding.decode(hit);
+                    cached[i] = true;
+                    continue;
+                }
+                try {
+                    Finding finding = parse(file);
+                    findings[i] = finding;
+                    cache.put(path, size, mtime, finding.encode());
+                } catch (IOException | RuntimeException e) {
+                    findings[i] = null;
+                }
+            }
+        }
+    }
+
+    private static void collectPhotos(File root, List<File> out) {
+        ArrayDeque<File> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            File[] children = pending.pop().listFiles();
+            if (children == null) continue;
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    // Thumbnail caches duplicate the originals without their EXIF
+                    if (!child.getName().startsWith(".")) pending.push(child);
+                } else if (isPhoto(child.getName())) {
+                    out.add(child);
+                }
+            }
+        }
+    }
+
+    static boolean isPhoto(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".heic") || lower.endsWith(".heif");
+    }
+
+    /** Reads only the metadata region of a JPEG or HEIF file. */
+    public static Finding parse(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = BUFFERS.get();
+            if (!readFully(channel, buffer, 0, 12)) return new Finding();
+            if ((buffer.get(0) & 0xFF) == 0xFF && (buffer.get(1) & 0xFF) == 0xD8) {
+                return parseJpeg(channel, buffer);
+            }
+            if (buffer.get(4) == 'f' && buffer.get(5) == 't' && buffer.get(6) == 'y' && buffer.get(7) == 'p') {
+                return parseHeif(channel, buffer);
+            }
+            return new Finding();
+        }
+    }
+
+    private static Finding parseJpeg(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long position = 2;
+        // EXIF lives in APP1 right after SOI; give up once image data starts
+        for (int segment = 0; segment < 32; segment++) {
+            if (!readFully(channel, buffer, position, 4)) break;
+            int marker = ((buffer.get(0) & 0xFF) << 8) | (buffer.get(1) & 0xFF);
+            int length = ((buffer.get(2) & 0xFF) << 8) | (buffer.get(3) & 0xFF);
+            if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9 || length < 2) break;
+            if (marker == 0xFFE1 && length > 8) {
+                int payload = Math.min(length - 2, MAX_EXIF_BYTES);
+                if (!readFully(channel, buffer, position + 4, payload)) break;
+                if (buffer.get(0) == 'E' && buffer.get(1) == 'x' && buffer.get(2) == 'i' && buffer.get(3) == 'f') {
+                    return parseTiff(buffer, 6, payload);
+                }
+            }
+            position += 2 + length;
+        }
+        return new Finding();
+    }
+
+    private static Finding parseHeif(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long position = 0;
+        long fileSize = channel.size();
+        while (position + 8 <= fileSize) {
+            if (!readFully(channel, buffer, position, 16)) break;
+            long size = buffer.getInt(0) & 0xFFFFFFFFL;
+            int header = 8;
+            if (size == 1) {
+                size = buffer.getLong(8);
+                header = 16;
+            } else if (size == 0) {
+                size = fileSize - position;
+            }
+            if (size < header) break;
+            if (buffer.get(4) == 'm' && buffer.get(5) == 'e' && buffer.get(6) == 't' && buffer.get(7) == 'a') {
+                int metaLength = (int) Math.min(size - header, MAX_META_BYTES);
+                ByteBuffer meta = ByteBuffer.allocate(metaLength);
+                if (!readFully(channel, meta, position + header, metaLength)) break;
+                long[] exifLocation = findHeifExifItem(meta);
+                if (exifLocation == null) break;
+                int exifLength = (int) Math.min(exifLocation[1], MAX_EXIF_BYTES);
+                if (!readFully(channel, buffer, exifLocation[0], exifLength) || exifLength < 8) break;
+                int tiffOffset = 4 + buffer.getInt(0);
+                return tiffOffset < exifLength ? parseTiff(buffer, tiffOffset, exifLength) : new Finding();
+            }
+            position += size;
+        }
+        return new Finding();
+    }
+
+    /** @return {file offset, length} of the 'Exif' item in a HEIF meta box, or null */
+    private static long[] findHeifExifItem(ByteBuffer meta) {
+        int limit = meta.limit();
+        int position = 4; // FullBox version + flags
+        long exifItemId = -1;
+        long[] location = null;
+        int ilocStart = -1;
+        int ilocEnd = -1;
+        while (position + 8 <= limit) {
+            int size = meta.getInt(position);
+            if (size < 8 || position + size > limit) break;
+            int type = meta.getInt(position + 4);
+            if (type == fourCc("iinf")) {
+                int version = meta.get(position + 8) & 0xFF;
+                int entries = version == 0 ? meta.getShort(position + 12) & 0xFFFF : meta.getInt(position + 12);
+                int entry = position + (version == 0 ? 14 : 16);
+                for (int i = 0; i < entries && entry + 8 <= position + size; i++) {
+                    int entrySize = meta.getInt(entry);
+                    if (entrySize < 8) break;
+                    int infeVersion = meta.get(entry + 8) & 0xFF;
+                    if (infeVersion >= 2) {
+                        long itemId = infeVersion == 2 ? meta.getShort(entry + 12) & 0xFFFF : meta.getInt(entry + 12) & 0xFFFFFFFFL;
+                        int typeOffset = entry + 12 + (infeVersion == 2 ? 2 : 4) + 2;
+                        if (meta.getInt(typeOffset) == fourCc("Exif")) exifItemId = itemId;
+                    }
+                    entry += entrySize;
+                }
+            } else if (type == fourCc("iloc")) {
+                ilocStart = position;
+                ilocEnd = position + size;
+            }
+            position += size;
+        }
+        if (exifItemId < 0 || ilocStart < 0) return null;
+
+        int version = meta.get(ilocStart + 8) & 0xFF;
+        int sizes = meta.get(ilocStart + 12) & 0xFF;
+        int offsetSize = sizes >>> 4;
+        int lengthSize = sizes & 0x0F;
+        int sizes2 = meta.get(ilocStart + 13) & 0xFF;
+        int baseOffsetSize = sizes2 >>> 4;
+        int indexSize = version == 1 || version == 2 ? sizes2 & 0x0F : 0;
+        int p = ilocStart + 14;
+        long itemCount;
+        if (version < 2) {
+            itemCount = meta.getShort(p) & 0xFFFF;
+            p += 2;
+        } else {
+            itemCount = meta.getInt(p) & 0xFFFFFFFFL;
+            p += 4;
+        }
+        for (long i = 0; i < itemCount && p < ilocEnd; i++) {
+            long itemId;
+            if (version < 2) {
+                itemId = meta.getShort(p) & 0xFFFF;
+                p += 2;
+            } else {
+                itemId = meta.getInt(p) & 0xFFFFFFFFL;
+                p += 4;
+            }
+            int constructionMethod = 0;
+            if (version == 1 || version == 2) {
+                constructionMethod = meta.getShort(p) & 0x0F;
+                p += 2;
+            }
+            p += 2; // data_reference_index
+            long baseOffset = readSized(meta, p, baseOffsetSize);
+            p += baseOffsetSize;
+            int extents = meta.getShort(p) & 0xFFFF;
+            p += 2;
+            for (int e = 0; e < extents; e++) {
+                p += indexSize;
+                long extentOffset = readSized(meta, p, offsetSize);
+                p += offsetSize;
+                long extentLength = readSized(meta, p, lengthSize);
+                p += lengthSize;
+                if (itemId == exifItemId && e == 0 && constructionMethod == 0) {
+                    location = new long[] {baseOffset + extentOffset, extentLength};
+                }
+            }
+            if (location != null) return location;
+        }
+        return null;
+    }
+
+    private static Finding parseTiff(ByteBuffer buffer, int tiffStart, int limit) {
+        Finding finding = new Finding();
+        ByteBuffer tiff = buffer.duplicate();
+        tiff.limit(limit);
+        if (tiff.get(tiffStart) == 'I' && tiff.get(tiffStart + 1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            tiff.order(ByteOrder.BIG_ENDIAN);
+        }
+        int ifd0 = tiff.getInt(tiffStart + 4);
+        int[] pointers = new int[2];
+        String make = null;
+        int count = entryCount(tiff, tiffStart, ifd0);
+        for (int i = 0; i < count; i++) {
+            int entry = tiffStart + ifd0 + 2 + i * 12;
+            int tag = tiff.getShort(entry) & 0xFFFF;
+            switch (tag) {
+                case TAG_MAKE: make = readAscii(tiff, tiffStart, entry); break;
+                case TAG_MODEL: finding.model = readAscii(tiff, tiffStart, entry); break;
+                case TAG_DATE_TIME: finding.timestamp = readAscii(tiff, tiffStart, entry); break;
+                case TAG_EXIF_IFD: pointers[0] = tiff.getInt(entry + 8); break;
+                case TAG_GPS_IFD: pointers[1] = tiff.getInt(entry + 8); break;
+                default: break;
+            }
+        }
+        if (make != null && finding.model != null && !finding.model.startsWith(make)) {
+            finding.model = make + " " + finding.model;
+        }
+
+        count = pointers[0] > 0 ? entryCount(tiff, tiffStart, pointers[0]) : 0;
+        for (int i = 0; i < count; i++) {
+            int entry = tiffStart + pointers[0] + 2 + i * 12;
+            int tag = tiff.getShort(entry) & 0xFFFF;
+            if (tag == TAG_DATE_TIME_ORIGINAL) {
+                finding.timestamp = readAscii(tiff, tiffStart, entry);
+            } else if (tag == TAG_BODY_SERIAL || tag == TAG_LENS_SERIAL || tag == TAG_CAMERA_OWNER) {
+                String value = readAscii(tiff, tiffStart, entry);
+                if (value != null && finding.serial == null) finding.serial = value;
+            }
+        }
+
+        count = pointers[1] > 0 ? entryCount(tiff, tiffStart, pointers[1]) : 0;
+        char latRef = 'N';
+        char lonRef = 'E';
+        double lat = Double.NaN;
+        double lon = Double.NaN;
+        for (int i = 0; i < count; i++) {
+            int entry = tiffStart + pointers[1] + 2 + i * 12;
+            int tag = tiff.getShort(entry) & 0xFFFF;
+            switch (tag) {
+                case TAG_GPS_LAT_REF: latRef = (char) tiff.get(entry + 8); break;
+                case TAG_GPS_LON_REF: lonRef = (char) tiff.get(entry + 8); break;
+                case TAG_GPS_LAT: lat = readDegrees(tiff, tiffStart, entry); break;
+                case TAG_GPS_LON: lon = readDegrees(tiff, tiffStart, entry); break;
+                default: break;
+            }
+        }
+        // 0,0 is what many cameras write when they had no fix
+        if (!Double.isNaN(lat) && !Double.isNaN(lon) && (lat != 0 || lon != 0)) {
+            finding.latitude = latRef == 'S' ? -lat : lat;
+            finding.longitude = lonRef == 'W' ? -lon : lon;
+        }
+        return finding;
+    }
+
+    private static int entryCount(ByteBuffer tiff, int tiffStart, int ifdOffset) {
+        int count = tiff.getShort(tiffStart + ifdOffset) & 0xFFFF;
+        int available = (tiff.limit() - tiffStart - ifdOffset - 2) / 12;
+        return Math.min(count, Math.max(0, available));
+    }
+
+    private static String readAscii(ByteBuffer tiff, int tiffStart, int entry) {
+        int count = tiff.getInt(entry + 4);
+        if (count <= 0 || count > 256) return null;
+        int offset = count <= 4 ? entry + 8 : tiffStart + tiff.getInt(entry + 8);
+        if (offset < 0 || offset + count > tiff.limit()) return null;
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) bytes[i] = tiff.get(offset + i);
+        int end = count;
+        while (end > 0 && (bytes[end - 1] == 0 || bytes[end - 1] == ' ')) end--;
+        return end > 0 ? new String(bytes, 0, end, ASCII) : null;
+    }
+
+    private static double readDegrees(ByteBuffer tiff, int tiffStart, int entry) {
+        int offset = tiffStart + tiff.getInt(entry + 8);
+        if (tiff.getInt(entry + 4) != 3 || offset < 0 || offset + 24 > tiff.limit()) return Double.NaN;
+        double degrees = 0;
+        double scale = 1;
+        for (int i = 0; i < 3; i++) {
+            long numerator = tiff.getInt(offset + i * 8) & 0xFFFFFFFFL;
+            long denominator = tiff.getInt(offset + i * 8 + 4) & 0xFFFFFFFFL;
+            if (denominator != 0) degrees += (double) numerator / denominator / scale;
+            scale *= 60;
+        }
+        return degrees;
+    }
+
+    private static long readSized(ByteBuffer buffer, int position, int size) {
+        switch (size) {
+            case 4: return buffer.getInt(position) & 0xFFFFFFFFL;
+            case 8: return buffer.getLong(position);
+            default: return 0;
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear();
+        if (length > buffer.capacity()) return false;
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) return false;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static int fourCc(String code) {
+        return (code.charAt(0) << 24) | (code.charAt(1) << 16) | (code.charAt(2) << 8) | code.charAt(3);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value.replace('|', '/');
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
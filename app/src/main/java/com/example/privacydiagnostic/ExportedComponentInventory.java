@@ -0,0 +1,252 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.ComponentInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ProviderInfo;
+import android.content.pm.ServiceInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the exported activities, services, receivers and providers of every installed app,
+ * and how many of those are reachable without any permission. Each package is queried on its
+ * own so no single binder reply carries the whole device's component list; packages are
+ * processed in fixed-size batches on a small pool, each counting into its own int columns that
+ * are copied into the table once the batch has finished.
+ */
+final class ExportedComponentInventory {
+    static final int ACTIVITY = 0;
+    static final int SERVICE = 1;
+    static final int RECEIVER = 2;
+    static final int PROVIDER = 3;
+    private static final String[] KIND_NAMES = {"Activities", "Services", "Receivers", "Providers"};
+    // Unprotected providers leak data directly; activities are often exported just to be launchable
+    private static final int[] RISK_WEIGHT = {1, 3, 2, 4};
+
+    private static final int BATCH_SIZE = 32;
+    private static final int PARALLELISM = 4;
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final int MAX_LISTED = 10;
+
+    private final PackageManager pm;
+
+    // One row per package: exported and unprotected counts per component kind
+    private String[] packages;
+    private boolean[] system;
+    private int[] exported;
+    private int[] unprotected;
+    private boolean[] failed;
+    private long elapsedMillis;
+
+    ExportedComponentInventory(Context context) {
+        this.pm = context.getPackageManager();
+    }
+
+    void collect() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        List<ApplicationInfo> apps = pm.getInstalledApplications(0);
+        int count = apps.size();
+        packages = new String[count];
+        system = new boolean[count];
+        exported = new int[count * 4];
+        unprotected = new int[count * 4];
+        failed = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            packages[i] = apps.get(i).packageName;
+            system[i] = (apps.get(i).flags & ApplicationInfo.FLAG_SYSTEM) != 0;
+            // Cleared when a finished batch is copied in, so rows cut off by the timeout count as failed
+            failed[i] = true;
+        }
+
+        List<Batch> batches = new ArrayList<>();
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            batches.add(new Batch(from, Math.min(count, from + BATCH_SIZE)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+        List<Future<Batch>> results;
+        try {
+            results = executor.invokeAll(batches, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // shutdownNow cannot interrupt a binder call, so a batch cut off by the timeout may still
+        // be writing; it only ever writes its own buffers, and only finished batches are copied
+        for (Future<Batch> result : results) {
+            if (result.isCancelled()) continue;
+            try {
+                result.get().copyInto(this);
+            } catch (ExecutionException e) {
+                // Rows of a batch that threw stay marked failed
+            }
+        }
+        elapsedMillis = System.currentTimeMillis() - start;
+    }
+
+    /** Inspects rows [from, to) into buffers owned by this batch alone. */
+    private final class Batch implements Callable<Batch> {
+        private final int from;
+        private final int to;
+        private final int[] exported;
+        private final int[] unprotected;
+        private final boolean[] inspected;
+
+        Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.exported = new int[(to - from) * 4];
+            this.unprotected = new int[(to - from) * 4];
+            this.inspected = new boolean[to - from];
+        }
+
+        @Override
+        public Batch call() {
+            for (int i = from; i < to && !Thread.currentThread().isInterrupted(); i++) {
+                inspect(i - from);
+            }
+            return this;
+        }
+
+        private void inspect(int row) {
+            PackageInfo info;
+            try {
+                info = pm.getPackageInfo(packages[from + row], PackageManager.GET_ACTIVITIES
+                        | PackageManager.GET_SERVICES | PackageManager.GET_RECEIVERS | PackageManager.GET_PROVIDERS);
+            } catch (PackageManager.NameNotFoundException | RuntimeException e) {
+                // Uninstalled mid-scan, or a reply too large even for one package
+                return;
+            }
+            tally(row, ACTIVITY, info.activities);
+            tally(row, SERVICE, info.services);
+            tally(row, RECEIVER, info.receivers);
+            if (info.providers != null) {
+                for (ProviderInfo provider : info.providers) {
+                    if (!provider.exported) continue;
+                    exported[row * 4 + PROVIDER]++;
+                    if (provider.readPermission == null && provider.writePermission == null) {
+                        unprotected[row * 4 + PROVIDER]++;
+                    }
+                }
+            }
+            inspected[row] = true;
+        }
+
+        private void tally(int row, int kind, ComponentInfo[] components) {
+            if (components == null) return;
+            for (ComponentInfo component : components) {
+                if (!component.exported) continue;
+                exported[row * 4 + kind]++;
+                String permission = component instanceof ServiceInfo ? ((ServiceInfo) component).permission
+                        : ((ActivityInfo) component).permission;
+                if (permission == null) {
+                    unprotected[row * 4 + kind]++;
+                }
+            }
+        }
+
+        void copyInto(ExportedComponentInventory inventory) {
+            System.arraycopy(exported, 0, inventory.exported, from * 4, exported.length);
+            System.arraycopy(unprotected, 0, inventory.unprotected, from * 4, unprotected.length);
+            for (int row = 0; row < inspected.length; row++) {
+                if (inspected[row]) inventory.failed[from + row] = false;
+            }
+        }
+    }
+
+    int riskScore(int row) {
+        int score = 0;
+        for (int kind = 0; kind < 4; kind++) {
+            score += RISK_WEIGHT[kind] * unprotected[row * 4 + kind];
+        }
+        return score;
+    }
+
+    /** Packages exposing a service, receiver or provider without a permission. */
+    int countAppsAtRisk() {
+        int apps = 0;
+        for (int row = 0; row < packages.length; row++) {
+            if (failed[row]) continue;
+            for (int kind = SERVICE; kind <= PROVIDER; kind++) {
+                if (unprotected[row * 4 + kind] > 0) {
+                    apps++;
+                    break;
+                }
+            }
+        }
+        return apps;
+    }
+
+    void appendTo(StringBuilder out) {
+        int[] exportedTotal = new int[4];
+        int[] unprotectedTotal = new int[4];
+        int appsAtRisk = 0;
+        int failures = 0;
+        for (int row = 0; row < packages.length; row++) {
+            if (failed[row]) {
+                failures++;
+                continue;
+            }
+            boolean atRisk = false;
+            for (int kind = 0; kind < 4; kind++) {
+                exportedTotal[kind] += exported[row * 4 + kind];
+                unprotectedTotal[kind] += unprotected[row * 4 + kind];
+                if (kind != ACTIVITY && unprotected[row * 4 + kind] > 0) atRisk = true;
+            }
+            if (atRisk) appsAtRisk++;
+        }
+
+        out.append("Packages Inspected: ").append(packages.length - failures).append(" (").append(elapsedMillis).append(" ms)");
+        if (failures > 0) {
+            out.append(", ").append(failures).append(" failed");
+        }
+        out.append("\n");
+        for (int kind = 0; kind < 4; kind++) {
+            out.append("Exported ").append(KIND_NAMES[kind]).append(": ").append(exportedTotal[kind])
+               .append(" (").append(unprotectedTotal[kind]).append(" without permission)\n");
+        }
+        out.append("Apps With Unprotected Services/Receivers/Providers: ").append(appsAtRisk).append("\n");
+
+        out.append("Highest Attack Surface:\n");
+        for (int row : topByRisk(MAX_LISTED)) {
+            int r = row * 4;
+            out.append(String.format(Locale.US, "  • %s%s: score %d (A %d/%d, S %d/%d, R %d/%d, P %d/%d)\n",
+                    packages[row], system[row] ? " [system]" : "", riskScore(row),
+                    unprotected[r], exported[r], unprotected[r + 1], exported[r + 1],
+                    unprotected[r + 2], exported[r + 2], unprotected[r + 3], exported[r + 3]));
+        }
+        out.append("  (unprotected/exported per kind)\n");
+    }
+
+    /** Rows with the highest non-zero risk scores, best first, via a bounded insertion list. */
+    private int[] topByRisk(int limit) {
+        int[] top = new int[limit];
+        int[] scores = new int[limit];
+        int size = 0;
+        for (int row = 0; row < packages.length; row++) {
+            int score = failed[row] ? 0 : riskScore(row);
+            if (score == 0 || (size == limit && score <= scores[size - 1])) continue;
+            int i = size < limit ? size++ : size - 1;
+            while (i > 0 && scores[i - 1] < score) {
+                top[i] = top[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            top[i] = row;
+            scores[i] = score;
+        }
+        int[] result = new int[size];
+        System.arraycopy(top, 0, result, 0, size);
+        return result;
+    }
+}
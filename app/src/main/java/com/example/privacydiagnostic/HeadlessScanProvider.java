@@ -0,0 +1,164 @@
+package com.example.privacydiagnostic;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Binder;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Headless scans for automation. Lives in the {@code :scanner} process and runs the same
+ * {@link ScanEngine} as the interactive scan, queued behind it on the same worker. Results
+ * stream through a pipe as JSON Lines ({@link ScanJsonWriter}), one record per section as it
+ * completes, so a test rig can drive a fleet over adb without touching the UI:
+ *
+ * <pre>
+ * adb shell content read --uri "content://com.example.privacydiagnostic.scan/scan?sections=apps,score"
+ * </pre>
+ *
+ * Apps signed with the same key can use {@link #METHOD_SCAN} through
+ * {@code ContentResolver.call} and read the returned descriptor. {@code sections} takes
+ * comma-separated keys from {@link ScanReport#sectionKey}; without it every section runs.
+ * Callers need {@link #PERMISSION} unless they are the adb shell.
+ */
+public final class HeadlessScanProvider extends ContentProvider {
+    private static final String TAG = "HeadlessScanProvider";
+
+    static final String PERMISSION = "com.example.privacydiagnostic.permission.HEADLESS_SCAN";
+    static final String METHOD_SCAN = "scan";
+    static final String EXTRA_OUTPUT = "output";
+    static final String PARAM_SECTIONS = "sections";
+
+    private static final String MIME_TYPE = "application/x-ndjson";
+    // Process.SHELL_UID and ROOT_UID are only public from API 29
+    private static final int SHELL_UID = 2000;
+    private static final int ROOT_UID = 0;
+
+    @Override
+    public boolean onCreate() {
+        // The engine is created on first use; the process may only be here for the UI's scans
+        return true;
+    }
+
+    @Override
+    public ParcelFileDescriptor openFile(Uri uri, String mode) throws FileNotFoundException {
+        enforceCaller();
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("Scan output is read-only");
+        }
+        try {
+            return startScan(parseSections(uri.getQueryParameter(PARAM_SECTIONS)));
+        } catch (IOException e) {
+            throw new FileNotFoundException("Could not open scan output: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Bundle call(String method, String arg, Bundle extras) {
+        if (!METHOD_SCAN.equals(method)) {
+            return super.call(method, arg, extras);
+        }
+        enforceCaller();
+        Bundle result = new Bundle();
+        try {
+            result.putParcelable(EXTRA_OUTPUT, startScan(parseSections(arg)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open scan output: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private void enforceCaller() {
+        int uid = Binder.getCallingUid();
+        if (uid == SHELL_UID || uid == ROOT_UID) return;
+        getContext().enforceCallingPermission(PERMISSION, "Headless scans require " + PERMISSION);
+    }
+
+    /** Section titles for comma-separated keys, or null for all sections. */
+    static Set<String> parseSections(String keys) {
+        if (keys == null || keys.trim().isEmpty()) return null;
+        Set<String> titles = new HashSet<>();
+        for (String key : keys.split(",")) {
+            String title = ScanReport.sectionTitle(key.trim());
+            if (title == null) {
+                throw new IllegalArgumentException("Unknown section: " + key.trim());
+            }
+            titles.add(title);
+        }
+        return titles;
+    }
+
+    private ParcelFileDescriptor startScan(Set<String> sections) throws IOException {
+        ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
+        ScanEngine engine = ScannerService.engine(getContext());
+        ScannerService.execute(() -> stream(engine, sections, pipe[1]));
+        return pipe[0];
+    }
+
+    private static void stream(ScanEngine engine, Set<String> sections, ParcelFileDescriptor output) {
+        String completedAt = BackgroundScanner.formatTimestamp(System.currentTimeMillis());
+        try (Writer out = new OutputStreamWriter(new ParcelFileDescriptor.AutoCloseOutputStream(output),
+                StandardCharsets.UTF_8)) {
+            ScanJsonWriter json = new ScanJsonWriter(out);
+            json.writeHeader(completedAt);
+            // Owned by this pipe alone; UI scans and other pipes cancel their own
+            CancellationSignal cancel = new CancellationSignal();
+            try {
+                engine.scan(completedAt, sections, section -> {
+                    try {
+                        json.writeSection(section);
+                    } catch (IOException e) {
+                        // The reader went away; stop after this section
+                        cancel.cancel();
+                    }
+                }, cancel);
+                json.writeEnd(ScanJsonWriter.STATUS_COMPLETE, null);
+            } catch (CancellationException e) {
+                json.writeEnd(ScanJsonWriter.STATUS_CANCELLED, null);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Headless scan failed", e);
+                json.writeEnd(ScanJsonWriter.STATUS_FAILED, String.valueOf(e.getMessage()));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Scan output closed early", e);
+        }
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return MIME_TYPE;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Headless scans are read-only");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Headless scans are read-only");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Headless scans are read-only");
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shows what location any app with location access can read right now: the cached last fix
+ * of every provider, and optionally a fresh fix per enabled provider. Fresh requests are all
+ * issued at once and the probe returns by its deadline whether or not they have answered.
+ * Uses only {@link LocationManager}, so it runs against Robolectric's shadow as well.
+ */
+final class LocationExposureProbe {
+    private final Context context;
+    private final LocationManager locationManager;
+
+    private String[] providers;
+    private Location[] lastKnown;
+    // Written by late callbacks after the deadline, so published through an atomic array
+    private AtomicReferenceArray<Location> fresh;
+    private boolean[] requested;
+    private long elapsedMillis;
+
+    LocationExposureProbe(Context context) {
+        this.context = context;
+        this.locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+    }
+
+    boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /**
+     * Reads every provider's last known fix and, if {@code freshTimeoutMillis > 0}, waits up
+     * to that long for one new fix from each enabled provider. Returns within the timeout.
+     */
+    @SuppressWarnings("MissingPermission")
+    void collect(long freshTimeoutMillis) {
+        long start = SystemClock.elapsedRealtime();
+        List<String> all = locationManager.getAllProviders();
+        int count = all.size();
+        providers = all.toArray(new String[0]);
+        lastKnown = new Location[count];
+        fresh = new AtomicReferenceArray<>(count);
+        requested = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                lastKnown[i] = locationManager.getLastKnownLocation(providers[i]);
+            } catch (SecurityException | IllegalArgumentException e) {
+                lastKnown[i] = null;
+            }
+        }
+        if (freshTimeoutMillis > 0) {
+            requestFresh(freshTimeoutMillis);
+        }
+        elapsedMillis = SystemClock.elapsedRealtime() - start;
+    }
+
+    @SuppressWarnings({"MissingPermission", "deprecation"})
+    private void requestFresh(long timeoutMillis) {
+        int enabled = 0;
+        for (int i = 0; i < providers.length; i++) {
+            // The passive provider only echoes other apps' fixes
+            requested[i] = !LocationManager.PASSIVE_PROVIDER.equals(providers[i])
+                    && locationManager.isProviderEnabled(providers[i]);
+            if (requested[i]) enabled++;
+        }
+        if (enabled == 0) return;
+
+        final CountDownLatch answered = new CountDownLatch(enabled);
+        HandlerThread thread = new HandlerThread("location-probe");
+        thread.start();
+        Handler handler = new Handler(thread.getLooper());
+        // A signal holds one cancel listener, so each request needs its own
+        CancellationSignal[] cancels = new CancellationSignal[providers.length];
+        LocationListener[] listeners = new LocationListener[providers.length];
+        try {
+            for (int i = 0; i < providers.length; i++) {
+                if (!requested[i]) continue;
+                final int index = i;
+                try {
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                        cancels[i] = new CancellationSignal();
+                        locationManager.getCurrentLocation(providers[i], cancels[i], handler::post, location -> {
+                            fresh.set(index, location);
+                            answered.countDown();
+                        });
+                    } else {
+                        listeners[i] = new SingleFixListener(index, answered);
+                        locationManager.requestSingleUpdate(providers[i], listeners[i], thread.getLooper());
+                    }
+                } catch (SecurityException | IllegalArgumentException e) {
+                    answered.countDown();
+                }
+            }
+            try {
+                answered.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            for (CancellationSignal cancel : cancels) {
+                if (cancel != null) cancel.cancel();
+            }
+            for (LocationListener listener : listeners) {
+                if (listener != null) locationManager.removeUpdates(listener);
+            }
+            thread.quitSafely();
+        }
+    }
+
+    private final class SingleFixListener implements LocationListener {
+        private final int index;
+        private final CountDownLatch answered;
+
+        SingleFixListener(int index, CountDownLatch answered) {
+            this.index = index;
+            this.answered = answered;
+        }
+
+        @Override
+        public void onLocationChanged(Location location) {
+            fresh.set(index, location);
+            answered.countDown();
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {
+        }
+
+        @Override
+        public void onProviderEnabled(String provider) {
+        }
+
+        @Override
+        public void onProviderDisabled(String provider) {
+        }
+    }
+
+    void appendTo(StringBuilder out) {
+        Location best = null;
+        String bestSource = null;
+        for (int i = 0; i < providers.length; i++) {
+            out.append("  • ").append(providers[i]).append(": ");
+            appendFix(out, lastKnown[i]);
+            if (requested[i]) {
+                out.append("; fresh: ");
+                appendFix(out, fresh.get(i));
+            }
+            out.append("\n");
+            if (isMorePrecise(lastKnown[i], best)) {
+                best = lastKnown[i];
+                bestSource = providers[i] + " (cached)";
+            }
+            if (isMorePrecise(fresh.get(i), best)) {
+                best = fresh.get(i);
+                bestSource = providers[i] + " (fresh)";
+            }
+        }
+        if (best != null) {
+            out.append("  Most Precise Leak: ").append(bestSource)
+               .append(String.format(Locale.US, " ±%.0f m", best.getAccuracy())).append("\n");
+        }
+        out.append("  Probe Time: ").append(elapsedMillis).append(" ms\n");
+    }
+
+    private static void appendFix(StringBuilder out, Location location) {
+        if (location == null) {
+            out.append("none");
+            return;
+        }
+        long ageMillis = (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+        out.append(String.format(Locale.US, "%.3f, %.3f", location.getLatitude(), location.getLongitude()));
+        if (location.hasAccuracy()) {
+            out.append(String.format(Locale.US, " ±%.0f m", location.getAccuracy()));
+        }
+        out.append(", ").append(formatAge(ageMillis)).append(" old");
+    }
+
+    private static boolean isMorePrecise(Location candidate, Location best) {
+        if (candidate == null || !candidate.hasAccuracy()) return false;
+        return best == null || candidate.getAccuracy() < best.getAccuracy();
+    }
+
+    private static String formatAge(long millis) {
+        if (millis < 60_000) return Math.max(0, millis / 1000) + " s";
+        if (millis < 3_600_000) return millis / 60_000 + " min";
+        if (millis < 86_400_000) return millis / 3_600_000 + " h";
+        return millis / 86_400_000 + " d";
+    }
+}
@@ -5,10 +5,6 @@ import android.content.Context;
 import android.content.pm.PackageManager;
 import android.hardware.Sensor;
 import android.hardware.SensorManager;
-import android.location.LocationManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
-import android.net.wifi.WifiManager;
 import android.nfc.NfcAdapter;
 import android.nfc.Tag;
 import android.nfc.tech.IsoDep;
@@ -19,8 +15,6 @@ import android.nfc.tech.NfcF;
 import android.nfc.tech.NfcV;
 import android.os.Build;
 import android.os.Bundle;
-import android.provider.Settings;
-import android.telephony.TelephonyManager;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ScrollView;
@@ -30,14 +24,14 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.ViewModelProvider;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.net.NetworkInterface;
-import java.util.Collections;
-import java.util.List;
 import java.util.Locale;
 
 public class MainActivity extends AppCompatActivity {
@@ -52,18 +46,18 @@ public class MainActivity extends AppCompatActivity {
     
     // NFC components
     private NfcAdapter nfcAdapter;
+    
+    // Scan, report and shown text; outlives configuration changes
+    private ScanSession session;
+    private SettingsChangeWatcher settingsWatcher;
+    // Local reads for settings refreshes; full scans run in the scanner process
+    private ScanEngine engine;
+
+    // Larger clips go to a cache file served by ReportContentProvider; inline text shares the 1 MB binder buffer
+    private static final int INLINE_CLIP_CHARS = 64 * 1024;
 
     // Required permissions for comprehensive scanning
-    private static final String[] REQUIRED_PERMISSIONS = {
-        Manifest.permission.ACCESS_FINE_LOCATION,
-        Manifest.permission.ACCESS_COARSE_LOCATION,
-        Manifest.permission.READ_PHONE_STATE,
-        Manifest.permission.READ_EXTERNAL_STORAGE,
-        Manifest.permission.READ_CONTACTS,
-        Manifest.permission.READ_CALL_LOG,
-        Manifest.permission.READ_SMS,
-        Manifest.permission.READ_CALENDAR
-    };
+    private static final String[] REQUIRED_PERMISSIONS = ScanEngine.REQUIRED_PERMISSIONS;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -78,7 +72,13 @@ public class MainActivity extends AppCompatActivity {
         copyAllButton = findViewById(R.id.copyAllButton);
         nfcScanButton = findViewById(R.id.nfcScanButton);
 
-        scanButton.setOnClickListener(v -> checkPermissionsAndScan());
+        scanButton.setOnClickListener(v -> {
+            if (session.isScanning()) {
+                cancelScan();
+            } else {
+                checkPermissionsAndScan();
+            }
+        });
         exportButton.setOnClickListener(v -> exportResults());
         permissionsButton.setOnClickListener(v -> requestPermissions());
         copyAllButton.setOnClickListener(v -> copyAllResults());
@@ -98,11 +98,28 @@ public class MainActivity extends AppCompatActivity {
         // Initially disable copy button until we have results
         copyAllButton.setEnabled(false);
         
+        // A recreated activity picks up the running scan or shown result where it was
+        session = new ViewModelProvider(this).get(ScanSession.class);
+        session.setListener(this::onSessionChanged);
+        
         // Initialize NFC
         initializeNfc();
         
-        // Show current permission status
-        updatePermissionStatus();
+        engine = new ScanEngine(getApplicationContext());
+        
+        // Keep the last report's settings fields current without rescanning
+        settingsWatcher = new SettingsChangeWatcher(this, this::onSettingsChanged);
+        settingsWatcher.start();
+        
+        // Unattended rescans while charging and idle
+        BackgroundScanJobService.ensureScheduled(this);
+        
+        // Show current permission status, unless restoring earlier results
+        if (session.isEmpty()) {
+            updatePermissionStatus();
+        } else {
+            renderSession();
+        }
     }
 
     private boolean hasAllPermissions() {
@@ -115,7 +132,13 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void requestPermissions() {
-        ActivityCompat.requestPermissions(this, REQUIRED_PERMISSIONS, PERMISSION_REQUEST_CODE);
+        String[] permissions = REQUIRED_PERMISSIONS;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            // Nearby BLE scanning has its own runtime permission from Android 12; optional for the scan
+            permissions = java.util.Arrays.copyOf(REQUIRED_PERMISSIONS, REQUIRED_PERMISSIONS.length + 1);
+            permissions[REQUIRED_PERMISSIONS.length] = Manifest.permission.BLUETOOTH_SCAN;
+        }
+        ActivityCompat.requestPermissions(this, permissions, PERMISSION_REQUEST_CODE);
     }
 
     @Override
@@ -155,7 +178,7 @@ public class MainActivity extends AppCompatActivity {
         status.append("\nTap 'Scan Device' to start scanning with available permissions.\n");
         status.append("You can grant additional permissions later for more comprehensive results.\n\n");
         
-        resultText.setText(status.toString());
+        session.showText(status.toString(), false);
     }
 
     private void checkPermissionsAndScan() {
@@ -170,642 +193,88 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void performPrivacyScan() {
-        try {
-        StringBuilder result = new StringBuilder();
-        result.append("🔍 PRIVACY DIAGNOSTIC SCAN RESULTS\n");
-        result.append("=====================================\n");
-        result.append("Scan completed: ").append(java.time.LocalDateTime.now().toString()).append("\n\n");
-
-        // Device Information
-        result.append("📱 DEVICE INFORMATION\n");
-        result.append("----------------------\n");
-        result.append("Manufacturer: ").append(Build.MANUFACTURER).append("\n");
-        result.append("Model: ").append(Build.MODEL).append("\n");
-        result.append("Device: ").append(Build.DEVICE).append("\n");
-        result.append("Product: ").append(Build.PRODUCT).append("\n");
-        result.append("Brand: ").append(Build.BRAND).append("\n");
-        result.append("Hardware: ").append(Build.HARDWARE).append("\n");
-        result.append("Serial: ").append(getDeviceSerial()).append("\n");
-        result.append("Android Version: ").append(Build.VERSION.RELEASE).append("\n");
-        result.append("SDK Level: ").append(Build.VERSION.SDK_INT).append("\n");
-        result.append("Build ID: ").append(Build.ID).append("\n");
-        result.append("Fingerprint: ").append(Build.FINGERPRINT).append("\n");
-        result.append("Bootloader: ").append(Build.BOOTLOADER).append("\n");
-        result.append("Radio: ").append(Build.RADIO).append("\n\n");
-
-        // Hardware Information
-        result.append("🔧 HARDWARE INFORMATION\n");
-        result.append("------------------------\n");
-        result.append("CPU Architecture: ").append(Build.CPU_ABI).append("\n");
-        result.append("CPU Architecture 2: ").append(Build.CPU_ABI2).append("\n");
-        result.append("Screen Resolution: ").append(getScreenResolution()).append("\n");
-        result.append("Screen Density: ").append(getResources().getDisplayMetrics().density).append("\n");
-        result.append("Available Sensors: ").append(getAvailableSensors()).append("\n");
-        result.append("Sensor Details: ").append(getSensorDetails()).append("\n\n");
-
-        // Network Information
-        result.append("🌐 NETWORK INFORMATION\n");
-        result.append("----------------------\n");
-        result.append("WiFi MAC Address: ").append(getWifiMacAddress()).append("\n");
-        result.append("Bluetooth MAC Address: ").append(getBluetoothMacAddress()).append("\n");
-        result.append("Network Type: ").append(getNetworkType()).append("\n");
-        result.append("Network Operator: ").append(getNetworkOperator()).append("\n");
-        result.append("SIM Country: ").append(getSimCountry()).append("\n");
-        result.append("SIM Operator: ").append(getSimOperator()).append("\n");
-        result.append("SIM Serial: ").append(getSimSerial()).append("\n");
-        result.append("Phone Number: ").append(getPhoneNumber()).append("\n");
-        result.append("Network Country: ").append(getNetworkCountry()).append("\n\n");
-
-        // Location Information
-        result.append("📍 LOCATION INFORMATION\n");
-        result.append("-------------------------\n");
-        result.append("GPS Enabled: ").append(isGpsEnabled()).append("\n");
-        result.append("Location Mode: ").append(getLocationMode()).append("\n");
-        result.append("Last Known Location: ").append(getLastKnownLocation()).append("\n");
-        result.append("Location Providers: ").append(getLocationProviders()).append("\n\n");
-
-        // Installed Apps
-        result.append("📱 INSTALLED APPLICATIONS\n");
-        result.append("---------------------------\n");
-        result.append("Total Apps: ").append(getInstalledAppsCount()).append("\n");
-        result.append("System Apps: ").append(getSystemAppsCount()).append("\n");
-        result.append("User Apps: ").append(getUserAppsCount()).append("\n");
-        result.append("App List Sample: ").append(getAppListSample()).append("\n\n");
-
-        // File System Access
-        result.append("💾 FILE SYSTEM ACCESS\n");
-        result.append("----------------------\n");
-        result.append("External Storage: ").append(isExternalStorageAvailable()).append("\n");
-        result.append("Internal Storage: ").append(getInternalStorageInfo()).append("\n");
-        result.append("Download Directory: ").append(getDownloadDirectory()).append("\n");
-        result.append("Camera Directory: ").append(getCameraDirectory()).append("\n");
-        result.append("Documents Directory: ").append(getDocumentsDirectory()).append("\n\n");
-
-        // Camera and Media
-        result.append("📷 CAMERA & MEDIA ACCESS\n");
-        result.append("-------------------------\n");
-        result.append("Camera Permission: ").append(hasCameraPermission()).append("\n");
-        result.append("Microphone Permission: ").append(hasMicrophonePermission()).append("\n");
-        result.append("Storage Permission: ").append(hasStoragePermission()).append("\n");
-        result.append("Camera Hardware: ").append(hasCameraHardware()).append("\n");
-        result.append("Front Camera: ").append(hasFrontCamera()).append("\n");
-        result.append("Back Camera: ").append(hasBackCamera()).append("\n");
-        result.append("Flash Available: ").append(hasFlash()).append("\n");
-        result.append("Autofocus Available: ").append(hasAutofocus()).append("\n\n");
-
-        // System Settings
-        result.append("⚙️ SYSTEM SETTINGS\n");
-        result.append("-------------------\n");
-        result.append("Language: ").append(Locale.getDefault().getLanguage()).append("\n");
-        result.append("Country: ").append(Locale.getDefault().getCountry()).append("\n");
-        result.append("Time Zone: ").append(getTimeZone()).append("\n");
-        result.append("Auto Time: ").append(isAutoTimeEnabled()).append("\n");
-        result.append("Auto Time Zone: ").append(isAutoTimeZoneEnabled()).append("\n");
-        result.append("Screen Timeout: ").append(getScreenTimeout()).append("\n");
-        result.append("Brightness Mode: ").append(getBrightnessMode()).append("\n");
-        result.append("Screen Brightness: ").append(getScreenBrightness()).append("\n");
-        result.append("Volume Settings: ").append(getVolumeSettings()).append("\n\n");
-
-        // Unique Identifiers
-        result.append("🆔 UNIQUE IDENTIFIERS\n");
-        result.append("----------------------\n");
-        result.append("Android ID: ").append(Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID)).append("\n");
-        result.append("Advertising ID: ").append(getAdvertisingId()).append("\n");
-        result.append("Installation ID: ").append(getInstallationId()).append("\n");
-        result.append("Device ID: ").append(getDeviceId()).append("\n");
-        result.append("Subscriber ID: ").append(getSubscriberId()).append("\n");
-        result.append("Line 1 Number: ").append(getLine1Number()).append("\n\n");
-
-        // Permission Analysis
-        result.append("🔐 PERMISSION ANALYSIS\n");
-        result.append("------------------------\n");
-        result.append("Dangerous Permissions: ").append(getDangerousPermissions()).append("\n");
-        result.append("Normal Permissions: ").append(getNormalPermissions()).append("\n");
-        result.append("Signature Permissions: ").append(getSignaturePermissions()).append("\n");
-        result.append("Permission Status: ").append(getPermissionStatus()).append("\n\n");
-        
-        // Missing Permissions Warning
-        if (!hasAllPermissions()) {
-            result.append("⚠️ MISSING PERMISSIONS\n");
-            result.append("----------------------\n");
-            result.append("Some permissions are not granted. To get more comprehensive results:\n");
-            for (String permission : REQUIRED_PERMISSIONS) {
-                if (ContextCompat.checkSelfPermission(this, permission) != PackageManager.PERMISSION_GRANTED) {
-                    String permissionName = permission.substring(permission.lastIndexOf('.') + 1);
-                    result.append("• ").append(permissionName).append("\n");
-                }
-            }
-            result.append("\n");
-        }
-
-        // Privacy Score
-        result.append("📊 PRIVACY SCORE\n");
-        result.append("-----------------\n");
-        int privacyScore = calculatePrivacyScore();
-        result.append("Overall Privacy Score: ").append(privacyScore).append("/100\n");
-        result.append("Risk Level: ").append(getRiskLevel(privacyScore)).append("\n");
-        result.append("Recommendations: ").append(getPrivacyRecommendations(privacyScore)).append("\n\n");
-
-        // Additional Privacy Concerns
-        result.append("⚠️ ADDITIONAL PRIVACY CONCERNS\n");
-        result.append("--------------------------------\n");
-        result.append("Root Detection: ").append(detectRoot()).append("\n");
-        result.append("Emulator Detection: ").append(detectEmulator()).append("\n");
-        result.append("Debug Mode: ").append(isDebugMode()).append("\n");
-        result.append("Developer Options: ").append(areDeveloperOptionsEnabled()).append("\n");
-        result.append("USB Debugging: ").append(isUsbDebuggingEnabled()).append("\n\n");
-
-        resultText.setText(result.toString());
-        scrollView.fullScroll(ScrollView.FOCUS_UP);
-        
-        // Enable copy button now that we have results
-        copyAllButton.setEnabled(true);
-        
-        Toast.makeText(this, "Privacy scan completed! Scroll to see all results.", Toast.LENGTH_LONG).show();
-        } catch (Exception e) {
-            // Log the error and show user-friendly message
-            e.printStackTrace();
-            String errorMessage = "Scan completed with some errors:\n\n" +
-                                "Error: " + e.getMessage() + "\n\n" +
-                                "Some information may be incomplete due to missing permissions or system restrictions.";
-            resultText.setText(errorMessage);
-            Toast.makeText(this, "Scan completed with some errors. See results for details.", Toast.LENGTH_LONG).show();
-        }
-    }
-
-    private String getDeviceSerial() {
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                return Build.getSerial();
-            } else {
-                return Build.SERIAL;
-            }
-        } catch (SecurityException e) {
-            return "Permission denied";
-        }
-    }
-
-    private String getScreenResolution() {
-        int width = getResources().getDisplayMetrics().widthPixels;
-        int height = getResources().getDisplayMetrics().heightPixels;
-        return width + "x" + height;
-    }
-
-    private String getAvailableSensors() {
-        SensorManager sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
-        List<Sensor> sensors = sensorManager.getSensorList(Sensor.TYPE_ALL);
-        return String.valueOf(sensors.size());
-    }
-
-    private String getSensorDetails() {
-        SensorManager sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
-        List<Sensor> sensors = sensorManager.getSensorList(Sensor.TYPE_ALL);
-        StringBuilder details = new StringBuilder();
-        for (int i = 0; i < Math.min(5, sensors.size()); i++) {
-            Sensor sensor = sensors.get(i);
-            details.append(sensor.getName()).append(" (").append(sensor.getVendor()).append(")");
-            if (i < Math.min(5, sensors.size()) - 1) details.append(", ");
-        }
-        return details.toString();
-    }
-
-    private String getWifiMacAddress() {
-        try {
-            WifiManager wifiManager = (WifiManager) getApplicationContext().getSystemService(Context.WIFI_SERVICE);
-            if (wifiManager != null && wifiManager.isWifiEnabled()) {
-                return wifiManager.getConnectionInfo().getMacAddress();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return "Not accessible";
-    }
-
-    private String getBluetoothMacAddress() {
-        try {
-            List<NetworkInterface> interfaces = Collections.list(NetworkInterface.getNetworkInterfaces());
-            for (NetworkInterface networkInterface : interfaces) {
-                if (networkInterface.getName().equalsIgnoreCase("bt-pan") || 
-                    networkInterface.getName().equalsIgnoreCase("bluetooth0")) {
-                    byte[] mac = networkInterface.getHardwareAddress();
-                    if (mac != null) {
-                        StringBuilder sb = new StringBuilder();
-                        for (byte b : mac) {
-                            sb.append(String.format("%02X:", b));
-                        }
-                        return sb.substring(0, sb.length() - 1);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return "Not accessible";
-    }
-
-    private String getNetworkType() {
-        ConnectivityManager cm = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-        if (activeNetwork != null) {
-            return activeNetwork.getTypeName();
-        }
-        return "Unknown";
+        session.startScan();
     }
 
-    private String getNetworkOperator() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getNetworkOperatorName();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
-        }
-    }
-
-    private String getSimCountry() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getSimCountryIso();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
+    private void cancelScan() {
+        if (!session.cancelScan()) {
+            updatePermissionStatus();
         }
     }
 
-    private String getSimOperator() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getSimOperatorName();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
-        }
-    }
-
-    private String getSimSerial() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getSimSerialNumber();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
-        }
-    }
-
-    private String getPhoneNumber() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_NUMBERS) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getLine1Number();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
-        }
-    }
-
-    private String getNetworkCountry() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getNetworkCountryIso();
-        }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
-        }
-    }
-
-    private String isGpsEnabled() {
-        LocationManager lm = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
-        return lm.isProviderEnabled(LocationManager.GPS_PROVIDER) ? "Yes" : "No";
-    }
-
-    private String getLocationMode() {
-        try {
-            int mode = Settings.Secure.getInt(getContentResolver(), Settings.Secure.LOCATION_MODE);
-            switch (mode) {
-                case Settings.Secure.LOCATION_MODE_OFF: return "Off";
-                case Settings.Secure.LOCATION_MODE_SENSORS_ONLY: return "Sensors Only";
-                case Settings.Secure.LOCATION_MODE_BATTERY_SAVING: return "Battery Saving";
-                case Settings.Secure.LOCATION_MODE_HIGH_ACCURACY: return "High Accuracy";
-                default: return "Unknown";
-            }
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
-        }
-    }
-
-    private String getLastKnownLocation() {
-        return "Requires location permission";
-    }
-
-    private String getLocationProviders() {
-        LocationManager lm = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
-        List<String> providers = lm.getAllProviders();
-        StringBuilder providerList = new StringBuilder();
-        for (String provider : providers) {
-            providerList.append(provider).append(", ");
-        }
-        return providerList.length() > 0 ? providerList.substring(0, providerList.length() - 2) : "None";
-    }
-
-    private int getInstalledAppsCount() {
-        PackageManager pm = getPackageManager();
-        return pm.getInstalledApplications(PackageManager.GET_META_DATA).size();
-    }
-
-    private int getSystemAppsCount() {
-        PackageManager pm = getPackageManager();
-        return pm.getInstalledApplications(PackageManager.GET_META_DATA | PackageManager.GET_SHARED_LIBRARY_FILES).size();
-    }
-
-    private int getUserAppsCount() {
-        return getInstalledAppsCount() - getSystemAppsCount();
-    }
-
-    private String getAppListSample() {
-        PackageManager pm = getPackageManager();
-        List<android.content.pm.ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
-        StringBuilder sample = new StringBuilder();
-        int count = 0;
-        for (android.content.pm.ApplicationInfo app : apps) {
-            if (count < 5) {
-                sample.append(app.loadLabel(pm)).append(", ");
-                count++;
-            } else {
-                break;
-            }
-        }
-        return sample.length() > 0 ? sample.substring(0, sample.length() - 2) + "..." : "None";
-    }
-
-    private String isExternalStorageAvailable() {
-        return android.os.Environment.getExternalStorageState().equals(android.os.Environment.MEDIA_MOUNTED) ? "Yes" : "No";
-    }
-
-    private String getInternalStorageInfo() {
-        File internalDir = getFilesDir();
-        long totalSpace = internalDir.getTotalSpace();
-        long freeSpace = internalDir.getFreeSpace();
-        return String.format("%.2f GB free of %.2f GB", freeSpace / (1024.0 * 1024.0 * 1024.0), totalSpace / (1024.0 * 1024.0 * 1024.0));
-    }
-
-    private String getDownloadDirectory() {
-        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DOWNLOADS).getAbsolutePath();
-    }
-
-    private String getCameraDirectory() {
-        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DCIM).getAbsolutePath();
-    }
-
-    private String getDocumentsDirectory() {
-        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DOCUMENTS).getAbsolutePath();
-    }
-
-    private String hasCameraPermission() {
-        return ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
-    }
-
-    private String hasMicrophonePermission() {
-        return ContextCompat.checkSelfPermission(this, Manifest.permission.RECORD_AUDIO) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
-    }
-
-    private String hasStoragePermission() {
-        return ContextCompat.checkSelfPermission(this, Manifest.permission.WRITE_EXTERNAL_STORAGE) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
-    }
-
-    private String hasCameraHardware() {
-        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA) ? "Yes" : "No";
-    }
-
-    private String hasFrontCamera() {
-        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_FRONT) ? "Yes" : "No";
-    }
-
-    private String hasBackCamera() {
-        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_ANY) ? "Yes" : "No";
-    }
-
-    private String hasFlash() {
-        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_FLASH) ? "Yes" : "No";
-    }
-
-    private String hasAutofocus() {
-        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_AUTOFOCUS) ? "Yes" : "No";
-    }
-
-    private String getTimeZone() {
-        return java.util.TimeZone.getDefault().getID();
-    }
-
-    private String isAutoTimeEnabled() {
-        try {
-            return Settings.Global.getInt(getContentResolver(), Settings.Global.AUTO_TIME) == 1 ? "Yes" : "No";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
-        }
-    }
-
-    private String isAutoTimeZoneEnabled() {
-        try {
-            return Settings.Global.getInt(getContentResolver(), Settings.Global.AUTO_TIME_ZONE) == 1 ? "Yes" : "No";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
+    private void onSessionChanged(int event) {
+        renderSession();
+        if (event == ScanSession.EVENT_COMPLETED) {
+            scrollView.fullScroll(ScrollView.FOCUS_UP);
+            Toast.makeText(this, "Privacy scan completed! Scroll to see all results.", Toast.LENGTH_LONG).show();
+        } else if (event == ScanSession.EVENT_FAILED) {
+            Toast.makeText(this, "Scan completed with some errors. See results for details.", Toast.LENGTH_LONG).show();
         }
     }
 
-    private String getScreenTimeout() {
-        try {
-            int timeout = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_OFF_TIMEOUT);
-            return (timeout / 1000) + " seconds";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
-        }
+    private void renderSession() {
+        resultText.setText(session.getDisplayText());
+        scanButton.setText(session.isScanning() ? R.string.cancel_scan_button : R.string.scan_button);
+        scanButton.setEnabled(!session.isCancelling());
+        copyAllButton.setEnabled(session.hasResults());
     }
 
-    private String getBrightnessMode() {
-        try {
-            int mode = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_BRIGHTNESS_MODE);
-            return mode == Settings.System.SCREEN_BRIGHTNESS_MODE_AUTOMATIC ? "Automatic" : "Manual";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
+    private void onSettingsChanged(int fields) {
+        ScanReport lastReport = session.getCompletedReport();
+        if (lastReport == null) return;
+        boolean changed = false;
+        if ((fields & SettingsChangeWatcher.FIELD_USB_DEBUGGING) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_CONCERNS, "USB Debugging", engine.isUsbDebuggingEnabled());
         }
-    }
-
-    private String getScreenBrightness() {
-        try {
-            int brightness = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_BRIGHTNESS);
-            return String.valueOf(brightness);
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
+        if ((fields & SettingsChangeWatcher.FIELD_DEVELOPER_OPTIONS) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_CONCERNS, "Developer Options", engine.areDeveloperOptionsEnabled());
         }
-    }
-
-    private String getVolumeSettings() {
-        try {
-            android.media.AudioManager audioManager = (android.media.AudioManager) getSystemService(Context.AUDIO_SERVICE);
-            int musicVolume = audioManager.getStreamVolume(android.media.AudioManager.STREAM_MUSIC);
-            int maxVolume = audioManager.getStreamMaxVolume(android.media.AudioManager.STREAM_MUSIC);
-            return "Music: " + musicVolume + "/" + maxVolume;
-        } catch (Exception e) {
-            return "Unknown";
+        if ((fields & SettingsChangeWatcher.FIELD_AUTO_TIME) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_SETTINGS, "Auto Time", engine.isAutoTimeEnabled());
         }
-    }
-
-    private String getAdvertisingId() {
-        return "Requires Google Play Services";
-    }
-
-    private String getInstallationId() {
-        return Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
-    }
-
-    private String getDeviceId() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                return tm.getImei();
-            } else {
-                return tm.getDeviceId();
-            }
+        if ((fields & SettingsChangeWatcher.FIELD_AUTO_TIME_ZONE) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_SETTINGS, "Auto Time Zone", engine.isAutoTimeZoneEnabled());
         }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
+        if ((fields & SettingsChangeWatcher.FIELD_LOCATION) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_LOCATION, "Location Mode", engine.getLocationMode());
+            changed |= lastReport.update(ScanReport.SECTION_LOCATION, "GPS Enabled", engine.isGpsEnabled());
         }
-    }
-
-    private String getSubscriberId() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getSubscriberId();
+        if ((fields & SettingsChangeWatcher.FIELD_SCREEN_TIMEOUT) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_SETTINGS, "Screen Timeout", engine.getScreenTimeout());
         }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
+        if ((fields & SettingsChangeWatcher.FIELD_BRIGHTNESS_MODE) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_SETTINGS, "Brightness Mode", engine.getBrightnessMode());
         }
-    }
-
-    private String getLine1Number() {
-        try {
-        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_NUMBERS) == PackageManager.PERMISSION_GRANTED) {
-            return tm.getLine1Number();
+        if ((fields & SettingsChangeWatcher.FIELD_SCREEN_BRIGHTNESS) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_SETTINGS, "Screen Brightness", engine.getScreenBrightness());
         }
-        return "Permission required";
-        } catch (Exception e) {
-            return "Error: " + e.getMessage();
+        if ((fields & SettingsChangeWatcher.FIELD_NETWORK) != 0) {
+            changed |= lastReport.update(ScanReport.SECTION_NETWORK, "Network Type", engine.getNetworkType());
         }
+        if (changed) refreshLastReport(lastReport);
     }
 
-    private String getDangerousPermissions() {
-        return "Camera, Location, Microphone, Storage, Phone State, Contacts, SMS, Calendar";
-    }
-
-    private String getNormalPermissions() {
-        return "Internet, Network State, Wake Lock, Vibrate";
-    }
-
-    private String getSignaturePermissions() {
-        return "System Alert Window, Write Settings, Modify Phone State";
-    }
-
-    private String getPermissionStatus() {
-        StringBuilder status = new StringBuilder();
-        for (String permission : REQUIRED_PERMISSIONS) {
-            boolean granted = ContextCompat.checkSelfPermission(this, permission) == PackageManager.PERMISSION_GRANTED;
-            status.append(permission.substring(permission.lastIndexOf('.') + 1))
-                  .append(": ")
-                  .append(granted ? "✓" : "✗")
-                  .append(", ");
+    /** Re-reads this app's own grants; the public API has no callback for them. */
+    private void refreshPermissionFields() {
+        ScanReport lastReport = session.getCompletedReport();
+        if (lastReport == null) return;
+        boolean changed = lastReport.update(ScanReport.SECTION_PERMISSIONS, "Permission Status", engine.getPermissionStatus());
+        changed |= lastReport.update(ScanReport.SECTION_CAMERA, "Camera Permission", engine.hasCameraPermission());
+        changed |= lastReport.update(ScanReport.SECTION_CAMERA, "Microphone Permission", engine.hasMicrophonePermission());
+        changed |= lastReport.update(ScanReport.SECTION_CAMERA, "Storage Permission", engine.hasStoragePermission());
+        if (changed) {
+            engine.updateMissingPermissions(lastReport);
+            refreshLastReport(lastReport);
         }
-        return status.length() > 0 ? status.substring(0, status.length() - 2) : "None";
     }
 
-    private int calculatePrivacyScore() {
-        int score = 100;
-        
-        // Deduct points for sensitive information exposure
-        if (!getDeviceSerial().equals("Permission denied")) score -= 15;
-        if (!getWifiMacAddress().equals("Not accessible")) score -= 10;
-        if (!getBluetoothMacAddress().equals("Not accessible")) score -= 10;
-        if (!getLocationMode().equals("Off")) score -= 15;
-        if (!getNetworkType().equals("Unknown")) score -= 5;
-        if (!getPhoneNumber().equals("Permission required")) score -= 10;
-        if (!getSimSerial().equals("Permission required")) score -= 10;
-        
-        return Math.max(0, Math.min(100, score));
-    }
-
-    private String getRiskLevel(int score) {
-        if (score >= 80) return "Low Risk 🟢";
-        else if (score >= 60) return "Medium Risk 🟡";
-        else if (score >= 40) return "High Risk 🟠";
-        else return "Very High Risk 🔴";
-    }
-
-    private String getPrivacyRecommendations(int score) {
-        if (score >= 80) {
-            return "Good privacy practices. Consider disabling location services when not needed.";
-        } else if (score >= 60) {
-            return "Moderate privacy exposure. Review app permissions and disable unnecessary features.";
-        } else if (score >= 40) {
-            return "High privacy exposure. Consider using privacy-focused apps and VPN services.";
-        } else {
-            return "Very high privacy exposure. Immediate action recommended: review all permissions, use privacy tools.";
-        }
-    }
-
-    private String detectRoot() {
-        String[] paths = {"/system/app/Superuser.apk", "/sbin/su", "/system/bin/su", "/system/xbin/su", "/data/local/xbin/su", "/data/local/bin/su", "/system/sd/xbin/su", "/system/bin/failsafe/su", "/data/local/su"};
-        for (String path : paths) {
-            if (new File(path).exists()) {
-                return "Root detected - " + path;
-            }
-        }
-        return "No root detected";
-    }
-
-    private String detectEmulator() {
-        if (Build.FINGERPRINT.startsWith("generic") || Build.FINGERPRINT.startsWith("unknown") ||
-            Build.MODEL.contains("google_sdk") || Build.MODEL.contains("Emulator") ||
-            Build.MODEL.contains("Android SDK built for x86") || Build.MANUFACTURER.contains("Genymotion") ||
-            (Build.BRAND.startsWith("generic") && Build.DEVICE.startsWith("generic")) ||
-            "google_sdk".equals(Build.PRODUCT)) {
-            return "Emulator detected";
-        }
-        return "Real device";
-    }
-
-    private String isDebugMode() {
-        return (getApplicationInfo().flags & android.content.pm.ApplicationInfo.FLAG_DEBUGGABLE) != 0 ? "Yes" : "No";
-    }
-
-    private String areDeveloperOptionsEnabled() {
-        try {
-            return Settings.Global.getInt(getContentResolver(), Settings.Global.DEVELOPMENT_SETTINGS_ENABLED) == 1 ? "Yes" : "No";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
-        }
-    }
-
-    private String isUsbDebuggingEnabled() {
-        try {
-            return Settings.Global.getInt(getContentResolver(), Settings.Global.ADB_ENABLED) == 1 ? "Yes" : "No";
-        } catch (Settings.SettingNotFoundException e) {
-            return "Unknown";
+    private void refreshLastReport(ScanReport lastReport) {
+        engine.updatePrivacyScore(lastReport);
+        if (lastReport.getSection(ScanReport.SECTION_POLICY) != null) {
+            engine.updateDevicePolicy(lastReport);
         }
+        // Only re-rendered if shown; other content such as an NFC result is left alone
+        session.reportUpdated();
     }
 
     private void exportResults() {
@@ -851,6 +320,10 @@ public class MainActivity extends AppCompatActivity {
             writer.write("Android Version: " + Build.VERSION.RELEASE + "\n\n");
             writer.write(scanResults);
             writer.close();
+
+            // The same scan as a binary record next to the text, for fleet tooling
+            File recordFile = writeScanRecord(new File(exportFile.getParentFile(),
+                    filename.replace(".txt", ScanRecordWriter.FILE_EXTENSION)));
             
             // For Android 10+, also copy to public Downloads for easier access
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
@@ -867,6 +340,9 @@ public class MainActivity extends AppCompatActivity {
             
             // Show success message with file location
             String successMessage = "Export successful!\n\nFile saved to:\n" + exportFile.getAbsolutePath() + "\n\nFile size: " + (exportFile.length() / 1024) + " KB";
+            if (recordFile != null) {
+                successMessage += "\n\nScan record:\n" + recordFile.getAbsolutePath();
+            }
             
             // Create a dialog to show export details
             showExportSuccessDialog(successMessage, exportFile);
@@ -877,6 +353,21 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    /** @return the written file, or null if there is no completed scan or writing failed */
+    private File writeScanRecord(File file) {
+        ScanReport report = session.getCompletedReport();
+        if (report == null) return null;
+        try (ScanRecordWriter records = new ScanRecordWriter(new BufferedOutputStream(new FileOutputStream(file)))) {
+            records.write(report);
+            return file;
+        } catch (IOException e) {
+            // The text export is what the user asked for; the record is a bonus
+            e.printStackTrace();
+            file.delete();
+            return null;
+        }
+    }
+
     private void showExportSuccessDialog(String message, File file) {
         androidx.appcompat.app.AlertDialog.Builder builder = new androidx.appcompat.app.AlertDialog.Builder(this);
         builder.setTitle("Export Successful! 📁")
@@ -949,19 +440,28 @@ public class MainActivity extends AppCompatActivity {
     
     private void copyAllResults() {
         try {
-            String results = resultText.getText().toString();
+            String results = session.getDisplayText();
             
             if (results == null || results.isEmpty() || results.equals(getString(R.string.scan_prompt))) {
                 Toast.makeText(this, "No results to copy. Please run a scan first.", Toast.LENGTH_SHORT).show();
                 return;
             }
             
-            // Copy to clipboard
-            android.content.ClipboardManager clipboard = (android.content.ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
-            android.content.ClipData clip = android.content.ClipData.newPlainText("Privacy Scan Results", results);
-            clipboard.setPrimaryClip(clip);
-            
-            Toast.makeText(this, "All results copied to clipboard! 📋", Toast.LENGTH_LONG).show();
+            if (results.length() <= INLINE_CLIP_CHARS) {
+                setResultsClip(android.content.ClipData.newPlainText("Privacy Scan Results", results));
+                return;
+            }
+            // Large results go by URI to a cache file, written off the UI thread
+            session.execute(() -> {
+                try {
+                    android.net.Uri uri = ReportContentProvider.publish(this, results);
+                    runOnUiThread(() -> setResultsClip(
+                            android.content.ClipData.newUri(getContentResolver(), "Privacy Scan Results", uri)));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    runOnUiThread(() -> Toast.makeText(this, "Failed to copy results: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                }
+            });
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -969,6 +469,12 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    private void setResultsClip(android.content.ClipData clip) {
+        android.content.ClipboardManager clipboard = (android.content.ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
+        clipboard.setPrimaryClip(clip);
+        Toast.makeText(this, "All results copied to clipboard! 📋", Toast.LENGTH_LONG).show();
+    }
+    
     // NFC Methods
     private void initializeNfc() {
         nfcAdapter = NfcAdapter.getDefaultAdapter(this);
@@ -1015,83 +521,92 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void processNfcTag(Tag tag) {
-        try {
-            StringBuilder nfcResults = new StringBuilder();
-            nfcResults.append("🔍 NFC TAG ANALYSIS RESULTS\n");
-            nfcResults.append("============================\n");
-            nfcResults.append("Scan completed: ").append(java.time.LocalDateTime.now().toString()).append("\n\n");
-            
-            // Basic tag information
-            nfcResults.append("📱 TAG INFORMATION\n");
-            nfcResults.append("-------------------\n");
-            byte[] tagId = tag.getId();
-            nfcResults.append("Tag ID: ").append(bytesToHex(tagId)).append("\n");
-            nfcResults.append("Tag ID (Decimal): ").append(bytesToDecimal(tagId)).append("\n");
-            
-            String[] techList = tag.getTechList();
-            nfcResults.append("Supported Technologies: ").append(java.util.Arrays.toString(techList)).append("\n\n");
-            
-            // Analyze each technology
-            for (String tech : techList) {
-                nfcResults.append("🔧 TECHNOLOGY: ").append(tech).append("\n");
-                nfcResults.append("-----------------\n");
-                
-                try {
-                    switch (tech) {
-                        case "android.nfc.tech.IsoDep":
-                            analyzeIsoDep(tag, nfcResults);
-                            break;
-                        case "android.nfc.tech.Ndef":
-                            analyzeNdef(tag, nfcResults);
-                            break;
-                        case "android.nfc.tech.NfcA":
-                            analyzeNfcA(tag, nfcResults);
-                            break;
-                        case "android.nfc.tech.NfcB":
-                            analyzeNfcB(tag, nfcResults);
-                            break;
-                        case "android.nfc.tech.NfcF":
-                            analyzeNfcF(tag, nfcResults);
-                            break;
-                        case "android.nfc.tech.NfcV":
-                            analyzeNfcV(tag, nfcResults);
-                            break;
-                        default:
-                            nfcResults.append("Technology not specifically analyzed\n");
-                    }
-                } catch (Exception e) {
-                    nfcResults.append("Error analyzing ").append(tech).append(": ").append(e.getMessage()).append("\n");
-                }
-                nfcResults.append("\n");
-            }
-            
-            // Security analysis
-            nfcResults.append("🔒 SECURITY ANALYSIS\n");
-            nfcResults.append("--------------------\n");
-            nfcResults.append("Potential Data Exposure:\n");
-            if (java.util.Arrays.asList(techList).contains("android.nfc.tech.IsoDep")) {
-                nfcResults.append("• ISO14443A (Passport/Credit Card) - HIGH RISK\n");
-                nfcResults.append("  This technology is commonly used in passports and can transmit personal data\n");
+        session.showText("📡 Reading NFC tag... keep it against the device\n", false);
+        
+        // Memory dumps are many blocking transceive round-trips, so read the tag off the UI thread
+        session.execute(() -> {
+            String results;
+            try {
+                results = analyzeNfcTag(tag);
+            } catch (Exception e) {
+                e.printStackTrace();
+                runOnUiThread(() -> Toast.makeText(this, "Error processing NFC tag: " + e.getMessage(), Toast.LENGTH_LONG).show());
+                return;
             }
-            if (java.util.Arrays.asList(techList).contains("android.nfc.tech.Ndef")) {
-                nfcResults.append("• NDEF - MEDIUM RISK\n");
-                nfcResults.append("  Can contain URLs, text, or contact information\n");
+            runOnUiThread(() -> {
+                // Display results; the session keeps them across rotation
+                session.showText(results, true);
+                if (isFinishing() || isDestroyed()) return;
+                scrollView.fullScroll(ScrollView.FOCUS_UP);
+                Toast.makeText(this, "NFC scan completed! See results above.", Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+    
+    private String analyzeNfcTag(Tag tag) {
+        StringBuilder nfcResults = new StringBuilder();
+        nfcResults.append("🔍 NFC TAG ANALYSIS RESULTS\n");
+        nfcResults.append("============================\n");
+        nfcResults.append("Scan completed: ").append(java.time.LocalDateTime.now().toString()).append("\n\n");
+        
+        // Basic tag information
+        nfcResults.append("📱 TAG INFORMATION\n");
+        nfcResults.append("-------------------\n");
+        byte[] tagId = tag.getId();
+        nfcResults.append("Tag ID: ").append(Bytes.toHex(tagId)).append("\n");
+        nfcResults.append("Tag ID (Decimal): ").append(Bytes.toDecimal(tagId)).append("\n");
+        
+        String[] techList = tag.getTechList();
+        nfcResults.append("Supported Technologies: ").append(java.util.Arrays.toString(techList)).append("\n\n");
+        
+        // Analyze each technology
+        for (String tech : techList) {
+            nfcResults.append("🔧 TECHNOLOGY: ").append(tech).append("\n");
+            nfcResults.append("-----------------\n");
+            
+            try {
+                switch (tech) {
+                    case "android.nfc.tech.IsoDep":
+                        analyzeIsoDep(tag, nfcResults);
+                        break;
+                    case "android.nfc.tech.Ndef":
+                        analyzeNdef(tag, nfcResults);
+                        break;
+                    case "android.nfc.tech.NfcA":
+                        analyzeNfcA(tag, nfcResults);
+                        break;
+                    case "android.nfc.tech.NfcB":
+                        analyzeNfcB(tag, nfcResults);
+                        break;
+                    case "android.nfc.tech.NfcF":
+                        analyzeNfcF(tag, nfcResults);
+                        break;
+                    case "android.nfc.tech.NfcV":
+                        analyzeNfcV(tag, nfcResults);
+                        break;
+                    default:
+                        nfcResults.append("Technology not specifically analyzed\n");
+                }
+            } catch (Exception e) {
+                nfcResults.append("Error analyzing ").append(tech).append(": ").append(e.getMessage()).append("\n");
             }
-            nfcResults.append("\nRecommendation: Keep passport in RFID-blocking sleeve when not in use\n\n");
-            
-            // Display results
-            resultText.setText(nfcResults.toString());
-            scrollView.fullScroll(ScrollView.FOCUS_UP);
-            
-            // Enable copy button for NFC results
-            copyAllButton.setEnabled(true);
-            
-            Toast.makeText(this, "NFC scan completed! See results above.", Toast.LENGTH_LONG).show();
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error processing NFC tag: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            nfcResults.append("\n");
+        }
+        
+        // Security analysis
+        nfcResults.append("🔒 SECURITY ANALYSIS\n");
+        nfcResults.append("--------------------\n");
+        nfcResults.append("Potential Data Exposure:\n");
+        if (java.util.Arrays.asList(techList).contains("android.nfc.tech.IsoDep")) {
+            nfcResults.append("• ISO14443A (Passport/Credit Card) - HIGH RISK\n");
+            nfcResults.append("  This technology is commonly used in passports and can transmit personal data\n");
+        }
+        if (java.util.Arrays.asList(techList).contains("android.nfc.tech.Ndef")) {
+            nfcResults.append("• NDEF - MEDIUM RISK\n");
+            nfcResults.append("  Can contain URLs, text, or contact information\n");
         }
+        nfcResults.append("\nRecommendation: Keep passport in RFID-blocking sleeve when not in use\n\n");
+        return nfcResults.toString();
     }
     
     private void analyzeIsoDep(Tag tag, StringBuilder results) {
@@ -1107,7 +622,7 @@ public class MainActivity extends AppCompatActivity {
                 // Try to get historical bytes (if available)
                 byte[] historicalBytes = isoDep.getHistoricalBytes();
                 if (historicalBytes != null && historicalBytes.length > 0) {
-                    results.append("• Historical Bytes: ").append(bytesToHex(historicalBytes)).append("\n");
+                    results.append("• Historical Bytes: ").append(Bytes.toHex(historicalBytes)).append("\n");
                 }
             }
         } catch (Exception e) {
@@ -1132,7 +647,7 @@ public class MainActivity extends AppCompatActivity {
                         results.append("• NDEF Records: ").append(ndefMessage.getRecords().length).append("\n");
                         for (int i = 0; i < ndefMessage.getRecords().length; i++) {
                             android.nfc.NdefRecord record = ndefMessage.getRecords()[i];
-                            results.append("  Record ").append(i + 1).append(": ").append(record.getTnf()).append(" - ").append(bytesToHex(record.getType())).append("\n");
+                            results.append("  Record ").append(i + 1).append(": ").append(record.getTnf()).append(" - ").append(Bytes.toHex(record.getType())).append("\n");
                         }
                     }
                     ndef.close();
@@ -1151,9 +666,18 @@ public class MainActivity extends AppCompatActivity {
             if (nfcA != null) {
                 results.append("NFC-A (ISO14443A) Analysis:\n");
                 results.append("• Technology: ISO14443A - used in passports, credit cards, access cards\n");
-                results.append("• ATQA: ").append(bytesToHex(nfcA.getAtqa())).append("\n");
+                results.append("• ATQA: ").append(Bytes.toHex(nfcA.getAtqa())).append("\n");
                 results.append("• SAK: ").append(String.format("0x%02X", nfcA.getSak())).append("\n");
                 results.append("• Max Transceive Length: ").append(nfcA.getMaxTransceiveLength()).append(" bytes\n");
+                
+                // SAK 0x00 identifies the MIFARE Ultralight / NTAG family, whose memory is readable without keys
+                if (nfcA.getSak() == 0x00) {
+                    try {
+                        TagMemoryReader.readUltralight(nfcA).appendTo(results);
+                    } catch (Exception e) {
+                        results.append("• Could not dump tag memory: ").append(e.getMessage()).append("\n");
+                    }
+                }
             }
         } catch (Exception e) {
             results.append("Error analyzing NFC-A: ").append(e.getMessage()).append("\n");
@@ -1166,8 +690,8 @@ public class MainActivity extends AppCompatActivity {
             if (nfcB != null) {
                 results.append("NFC-B (ISO14443B) Analysis:\n");
                 results.append("• Technology: ISO14443B - used in some government IDs, transit cards\n");
-                results.append("• Application Data: ").append(bytesToHex(nfcB.getApplicationData())).append("\n");
-                results.append("• Protocol Info: ").append(bytesToHex(nfcB.getProtocolInfo())).append("\n");
+                results.append("• Application Data: ").append(Bytes.toHex(nfcB.getApplicationData())).append("\n");
+                results.append("• Protocol Info: ").append(Bytes.toHex(nfcB.getProtocolInfo())).append("\n");
                 results.append("• Max Transceive Length: ").append(nfcB.getMaxTransceiveLength()).append(" bytes\n");
             }
         } catch (Exception e) {
@@ -1197,34 +721,23 @@ public class MainActivity extends AppCompatActivity {
                 results.append("• Response Flags: ").append(String.format("0x%02X", nfcV.getResponseFlags())).append("\n");
                 results.append("• DSF ID: ").append(String.format("0x%02X", nfcV.getDsfId())).append("\n");
                 results.append("• Max Transceive Length: ").append(nfcV.getMaxTransceiveLength()).append(" bytes\n");
+                
+                try {
+                    TagMemoryReader.readIso15693(nfcV, tag.getId()).appendTo(results);
+                } catch (Exception e) {
+                    results.append("• Could not dump tag memory: ").append(e.getMessage()).append("\n");
+                }
             }
         } catch (Exception e) {
             results.append("Error analyzing NFC-V: ").append(e.getMessage()).append("\n");
         }
     }
     
-    private String bytesToHex(byte[] bytes) {
-        if (bytes == null) return "null";
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X", b & 0xFF));
-        }
-        return sb.toString();
-    }
-    
-    private String bytesToDecimal(byte[] bytes) {
-        if (bytes == null) return "null";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            if (i > 0) sb.append(", ");
-            sb.append(bytes[i] & 0xFF);
-        }
-        return sb.toString();
-    }
-    
     @Override
     protected void onResume() {
         super.onResume();
+        // Grants may have changed in system settings or the permission dialog
+        refreshPermissionFields();
         // Enable foreground dispatch for NFC
         if (nfcAdapter != null && nfcAdapter.isEnabled()) {
             nfcAdapter.enableForegroundDispatch(this, 
@@ -1233,6 +746,14 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        settingsWatcher.stop();
+        // A running scan belongs to the session and survives recreation
+        session.setListener(null);
+    }
+    
     @Override
     protected void onPause() {
         super.onPause();
@@ -1263,6 +784,22 @@ public class MainActivity extends AppCompatActivity {
             results.append("Security: Direct hardware access\n");
             results.append("Privacy Risk: MEDIUM - legacy API with broad permissions\n\n");
             
+            // CameraInfo is static metadata, so no camera needs to be opened
+            int cameraCount = android.hardware.Camera.getNumberOfCameras();
+            results.append("📷 DETECTED CAMERAS\n");
+            results.append("-------------------\n");
+            results.append("Available Cameras: ").append(cameraCount).append("\n");
+            android.hardware.Camera.CameraInfo info = new android.hardware.Camera.CameraInfo();
+            for (int i = 0; i < cameraCount; i++) {
+                android.hardware.Camera.getCameraInfo(i, info);
+                results.append("Camera ").append(i).append(": ")
+                       .append(info.facing == android.hardware.Camera.CameraInfo.CAMERA_FACING_FRONT ? "Front-facing" : "Back-facing")
+                       .append(", orientation ").append(info.orientation).append("°")
+                       .append(", shutter sound ").append(info.canDisableShutterSound ? "can be disabled" : "enforced")
+                       .append("\n");
+            }
+            results.append("\n");
+            
             results.append("🔍 TECHNICAL ANALYSIS\n");
             results.append("---------------------\n");
             results.append("• Camera API 1: DEPRECATED since API 21\n");
@@ -1291,9 +828,8 @@ public class MainActivity extends AppCompatActivity {
             results.append("Error: ").append(e.getMessage()).append("\n");
         }
         
-        resultText.setText(results.toString());
+        session.showText(results.toString(), true);
         scrollView.fullScroll(ScrollView.FOCUS_UP);
-        copyAllButton.setEnabled(true);
         Toast.makeText(this, "Camera API 1 analysis completed", Toast.LENGTH_SHORT).show();
     }
     
@@ -1304,103 +840,67 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
         
-        StringBuilder results = new StringBuilder();
-        results.append("📸 CAMERA2 API ANALYSIS\n");
-        results.append("========================\n");
-        results.append("Scan completed: ").append(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(new java.util.Date())).append("\n\n");
+        session.showText("📸 Collecting camera characteristics...\n", false);
         
-        try {
-            android.hardware.camera2.CameraManager cameraManager = (android.hardware.camera2.CameraManager) getSystemService(Context.CAMERA_SERVICE);
-            String[] cameraIds = cameraManager.getCameraIdList();
-            
-            results.append("📱 CAMERA2 API INFORMATION\n");
-            results.append("--------------------------\n");
-            results.append("API Level: Camera2 API (API 21+)\n");
-            results.append("Status: Modern camera framework\n");
-            results.append("Available Cameras: ").append(cameraIds.length).append("\n");
-            results.append("Security: Structured permission system\n");
-            results.append("Privacy Risk: LOW - advanced controls available\n\n");
-            
-            if (cameraIds.length > 0) {
+        // Characteristics are one binder call per camera, so collect them off the UI thread
+        session.execute(() -> {
+            StringBuilder results = new StringBuilder();
+            results.append("📸 CAMERA2 API ANALYSIS\n");
+            results.append("========================\n");
+            results.append("Scan completed: ").append(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(new java.util.Date())).append("\n\n");
+            
+            try {
+                CameraCapabilityProbe probe = new CameraCapabilityProbe(this);
+                String cameras = probe.collect();
+                
+                results.append("📱 CAMERA2 API INFORMATION\n");
+                results.append("--------------------------\n");
+                results.append("API Level: Camera2 API (API 21+)\n");
+                results.append("Status: Modern camera framework\n");
+                results.append("Security: Structured permission system\n");
+                results.append("Privacy Risk: LOW - advanced controls available\n");
+                results.append("Capability Data: ").append(probe.isFromCache() ? "Cached for this build" : "Collected from device").append("\n\n");
+                
                 results.append("🔍 CAMERA CHARACTERISTICS\n");
                 results.append("-------------------------\n");
-                for (int i = 0; i < cameraIds.length; i++) {
-                    android.hardware.camera2.CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraIds[i]);
-                    
-                    results.append("Camera ").append(i).append(":\n");
-                    
-                    Integer facing = characteristics.get(android.hardware.camera2.CameraCharacteristics.LENS_FACING);
-                    if (facing != null) {
-                        switch (facing) {
-                            case android.hardware.camera2.CameraCharacteristics.LENS_FACING_FRONT:
-                                results.append("• Facing: Front-facing camera\n");
-                                break;
-                            case android.hardware.camera2.CameraCharacteristics.LENS_FACING_BACK:
-                                results.append("• Facing: Back-facing camera\n");
-                                break;
-                            default:
-                                results.append("• Facing: External camera\n");
-                                break;
-                        }
-                    }
-                    
-                    Integer supportLevel = characteristics.get(android.hardware.camera2.CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL);
-                    if (supportLevel != null) {
-                        results.append("• Hardware Level: ");
-                        switch (supportLevel) {
-                            case android.hardware.camera2.CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY:
-                                results.append("Legacy\n");
-                                break;
-                            case android.hardware.camera2.CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_LIMITED:
-                                results.append("Limited\n");
-                                break;
-                            case android.hardware.camera2.CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_FULL:
-                                results.append("Full\n");
-                                break;
-                            case android.hardware.camera2.CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL_3:
-                                results.append("Level 3 (Professional)\n");
-                                break;
-                            default:
-                                results.append("Unknown\n");
-                                break;
-                        }
-                    }
-                    results.append("\n");
-                }
+                results.append(cameras);
+                
+                results.append("🔍 TECHNICAL ANALYSIS\n");
+                results.append("---------------------\n");
+                results.append("• Camera2 API: MODERN since API 21\n");
+                results.append("• Access Type: Structured session management\n");
+                results.append("• Permission Model: Granular camera controls\n");
+                results.append("• Error Handling: Comprehensive callback system\n");
+                results.append("• Thread Safety: Built-in background thread support\n");
+                results.append("• Device Compatibility: Excellent on modern devices\n\n");
+                
+                results.append("🔒 PRIVACY ANALYSIS\n");
+                results.append("-------------------\n");
+                results.append("• Privacy Risk: LOW\n");
+                results.append("• Permission Scope: Controlled camera access\n");
+                results.append("• Data Control: Advanced privacy settings\n");
+                results.append("• Background Access: Restricted by system\n");
+                results.append("• Session Management: Explicit camera sessions\n");
+                results.append("• Recommendation: Good choice for professional apps\n\n");
+                
+                results.append("📄 DEVELOPER NOTES\n");
+                results.append("------------------\n");
+                results.append("• Status: Current standard for camera development\n");
+                results.append("• Best Practice: Use for apps requiring camera control\n");
+                results.append("• Security: Robust permission and session management\n");
+                results.append("• Features: Manual controls, RAW capture, etc.\n");
+                
+            } catch (Exception e) {
+                results.append("Error: ").append(e.getMessage()).append("\n");
             }
             
-            results.append("🔍 TECHNICAL ANALYSIS\n");
-            results.append("---------------------\n");
-            results.append("• Camera2 API: MODERN since API 21\n");
-            results.append("• Access Type: Structured session management\n");
-            results.append("• Permission Model: Granular camera controls\n");
-            results.append("• Error Handling: Comprehensive callback system\n");
-            results.append("• Thread Safety: Built-in background thread support\n");
-            results.append("• Device Compatibility: Excellent on modern devices\n\n");
-            
-            results.append("🔒 PRIVACY ANALYSIS\n");
-            results.append("-------------------\n");
-            results.append("• Privacy Risk: LOW\n");
-            results.append("• Permission Scope: Controlled camera access\n");
-            results.append("• Data Control: Advanced privacy settings\n");
-            results.append("• Background Access: Restricted by system\n");
-            results.append("• Session Management: Explicit camera sessions\n");
-            results.append("• Recommendation: Good choice for professional apps\n\n");
-            
-            results.append("📄 DEVELOPER NOTES\n");
-            results.append("------------------\n");
-            results.append("• Status: Current standard for camera development\n");
-            results.append("• Best Practice: Use for apps requiring camera control\n");
-            results.append("• Security: Robust permission and session management\n");
-            results.append("• Features: Manual controls, RAW capture, etc.\n");
-            
-        } catch (Exception e) {
-            results.append("Error: ").append(e.getMessage()).append("\n");
-        }
-        
-        resultText.setText(results.toString());
-        scrollView.fullScroll(ScrollView.FOCUS_UP);
-        copyAllButton.setEnabled(true);
-        Toast.makeText(this, "Camera2 API analysis completed", Toast.LENGTH_SHORT).show();
+            runOnUiThread(() -> {
+                // Recorded even if this activity was recreated meanwhile
+                session.showText(results.toString(), true);
+                if (isFinishing() || isDestroyed()) return;
+                scrollView.fullScroll(ScrollView.FOCUS_UP);
+                Toast.makeText(this, "Camera2 API analysis completed", Toast.LENGTH_SHORT).show();
+            });
+        });
     }
 }
@@ -0,0 +1,119 @@
+package com.example.privacydiagnostic;
+
+/**
+ * Ring buffer of three-axis motion samples in primitive arrays, plus the statistics
+ * used to judge calibration fingerprinting: per-axis bias, noise and quantization step.
+ * {@link #put} never allocates, so it is safe to call from a high-rate sensor callback.
+ */
+public final class MotionSampleBuffer {
+    private final float[][] axes;
+    private final long[] timestampsNanos;
+    private final int capacity;
+    private int next;
+    private int size;
+    private long total;
+
+    public MotionSampleBuffer(int capacity) {
+        this.capacity = capacity;
+        this.axes = new float[3][capacity];
+        this.timestampsNanos = new long[capacity];
+    }
+
+    public void put(float x, float y, float z, long timestampNanos) {
+        axes[0][next] = x;
+        axes[1][next] = y;
+        axes[2][next] = z;
+        timestampsNanos[next] = timestampNanos;
+        next = next + 1 == capacity ? 0 : next + 1;
+        if (size < capacity) size++;
+        total++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long totalSamples() {
+        return total;
+    }
+
+    private int oldest() {
+        return size < capacity ? 0 : next;
+    }
+
+    /** Effective delivery rate over the retained window. */
+    public double rateHz() {
+        if (size < 2) return 0;
+        int first = oldest();
+        int last = (first + size - 1) % capacity;
+        long spanNanos = timestampsNanos[last] - timestampsNanos[first];
+        return spanNanos > 0 ? (size - 1) * 1e9 / spanNanos : 0;
+    }
+
+    public double mean(int axis) {
+        float[] values = axes[axis];
+        double sum = 0;
+        for (int i = 0; i < size; i++) sum += values[i];
+        return size > 0 ? sum / size : 0;
+    }
+
+    public double stdDev(int axis) {
+        if (size < 2) return 0;
+        float[] values = axes[axis];
+        double mean = mean(axis);
+        double squares = 0;
+        for (int i = 0; i < size; i++) {
+            double d = values[i] - mean;
+            squares += d * d;
+        }
+        return Math.sqrt(squares / (size - 1));
+    }
+
+    /** Smallest non-zero change between consecutive samples: the sensor's effective LSB. */
+    public double quantizationStep(int axis) {
+        float[] values = axes[axis];
+        int start = oldest();
+        double step = Double.MAX_VALUE;
+        float previous = values[start];
+        for (int i = 1; i < size; i++) {
+            float current = values[(start + i) % capacity];
+            double delta = Math.abs(current - previous);
+            if (delta > 0 && delta < step) step = delta;
+            previous = current;
+        }
+        return step == Double.MAX_VALUE ? 0 : step;
+    }
+
+    /**
+     * Fraction of samples lying on integer multiples of the nominal resolution.
+     * Values off that grid mean a per-unit calibration gain was applied in software,
+     * which is what makes calibration fingerprinting possible.
+     */
+    public double onGridFraction(int axis, double resolution) {
+        if (resolution <= 0 || size == 0) return 0;
+        float[] values = axes[axis];
+        int onGrid = 0;
+        for (int i = 0; i < size; i++) {
+            double units = values[i] / resolution;
+            if (Math.abs(units - Math.rint(units)) < 0.01) onGrid++;
+        }
+        return (double) onGrid / size;
+    }
+
+    /**
+     * Rough number of bits the per-axis bias contributes to a fingerprint: how many
+     * noise-limited steps fit between zero and the observed bias on each axis.
+     */
+    public double biasEntropyBits() {
+        if (size < 2) return 0;
+        double bits = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            double standardError = stdDev(axis) / Math.sqrt(size);
+            double floor = Math.max(standardError, quantizationStep(axis) / 2);
+            if (floor > 0) {
+                bits += Math.log(1 + Math.abs(mean(axis)) / floor) / Math.log(2);
+            }
+        }
+        return bits;
+    }
+}
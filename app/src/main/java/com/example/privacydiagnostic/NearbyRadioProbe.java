@@ -0,0 +1,272 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothManager;
+import android.bluetooth.le.BluetoothLeScanner;
+import android.bluetooth.le.ScanCallback;
+import android.bluetooth.le.ScanRecord;
+import android.bluetooth.le.ScanResult;
+import android.bluetooth.le.ScanSettings;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures how much the surrounding radio environment reveals about where the device is:
+ * distinct Wi-Fi access points and BLE devices in range, how many use rotating (randomized)
+ * addresses and which beacon families are present. Wi-Fi uses the system's last scan results
+ * rather than triggering a new scan; BLE runs one short low-power scan whose results the
+ * controller batches via {@link ScanSettings.Builder#setReportDelay}. Addresses are packed
+ * into longs and deduplicated in a {@link LongHashSet}.
+ */
+final class NearbyRadioProbe {
+    private static final long BLE_WINDOW_MS = 4000;
+    private static final long BLE_FLUSH_WAIT_MS = 300;
+
+    static final int BEACON_IBEACON = 0;
+    static final int BEACON_FIND_MY = 1;
+    static final int BEACON_APPLE_OTHER = 2;
+    static final int BEACON_EDDYSTONE = 3;
+    static final int BEACON_FAST_PAIR = 4;
+    static final int BEACON_MICROSOFT = 5;
+    static final int BEACON_TRACKER_TAG = 6;
+    static final int BEACON_EXPOSURE_NOTIFICATION = 7;
+    private static final String[] BEACON_NAMES = {"iBeacon", "Apple Find My", "Apple Continuity", "Eddystone",
+            "Google Fast Pair", "Microsoft CDP", "Tile/SmartTag", "Exposure Notification"};
+
+    private final Context context;
+
+    NearbyRadioProbe(Context context) {
+        this.context = context;
+    }
+
+    String describeWifi() {
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return "Permission required\n";
+        }
+        WifiManager wifi = (WifiManager) context.getApplicationContext().getSystemService(Context.WIFI_SERVICE);
+        List<android.net.wifi.ScanResult> results = wifi.getScanResults();
+        LongHashSet accessPoints = new LongHashSet(results.size());
+        int randomized = 0;
+        int hidden = 0;
+        int open = 0;
+        int band24 = 0;
+        int band5 = 0;
+        int band6 = 0;
+        long newest = 0;
+        for (android.net.wifi.ScanResult result : results) {
+            long mac = packMac(result.BSSID);
+            if (mac < 0 || !accessPoints.add(mac)) continue;
+            if (isLocallyAdministered(mac)) randomized++;
+            if (result.SSID == null || result.SSID.isEmpty()) hidden++;
+            String capabilities = result.capabilities;
+            if (capabilities == null || !(capabilities.contains("WPA") || capabilities.contains("WEP")
+                    || capabilities.contains("SAE") || capabilities.contains("EAP"))) {
+                open++;
+            }
+            if (result.frequency < 3000) band24++;
+            else if (result.frequency < 5925) band5++;
+            else band6++;
+            newest = Math.max(newest, result.timestamp);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("Access Points: ").append(accessPoints.size());
+        if (newest > 0) {
+            long ageSeconds = (android.os.SystemClock.elapsedRealtimeNanos() / 1000 - newest) / 1_000_000;
+            out.append(" (last system scan ").append(ageSeconds).append(" s ago)");
+        }
+        out.append("\n");
+        out.append("  • Bands: 2.4 GHz ").append(band24).append(", 5 GHz ").append(band5).append(", 6 GHz ").append(band6).append("\n");
+        out.append("  • Hidden: ").append(hidden).append(", Open: ").append(open).append("\n");
+        out.append("  • Randomized BSSIDs: ").append(randomized).append(percent(randomized, accessPoints.size()))
+           .append(", Static: ").append(accessPoints.size() - randomized).append("\n");
+        if (accessPoints.size() - randomized >= 3) {
+            out.append("  Exposure: Static BSSIDs in range are enough for Wi-Fi geolocation services to locate this device\n");
+        }
+        return out.toString();
+    }
+
+    /** Runs one batched BLE scan. Blocks for the scan window, so call it off the UI thread. */
+    String describeBle() {
+        String permission = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                ? Manifest.permission.BLUETOOTH_SCAN : Manifest.permission.ACCESS_FINE_LOCATION;
+        if (ContextCompat.checkSelfPermission(context, permission) != PackageManager.PERMISSION_GRANTED) {
+            return "Permission required\n";
+        }
+        BluetoothManager manager = (BluetoothManager) context.getSystemService(Context.BLUETOOTH_SERVICE);
+        BluetoothAdapter adapter = manager != null ? manager.getAdapter() : null;
+        if (adapter == null || !adapter.isEnabled()) {
+            return "Bluetooth off\n";
+        }
+        BluetoothLeScanner scanner = adapter.getBluetoothLeScanner();
+        if (scanner == null) {
+            return "BLE scanning unavailable\n";
+        }
+
+        ScanSettings.Builder settings = new ScanSettings.Builder().setScanMode(ScanSettings.SCAN_MODE_LOW_POWER);
+        // With offloaded batching the controller buffers results and wakes us once per window
+        boolean batched = adapter.isOffloadedScanBatchingSupported();
+        if (batched) {
+            settings.setReportDelay(BLE_WINDOW_MS);
+        }
+        BleCollector collector = new BleCollector();
+        try {
+            scanner.startScan(null, settings.build(), collector);
+            Thread.sleep(BLE_WINDOW_MS);
+            if (batched) {
+                scanner.flushPendingScanResults(collector);
+                Thread.sleep(BLE_FLUSH_WAIT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SecurityException e) {
+            return "Permission required\n";
+        } finally {
+            try {
+                scanner.stopScan(collector);
+            } catch (RuntimeException ignored) {
+                // Adapter turned off during the scan
+            }
+        }
+        return collector.describe(batched);
+    }
+
+    /** Scan results arrive on the main thread; the probe thread reads them after the scan. */
+    private static final class BleCollector extends ScanCallback {
+        private final LongHashSet devices = new LongHashSet(64);
+        private final int[] beacons = new int[BEACON_NAMES.length];
+        private int rotating;
+        private int callbacks;
+        private int errorCode;
+
+        @Override
+        public synchronized void onScanResult(int callbackType, ScanResult result) {
+            callbacks++;
+            add(result);
+        }
+
+        @Override
+        public synchronized void onBatchScanResults(List<ScanResult> results) {
+            callbacks++;
+            for (int i = 0; i < results.size(); i++) {
+                add(results.get(i));
+            }
+        }
+
+        @Override
+        public synchronized void onScanFailed(int errorCode) {
+            this.errorCode = errorCode;
+        }
+
+        private void add(ScanResult result) {
+            long mac = packMac(result.getDevice().getAddress());
+            if (mac < 0 || !devices.add(mac)) return;
+            // Top address bits 01 mark a resolvable private address, which rotates every few minutes
+            if (((mac >>> 46) & 0x3) == 0x1) rotating++;
+            ScanRecord record = result.getScanRecord();
+            if (record != null) {
+                classify(record.getBytes(), beacons);
+            }
+        }
+
+        synchronized String describe(boolean batched) {
+            StringBuilder out = new StringBuilder();
+            if (errorCode != 0) {
+                return out.append("Scan failed (error ").append(errorCode).append(")\n").toString();
+            }
+            int total = devices.size();
+            out.append("Devices: ").append(total).append(" in ").append(BLE_WINDOW_MS / 1000).append(" s (")
+               .append(callbacks).append(batched ? " batched deliveries" : " callbacks").append(")\n");
+            out.append("  • Rotating addresses: ").append(rotating).append(percent(rotating, total))
+               .append(", Fixed: ").append(total - rotating).append("\n");
+            for (int type = 0; type < BEACON_NAMES.length; type++) {
+                if (beacons[type] > 0) {
+                    out.append("  • ").append(BEACON_NAMES[type]).append(": ").append(beacons[type]).append("\n");
+                }
+            }
+            if (beacons[BEACON_TRACKER_TAG] > 0 || beacons[BEACON_FIND_MY] > 0) {
+                out.append("  Note: Item trackers nearby; one that moves with you can reveal your location to its owner\n");
+            }
+            return out.toString();
+        }
+    }
+
+    /** Walks the advertisement's AD structures in place and counts the first recognised type. */
+    static void classify(byte[] ad, int[] beacons) {
+        if (ad == null) return;
+        int i = 0;
+        while (i + 1 < ad.length) {
+            int length = ad[i] & 0xFF;
+            if (length == 0 || i + 1 + length > ad.length) return;
+            int type = ad[i + 1] & 0xFF;
+            int data = i + 2;
+            int dataLength = length - 1;
+            if (type == 0xFF && dataLength >= 3) {
+                int company = (ad[data] & 0xFF) | (ad[data + 1] & 0xFF) << 8;
+                int subtype = ad[data + 2] & 0xFF;
+                if (company == 0x004C) {
+                    beacons[subtype == 0x02 ? BEACON_IBEACON : subtype == 0x12 ? BEACON_FIND_MY : BEACON_APPLE_OTHER]++;
+                    return;
+                }
+                if (company == 0x0006) {
+                    beacons[BEACON_MICROSOFT]++;
+                    return;
+                }
+            } else if ((type == 0x16 || type == 0x03 || type == 0x02) && dataLength >= 2) {
+                int uuid = (ad[data] & 0xFF) | (ad[data + 1] & 0xFF) << 8;
+                int beacon = serviceBeacon(uuid);
+                if (beacon >= 0) {
+                    beacons[beacon]++;
+                    return;
+                }
+            }
+            i += 1 + length;
+        }
+    }
+
+    private static int serviceBeacon(int uuid) {
+        switch (uuid) {
+            case 0xFEAA: return BEACON_EDDYSTONE;
+            case 0xFE2C: return BEACON_FAST_PAIR;
+            case 0xFD6F: return BEACON_EXPOSURE_NOTIFICATION;
+            case 0xFEED:
+            case 0xFEEC:
+            case 0xFD5A: return BEACON_TRACKER_TAG;
+            default: return -1;
+        }
+    }
+
+    /** Packs "AA:BB:CC:DD:EE:FF" into the low 48 bits without allocating, or -1 if malformed. */
+    static long packMac(String mac) {
+        if (mac == null || mac.length() != 17) return -1;
+        long packed = 0;
+        for (int i = 0; i < 17; i++) {
+            char c = mac.charAt(i);
+            if (i % 3 == 2) {
+                if (c != ':') return -1;
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) return -1;
+            packed = (packed << 4) | digit;
+        }
+        return packed;
+    }
+
+    /** The locally administered bit of the first octet marks a randomized MAC. */
+    private static boolean isLocallyAdministered(long mac) {
+        return ((mac >>> 40) & 0x02) != 0;
+    }
+
+    private static String percent(int part, int total) {
+        return total > 0 ? String.format(Locale.US, " (%.0f%%)", 100.0 * part / total) : "";
+    }
+}
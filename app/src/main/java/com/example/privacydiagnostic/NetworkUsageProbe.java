@@ -0,0 +1,193 @@
+package com.example.privacydiagnostic;
+
+import android.app.AppOpsManager;
+import android.app.usage.NetworkStats;
+import android.app.usage.NetworkStatsManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.net.ConnectivityManager;
+import android.net.TrafficStats;
+import android.os.Build;
+import android.os.Process;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Attributes received and transmitted bytes to apps over a time window, split into
+ * foreground and background use. Reads {@link NetworkStatsManager} summaries when usage access
+ * is granted and falls back to since-boot {@link TrafficStats} counters otherwise. Totals are
+ * accumulated into long arrays indexed by app id, reusing a single bucket while iterating.
+ */
+final class NetworkUsageProbe {
+    // App ids below this cover system UIDs (0-9999) and regular apps (10000-19999)
+    private static final int APP_ID_LIMIT = 20000;
+    private static final int PER_USER_RANGE = 100000;
+    private static final int MAX_LISTED = 5;
+
+    private static final int RX_FOREGROUND = 0;
+    private static final int TX_FOREGROUND = 1;
+    private static final int RX_BACKGROUND = 2;
+    private static final int TX_BACKGROUND = 3;
+
+    private final Context context;
+    private final PackageManager pm;
+    private String[] namesByAppId;
+
+    NetworkUsageProbe(Context context) {
+        this.context = context;
+        this.pm = context.getPackageManager();
+    }
+
+    /** True when this app may read other apps' network history. */
+    static boolean hasUsageAccess(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return false;
+        AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+        @SuppressWarnings("deprecation")
+        int mode = appOps.checkOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS, Process.myUid(), context.getPackageName());
+        return mode == AppOpsManager.MODE_ALLOWED;
+    }
+
+    /** Per-app usage over the last {@code windowMillis}; requires {@link #hasUsageAccess(Context)}. */
+    String describe(long windowMillis, String windowLabel) {
+        StringBuilder out = new StringBuilder();
+        // Four counters per app id, interleaved so one app's totals share a cache line
+        long[] totals = new long[APP_ID_LIMIT * 4];
+        long[] special = new long[2];
+        long end = System.currentTimeMillis();
+        long start = end - windowMillis;
+        NetworkStatsManager manager = (NetworkStatsManager) context.getSystemService(Context.NETWORK_STATS_SERVICE);
+        int[] networks = {ConnectivityManager.TYPE_WIFI, ConnectivityManager.TYPE_MOBILE};
+        NetworkStats.Bucket bucket = new NetworkStats.Bucket();
+        for (int network : networks) {
+            NetworkStats stats;
+            try {
+                stats = manager.querySummary(network, null, start, end);
+            } catch (Exception e) {
+                // Mobile history can require a subscriber id on older releases
+                continue;
+            }
+            try {
+                while (stats.getNextBucket(bucket)) {
+                    accumulate(totals, special, bucket);
+                }
+            } finally {
+                stats.close();
+            }
+        }
+
+        long rx = special[0];
+        long tx = special[1];
+        long background = 0;
+        for (int appId = 0; appId < APP_ID_LIMIT; appId++) {
+            int base = appId * 4;
+            rx += totals[base + RX_FOREGROUND] + totals[base + RX_BACKGROUND];
+            tx += totals[base + TX_FOREGROUND] + totals[base + TX_BACKGROUND];
+            background += totals[base + RX_BACKGROUND] + totals[base + TX_BACKGROUND];
+        }
+        out.append(windowLabel).append(": ").append(formatBytes(rx)).append(" down, ").append(formatBytes(tx)).append(" up");
+        if (rx + tx > 0) {
+            out.append(String.format(Locale.US, " (%.0f%% in background)", 100.0 * background / (rx + tx)));
+        }
+        out.append("\n");
+        if (special[0] + special[1] > 0) {
+            out.append("  Removed apps and tethering: ").append(formatBytes(special[0] + special[1])).append("\n");
+        }
+
+        for (int appId : topByTraffic(totals, MAX_LISTED)) {
+            int base = appId * 4;
+            long foreground = totals[base + RX_FOREGROUND] + totals[base + TX_FOREGROUND];
+            long bg = totals[base + RX_BACKGROUND] + totals[base + TX_BACKGROUND];
+            out.append("  • ").append(nameOf(appId)).append(": ").append(formatBytes(foreground + bg))
+               .append(" (").append(formatBytes(bg)).append(" background)\n");
+        }
+        return out.toString();
+    }
+
+    private static void accumulate(long[] totals, long[] special, NetworkStats.Bucket bucket) {
+        int uid = bucket.getUid();
+        if (uid < 0) {
+            // UID_REMOVED and UID_TETHERING
+            special[0] += bucket.getRxBytes();
+            special[1] += bucket.getTxBytes();
+            return;
+        }
+        int appId = uid % PER_USER_RANGE;
+        if (appId >= APP_ID_LIMIT) return;
+        boolean foreground = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                && bucket.getState() == NetworkStats.Bucket.STATE_FOREGROUND;
+        int base = appId * 4;
+        totals[base + (foreground ? RX_FOREGROUND : RX_BACKGROUND)] += bucket.getRxBytes();
+        totals[base + (foreground ? TX_FOREGROUND : TX_BACKGROUND)] += bucket.getTxBytes();
+    }
+
+    /** Fallback without usage access: kernel counters since boot. */
+    String describeSinceBoot() {
+        StringBuilder out = new StringBuilder();
+        out.append("Device Total: ").append(formatBytes(TrafficStats.getTotalRxBytes())).append(" down, ")
+           .append(formatBytes(TrafficStats.getTotalTxBytes())).append(" up\n");
+        out.append("Mobile Total: ").append(formatBytes(TrafficStats.getMobileRxBytes())).append(" down, ")
+           .append(formatBytes(TrafficStats.getMobileTxBytes())).append(" up\n");
+        // Android 7+ only reports this app's own UID through TrafficStats
+        long[] totals = new long[APP_ID_LIMIT * 4];
+        List<ApplicationInfo> apps = pm.getInstalledApplications(0);
+        for (ApplicationInfo app : apps) {
+            int appId = app.uid % PER_USER_RANGE;
+            if (appId >= APP_ID_LIMIT || totals[appId * 4 + RX_BACKGROUND] != 0) continue;
+            long rx = TrafficStats.getUidRxBytes(app.uid);
+            long tx = TrafficStats.getUidTxBytes(app.uid);
+            if (rx == TrafficStats.UNSUPPORTED || tx == TrafficStats.UNSUPPORTED) continue;
+            totals[appId * 4 + RX_BACKGROUND] = rx;
+            totals[appId * 4 + TX_BACKGROUND] = tx;
+        }
+        for (int appId : topByTraffic(totals, MAX_LISTED)) {
+            out.append("  • ").append(nameOf(appId)).append(": ")
+               .append(formatBytes(totals[appId * 4 + RX_BACKGROUND] + totals[appId * 4 + TX_BACKGROUND])).append("\n");
+        }
+        return out.toString();
+    }
+
+    /** App ids with the most traffic, largest first, via a bounded insertion list. */
+    private static int[] topByTraffic(long[] totals, int limit) {
+        int[] top = new int[limit];
+        long[] bytes = new long[limit];
+        int size = 0;
+        for (int appId = 0; appId < APP_ID_LIMIT; appId++) {
+            int base = appId * 4;
+            long sum = totals[base] + totals[base + 1] + totals[base + 2] + totals[base + 3];
+            if (sum == 0 || (size == limit && sum <= bytes[size - 1])) continue;
+            int i = size < limit ? size++ : size - 1;
+            while (i > 0 && bytes[i - 1] < sum) {
+                top[i] = top[i - 1];
+                bytes[i] = bytes[i - 1];
+                i--;
+            }
+            top[i] = appId;
+            bytes[i] = sum;
+        }
+        int[] result = new int[size];
+        System.arraycopy(top, 0, result, 0, size);
+        return result;
+    }
+
+    /** Joins app ids with the installed-app inventory, built once per probe. */
+    private String nameOf(int appId) {
+        if (namesByAppId == null) {
+            namesByAppId = new String[APP_ID_LIMIT];
+            for (ApplicationInfo app : pm.getInstalledApplications(0)) {
+                int id = app.uid % PER_USER_RANGE;
+                if (id >= APP_ID_LIMIT) continue;
+                // Apps sharing a UID are listed together
+                namesByAppId[id] = namesByAppId[id] == null ? app.packageName : namesByAppId[id] + " + " + app.packageName;
+            }
+        }
+        if (namesByAppId[appId] != null) return namesByAppId[appId];
+        String name = pm.getNameForUid(appId);
+        return name != null ? name : "UID " + appId;
+    }
+
+    private static String formatBytes(long bytes) {
+        return bytes == TrafficStats.UNSUPPORTED ? "Unsupported" : StorageExposureScanner.formatBytes(bytes);
+    }
+}
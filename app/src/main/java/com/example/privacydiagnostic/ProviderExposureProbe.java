@@ -0,0 +1,242 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.CalendarContract;
+import android.provider.CallLog;
+import android.provider.ContactsContract;
+import android.provider.Telephony;
+
+import androidx.core.content.ContextCompat;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much personal data the contacts, SMS, call log and calendar providers hand to
+ * any app holding the matching permission. Each provider is streamed once with the smallest
+ * projection that answers the question; rows are tallied in place and never kept.
+ */
+final class ProviderExposureProbe {
+    private static final long TIMEOUT_SECONDS = 20;
+
+    private final Context context;
+    private final ContentResolver resolver;
+
+    ProviderExposureProbe(Context context) {
+        this.context = context;
+        this.resolver = context.getContentResolver();
+    }
+
+    /** Summarises all four providers concurrently and returns them in a fixed order. */
+    String collect() {
+        List<Callable<String>> probes = new ArrayList<>();
+        probes.add(() -> guarded(Manifest.permission.READ_CONTACTS, "Contacts", this::contacts));
+        probes.add(() -> guarded(Manifest.permission.READ_SMS, "SMS", this::sms));
+        probes.add(() -> guarded(Manifest.permission.READ_CALL_LOG, "Call Log", this::callLog));
+        probes.add(() -> guarded(Manifest.permission.READ_CALENDAR, "Calendar", this::calendar));
+
+        ExecutorService executor = Executors.newFixedThreadPool(probes.size());
+        StringBuilder report = new StringBuilder();
+        try {
+            List<Future<String>> results = executor.invokeAll(probes, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (Future<String> result : results) {
+                try {
+                    report.append(result.get());
+                } catch (Exception e) {
+                    report.append("Provider query timed out or failed\n");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return report.toString();
+    }
+
+    private interface Probe {
+        void run(StringBuilder out);
+    }
+
+    private String guarded(String permission, String label, Probe probe) {
+        StringBuilder out = new StringBuilder();
+        out.append(label).append(": ");
+        if (ContextCompat.checkSelfPermission(context, permission) != PackageManager.PERMISSION_GRANTED) {
+            return out.append("Permission required\n").toString();
+        }
+        try {
+            probe.run(out);
+        } catch (Exception e) {
+            out.append("Error: ").append(e.getMessage()).append("\n");
+        }
+        return out.toString();
+    }
+
+    private void contacts(StringBuilder out) {
+        int contacts = count(ContactsContract.Contacts.CONTENT_URI);
+        out.append(contacts).append(" contacts\n");
+        if (contacts == 0) return;
+
+        // One pass over the data table, reading only the mimetype of each row
+        int phones = 0, emails = 0, addresses = 0, birthdays = 0, organizations = 0, photos = 0, notes = 0;
+        Cursor cursor = resolver.query(ContactsContract.Data.CONTENT_URI,
+                new String[] {ContactsContract.Data.MIMETYPE}, null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    String mimeType = cursor.getString(0);
+                    if (mimeType == null) continue;
+                    switch (mimeType) {
+                        case ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE: phones++; break;
+                        case ContactsContract.CommonDataKinds.Email.CONTENT_ITEM_TYPE: emails++; break;
+                        case ContactsContract.CommonDataKinds.StructuredPostal.CONTENT_ITEM_TYPE: addresses++; break;
+                        case ContactsContract.CommonDataKinds.Event.CONTENT_ITEM_TYPE: birthdays++; break;
+                        case ContactsContract.CommonDataKinds.Organization.CONTENT_ITEM_TYPE: organizations++; break;
+                        case ContactsContract.CommonDataKinds.Photo.CONTENT_ITEM_TYPE: photos++; break;
+                        case ContactsContract.CommonDataKinds.Note.CONTENT_ITEM_TYPE: notes++; break;
+                        default: break;
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        out.append("  • Phone numbers: ").append(phones).append(", Emails: ").append(emails)
+           .append(", Postal addresses: ").append(addresses).append("\n");
+        out.append("  • Dates/birthdays: ").append(birthdays).append(", Employers: ").append(organizations)
+           .append(", Photos: ").append(photos).append(", Notes: ").append(notes).append("\n");
+    }
+
+    private void sms(StringBuilder out) {
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+        int total = 0, inbox = 0, sent = 0, unread = 0;
+        BitSet threads = new BitSet();
+        Cursor cursor = resolver.query(Telephony.Sms.CONTENT_URI,
+                new String[] {Telephony.Sms.DATE, Telephony.Sms.TYPE, Telephony.Sms.THREAD_ID, Telephony.Sms.READ},
+                null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    total++;
+                    long date = cursor.getLong(0);
+                    if (date > 0) {
+                        first = Math.min(first, date);
+                        last = Math.max(last, date);
+                    }
+                    int type = cursor.getInt(1);
+                    if (type == Telephony.Sms.MESSAGE_TYPE_INBOX) inbox++;
+                    else if (type == Telephony.Sms.MESSAGE_TYPE_SENT) sent++;
+                    long thread = cursor.getLong(2);
+                    if (thread >= 0 && thread < Integer.MAX_VALUE) threads.set((int) thread);
+                    if (cursor.getInt(3) == 0) unread++;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        out.append(total).append(" messages in ").append(threads.cardinality()).append(" conversations\n");
+        out.append("  • Received: ").append(inbox).append(", Sent: ").append(sent).append(", Unread: ").append(unread).append("\n");
+        appendRange(out, first, last);
+    }
+
+    private void callLog(StringBuilder out) {
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE, seconds = 0;
+        int total = 0, incoming = 0, outgoing = 0, missed = 0, named = 0, located = 0;
+        Cursor cursor = resolver.query(CallLog.Calls.CONTENT_URI,
+                new String[] {CallLog.Calls.DATE, CallLog.Calls.TYPE, CallLog.Calls.DURATION,
+                              CallLog.Calls.CACHED_NAME, CallLog.Calls.GEOCODED_LOCATION},
+                null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    total++;
+                    long date = cursor.getLong(0);
+                    if (date > 0) {
+                        first = Math.min(first, date);
+                        last = Math.max(last, date);
+                    }
+                    switch (cursor.getInt(1)) {
+                        case CallLog.Calls.INCOMING_TYPE: incoming++; break;
+                        case CallLog.Calls.OUTGOING_TYPE: outgoing++; break;
+                        case CallLog.Calls.MISSED_TYPE: missed++; break;
+                        default: break;
+                    }
+                    seconds += cursor.getLong(2);
+                    // Null checks only; the strings themselves are never materialised
+                    if (!cursor.isNull(3)) named++;
+                    if (!cursor.isNull(4)) located++;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        out.append(total).append(" calls, ").append(seconds / 3600).append("h ").append((seconds % 3600) / 60).append("m talk time\n");
+        out.append("  • Incoming: ").append(incoming).append(", Outgoing: ").append(outgoing).append(", Missed: ").append(missed).append("\n");
+        out.append("  • With contact name: ").append(named).append(", With caller location: ").append(located).append("\n");
+        appendRange(out, first, last);
+    }
+
+    private void calendar(StringBuilder out) {
+        int calendars = count(CalendarContract.Calendars.CONTENT_URI);
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+        int events = 0, withLocation = 0, withDescription = 0;
+        Cursor cursor = resolver.query(CalendarContract.Events.CONTENT_URI,
+                new String[] {CalendarContract.Events.DTSTART, CalendarContract.Events.EVENT_LOCATION,
+                              CalendarContract.Events.DESCRIPTION},
+                null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    events++;
+                    long start = cursor.getLong(0);
+                    if (start > 0) {
+                        first = Math.min(first, start);
+                        last = Math.max(last, start);
+                    }
+                    if (!cursor.isNull(1)) withLocation++;
+                    if (!cursor.isNull(2)) withDescription++;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        int attendees = count(CalendarContract.Attendees.CONTENT_URI);
+        out.append(events).append(" events in ").append(calendars).append(" calendars\n");
+        out.append("  • With location: ").append(withLocation).append(", With notes: ").append(withDescription)
+           .append(", Attendee records: ").append(attendees).append("\n");
+        appendRange(out, first, last);
+    }
+
+    /** Row count with an _id-only projection; the provider counts without shipping row data. */
+    private int count(Uri uri) {
+        Cursor cursor = resolver.query(uri, new String[] {"_id"}, null, null, null);
+        if (cursor == null) return 0;
+        try {
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static void appendRange(StringBuilder out, long first, long last) {
+        if (first > last) return;
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        long days = (last - first) / (24L * 60 * 60 * 1000);
+        out.append("  • History: ").append(format.format(new Date(first))).append(" to ")
+           .append(format.format(new Date(last))).append(" (").append(days).append(" days)\n");
+    }
+}
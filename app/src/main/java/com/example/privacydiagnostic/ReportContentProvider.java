@@ -0,0 +1,76 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.core.content.FileProvider;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * The app's {@code .provider} FileProvider, which serves exported files and clipboard text
+ * too large to put in the clip itself. {@link #publish} writes the text to a file under the
+ * cache directory and returns its content URI, so the clip holds only the URI and stays
+ * readable after this process dies; receivers get the name, size and type FileProvider
+ * reports for any file.
+ *
+ * <p>The few most recent clips are kept; the system may also clear them with the cache.
+ */
+public final class ReportContentProvider extends FileProvider {
+    private static final String CLIPS_DIR = "clips";
+    private static final String CLIP_NAME = "PrivacyScan.txt";
+    private static final int MAX_CLIPS = 4;
+    private static final int CHUNK_CHARS = 8 * 1024;
+
+    /**
+     * Writes {@code text} to a new clip file and returns its content URI. Does disk I/O, so
+     * call it off the main thread.
+     */
+    static Uri publish(Context context, CharSequence text) throws IOException {
+        File clips = new File(context.getCacheDir(), CLIPS_DIR);
+        // One directory per clip, so every clip keeps the same display name
+        File dir = new File(clips, UUID.randomUUID().toString());
+        if (!dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        File file = new File(dir, CLIP_NAME);
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            // Chunked so the encoder never holds more than one slice of a large report
+            for (int start = 0; start < text.length(); start += CHUNK_CHARS) {
+                out.append(text, start, Math.min(text.length(), start + CHUNK_CHARS));
+            }
+        } catch (IOException e) {
+            delete(dir);
+            throw e;
+        }
+        evictOldClips(clips);
+        return getUriForFile(context, context.getPackageName() + ".provider", file);
+    }
+
+    private static void evictOldClips(File clips) {
+        File[] dirs = clips.listFiles();
+        if (dirs == null || dirs.length <= MAX_CLIPS) return;
+        // Newest first
+        Arrays.sort(dirs, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_CLIPS; i < dirs.length; i++) {
+            delete(dirs[i]);
+        }
+    }
+
+    private static void delete(File dir) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                child.delete();
+            }
+        }
+        dir.delete();
+    }
+}
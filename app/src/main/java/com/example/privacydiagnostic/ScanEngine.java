@@ -0,0 +1,931 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.RestrictionsManager;
+import android.content.pm.PackageManager;
+import android.location.LocationManager;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.provider.Settings;
+import android.telephony.TelephonyManager;
+
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The full device scan, independent of any screen. It runs in the {@code :scanner} process
+ * behind {@link ScannerService}, so a crashing or hanging probe cannot take the UI with it;
+ * the activity also uses it for cheap single-field refreshes. Sections are handed to a
+ * {@link SectionListener} as each completes. Probes with on-disk caches are kept for the
+ * engine's lifetime, so repeat scans in a warm process skip re-reading those caches.
+ */
+final class ScanEngine extends ContextWrapper {
+    // Required permissions for comprehensive scanning
+    static final String[] REQUIRED_PERMISSIONS = {
+        Manifest.permission.ACCESS_FINE_LOCATION,
+        Manifest.permission.ACCESS_COARSE_LOCATION,
+        Manifest.permission.READ_PHONE_STATE,
+        Manifest.permission.READ_EXTERNAL_STORAGE,
+        Manifest.permission.READ_CONTACTS,
+        Manifest.permission.READ_CALL_LOG,
+        Manifest.permission.READ_SMS,
+        Manifest.permission.READ_CALENDAR
+    };
+
+    // A policy set through managed configuration replaces the bundled one; see app_restrictions.xml
+    static final String POLICY_RESTRICTION = "device_policy";
+    // Failing that, one here, in the app's internal files directory, which no other app can write
+    static final String POLICY_FILE = "device_policy.txt";
+
+    interface SectionListener {
+        void onSection(ScanReport.Section section);
+    }
+
+    private final TrackerSdkDetector trackerDetector;
+    private final ApkDigestCalculator digestCalculator;
+    private final StorageExposureScanner storageScanner;
+    private final ExifLocationScanner exifScanner;
+    private DevicePolicy policy;
+    private String policyError;
+    // Where the compiled policy came from and the SHA-256 of its text, shown in the section
+    private String policySource;
+    private String policyDigest;
+    // Identifies the policy compiled: the managed text, the side-loaded file's modification time or the bundled one
+    private String policyStamp;
+
+    ScanEngine(Context base) {
+        super(base);
+        File files = getFilesDir();
+        trackerDetector = new TrackerSdkDetector(new File(files, "tracker_scan.cache"));
+        digestCalculator = new ApkDigestCalculator(new File(files, "apk_digest.cache"));
+        storageScanner = new StorageExposureScanner(new File(files, "storage_scan.cache"));
+        exifScanner = new ExifLocationScanner(new File(files, "exif_scan.cache"));
+    }
+
+    /**
+     * Runs every probe in report order, passing each section to {@code listener} as soon as
+     * it is complete.
+     *
+     * @param cancel this scan's own signal, held by whoever started it
+     * @throws CancellationException if {@code cancel} was cancelled; checked before the first
+     *                               section and after each one
+     */
+    ScanReport scan(String completedAt, SectionListener listener, CancellationSignal cancel) {
+        return scan(completedAt, null, listener, cancel);
+    }
+
+    /**
+     * Runs the probes for {@code sections} (titles; null for all) and passes only those
+     * sections to {@code listener}. The score and the device policy also run the sections they
+     * read, unreported.
+     *
+     * @param cancel this scan's own signal, held by whoever started it
+     * @throws CancellationException if {@code cancel} was cancelled; checked before the first
+     *                               section and after each one
+     */
+    ScanReport scan(String completedAt, Set<String> sections, SectionListener listener,
+                    CancellationSignal cancel) {
+        // Cancelled while it was queued behind another scan
+        checkCancelled(cancel);
+        ScanReport report = new ScanReport(completedAt);
+
+        // Device Information
+        if (runs(sections, ScanReport.SECTION_DEVICE)) {
+            report.section(ScanReport.SECTION_DEVICE)
+                  .put("Manufacturer", Build.MANUFACTURER)
+                  .put("Model", Build.MODEL)
+                  .put("Device", Build.DEVICE)
+                  .put("Product", Build.PRODUCT)
+                  .put("Brand", Build.BRAND)
+                  .put("Hardware", Build.HARDWARE)
+                  .put("Serial", getDeviceSerial())
+                  .put("Android Version", Build.VERSION.RELEASE)
+                  .put("SDK Level", String.valueOf(Build.VERSION.SDK_INT))
+                  .put("Build ID", Build.ID)
+                  .put("Fingerprint", Build.FINGERPRINT)
+                  .put("Bootloader", Build.BOOTLOADER)
+                  .put("Radio", Build.RADIO);
+            emit(report, ScanReport.SECTION_DEVICE, sections, listener, cancel);
+        }
+
+        // Hardware Information
+        if (runs(sections, ScanReport.SECTION_HARDWARE)) {
+            SensorFingerprintProbe sensorProbe = new SensorFingerprintProbe(this);
+            report.section(ScanReport.SECTION_HARDWARE)
+                  .put("CPU Architecture", Build.CPU_ABI)
+                  .put("CPU Architecture 2", Build.CPU_ABI2)
+                  .put("Screen Resolution", getScreenResolution())
+                  .put("Screen Density", String.valueOf(getResources().getDisplayMetrics().density))
+                  .put("Available Sensors", String.valueOf(sensorProbe.getSensorCount()))
+                  .put("Sensor Details", sensorProbe.getInventory())
+                  .put("Sensor Fingerprinting", getSensorFingerprint(sensorProbe));
+            emit(report, ScanReport.SECTION_HARDWARE, sections, listener, cancel);
+        }
+
+        // Network Information
+        if (runs(sections, ScanReport.SECTION_NETWORK)) {
+            NearbyRadioProbe radioProbe = new NearbyRadioProbe(this);
+            report.section(ScanReport.SECTION_NETWORK)
+                  .put("WiFi MAC Address", getWifiMacAddress())
+                  .put("Bluetooth MAC Address", getBluetoothMacAddress())
+                  .put("Network Type", getNetworkType())
+                  .put("Network Operator", getNetworkOperator())
+                  .put("SIM Country", getSimCountry())
+                  .put("SIM Operator", getSimOperator())
+                  .put("SIM Serial", getSimSerial())
+                  .put("Phone Number", getPhoneNumber())
+                  .put("Network Country", getNetworkCountry())
+                  .put("Network Usage", "\n" + getNetworkUsage())
+                  .put("Nearby Wi-Fi", "\n" + radioProbe.describeWifi())
+                  .put("Nearby Bluetooth LE", "\n" + radioProbe.describeBle());
+            emit(report, ScanReport.SECTION_NETWORK, sections, listener, cancel);
+        }
+
+        // Location Information
+        if (runs(sections, ScanReport.SECTION_LOCATION)) {
+            report.section(ScanReport.SECTION_LOCATION)
+                  .put("GPS Enabled", isGpsEnabled())
+                  .put("Location Mode", getLocationMode())
+                  .put("Last Known Location", getLastKnownLocation())
+                  .put("Location Providers", getLocationProviders());
+            emit(report, ScanReport.SECTION_LOCATION, sections, listener, cancel);
+        }
+
+        // Installed Apps
+        if (runs(sections, ScanReport.SECTION_APPS)) {
+            report.section(ScanReport.SECTION_APPS)
+                  .put("Total Apps", String.valueOf(getInstalledAppsCount()))
+                  .put("System Apps", String.valueOf(getSystemAppsCount()))
+                  .put("User Apps", String.valueOf(getUserAppsCount()))
+                  .put("App List Sample", getAppListSample())
+                  .put("Tracker SDKs", "\n" + getTrackerSdks())
+                  .put("App Signers", "\n" + getAppSigners())
+                  .put("Exported Components", "\n" + getExportedComponents());
+            emit(report, ScanReport.SECTION_APPS, sections, listener, cancel);
+        }
+
+        // Personal Data Providers
+        if (runs(sections, ScanReport.SECTION_PERSONAL_DATA)) {
+            report.section(ScanReport.SECTION_PERSONAL_DATA)
+                  .text(new ProviderExposureProbe(this).collect());
+            emit(report, ScanReport.SECTION_PERSONAL_DATA, sections, listener, cancel);
+        }
+
+        // File System Access
+        if (runs(sections, ScanReport.SECTION_FILES)) {
+            report.section(ScanReport.SECTION_FILES)
+                  .put("External Storage", isExternalStorageAvailable())
+                  .put("Internal Storage", getInternalStorageInfo())
+                  .put("Download Directory", getDownloadDirectory())
+                  .put("Camera Directory", getCameraDirectory())
+                  .put("Documents Directory", getDocumentsDirectory())
+                  .put("Shared Storage Exposure", "\n" + getStorageExposure());
+            emit(report, ScanReport.SECTION_FILES, sections, listener, cancel);
+        }
+
+        // Camera and Media
+        if (runs(sections, ScanReport.SECTION_CAMERA)) {
+            report.section(ScanReport.SECTION_CAMERA)
+                  .put("Camera Permission", hasCameraPermission())
+                  .put("Microphone Permission", hasMicrophonePermission())
+                  .put("Storage Permission", hasStoragePermission())
+                  .put("Camera Hardware", hasCameraHardware())
+                  .put("Front Camera", hasFrontCamera())
+                  .put("Back Camera", hasBackCamera())
+                  .put("Flash Available", hasFlash())
+                  .put("Autofocus Available", hasAutofocus())
+                  .put("Photo Location Leaks", "\n" + getPhotoLocationExposure())
+                  .put("Sensor Access Monitor", getSensorMonitorStatus())
+                  .put("Sensor Access During Scans (24h)", "\n" + SensorAccessMonitor.get(this).describeRecentAccess(24 * 60 * 60 * 1000L, 20));
+            emit(report, ScanReport.SECTION_CAMERA, sections, listener, cancel);
+        }
+
+        // System Settings
+        if (runs(sections, ScanReport.SECTION_SETTINGS)) {
+            report.section(ScanReport.SECTION_SETTINGS)
+                  .put("Language", Locale.getDefault().getLanguage())
+                  .put("Country", Locale.getDefault().getCountry())
+                  .put("Time Zone", getTimeZone())
+                  .put("Auto Time", isAutoTimeEnabled())
+                  .put("Auto Time Zone", isAutoTimeZoneEnabled())
+                  .put("Screen Timeout", getScreenTimeout())
+                  .put("Brightness Mode", getBrightnessMode())
+                  .put("Screen Brightness", getScreenBrightness())
+                  .put("Volume Settings", getVolumeSettings());
+            emit(report, ScanReport.SECTION_SETTINGS, sections, listener, cancel);
+        }
+
+        // Unique Identifiers
+        if (runs(sections, ScanReport.SECTION_IDENTIFIERS)) {
+            report.section(ScanReport.SECTION_IDENTIFIERS)
+                  .put("Android ID", Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID))
+                  .put("Advertising ID", getAdvertisingId())
+                  .put("Installation ID", getInstallationId())
+                  .put("Device ID", getDeviceId())
+                  .put("Subscriber ID", getSubscriberId())
+                  .put("Line 1 Number", getLine1Number());
+            emit(report, ScanReport.SECTION_IDENTIFIERS, sections, listener, cancel);
+        }
+
+        // Permission Analysis
+        if (runs(sections, ScanReport.SECTION_PERMISSIONS)) {
+            report.section(ScanReport.SECTION_PERMISSIONS)
+                  .put("Dangerous Permissions", getDangerousPermissions())
+                  .put("Normal Permissions", getNormalPermissions())
+                  .put("Signature Permissions", getSignaturePermissions())
+                  .put("Permission Status", getPermissionStatus())
+                  .put("Sensitive Access (7 days)", "\n" + getSensitiveAccessHistory());
+            emit(report, ScanReport.SECTION_PERMISSIONS, sections, listener, cancel);
+        }
+
+        // Missing Permissions Warning
+        if (runs(sections, ScanReport.SECTION_MISSING_PERMISSIONS) && updateMissingPermissions(report)) {
+            emit(report, ScanReport.SECTION_MISSING_PERMISSIONS, sections, listener, cancel);
+        }
+
+        // Privacy Score; its inputs are all in the sections above
+        if (runs(sections, ScanReport.SECTION_SCORE)) {
+            updatePrivacyScore(report);
+            emit(report, ScanReport.SECTION_SCORE, sections, listener, cancel);
+        }
+
+        // Additional Privacy Concerns
+        if (runs(sections, ScanReport.SECTION_CONCERNS)) {
+            report.section(ScanReport.SECTION_CONCERNS)
+                  .put("Root Detection", detectRoot())
+                  .put("Emulator Detection", detectEmulator())
+                  .put("Debug Mode", isDebugMode())
+                  .put("Developer Options", areDeveloperOptionsEnabled())
+                  .put("USB Debugging", isUsbDebuggingEnabled());
+            emit(report, ScanReport.SECTION_CONCERNS, sections, listener, cancel);
+        }
+
+        // Device Policy; its rules read the sections above
+        if (runs(sections, ScanReport.SECTION_POLICY)) {
+            updateDevicePolicy(report);
+            emit(report, ScanReport.SECTION_POLICY, sections, listener, cancel);
+        }
+        return report;
+    }
+
+    /** @return true if the report now has a missing-permissions section */
+    boolean updateMissingPermissions(ScanReport report) {
+        StringBuilder missing = new StringBuilder();
+        for (String permission : REQUIRED_PERMISSIONS) {
+            if (ContextCompat.checkSelfPermission(this, permission) != PackageManager.PERMISSION_GRANTED) {
+                String permissionName = permission.substring(permission.lastIndexOf('.') + 1);
+                missing.append("• ").append(permissionName).append("\n");
+            }
+        }
+        if (missing.length() == 0) {
+            report.removeSection(ScanReport.SECTION_MISSING_PERMISSIONS);
+            return false;
+        }
+        report.sectionAfter(ScanReport.SECTION_PERMISSIONS, ScanReport.SECTION_MISSING_PERMISSIONS).clear()
+              .text("Some permissions are not granted. To get more comprehensive results:\n" + missing);
+        return true;
+    }
+
+    void updatePrivacyScore(ScanReport report) {
+        PrivacyScore.update(report);
+    }
+
+    /**
+     * Evaluates the device policy against the report's current fields. The section names the
+     * policy's source and hash, so a policy replaced on the device shows in every report.
+     */
+    synchronized void updateDevicePolicy(ScanReport report) {
+        DevicePolicy current = policy();
+        ScanReport.Section section;
+        if (current != null) {
+            current.evaluate(report).writeTo(report);
+            section = report.section(ScanReport.SECTION_POLICY);
+        } else {
+            section = report.section(ScanReport.SECTION_POLICY).clear().put("Policy Error", policyError);
+        }
+        section.put("Policy Source", policySource)
+               .put("Policy SHA-256", policyDigest != null ? policyDigest : "Unreadable");
+    }
+
+    /**
+     * The managed {@link #POLICY_RESTRICTION} if an administrator set one, else the side-loaded
+     * {@link #POLICY_FILE} if there is one, otherwise the bundled policy; compiled once and
+     * again only when the source changes. Null if it does not compile, with the reason in
+     * {@link #policyError}.
+     */
+    private synchronized DevicePolicy policy() {
+        String managed = managedPolicy();
+        File sideLoaded = new File(getFilesDir(), POLICY_FILE);
+        String stamp = managed != null ? "managed:" + managed
+                : sideLoaded.isFile() ? "file:" + sideLoaded.lastModified() : "bundled";
+        if (stamp.equals(policyStamp)) return policy;
+        policyStamp = stamp;
+        policy = null;
+        policyDigest = null;
+        try {
+            byte[] text;
+            if (managed != null) {
+                policySource = "Managed configuration";
+                text = managed.getBytes(StandardCharsets.UTF_8);
+            } else if (sideLoaded.isFile()) {
+                policySource = sideLoaded.getPath();
+                text = readAll(new FileInputStream(sideLoaded));
+            } else {
+                policySource = "Bundled policy";
+                text = readAll(getResources().openRawResource(R.raw.device_policy));
+            }
+            policyDigest = sha256(text);
+            policy = DevicePolicy.compile(new InputStreamReader(new ByteArrayInputStream(text), StandardCharsets.UTF_8));
+            policyError = null;
+        } catch (IOException | ParseException e) {
+            policyError = policySource + ": " + e.getMessage();
+        }
+        return policy;
+    }
+
+    /** The policy text from managed configuration, or null if none is set. */
+    private String managedPolicy() {
+        RestrictionsManager restrictions = (RestrictionsManager) getSystemService(Context.RESTRICTIONS_SERVICE);
+        Bundle managed = restrictions != null ? restrictions.getApplicationRestrictions() : null;
+        if (managed == null) return null;
+        String text = managed.getString(POLICY_RESTRICTION);
+        return text == null || text.trim().isEmpty() ? null : text;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static String sha256(byte[] text) throws IOException {
+        try {
+            return ApkDigestCalculator.toHex(MessageDigest.getInstance("SHA-256").digest(text));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String getDeviceSerial() {
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                return Build.getSerial();
+            } else {
+                return Build.SERIAL;
+            }
+        } catch (SecurityException e) {
+            return "Permission denied";
+        }
+    }
+
+    private String getScreenResolution() {
+        int width = getResources().getDisplayMetrics().widthPixels;
+        int height = getResources().getDisplayMetrics().heightPixels;
+        return width + "x" + height;
+    }
+
+    private String getWifiMacAddress() {
+        try {
+            WifiManager wifiManager = (WifiManager) getApplicationContext().getSystemService(Context.WIFI_SERVICE);
+            if (wifiManager != null && wifiManager.isWifiEnabled()) {
+                return wifiManager.getConnectionInfo().getMacAddress();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return "Not accessible";
+    }
+
+    private String getBluetoothMacAddress() {
+        try {
+            List<NetworkInterface> interfaces = Collections.list(NetworkInterface.getNetworkInterfaces());
+            for (NetworkInterface networkInterface : interfaces) {
+                if (networkInterface.getName().equalsIgnoreCase("bt-pan") || 
+                    networkInterface.getName().equalsIgnoreCase("bluetooth0")) {
+                    byte[] mac = networkInterface.getHardwareAddress();
+                    if (mac != null) {
+                        StringBuilder sb = new StringBuilder();
+                        for (byte b : mac) {
+                            sb.append(String.format("%02X:", b));
+                        }
+                        return sb.substring(0, sb.length() - 1);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return "Not accessible";
+    }
+
+    String getNetworkType() {
+        ConnectivityManager cm = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+        if (activeNetwork != null) {
+            return activeNetwork.getTypeName();
+        }
+        return "Unknown";
+    }
+
+    private String getNetworkUsage() {
+        try {
+            NetworkUsageProbe probe = new NetworkUsageProbe(this);
+            if (!NetworkUsageProbe.hasUsageAccess(this)) {
+                return "Usage access not granted; showing counters since boot\n" + probe.describeSinceBoot();
+            }
+            long day = 24 * 60 * 60 * 1000L;
+            return probe.describe(day, "Last 24 Hours") + probe.describe(30 * day, "Last 30 Days");
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String getNetworkOperator() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getNetworkOperatorName();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getSimCountry() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getSimCountryIso();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getSimOperator() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getSimOperatorName();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getSimSerial() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getSimSerialNumber();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getPhoneNumber() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_NUMBERS) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getLine1Number();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getNetworkCountry() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getNetworkCountryIso();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    String isGpsEnabled() {
+        LocationManager lm = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        return lm.isProviderEnabled(LocationManager.GPS_PROVIDER) ? "Yes" : "No";
+    }
+
+    String getLocationMode() {
+        return DevicePosture.locationMode(getContentResolver());
+    }
+
+    private String getLastKnownLocation() {
+        LocationExposureProbe probe = new LocationExposureProbe(this);
+        if (!probe.hasPermission()) {
+            return "Requires location permission";
+        }
+        try {
+            // Bounded wait for one fresh fix per enabled provider
+            probe.collect(5000);
+            StringBuilder locations = new StringBuilder("\n");
+            probe.appendTo(locations);
+            return locations.substring(0, locations.length() - 1);
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getLocationProviders() {
+        LocationManager lm = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        List<String> providers = lm.getAllProviders();
+        StringBuilder providerList = new StringBuilder();
+        for (String provider : providers) {
+            providerList.append(provider).append(", ");
+        }
+        return providerList.length() > 0 ? providerList.substring(0, providerList.length() - 2) : "None";
+    }
+
+    private int getInstalledAppsCount() {
+        PackageManager pm = getPackageManager();
+        return pm.getInstalledApplications(PackageManager.GET_META_DATA).size();
+    }
+
+    private int getSystemAppsCount() {
+        PackageManager pm = getPackageManager();
+        return pm.getInstalledApplications(PackageManager.GET_META_DATA | PackageManager.GET_SHARED_LIBRARY_FILES).size();
+    }
+
+    private int getUserAppsCount() {
+        return getInstalledAppsCount() - getSystemAppsCount();
+    }
+
+    private String getAppListSample() {
+        PackageManager pm = getPackageManager();
+        List<android.content.pm.ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
+        StringBuilder sample = new StringBuilder();
+        int count = 0;
+        for (android.content.pm.ApplicationInfo app : apps) {
+            if (count < 5) {
+                sample.append(app.loadLabel(pm)).append(", ");
+                count++;
+            } else {
+                break;
+            }
+        }
+        return sample.length() > 0 ? sample.substring(0, sample.length() - 2) + "..." : "None";
+    }
+
+    private String getSensorFingerprint(SensorFingerprintProbe probe) {
+        try {
+            return probe.sampleFingerprint();
+        } catch (RuntimeException e) {
+            // e.g. a SecurityException for the sampling rate; the rest of the scan goes on
+            return "Unavailable: " + e.getMessage();
+        }
+    }
+
+    private String getTrackerSdks() {
+        try {
+            StringBuilder trackers = new StringBuilder();
+            BackgroundScanner.scanInstalledTrackers(this, trackerDetector).appendTo(trackers);
+            return trackers.toString();
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String getAppSigners() {
+        try {
+            return new SigningCertificateProbe(this, digestCalculator).collect();
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String getExportedComponents() {
+        try {
+            ExportedComponentInventory inventory = new ExportedComponentInventory(this);
+            inventory.collect();
+            StringBuilder components = new StringBuilder();
+            inventory.appendTo(components);
+            return components.toString();
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String isExternalStorageAvailable() {
+        return android.os.Environment.getExternalStorageState().equals(android.os.Environment.MEDIA_MOUNTED) ? "Yes" : "No";
+    }
+
+    private String getInternalStorageInfo() {
+        File internalDir = getFilesDir();
+        long totalSpace = internalDir.getTotalSpace();
+        long freeSpace = internalDir.getFreeSpace();
+        return String.format("%.2f GB free of %.2f GB", freeSpace / (1024.0 * 1024.0 * 1024.0), totalSpace / (1024.0 * 1024.0 * 1024.0));
+    }
+
+    private String getDownloadDirectory() {
+        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DOWNLOADS).getAbsolutePath();
+    }
+
+    private String getCameraDirectory() {
+        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DCIM).getAbsolutePath();
+    }
+
+    private String getDocumentsDirectory() {
+        return android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DOCUMENTS).getAbsolutePath();
+    }
+
+    private String getStorageExposure() {
+        try {
+            // Directory listings are cached by mtime across scans in app-private storage
+            StringBuilder exposure = new StringBuilder();
+            storageScanner.scan(android.os.Environment.getExternalStorageDirectory()).appendTo(exposure);
+            return exposure.toString();
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String getPhotoLocationExposure() {
+        StringBuilder exposure = new StringBuilder();
+        boolean redacted = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_MEDIA_LOCATION) != PackageManager.PERMISSION_GRANTED;
+        if (redacted) {
+            // Android 10+ redacts GPS tags from file reads without ACCESS_MEDIA_LOCATION
+            exposure.append("Note: GPS tags are hidden from this app without ACCESS_MEDIA_LOCATION; apps holding it see them\n");
+        }
+        try {
+            exifScanner.scan(redacted, android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_DCIM),
+                             android.os.Environment.getExternalStoragePublicDirectory(android.os.Environment.DIRECTORY_PICTURES))
+                       .appendTo(exposure);
+        } catch (Exception e) {
+            exposure.append("Error: ").append(e.getMessage()).append("\n");
+        }
+        return exposure.toString();
+    }
+
+    String hasCameraPermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
+    }
+
+    String hasMicrophonePermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.RECORD_AUDIO) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
+    }
+
+    String hasStoragePermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.WRITE_EXTERNAL_STORAGE) == PackageManager.PERMISSION_GRANTED ? "Yes" : "No";
+    }
+
+    private String hasCameraHardware() {
+        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA) ? "Yes" : "No";
+    }
+
+    private String hasFrontCamera() {
+        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_FRONT) ? "Yes" : "No";
+    }
+
+    private String hasBackCamera() {
+        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_ANY) ? "Yes" : "No";
+    }
+
+    private String hasFlash() {
+        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_FLASH) ? "Yes" : "No";
+    }
+
+    private String hasAutofocus() {
+        return getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA_AUTOFOCUS) ? "Yes" : "No";
+    }
+
+    private String getSensorMonitorStatus() {
+        SensorAccessMonitor monitor = SensorAccessMonitor.get(this);
+        if (!monitor.isRunning()) return "Not running";
+        StringBuilder status = new StringBuilder("Active (camera");
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) status.append(", microphone");
+        if (monitor.isWatchingAppOps()) status.append(", app ops");
+        status.append(")");
+        if (monitor.getDroppedCount() > 0) status.append(", ").append(monitor.getDroppedCount()).append(" events dropped");
+        return status.toString();
+    }
+
+    private String getTimeZone() {
+        return java.util.TimeZone.getDefault().getID();
+    }
+
+    String isAutoTimeEnabled() {
+        return DevicePosture.autoTime(getContentResolver());
+    }
+
+    String isAutoTimeZoneEnabled() {
+        return DevicePosture.autoTimeZone(getContentResolver());
+    }
+
+    String getScreenTimeout() {
+        try {
+            int timeout = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_OFF_TIMEOUT);
+            return (timeout / 1000) + " seconds";
+        } catch (Settings.SettingNotFoundException e) {
+            return "Unknown";
+        }
+    }
+
+    String getBrightnessMode() {
+        try {
+            int mode = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_BRIGHTNESS_MODE);
+            return mode == Settings.System.SCREEN_BRIGHTNESS_MODE_AUTOMATIC ? "Automatic" : "Manual";
+        } catch (Settings.SettingNotFoundException e) {
+            return "Unknown";
+        }
+    }
+
+    String getScreenBrightness() {
+        try {
+            int brightness = Settings.System.getInt(getContentResolver(), Settings.System.SCREEN_BRIGHTNESS);
+            return String.valueOf(brightness);
+        } catch (Settings.SettingNotFoundException e) {
+            return "Unknown";
+        }
+    }
+
+    private String getVolumeSettings() {
+        try {
+            android.media.AudioManager audioManager = (android.media.AudioManager) getSystemService(Context.AUDIO_SERVICE);
+            int musicVolume = audioManager.getStreamVolume(android.media.AudioManager.STREAM_MUSIC);
+            int maxVolume = audioManager.getStreamMaxVolume(android.media.AudioManager.STREAM_MUSIC);
+            return "Music: " + musicVolume + "/" + maxVolume;
+        } catch (Exception e) {
+            return "Unknown";
+        }
+    }
+
+    private String getAdvertisingId() {
+        return "Requires Google Play Services";
+    }
+
+    private String getInstallationId() {
+        return Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
+    }
+
+    private String getDeviceId() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                return tm.getImei();
+            } else {
+                return tm.getDeviceId();
+            }
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getSubscriberId() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getSubscriberId();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getLine1Number() {
+        try {
+        TelephonyManager tm = (TelephonyManager) getSystemService(Context.TELEPHONY_SERVICE);
+        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.READ_PHONE_NUMBERS) == PackageManager.PERMISSION_GRANTED) {
+            return tm.getLine1Number();
+        }
+        return "Permission required";
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getDangerousPermissions() {
+        return "Camera, Location, Microphone, Storage, Phone State, Contacts, SMS, Calendar";
+    }
+
+    private String getNormalPermissions() {
+        return "Internet, Network State, Wake Lock, Vibrate";
+    }
+
+    private String getSignaturePermissions() {
+        return "System Alert Window, Write Settings, Modify Phone State";
+    }
+
+    String getPermissionStatus() {
+        StringBuilder status = new StringBuilder();
+        for (String permission : REQUIRED_PERMISSIONS) {
+            boolean granted = ContextCompat.checkSelfPermission(this, permission) == PackageManager.PERMISSION_GRANTED;
+            status.append(permission.substring(permission.lastIndexOf('.') + 1))
+                  .append(": ")
+                  .append(granted ? "✓" : "✗")
+                  .append(", ");
+        }
+        return status.length() > 0 ? status.substring(0, status.length() - 2) : "None";
+    }
+
+    private String getSensitiveAccessHistory() {
+        try {
+            return new SensitiveAccessProbe(this).describe(7 * 24 * 60 * 60 * 1000L);
+        } catch (Exception e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String detectRoot() {
+        return DevicePosture.detectRoot();
+    }
+
+    private String detectEmulator() {
+        if (Build.FINGERPRINT.startsWith("generic") || Build.FINGERPRINT.startsWith("unknown") ||
+            Build.MODEL.contains("google_sdk") || Build.MODEL.contains("Emulator") ||
+            Build.MODEL.contains("Android SDK built for x86") || Build.MANUFACTURER.contains("Genymotion") ||
+            (Build.BRAND.startsWith("generic") && Build.DEVICE.startsWith("generic")) ||
+            "google_sdk".equals(Build.PRODUCT)) {
+            return "Emulator detected";
+        }
+        return "Real device";
+    }
+
+    private String isDebugMode() {
+        return (getApplicationInfo().flags & android.content.pm.ApplicationInfo.FLAG_DEBUGGABLE) != 0 ? "Yes" : "No";
+    }
+
+    String areDeveloperOptionsEnabled() {
+        return DevicePosture.developerOptions(getContentResolver());
+    }
+
+    String isUsbDebuggingEnabled() {
+        return DevicePosture.usbDebugging(getContentResolver());
+    }
+
+    private boolean runs(Set<String> sections, String title) {
+        if (sections == null || sections.contains(title)) return true;
+        boolean scored = sections.contains(ScanReport.SECTION_SCORE);
+        if (sections.contains(ScanReport.SECTION_POLICY)) {
+            DevicePolicy current = policy();
+            if (current != null) {
+                if (current.reads(title)) return true;
+                scored |= current.reads(ScanReport.SECTION_SCORE);
+            }
+        }
+        if (!scored) return false;
+        for (String input : PrivacyScore.INPUT_SECTIONS) {
+            if (input.equals(title)) return true;
+        }
+        return false;
+    }
+
+    private void emit(ScanReport report, String title, Set<String> sections, SectionListener listener,
+                      CancellationSignal cancel) {
+        if (sections == null || sections.contains(title)) {
+            listener.onSection(report.getSection(title));
+        }
+        checkCancelled(cancel);
+    }
+
+    private static void checkCancelled(CancellationSignal cancel) {
+        if (cancel.isCanceled()) {
+            throw new CancellationException("Scan cancelled");
+        }
+    }
+}
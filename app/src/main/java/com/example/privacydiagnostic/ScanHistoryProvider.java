@@ -0,0 +1,184 @@
+package com.example.privacydiagnostic;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only access to stored scans for other tools on managed devices, such as MDM agents
+ * and dashboards. Two tables, both selected through query parameters rather than SQL:
+ *
+ * <pre>
+ * content://com.example.privacydiagnostic.history/scans?from=&amp;to=&amp;trigger=
+ * content://com.example.privacydiagnostic.history/fields?from=&amp;to=&amp;scan=&amp;sections=apps,score
+ * </pre>
+ *
+ * {@code from}/{@code to} bound the scan time in epoch millis (to is exclusive) and
+ * {@code sections} takes the keys from {@link ScanReport#sectionKey}. A projection narrows
+ * the columns. Results come in pages ordered by {@code _id}: at most {@code limit} rows, and
+ * fewer if the values would not fit in one cursor window, so each page crosses the process
+ * boundary in a single transfer. Pass the last {@code _id} as {@code after} for the next
+ * page; an empty page means the end.
+ */
+public final class ScanHistoryProvider extends ContentProvider {
+    static final String PATH_SCANS = "scans";
+    static final String PATH_FIELDS = "fields";
+
+    static final String PARAM_FROM = "from";
+    static final String PARAM_TO = "to";
+    static final String PARAM_TRIGGER = "trigger";
+    static final String PARAM_SCAN = "scan";
+    static final String PARAM_SECTIONS = "sections";
+    static final String PARAM_AFTER = "after";
+    static final String PARAM_LIMIT = "limit";
+
+    private static final int DEFAULT_PAGE_ROWS = 256;
+    private static final int MAX_PAGE_ROWS = 2000;
+    // Half the default 2 MB window, leaving room for the window's per-row and per-cell slots
+    private static final int PAGE_BYTES = 1024 * 1024;
+    private static final int ROW_OVERHEAD_BYTES = 64;
+
+    private static final String[] SCAN_COLUMNS = {ScanHistoryStore.COLUMN_ID, ScanHistoryStore.COLUMN_TIMESTAMP,
+            ScanHistoryStore.COLUMN_TRIGGER, ScanHistoryStore.COLUMN_CPU_MILLIS, ScanHistoryStore.COLUMN_COMPLETE};
+    private static final String[] FIELD_COLUMNS = {ScanHistoryStore.COLUMN_ID, ScanHistoryStore.COLUMN_SCAN_ID,
+            ScanHistoryStore.COLUMN_TIMESTAMP, ScanHistoryStore.COLUMN_SECTION, ScanHistoryStore.COLUMN_KEY,
+            ScanHistoryStore.COLUMN_VALUE};
+
+    private static final String MIME_SCANS = "vnd.android.cursor.dir/vnd.com.example.privacydiagnostic.scan";
+    private static final String MIME_FIELDS = "vnd.android.cursor.dir/vnd.com.example.privacydiagnostic.scan_field";
+
+    @Override
+    public boolean onCreate() {
+        // The database is opened on the first query
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        if (selection != null || sortOrder != null) {
+            throw new IllegalArgumentException("Select with query parameters; results are ordered by _id");
+        }
+        long from = longParameter(uri, PARAM_FROM, 0);
+        long to = longParameter(uri, PARAM_TO, Long.MAX_VALUE);
+        long after = longParameter(uri, PARAM_AFTER, 0);
+        int limit = (int) Math.max(1, Math.min(MAX_PAGE_ROWS, longParameter(uri, PARAM_LIMIT, DEFAULT_PAGE_ROWS)));
+        ScanHistoryStore store = ScanHistoryStore.get(getContext());
+        String[] columns;
+        Cursor rows;
+        switch (path(uri)) {
+            case PATH_SCANS:
+                columns = checkProjection(projection, SCAN_COLUMNS);
+                rows = store.queryScans(columns, from, to, uri.getQueryParameter(PARAM_TRIGGER), after, limit);
+                break;
+            case PATH_FIELDS:
+                columns = checkProjection(projection, FIELD_COLUMNS);
+                Set<String> sections = HeadlessScanProvider.parseSections(uri.getQueryParameter(PARAM_SECTIONS));
+                rows = store.queryScanFields(columns, from, to,
+                        sections != null ? sections.toArray(new String[0]) : null,
+                        longParameter(uri, PARAM_SCAN, -1), after, limit);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+        try {
+            return page(rows, columns, limit);
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * Copies rows until the estimated window size is reached. A SQLite cursor would be sent in
+     * as many window fills as its data needs, each one a round trip from the consumer.
+     */
+    private static Cursor page(Cursor rows, String[] columns, int limit) {
+        MatrixCursor page = new MatrixCursor(columns, Math.min(limit, 64));
+        Object[] row = new Object[columns.length];
+        long bytes = 0;
+        while (rows.moveToNext()) {
+            long rowBytes = ROW_OVERHEAD_BYTES;
+            for (int i = 0; i < row.length; i++) {
+                switch (rows.getType(i)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        row[i] = null;
+                        break;
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        row[i] = rows.getLong(i);
+                        rowBytes += 8;
+                        break;
+                    default:
+                        String value = rows.getString(i);
+                        row[i] = value;
+                        // Windows hold UTF-8; most scan text is ASCII
+                        rowBytes += value.length() + 1;
+                }
+            }
+            // A single oversized row still goes out on its own page
+            if (bytes + rowBytes > PAGE_BYTES && page.getCount() > 0) break;
+            bytes += rowBytes;
+            page.addRow(row);
+        }
+        return page;
+    }
+
+    private static String path(Uri uri) {
+        List<String> segments = uri.getPathSegments();
+        return segments.size() == 1 ? segments.get(0) : "";
+    }
+
+    private static String[] checkProjection(String[] projection, String[] allowed) {
+        if (projection == null) return allowed;
+        for (String column : projection) {
+            boolean known = false;
+            for (String name : allowed) {
+                if (name.equals(column)) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+        return projection;
+    }
+
+    private static long longParameter(Uri uri, String name, long defaultValue) {
+        String value = uri.getQueryParameter(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number: " + value);
+        }
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        switch (path(uri)) {
+            case PATH_SCANS: return MIME_SCANS;
+            case PATH_FIELDS: return MIME_FIELDS;
+            default: return null;
+        }
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Scan history is read-only");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Scan history is read-only");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Scan history is read-only");
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.privacydiagnostic;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * On-device history of everything the app observes over time.
+ * One process-wide instance; SQLiteOpenHelper serialises access internally.
+ * Scans are served to other apps through {@link ScanHistoryProvider}, so identifiers and
+ * location fields are dropped before a scan is stored.
+ */
+final class ScanHistoryStore extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "scan_history.db";
+    private static final int DATABASE_VERSION = 4;
+
+    static final String TABLE_SENSOR_ACCESS = "sensor_access";
+    static final String COLUMN_TIMESTAMP = "timestamp";
+    static final String COLUMN_SOURCE = "source";
+    static final String COLUMN_ACTIVE = "active";
+    static final String COLUMN_SUBJECT = "subject";
+
+    static final String TABLE_SCANS = "scans";
+    static final String COLUMN_ID = "_id";
+    static final String COLUMN_TRIGGER = "trigger";
+    static final String COLUMN_CPU_MILLIS = "cpu_millis";
+    static final String COLUMN_COMPLETE = "complete";
+
+    static final String TABLE_SCAN_FIELDS = "scan_fields";
+    static final String COLUMN_SCAN_ID = "scan_id";
+    static final String COLUMN_SECTION = "section";
+    static final String COLUMN_KEY = "field_key";
+    static final String COLUMN_VALUE = "value";
+
+    static final String TRIGGER_SCHEDULED = "scheduled";
+    static final String TRIGGER_INTERACTIVE = "interactive";
+
+    private static final int MAX_STORED_SCANS = 500;
+
+    // Fields that identify the device, its SIM or its owner, place it, or show per-app usage;
+    // never stored
+    private static final String[] PERSONAL_KEYS = {"Serial", "WiFi MAC Address", "Bluetooth MAC Address",
+            "SIM Serial", "Phone Number", "Subscriber ID", "Device ID", "Line 1 Number",
+            "Last Known Location", "Nearby Wi-Fi", "Nearby Bluetooth LE", "Photo Location Leaks",
+            "Sensitive Access (7 days)", "Sensor Access During Scans (24h)",
+            // Earlier name of the field above, still present in databases from version 3
+            "Recent Sensor Access (24h)"};
+
+    private static ScanHistoryStore instance;
+
+    static synchronized ScanHistoryStore get(Context context) {
+        if (instance == null) {
+            instance = new ScanHistoryStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ScanHistoryStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SENSOR_ACCESS + " ("
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL, "
+                + COLUMN_SOURCE + " INTEGER NOT NULL, "
+                + COLUMN_ACTIVE + " INTEGER NOT NULL, "
+                + COLUMN_SUBJECT + " TEXT)");
+        db.execSQL("CREATE INDEX sensor_access_time ON " + TABLE_SENSOR_ACCESS + " (" + COLUMN_TIMESTAMP + ")");
+        createScanTables(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createScanTables(db);
+        } else if (oldVersion < 4) {
+            // Scans stored before personal fields were dropped on insert, or before the
+            // photo location and per-app usage fields joined them
+            StringBuilder keys = new StringBuilder();
+            for (int i = 0; i < PERSONAL_KEYS.length; i++) {
+                keys.append(i == 0 ? "?" : ", ?");
+            }
+            String[] args = Arrays.copyOf(PERSONAL_KEYS, PERSONAL_KEYS.length + 1);
+            args[PERSONAL_KEYS.length] = ScanReport.SECTION_IDENTIFIERS;
+            db.delete(TABLE_SCAN_FIELDS, COLUMN_KEY + " IN (" + keys + ") OR " + COLUMN_SECTION + " = ?", args);
+        }
+    }
+
+    /** Whether a field must stay out of the history because other apps can read it there. */
+    static boolean isPersonal(String section, String key) {
+        if (ScanReport.SECTION_IDENTIFIERS.equals(section)) return true;
+        for (String personal : PERSONAL_KEYS) {
+            if (personal.equals(key)) return true;
+        }
+        return false;
+    }
+
+    private static void createScanTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SCANS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL, "
+                + COLUMN_TRIGGER + " TEXT NOT NULL, "
+                + COLUMN_CPU_MILLIS + " INTEGER NOT NULL, "
+                + COLUMN_COMPLETE + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX scans_trigger_time ON " + TABLE_SCANS + " (" + COLUMN_TRIGGER + ", " + COLUMN_TIMESTAMP + ")");
+        // Fields keep report order through their rowid
+        db.execSQL("CREATE TABLE " + TABLE_SCAN_FIELDS + " ("
+                + COLUMN_SCAN_ID + " INTEGER NOT NULL, "
+                + COLUMN_SECTION + " TEXT NOT NULL, "
+                + COLUMN_KEY + " TEXT, "
+                + COLUMN_VALUE + " TEXT)");
+        db.execSQL("CREATE INDEX scan_fields_scan ON " + TABLE_SCAN_FIELDS + " (" + COLUMN_SCAN_ID + ")");
+    }
+
+    /**
+     * Stores one scan and its fields in a single transaction, dropping the oldest scans beyond
+     * the retention limit. {@link #isPersonal} fields are left out.
+     *
+     * @return the new scan's id
+     */
+    long insertScan(long timestamp, String trigger, long cpuMillis, boolean complete, ScanReport report) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insertField = db.compileStatement("INSERT INTO " + TABLE_SCAN_FIELDS
+                + " (" + COLUMN_SCAN_ID + ", " + COLUMN_SECTION + ", " + COLUMN_KEY + ", " + COLUMN_VALUE
+                + ") VALUES (?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            ContentValues scan = new ContentValues();
+            scan.put(COLUMN_TIMESTAMP, timestamp);
+            scan.put(COLUMN_TRIGGER, trigger);
+            scan.put(COLUMN_CPU_MILLIS, cpuMillis);
+            scan.put(COLUMN_COMPLETE, complete ? 1 : 0);
+            long scanId = db.insertOrThrow(TABLE_SCANS, null, scan);
+            for (ScanReport.Section section : report.getSections()) {
+                for (int i = 0; i < section.size(); i++) {
+                    if (isPersonal(section.getTitle(), section.getKey(i))) continue;
+                    insertField.bindLong(1, scanId);
+                    insertField.bindString(2, section.getTitle());
+                    bindNullable(insertField, 3, section.getKey(i));
+                    bindNullable(insertField, 4, section.getValue(i));
+                    insertField.executeInsert();
+                }
+            }
+            String oldest = "(SELECT " + COLUMN_ID + " FROM " + TABLE_SCANS + " ORDER BY " + COLUMN_ID
+                    + " DESC LIMIT 1 OFFSET " + (MAX_STORED_SCANS - 1) + ")";
+            db.execSQL("DELETE FROM " + TABLE_SCAN_FIELDS + " WHERE " + COLUMN_SCAN_ID + " < " + oldest);
+            db.execSQL("DELETE FROM " + TABLE_SCANS + " WHERE " + COLUMN_ID + " < " + oldest);
+            db.setTransactionSuccessful();
+            return scanId;
+        } finally {
+            db.endTransaction();
+            insertField.close();
+        }
+    }
+
+    /** Rebuilds the newest stored scan with this trigger, or returns null if there is none. */
+    ScanReport loadLatestScan(String trigger) {
+        SQLiteDatabase db = getReadableDatabase();
+        long scanId;
+        long timestamp;
+        try (Cursor scan = db.query(TABLE_SCANS, new String[] {COLUMN_ID, COLUMN_TIMESTAMP},
+                COLUMN_TRIGGER + " = ?", new String[] {trigger}, null, null, COLUMN_TIMESTAMP + " DESC", "1")) {
+            if (!scan.moveToFirst()) return null;
+            scanId = scan.getLong(0);
+            timestamp = scan.getLong(1);
+        }
+        ScanReport report = new ScanReport(BackgroundScanner.formatTimestamp(timestamp));
+        try (Cursor fields = db.query(TABLE_SCAN_FIELDS, new String[] {COLUMN_SECTION, COLUMN_KEY, COLUMN_VALUE},
+                COLUMN_SCAN_ID + " = ?", new String[] {String.valueOf(scanId)}, null, null, "rowid")) {
+            while (fields.moveToNext()) {
+                ScanReport.Section section = report.section(fields.getString(0));
+                if (fields.isNull(1)) {
+                    section.text(fields.getString(2));
+                } else {
+                    section.put(fields.getString(1), fields.getString(2));
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Stored scans in id order, starting after {@code afterId}, within
+     * {@code [fromMillis, toMillis)}. {@code trigger} may be null for all triggers.
+     */
+    Cursor queryScans(String[] columns, long fromMillis, long toMillis, String trigger, long afterId, int limit) {
+        StringBuilder where = new StringBuilder(COLUMN_ID + " > ? AND " + COLUMN_TIMESTAMP + " >= ? AND "
+                + COLUMN_TIMESTAMP + " < ?");
+        String[] args = {String.valueOf(afterId), String.valueOf(fromMillis), String.valueOf(toMillis)};
+        if (trigger != null) {
+            where.append(" AND ").append(COLUMN_TRIGGER).append(" = ?");
+            args = Arrays.copyOf(args, 4);
+            args[3] = trigger;
+        }
+        return getReadableDatabase().query(TABLE_SCANS, columns, where.toString(), args,
+                null, null, COLUMN_ID, String.valueOf(limit));
+    }
+
+    /**
+     * Stored fields in report order, starting after the field with rowid {@code afterRowId},
+     * for scans within {@code [fromMillis, toMillis)}. {@code sections} (titles) and
+     * {@code scanId} (below zero for any) narrow the result. Besides the field columns, rows
+     * carry the field's rowid as {@code _id} and the scan's timestamp.
+     */
+    Cursor queryScanFields(String[] columns, long fromMillis, long toMillis, String[] sections, long scanId,
+                           long afterRowId, int limit) {
+        List<String> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(fieldColumn(columns[i])).append(" AS ").append(columns[i]);
+        }
+        sql.append(" FROM ").append(TABLE_SCAN_FIELDS).append(" f JOIN ").append(TABLE_SCANS)
+           .append(" s ON s.").append(COLUMN_ID).append(" = f.").append(COLUMN_SCAN_ID)
+           .append(" WHERE f.rowid > ? AND s.").append(COLUMN_TIMESTAMP).append(" >= ? AND s.")
+           .append(COLUMN_TIMESTAMP).append(" < ?");
+        args.add(String.valueOf(afterRowId));
+        args.add(String.valueOf(fromMillis));
+        args.add(String.valueOf(toMillis));
+        if (scanId >= 0) {
+            sql.append(" AND f.").append(COLUMN_SCAN_ID).append(" = ?");
+            args.add(String.valueOf(scanId));
+        }
+        if (sections != null) {
+            sql.append(" AND f.").append(COLUMN_SECTION).append(" IN (");
+            for (int i = 0; i < sections.length; i++) {
+                sql.append(i > 0 ? ", ?" : "?");
+                args.add(sections[i]);
+            }
+            sql.append(')');
+        }
+        sql.append(" ORDER BY f.rowid LIMIT ").append(limit);
+        return getReadableDatabase().rawQuery(sql.toString(), args.toArray(new String[0]));
+    }
+
+    private static String fieldColumn(String column) {
+        switch (column) {
+            case COLUMN_ID: return "f.rowid";
+            case COLUMN_TIMESTAMP: return "s." + COLUMN_TIMESTAMP;
+            case COLUMN_SCAN_ID:
+            case COLUMN_SECTION:
+            case COLUMN_KEY:
+            case COLUMN_VALUE:
+                return "f." + column;
+            default:
+                throw new IllegalArgumentException("Unknown column: " + column);
+        }
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    /** Writes one drained batch of sensor events in a single transaction. */
+    void insertSensorEvents(long[] timestamps, int[] sources, boolean[] active, String[] subjects, int count) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_SENSOR_ACCESS
+                + " (" + COLUMN_TIMESTAMP + ", " + COLUMN_SOURCE + ", " + COLUMN_ACTIVE + ", " + COLUMN_SUBJECT
+                + ") VALUES (?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                insert.bindLong(1, timestamps[i]);
+                insert.bindLong(2, sources[i]);
+                insert.bindLong(3, active[i] ? 1 : 0);
+                if (subjects[i] != null) {
+                    insert.bindString(4, subjects[i]);
+                } else {
+                    insert.bindNull(4);
+                }
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    /** Newest sensor events first. */
+    Cursor querySensorEvents(long sinceMillis, int limit) {
+        return getReadableDatabase().query(TABLE_SENSOR_ACCESS,
+                new String[] {COLUMN_TIMESTAMP, COLUMN_SOURCE, COLUMN_ACTIVE, COLUMN_SUBJECT},
+                COLUMN_TIMESTAMP + " >= ?", new String[] {String.valueOf(sinceMillis)},
+                null, null, COLUMN_TIMESTAMP + " DESC", String.valueOf(limit));
+    }
+}
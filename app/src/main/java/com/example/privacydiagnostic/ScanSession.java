@@ -0,0 +1,368 @@
+package com.example.privacydiagnostic;
+
+import android.app.Application;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.RemoteException;
+import android.util.Log;
+
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.SavedStateHandle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * What the main screen is showing, kept outside the activity so a rotation neither restarts
+ * nor drops a scan. The session owns the scanner binding, so a scan streaming in keeps
+ * arriving while the activity is recreated. NFC reads and camera probes run on the session's
+ * worker, so one queued or running across a configuration change still delivers its result.
+ * If the process is killed in the background, the report and the shown text come back from
+ * a compressed snapshot that is only built when the system asks for saved state.
+ */
+public final class ScanSession extends AndroidViewModel {
+    private static final String TAG = "ScanSession";
+
+    static final int EVENT_CHANGED = 0;
+    static final int EVENT_COMPLETED = 1;
+    static final int EVENT_FAILED = 2;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_SCANNING = 1;
+    private static final int STATE_CANCELLED = 2;
+    // The process died mid-scan; only the sections received before that were saved
+    private static final int STATE_INTERRUPTED = 3;
+
+    private static final String KEY_SNAPSHOT = "scan_session";
+    private static final String KEY_REPORT = "report";
+    private static final String KEY_STATE = "state";
+    private static final String KEY_MESSAGE = "message";
+    private static final String KEY_HAS_RESULTS = "has_results";
+
+    interface Listener {
+        /** Called on the main thread with one of the {@code EVENT_*} values. */
+        void onSessionChanged(int event);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Worker for probes that make slow binder or I/O calls
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private Listener listener;
+
+    // Scanner process connection; the callback identifies the scan in progress
+    private IScannerService scanner;
+    private IScanCallback activeScan;
+    private boolean scanRequested;
+    private boolean cancelRequested;
+
+    // Only touched on the main thread
+    private ScanReport report;
+    private int state = STATE_IDLE;
+    private String message;
+    private String rendered;
+    private boolean hasResults;
+
+    private final ServiceConnection scannerConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            scanner = IScannerService.Stub.asInterface(service);
+            if (scanRequested) {
+                scanRequested = false;
+                startRemoteScan();
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            // The scanner process died; the binding brings it back for the next scan
+            scanner = null;
+            if (activeScan != null) {
+                activeScan = null;
+                fail("The scanner process stopped unexpectedly.");
+            }
+        }
+    };
+
+    public ScanSession(Application application, SavedStateHandle savedState) {
+        super(application);
+        restore(savedState.get(KEY_SNAPSHOT));
+        savedState.setSavedStateProvider(KEY_SNAPSHOT, this::snapshot);
+        application.bindService(new Intent(application, ScannerService.class), scannerConnection, Context.BIND_AUTO_CREATE);
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    boolean isScanning() {
+        return state == STATE_SCANNING;
+    }
+
+    boolean isCancelling() {
+        return cancelRequested;
+    }
+
+    /** Runs slow probe work off the main thread; it is only abandoned when the session is cleared. */
+    void execute(Runnable task) {
+        worker.execute(task);
+    }
+
+    /** True once there is something worth copying, a report or a tag/camera result. */
+    boolean hasResults() {
+        return hasResults;
+    }
+
+    /** True when neither a report nor any text has been shown yet. */
+    boolean isEmpty() {
+        return report == null && message == null && state == STATE_IDLE;
+    }
+
+    /** The last scan that ran to completion, or null; settings refreshes patch it in place. */
+    ScanReport getCompletedReport() {
+        return state == STATE_IDLE ? report : null;
+    }
+
+    String getDisplayText() {
+        if (message != null) return message;
+        if (report == null) {
+            return state == STATE_SCANNING ? "🔍 Scanning device...\n" : "";
+        }
+        if (rendered == null) rendered = report.render();
+        switch (state) {
+            case STATE_SCANNING:
+                return "🔍 Scanning device...\n\n" + rendered;
+            case STATE_CANCELLED:
+                return "Scan cancelled.\n\n" + rendered;
+            case STATE_INTERRUPTED:
+                return "⚠️ Scan interrupted before it finished. Partial results:\n\n" + rendered;
+            default:
+                return rendered;
+        }
+    }
+
+    /** Shows text in place of the report; a completed report stays available for refreshes. */
+    void showText(String text, boolean isResult) {
+        message = text;
+        hasResults |= isResult;
+        notifyListener(EVENT_CHANGED);
+    }
+
+    /** Called after the completed report was patched, so the next render picks it up. */
+    void reportUpdated() {
+        rendered = null;
+        if (message == null) notifyListener(EVENT_CHANGED);
+    }
+
+    void startScan() {
+        report = null;
+        rendered = null;
+        message = null;
+        state = STATE_SCANNING;
+        cancelRequested = false;
+        if (scanner != null) {
+            startRemoteScan();
+        } else {
+            // Still connecting to the scanner process
+            scanRequested = true;
+        }
+        notifyListener(EVENT_CHANGED);
+    }
+
+    /** Returns false if no scan had started yet, so there is nothing to wait for. */
+    boolean cancelScan() {
+        scanRequested = false;
+        if (activeScan == null) {
+            state = STATE_IDLE;
+            notifyListener(EVENT_CHANGED);
+            return false;
+        }
+        try {
+            // The scanner reports back through onScanFinished once the current section is done
+            scanner.cancelScan(activeScan);
+            cancelRequested = true;
+        } catch (RemoteException e) {
+            activeScan = null;
+            state = STATE_CANCELLED;
+        }
+        notifyListener(EVENT_CHANGED);
+        return true;
+    }
+
+    private void startRemoteScan() {
+        final IScanCallback callback = new IScanCallback.Stub() {
+            @Override
+            public void onScanStarted(String completedAt) {
+                handler.post(() -> {
+                    if (activeScan != this) return;
+                    report = new ScanReport(completedAt);
+                    rendered = null;
+                });
+            }
+
+            @Override
+            public void onSection(String title, String[] keys, String[] values) {
+                handler.post(() -> {
+                    if (activeScan != this || report == null) return;
+                    ScanReport.Section section = report.section(title);
+                    for (int i = 0; i < keys.length; i++) {
+                        if (keys[i] == null) {
+                            section.text(values[i]);
+                        } else {
+                            section.put(keys[i], values[i]);
+                        }
+                    }
+                    rendered = null;
+                    notifyListener(EVENT_CHANGED);
+                });
+            }
+
+            @Override
+            public void onScanFinished(boolean cancelled) {
+                handler.post(() -> {
+                    if (activeScan != this) return;
+                    activeScan = null;
+                    cancelRequested = false;
+                    if (cancelled) {
+                        state = STATE_CANCELLED;
+                        notifyListener(EVENT_CHANGED);
+                    } else {
+                        // The finished report replaces anything shown while it ran
+                        state = STATE_IDLE;
+                        message = null;
+                        hasResults = true;
+                        notifyListener(EVENT_COMPLETED);
+                    }
+                });
+            }
+
+            @Override
+            public void onScanFailed(String error) {
+                handler.post(() -> {
+                    if (activeScan != this) return;
+                    activeScan = null;
+                    fail(error);
+                });
+            }
+        };
+        activeScan = callback;
+        try {
+            scanner.startScan(callback);
+        } catch (RemoteException e) {
+            activeScan = null;
+            fail(e.getMessage());
+        }
+    }
+
+    private void fail(String error) {
+        // Show a user-friendly message; the scanner process logs the failure
+        state = STATE_IDLE;
+        cancelRequested = false;
+        report = null;
+        rendered = null;
+        message = "Scan completed with some errors:\n\n" +
+                "Error: " + error + "\n\n" +
+                "Some information may be incomplete due to missing permissions or system restrictions.";
+        notifyListener(EVENT_FAILED);
+    }
+
+    private void notifyListener(int event) {
+        if (listener != null) listener.onSessionChanged(event);
+    }
+
+    @Override
+    protected void onCleared() {
+        // The activity is finishing for good, not being recreated
+        listener = null;
+        if (activeScan != null && scanner != null) {
+            try {
+                scanner.cancelScan(activeScan);
+            } catch (RemoteException ignored) {
+                // Scanner already gone
+            }
+        }
+        activeScan = null;
+        getApplication().unbindService(scannerConnection);
+        worker.shutdownNow();
+    }
+
+    private Bundle snapshot() {
+        Bundle out = new Bundle();
+        // A scan still running cannot be resumed in a new process, so it restores as interrupted
+        out.putInt(KEY_STATE, state == STATE_SCANNING ? STATE_INTERRUPTED : state);
+        out.putBoolean(KEY_HAS_RESULTS, hasResults);
+        try {
+            if (report != null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+                try (DataOutputStream data = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+                    report.writeTo(data);
+                }
+                out.putByteArray(KEY_REPORT, bytes.toByteArray());
+            }
+            if (message != null) {
+                out.putByteArray(KEY_MESSAGE, deflate(message.getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            // In-memory streams only; drop the snapshot rather than fail the save
+            Log.w(TAG, "Could not snapshot scan session", e);
+        }
+        return out;
+    }
+
+    private void restore(Bundle in) {
+        if (in == null) return;
+        state = in.getInt(KEY_STATE, STATE_IDLE);
+        hasResults = in.getBoolean(KEY_HAS_RESULTS);
+        try {
+            byte[] bytes = in.getByteArray(KEY_REPORT);
+            if (bytes != null) {
+                try (DataInputStream data = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+                    report = ScanReport.readFrom(data);
+                }
+            }
+            bytes = in.getByteArray(KEY_MESSAGE);
+            if (bytes != null) {
+                message = new String(inflate(bytes), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable scan session snapshot", e);
+            report = null;
+            message = null;
+            state = STATE_IDLE;
+            hasResults = false;
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = inflater.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.privacydiagnostic;
+
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.database.sqlite.SQLiteException;
+import android.os.CancellationSignal;
+import android.os.IBinder;
+import android.os.Process;
+import android.os.RemoteException;
+import android.util.Log;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts {@link ScanEngine} in the {@code :scanner} process. A probe that crashes or blocks in
+ * an OEM binder call only takes this process down; the activity sees the disconnect and
+ * stays responsive. The engine is process-wide rather than per binding, so its probe caches
+ * stay warm for as long as the system keeps the process around. Each scan has its own
+ * cancellation signal, keyed by the client's callback, so a cancel reaches only that client's
+ * scan, including one still queued.
+ */
+public final class ScannerService extends Service {
+    private static final String TAG = "ScannerService";
+
+    private static ScanEngine engine;
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    // Queued and running scans by their callback's binder
+    private final Map<IBinder, CancellationSignal> scans = new ConcurrentHashMap<>();
+
+    private final IScannerService.Stub binder = new IScannerService.Stub() {
+        @Override
+        public void startScan(IScanCallback callback) {
+            // Registered before queueing, so a cancel that arrives while the scan waits is kept
+            CancellationSignal cancel = new CancellationSignal();
+            scans.put(callback.asBinder(), cancel);
+            worker.execute(() -> runScan(callback, cancel));
+        }
+
+        @Override
+        public void cancelScan(IScanCallback callback) {
+            CancellationSignal cancel = scans.get(callback.asBinder());
+            if (cancel != null) cancel.cancel();
+        }
+    };
+
+    /** The process-wide engine, shared with {@link HeadlessScanProvider}. */
+    static synchronized ScanEngine engine(Context context) {
+        if (engine == null) {
+            engine = new ScanEngine(context.getApplicationContext());
+        }
+        return engine;
+    }
+
+    /** Queues work that uses the engine; scans from every entry point run one at a time. */
+    static void execute(Runnable task) {
+        worker.execute(task);
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        engine(this);
+        // Records camera/microphone use by other apps for the access timeline
+        SensorAccessMonitor.get(this).start();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return binder;
+    }
+
+    private void runScan(IScanCallback callback, CancellationSignal cancel) {
+        try {
+            runRegisteredScan(callback, cancel);
+        } finally {
+            scans.remove(callback.asBinder(), cancel);
+        }
+    }
+
+    private void runRegisteredScan(IScanCallback callback, CancellationSignal cancel) {
+        String completedAt = java.time.LocalDateTime.now().toString();
+        try {
+            callback.onScanStarted(completedAt);
+        } catch (RemoteException e) {
+            // Client died while the scan was queued
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        long startCpu = Process.getElapsedCpuTime();
+        try {
+            ScanReport report = engine.scan(completedAt, section -> send(callback, cancel, section), cancel);
+            long cpuMillis = Process.getElapsedCpuTime() - startCpu;
+            notifyFinished(callback, false);
+            record(startedAt, cpuMillis, report);
+        } catch (CancellationException e) {
+            notifyFinished(callback, true);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Scan failed", e);
+            try {
+                callback.onScanFailed(e.getMessage());
+            } catch (RemoteException ignored) {
+                // Client gone
+            }
+        }
+    }
+
+    /** Adds the scan to the history other tools read through {@link ScanHistoryProvider}. */
+    private void record(long timestamp, long cpuMillis, ScanReport report) {
+        try {
+            ScanHistoryStore.get(this).insertScan(timestamp, ScanHistoryStore.TRIGGER_INTERACTIVE, cpuMillis, true, report);
+        } catch (SQLiteException e) {
+            // The scan itself succeeded; only the history misses it
+            Log.w(TAG, "Could not store scan", e);
+        }
+    }
+
+    private void send(IScanCallback callback, CancellationSignal cancel, ScanReport.Section section) {
+        String[] keys = new String[section.size()];
+        String[] values = new String[section.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = section.getKey(i);
+            values[i] = section.getValue(i);
+        }
+        try {
+            callback.onSection(section.getTitle(), keys, values);
+        } catch (RemoteException e) {
+            // Nobody is listening any more; stop this scan after this section
+            cancel.cancel();
+        }
+    }
+
+    private static void notifyFinished(IScanCallback callback, boolean cancelled) {
+        try {
+            callback.onScanFinished(cancelled);
+        } catch (RemoteException ignored) {
+            // Client gone
+        }
+    }
+}
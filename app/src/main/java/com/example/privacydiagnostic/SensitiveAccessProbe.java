@@ -0,0 +1,227 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.app.AppOpsManager;
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStats;
+import android.app.usage.UsageStatsManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks apps that hold live location, camera, microphone or contacts access by how often and
+ * how recently they actually ran. Grants come from one getInstalledPackages query, which the
+ * system pages through a parceled list slice, checked against the app-op mode so revoked ops
+ * don't count; activity comes from one streamed pass
+ * over usage events. Rankings use bounded heaps, so only the top entries are ever ordered.
+ */
+final class SensitiveAccessProbe {
+    private static final int LOCATION = 0;
+    private static final int CAMERA = 1;
+    private static final int MICROPHONE = 2;
+    private static final int CONTACTS = 3;
+    private static final String[] GROUP_NAMES = {"Location", "Camera", "Microphone", "Contacts"};
+    // Any one op of a group being usable is enough for the group
+    private static final String[][] GROUP_OPS = {
+            {AppOpsManager.OPSTR_FINE_LOCATION, AppOpsManager.OPSTR_COARSE_LOCATION},
+            {AppOpsManager.OPSTR_CAMERA},
+            {AppOpsManager.OPSTR_RECORD_AUDIO},
+            {AppOpsManager.OPSTR_READ_CONTACTS}};
+
+    private static final int MAX_LISTED = 8;
+
+    /** Activity and grants of one app that holds at least one sensitive group. */
+    private static final class Candidate {
+        final String packageName;
+        final int groups;
+        int launches;
+        int foregroundServices;
+        long foregroundMillis;
+        long lastUsed;
+
+        Candidate(String packageName, int groups) {
+            this.packageName = packageName;
+            this.groups = groups;
+        }
+
+        int frequency() {
+            return launches + foregroundServices;
+        }
+    }
+
+    private final Context context;
+    private final PackageManager pm;
+    private final AppOpsManager appOps;
+
+    SensitiveAccessProbe(Context context) {
+        this.context = context;
+        this.pm = context.getPackageManager();
+        this.appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+    }
+
+    String describe(long windowMillis) {
+        long start = System.currentTimeMillis();
+        List<PackageInfo> packages = pm.getInstalledPackages(PackageManager.GET_PERMISSIONS);
+        Map<String, Candidate> candidates = new HashMap<>();
+        int[] holders = new int[GROUP_NAMES.length];
+        for (PackageInfo info : packages) {
+            int groups = grantedGroups(info);
+            if (groups == 0) continue;
+            for (int g = 0; g < GROUP_NAMES.length; g++) {
+                if ((groups & (1 << g)) != 0) holders[g]++;
+            }
+            candidates.put(info.packageName, new Candidate(info.packageName, groups));
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("Apps Holding Sensitive Access: ");
+        for (int g = 0; g < GROUP_NAMES.length; g++) {
+            if (g > 0) out.append(", ");
+            out.append(GROUP_NAMES[g]).append(" ").append(holders[g]);
+        }
+        out.append("\n");
+
+        if (!NetworkUsageProbe.hasUsageAccess(context)) {
+            out.append("Activity History: Usage access required\n");
+            return out.toString();
+        }
+        long end = System.currentTimeMillis();
+        collectUsage(candidates, end - windowMillis, end);
+
+        // Min-heaps capped at MAX_LISTED: the root is the weakest entry and is evicted first
+        PriorityQueue<Candidate> frequent = new PriorityQueue<>(MAX_LISTED + 1,
+                (a, b) -> Integer.compare(a.frequency(), b.frequency()));
+        PriorityQueue<Candidate> recent = new PriorityQueue<>(MAX_LISTED + 1,
+                (a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+        int active = 0;
+        for (Candidate candidate : candidates.values()) {
+            if (candidate.lastUsed < end - windowMillis) continue;
+            active++;
+            offer(frequent, candidate);
+            offer(recent, candidate);
+        }
+
+        out.append("Active In Window: ").append(active).append(" of ").append(candidates.size())
+           .append(" (").append(System.currentTimeMillis() - start).append(" ms)\n");
+        out.append("Most Frequent (launches + foreground services):\n");
+        SimpleDateFormat time = new SimpleDateFormat("MM-dd HH:mm", Locale.getDefault());
+        for (Candidate c : drainDescending(frequent)) {
+            out.append("  • ").append(c.packageName).append(" [").append(groupList(c.groups)).append("]: ")
+               .append(c.launches).append(" launches, ").append(c.foregroundServices).append(" fg services, ")
+               .append(c.foregroundMillis / 60000).append(" min on screen\n");
+        }
+        out.append("Most Recent:\n");
+        for (Candidate c : drainDescending(recent)) {
+            out.append("  • ").append(c.packageName).append(" [").append(groupList(c.groups)).append("]: ")
+               .append(time.format(new Date(c.lastUsed))).append("\n");
+        }
+        // No public app op covers the clipboard; any app can read it while in the foreground
+        out.append("Clipboard: readable by every app while it is in the foreground\n");
+        return out.toString();
+    }
+
+    private int grantedGroups(PackageInfo info) {
+        ApplicationInfo app = info.applicationInfo;
+        if (app == null || info.requestedPermissions == null || info.requestedPermissionsFlags == null) return 0;
+        int groups = 0;
+        for (int i = 0; i < info.requestedPermissions.length; i++) {
+            if ((info.requestedPermissionsFlags[i] & PackageInfo.REQUESTED_PERMISSION_GRANTED) == 0) continue;
+            switch (info.requestedPermissions[i]) {
+                case Manifest.permission.ACCESS_FINE_LOCATION:
+                case Manifest.permission.ACCESS_COARSE_LOCATION:
+                    groups |= 1 << LOCATION;
+                    break;
+                case Manifest.permission.CAMERA:
+                    groups |= 1 << CAMERA;
+                    break;
+                case Manifest.permission.RECORD_AUDIO:
+                    groups |= 1 << MICROPHONE;
+                    break;
+                case Manifest.permission.READ_CONTACTS:
+                    groups |= 1 << CONTACTS;
+                    break;
+                default:
+                    break;
+            }
+        }
+        // A granted permission whose op the user has since restricted is not usable
+        for (int g = 0; g < GROUP_OPS.length; g++) {
+            if ((groups & (1 << g)) == 0) continue;
+            boolean allowed = false;
+            for (String op : GROUP_OPS[g]) {
+                int mode = appOps.checkOpNoThrow(op, app.uid, app.packageName);
+                allowed |= mode == AppOpsManager.MODE_ALLOWED
+                        || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mode == AppOpsManager.MODE_FOREGROUND);
+            }
+            if (!allowed) groups &= ~(1 << g);
+        }
+        return groups;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void collectUsage(Map<String, Candidate> candidates, long begin, long end) {
+        UsageStatsManager usage = (UsageStatsManager) context.getSystemService(Context.USAGE_STATS_SERVICE);
+        for (UsageStats stats : usage.queryAndAggregateUsageStats(begin, end).values()) {
+            Candidate candidate = candidates.get(stats.getPackageName());
+            if (candidate == null) continue;
+            candidate.lastUsed = Math.max(candidate.lastUsed, stats.getLastTimeUsed());
+            candidate.foregroundMillis += stats.getTotalTimeInForeground();
+        }
+
+        // One reused event object for the whole stream
+        UsageEvents events = usage.queryEvents(begin, end);
+        UsageEvents.Event event = new UsageEvents.Event();
+        while (events.hasNextEvent()) {
+            events.getNextEvent(event);
+            Candidate candidate = candidates.get(event.getPackageName());
+            if (candidate == null) continue;
+            int type = event.getEventType();
+            if (type == UsageEvents.Event.MOVE_TO_FOREGROUND) {
+                candidate.launches++;
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                    && type == UsageEvents.Event.FOREGROUND_SERVICE_START) {
+                candidate.foregroundServices++;
+            } else {
+                continue;
+            }
+            candidate.lastUsed = Math.max(candidate.lastUsed, event.getTimeStamp());
+        }
+    }
+
+    private static void offer(PriorityQueue<Candidate> heap, Candidate candidate) {
+        heap.offer(candidate);
+        if (heap.size() > MAX_LISTED) heap.poll();
+    }
+
+    private static List<Candidate> drainDescending(PriorityQueue<Candidate> heap) {
+        List<Candidate> ordered = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ordered.add(heap.poll());
+        }
+        Collections.reverse(ordered);
+        return ordered;
+    }
+
+    private static String groupList(int groups) {
+        StringBuilder list = new StringBuilder();
+        for (int g = 0; g < GROUP_NAMES.length; g++) {
+            if ((groups & (1 << g)) == 0) continue;
+            if (list.length() > 0) list.append(", ");
+            list.append(GROUP_NAMES[g]);
+        }
+        return list.toString();
+    }
+}
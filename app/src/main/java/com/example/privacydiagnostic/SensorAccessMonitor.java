@@ -0,0 +1,175 @@
+package com.example.privacydiagnostic;
+
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.database.Cursor;
+import android.hardware.camera2.CameraManager;
+import android.media.AudioManager;
+import android.media.AudioRecordingConfiguration;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Watches for other apps opening the camera or microphone. Callbacks only append to a
+ * lock-free ring buffer; the buffer is flushed to {@link ScanHistoryStore} in batches,
+ * so the monitor costs nothing while the sensors are idle.
+ *
+ * <p>It runs only while the scanner process is alive, so the timeline covers the time around
+ * scans rather than the whole day.
+ */
+final class SensorAccessMonitor {
+    private static final int LOG_CAPACITY = 1024;
+    private static final long FLUSH_INTERVAL_MS = 5 * 60 * 1000L;
+
+    private static SensorAccessMonitor instance;
+
+    private final Context context;
+    private final ScanHistoryStore store;
+    private final SensorEventLog log = new SensorEventLog(LOG_CAPACITY);
+    private final SensorEventLog.Sink storeSink;
+    private Handler handler;
+    private boolean appOpsWatched;
+
+    // Only touched on the monitor thread
+    private final Set<String> seenCameras = new HashSet<>();
+    private int activeRecordings;
+
+    private final Runnable periodicFlush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+            handler.postDelayed(this, FLUSH_INTERVAL_MS);
+        }
+    };
+
+    private final Runnable flushTask = this::flush;
+
+    static synchronized SensorAccessMonitor get(Context context) {
+        if (instance == null) {
+            instance = new SensorAccessMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SensorAccessMonitor(Context context) {
+        this.context = context;
+        this.store = ScanHistoryStore.get(context);
+        this.storeSink = store::insertSensorEvents;
+    }
+
+    synchronized void start() {
+        if (handler != null) return;
+        HandlerThread thread = new HandlerThread("sensor-access-monitor", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+
+        CameraManager cameraManager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
+        if (cameraManager != null) {
+            cameraManager.registerAvailabilityCallback(cameraCallback, handler);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+            if (audioManager != null) {
+                audioManager.registerAudioRecordingCallback(new AudioManager.AudioRecordingCallback() {
+                    @Override
+                    public void onRecordingConfigChanged(List<AudioRecordingConfiguration> configs) {
+                        onRecordingsChanged(configs.size());
+                    }
+                }, handler);
+            }
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+            try {
+                // Without WATCH_APPOPS this only reports our own UID, but costs nothing to try
+                appOps.startWatchingActive(new String[] {AppOpsManager.OPSTR_CAMERA, AppOpsManager.OPSTR_RECORD_AUDIO},
+                        handler::post,
+                        (op, uid, packageName, active) -> record(SensorEventLog.SOURCE_APP_OP, active, op + " by " + packageName));
+                appOpsWatched = true;
+            } catch (SecurityException e) {
+                appOpsWatched = false;
+            }
+        }
+
+        handler.postDelayed(periodicFlush, FLUSH_INTERVAL_MS);
+    }
+
+    private final CameraManager.AvailabilityCallback cameraCallback = new CameraManager.AvailabilityCallback() {
+        @Override
+        public void onCameraAvailable(String cameraId) {
+            // The first report after registering is the current state, not a release
+            if (seenCameras.add(cameraId)) return;
+            record(SensorEventLog.SOURCE_CAMERA, false, "Camera " + cameraId);
+        }
+
+        @Override
+        public void onCameraUnavailable(String cameraId) {
+            seenCameras.add(cameraId);
+            record(SensorEventLog.SOURCE_CAMERA, true, "Camera " + cameraId);
+        }
+    };
+
+    private void onRecordingsChanged(int recordings) {
+        if ((recordings > 0) != (activeRecordings > 0)) {
+            record(SensorEventLog.SOURCE_MICROPHONE, recordings > 0, recordings + " recording session(s)");
+        }
+        activeRecordings = recordings;
+    }
+
+    private void record(int source, boolean active, String subject) {
+        log.record(System.currentTimeMillis(), source, active, subject);
+        if (log.pending() >= LOG_CAPACITY / 2) {
+            handler.removeCallbacks(flushTask);
+            handler.post(flushTask);
+        }
+    }
+
+    /** Moves buffered events into the history store. Safe to call from any thread. */
+    synchronized int flush() {
+        return log.drainTo(storeSink);
+    }
+
+    boolean isRunning() {
+        return handler != null;
+    }
+
+    boolean isWatchingAppOps() {
+        return appOpsWatched;
+    }
+
+    long getDroppedCount() {
+        return log.getDroppedCount();
+    }
+
+    /** Renders the newest events in the window as one line each, newest first. */
+    String describeRecentAccess(long windowMillis, int limit) {
+        flush();
+        StringBuilder timeline = new StringBuilder();
+        SimpleDateFormat time = new SimpleDateFormat("MM-dd HH:mm:ss", Locale.getDefault());
+        Date date = new Date();
+        Cursor cursor = store.querySensorEvents(System.currentTimeMillis() - windowMillis, limit);
+        try {
+            while (cursor.moveToNext()) {
+                date.setTime(cursor.getLong(0));
+                timeline.append("  ").append(time.format(date)).append(" ")
+                        .append(SensorEventLog.sourceName(cursor.getInt(1))).append(" ")
+                        .append(cursor.getInt(2) == 1 ? "IN USE" : "released")
+                        .append(" - ").append(cursor.getString(3)).append("\n");
+            }
+        } finally {
+            cursor.close();
+        }
+        return timeline.length() > 0 ? timeline.toString() : "  No camera or microphone use recorded\n";
+    }
+}
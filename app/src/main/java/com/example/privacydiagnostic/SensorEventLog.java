@@ -0,0 +1,137 @@
+package com.example.privacydiagnostic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity, lock-free ring buffer of sensor use events.
+ * Any number of callback threads may record; a single consumer drains in batches.
+ * When producers lap the consumer the oldest events are overwritten and counted as dropped.
+ * Events are immutable and published whole through the slot reference, so a reader sees
+ * either a complete event or none; there are no plain fields to tear.
+ */
+public final class SensorEventLog {
+    public static final int SOURCE_CAMERA = 1;
+    public static final int SOURCE_MICROPHONE = 2;
+    public static final int SOURCE_APP_OP = 3;
+
+    /** Receives drained events; arrays are reused between drains and must not be retained. */
+    public interface Sink {
+        void accept(long[] timestamps, int[] sources, boolean[] active, String[] subjects, int count);
+    }
+
+    private static final class Event {
+        final long sequence;
+        final long timestamp;
+        final int source;
+        final boolean active;
+        final String subject;
+
+        Event(long sequence, long timestamp, int source, boolean active, String subject) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.source = source;
+            this.active = active;
+            this.subject = subject;
+        }
+    }
+
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLong writeSequence = new AtomicLong();
+    // Written by the draining thread only; volatile because producers and the UI read them
+    private volatile long readSequence;
+    private volatile long dropped;
+
+    private final long[] batchTimestamps;
+    private final int[] batchSources;
+    private final boolean[] batchActive;
+    private final String[] batchSubjects;
+
+    public SensorEventLog(int capacityPowerOfTwo) {
+        if (Integer.bitCount(capacityPowerOfTwo) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacityPowerOfTwo);
+        }
+        mask = capacityPowerOfTwo - 1;
+        slots = new AtomicReferenceArray<>(capacityPowerOfTwo);
+        batchTimestamps = new long[capacityPowerOfTwo];
+        batchSources = new int[capacityPowerOfTwo];
+        batchActive = new boolean[capacityPowerOfTwo];
+        batchSubjects = new String[capacityPowerOfTwo];
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Number of recorded events not yet drained (may exceed capacity if events were lost). */
+    public long pending() {
+        return writeSequence.get() - readSequence;
+    }
+
+    public void record(long timestampMillis, int source, boolean isActive, String subject) {
+        long sequence = writeSequence.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        Event event = new Event(sequence, timestampMillis, source, isActive, subject);
+        Event previous;
+        do {
+            previous = slots.get(slot);
+            // A producer that lapped this one already owns the slot; the reader counts ours as dropped
+            if (previous != null && previous.sequence > sequence) return;
+        } while (!slots.compareAndSet(slot, previous, event));
+    }
+
+    /**
+     * Moves every published event to the sink in one call. Drains must not run concurrently.
+     *
+     * @return number of events handed to the sink
+     */
+    public int drainTo(Sink sink) {
+        int count = 0;
+        long sequence = readSequence;
+        long oldestAvailable = writeSequence.get() - capacity();
+        if (sequence < oldestAvailable) {
+            dropped += oldestAvailable - sequence;
+            sequence = oldestAvailable;
+        }
+        while (count < batchTimestamps.length) {
+            Event event = slots.get((int) (sequence & mask));
+            if (event == null || event.sequence < sequence) {
+                break; // not yet published
+            }
+            if (event.sequence > sequence) {
+                // Overwritten while we were behind; skip to the producer's current window
+                long skipTo = writeSequence.get() - capacity();
+                dropped += Math.max(1, skipTo - sequence);
+                sequence = Math.max(sequence + 1, skipTo);
+                continue;
+            }
+            batchTimestamps[count] = event.timestamp;
+            batchSources[count] = event.source;
+            batchActive[count] = event.active;
+            batchSubjects[count] = event.subject;
+            count++;
+            sequence++;
+        }
+        readSequence = sequence;
+        if (count > 0) {
+            sink.accept(batchTimestamps, batchSources, batchActive, batchSubjects, count);
+            Arrays.fill(batchSubjects, 0, count, null);
+        }
+        return count;
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    public static String sourceName(int source) {
+        switch (source) {
+            case SOURCE_CAMERA: return "Camera";
+            case SOURCE_MICROPHONE: return "Microphone";
+            case SOURCE_APP_OP: return "App Op";
+            default: return "Unknown";
+        }
+    }
+}
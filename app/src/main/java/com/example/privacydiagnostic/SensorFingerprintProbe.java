@@ -0,0 +1,157 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estimates how identifiable the device is from motion sensor calibration data, which any
+ * app can read without a permission. Samples the accelerometer and gyroscope at the fastest
+ * rate for a short window on a dedicated thread, which needs HIGH_SAMPLING_RATE_SENSORS on
+ * API 31+. Blocks for the window, so call it off the UI thread.
+ */
+final class SensorFingerprintProbe {
+    private static final long SAMPLE_WINDOW_MS = 1500;
+    private static final int BUFFER_CAPACITY = 2048;
+
+    private final SensorManager sensorManager;
+    private final List<Sensor> sensors;
+
+    SensorFingerprintProbe(Context context) {
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        // One list fetch shared by the inventory and the sampling below
+        sensors = sensorManager.getSensorList(Sensor.TYPE_ALL);
+    }
+
+    int getSensorCount() {
+        return sensors.size();
+    }
+
+    String getInventory() {
+        StringBuilder inventory = new StringBuilder();
+        for (Sensor sensor : sensors) {
+            inventory.append("\n  • ").append(sensor.getName())
+                     .append(" (").append(sensor.getVendor()).append(" v").append(sensor.getVersion()).append(")")
+                     .append(String.format(Locale.US, " res=%g max=%g %.2fmA", sensor.getResolution(), sensor.getMaximumRange(), sensor.getPower()));
+            if (sensor.getMinDelay() > 0) {
+                inventory.append(" up to ").append(1_000_000 / sensor.getMinDelay()).append("Hz");
+            }
+        }
+        return inventory.toString();
+    }
+
+    String sampleFingerprint() {
+        Sensor accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        Sensor gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+        if (accelerometer == null && gyroscope == null) {
+            return "No motion sensors";
+        }
+
+        final MotionSampleBuffer accelSamples = new MotionSampleBuffer(BUFFER_CAPACITY);
+        final MotionSampleBuffer gyroSamples = new MotionSampleBuffer(BUFFER_CAPACITY);
+        SensorEventListener listener = new SensorEventListener() {
+            @Override
+            public void onSensorChanged(SensorEvent event) {
+                MotionSampleBuffer target = event.sensor.getType() == Sensor.TYPE_GYROSCOPE ? gyroSamples : accelSamples;
+                target.put(event.values[0], event.values[1], event.values[2], event.timestamp);
+            }
+
+            @Override
+            public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            }
+        };
+
+        HandlerThread thread = new HandlerThread("sensor-fingerprint");
+        thread.start();
+        try {
+            Handler handler = new Handler(thread.getLooper());
+            if (accelerometer != null) {
+                sensorManager.registerListener(listener, accelerometer, SensorManager.SENSOR_DELAY_FASTEST, handler);
+            }
+            if (gyroscope != null) {
+                sensorManager.registerListener(listener, gyroscope, SensorManager.SENSOR_DELAY_FASTEST, handler);
+            }
+            try {
+                Thread.sleep(SAMPLE_WINDOW_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            sensorManager.unregisterListener(listener);
+            thread.quitSafely();
+        }
+
+        // Joining the quit handler thread makes its buffer writes visible here
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        StringBuilder report = new StringBuilder();
+        double bits = 0;
+        if (accelerometer != null) {
+            bits += appendSensor(report, "Accelerometer", accelerometer, accelSamples, false);
+        }
+        if (gyroscope != null) {
+            bits += appendSensor(report, "Gyroscope", gyroscope, gyroSamples, true);
+        }
+        report.append(String.format(Locale.US, "\n  Estimated fingerprint entropy: %.1f bits", bits));
+        report.append("\n  Exposure: ").append(bits >= 20 ? "HIGH - calibration data likely identifies this device"
+                : bits >= 8 ? "MEDIUM - narrows the device down within its model" : "LOW");
+        return report.toString();
+    }
+
+    private static double appendSensor(StringBuilder report, String label, Sensor sensor,
+                                       MotionSampleBuffer samples, boolean stationaryZero) {
+        report.append("\n  ").append(label).append(": ");
+        if (samples.size() < 10) {
+            report.append("too few samples (").append(samples.size()).append(")");
+            return 0;
+        }
+        double resolution = sensor.getResolution();
+        double gridFraction = 0;
+        double[] step = new double[3];
+        for (int axis = 0; axis < 3; axis++) {
+            gridFraction += samples.onGridFraction(axis, resolution) / 3;
+            step[axis] = samples.quantizationStep(axis);
+        }
+        report.append(String.format(Locale.US, "%d samples @ %.0fHz", samples.totalSamples(), samples.rateHz()));
+        report.append(String.format(Locale.US, "\n    bias=(%.5f, %.5f, %.5f) noise=(%.5f, %.5f, %.5f)",
+                samples.mean(0), samples.mean(1), samples.mean(2),
+                samples.stdDev(0), samples.stdDev(1), samples.stdDev(2)));
+        report.append(String.format(Locale.US, "\n    step=(%.6g, %.6g, %.6g) nominal resolution=%.6g on-grid=%.0f%%",
+                step[0], step[1], step[2], resolution, gridFraction * 100));
+
+        double bits;
+        if (stationaryZero) {
+            // A resting gyroscope should read zero, so its mean is the per-unit bias
+            bits = samples.biasEntropyBits();
+        } else {
+            // Gravity dominates the accelerometer mean; only its deviation from g is device-specific
+            double magnitude = Math.sqrt(sq(samples.mean(0)) + sq(samples.mean(1)) + sq(samples.mean(2)));
+            double noise = Math.max(samples.stdDev(0), Math.max(samples.stdDev(1), samples.stdDev(2)));
+            double coarsestStep = Math.max(step[0], Math.max(step[1], step[2]));
+            double floor = Math.max(noise / Math.sqrt(samples.size()), coarsestStep / 2);
+            bits = floor > 0 ? Math.log(1 + Math.abs(magnitude - SensorManager.GRAVITY_EARTH) / floor) / Math.log(2) : 0;
+        }
+        report.append(String.format(Locale.US, "\n    ~%.1f identifying bits", bits));
+        // Heuristic only, not counted above: off-grid values suggest a per-unit software gain,
+        // but how many bits that gain carries cannot be measured from one device at rest
+        if (resolution > 0 && gridFraction < 0.5) {
+            report.append("\n    Per-unit calibration gain likely (values off the resolution grid; heuristic)");
+        }
+        return bits;
+    }
+
+    private static double sq(double v) {
+        return v * v;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.privacydiagnostic;
+
+import android.content.BroadcastReceiver;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+/**
+ * Reports changes to the settings the scan reads, so the last report can be patched field by
+ * field instead of rescanned. Observers are registered on the individual setting URIs and on
+ * the default network; nothing runs between events. Events arriving in a burst (a brightness
+ * slider, a network handover) are coalesced into one callback on the main thread.
+ */
+final class SettingsChangeWatcher {
+    static final int FIELD_USB_DEBUGGING = 1;
+    static final int FIELD_DEVELOPER_OPTIONS = 1 << 1;
+    static final int FIELD_AUTO_TIME = 1 << 2;
+    static final int FIELD_AUTO_TIME_ZONE = 1 << 3;
+    static final int FIELD_LOCATION = 1 << 4;
+    static final int FIELD_SCREEN_TIMEOUT = 1 << 5;
+    static final int FIELD_BRIGHTNESS_MODE = 1 << 6;
+    static final int FIELD_SCREEN_BRIGHTNESS = 1 << 7;
+    static final int FIELD_NETWORK = 1 << 8;
+
+    private static final long COALESCE_MS = 250;
+
+    interface Listener {
+        /** Called on the main thread with a mask of the {@code FIELD_*} values that changed. */
+        void onSettingsChanged(int fields);
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ContentObserver[] observers = new ContentObserver[5];
+    private ConnectivityManager.NetworkCallback networkCallback;
+    private BroadcastReceiver connectivityReceiver;
+    private boolean started;
+    // Only touched on the main thread
+    private int pending;
+
+    private final Runnable dispatch = new Runnable() {
+        @Override
+        public void run() {
+            int fields = pending;
+            pending = 0;
+            if (started && fields != 0) listener.onSettingsChanged(fields);
+        }
+    };
+
+    SettingsChangeWatcher(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    void start() {
+        if (started) return;
+        started = true;
+        ContentResolver resolver = context.getContentResolver();
+        observers[0] = register(resolver, FIELD_USB_DEBUGGING, Settings.Global.getUriFor(Settings.Global.ADB_ENABLED));
+        observers[1] = register(resolver, FIELD_DEVELOPER_OPTIONS,
+                Settings.Global.getUriFor(Settings.Global.DEVELOPMENT_SETTINGS_ENABLED));
+        // One observer per group; the URI tells which setting inside it changed
+        observers[2] = register(resolver, FIELD_AUTO_TIME | FIELD_AUTO_TIME_ZONE,
+                Settings.Global.getUriFor(Settings.Global.AUTO_TIME),
+                Settings.Global.getUriFor(Settings.Global.AUTO_TIME_ZONE));
+        observers[3] = register(resolver, FIELD_SCREEN_TIMEOUT | FIELD_BRIGHTNESS_MODE | FIELD_SCREEN_BRIGHTNESS,
+                Settings.System.getUriFor(Settings.System.SCREEN_OFF_TIMEOUT),
+                Settings.System.getUriFor(Settings.System.SCREEN_BRIGHTNESS_MODE),
+                Settings.System.getUriFor(Settings.System.SCREEN_BRIGHTNESS));
+        observers[4] = register(resolver, FIELD_LOCATION, locationModeUri());
+        registerNetwork();
+    }
+
+    void stop() {
+        if (!started) return;
+        started = false;
+        handler.removeCallbacks(dispatch);
+        pending = 0;
+        ContentResolver resolver = context.getContentResolver();
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] != null) resolver.unregisterContentObserver(observers[i]);
+            observers[i] = null;
+        }
+        if (networkCallback != null) {
+            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            cm.unregisterNetworkCallback(networkCallback);
+            networkCallback = null;
+        }
+        if (connectivityReceiver != null) {
+            context.unregisterReceiver(connectivityReceiver);
+            connectivityReceiver = null;
+        }
+    }
+
+    private ContentObserver register(ContentResolver resolver, final int fields, final Uri... uris) {
+        ContentObserver observer = new ContentObserver(handler) {
+            @Override
+            public void onChange(boolean selfChange) {
+                post(fields);
+            }
+
+            @Override
+            public void onChange(boolean selfChange, Uri uri) {
+                int changed = fields;
+                for (int i = 0; i < uris.length; i++) {
+                    if (uris[i].equals(uri)) {
+                        // Fields are listed in the same order as their URIs
+                        changed = nthBit(fields, i);
+                        break;
+                    }
+                }
+                post(changed);
+            }
+        };
+        for (Uri uri : uris) {
+            resolver.registerContentObserver(uri, false, observer);
+        }
+        return observer;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void registerNetwork() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            // Callbacks arrive on the connectivity thread; hop to the main thread to coalesce
+            networkCallback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    handler.post(() -> post(FIELD_NETWORK));
+                }
+
+                @Override
+                public void onLost(Network network) {
+                    handler.post(() -> post(FIELD_NETWORK));
+                }
+
+                @Override
+                public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                    handler.post(() -> post(FIELD_NETWORK));
+                }
+            };
+            cm.registerDefaultNetworkCallback(networkCallback);
+        } else {
+            connectivityReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    post(FIELD_NETWORK);
+                }
+            };
+            context.registerReceiver(connectivityReceiver,
+                    new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION), null, handler);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Uri locationModeUri() {
+        return Settings.Secure.getUriFor(Settings.Secure.LOCATION_MODE);
+    }
+
+    private void post(int fields) {
+        if (!started) return;
+        if (pending == 0) {
+            handler.postDelayed(dispatch, COALESCE_MS);
+        }
+        pending |= fields;
+    }
+
+    private static int nthBit(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.lowestOneBit(mask);
+    }
+}
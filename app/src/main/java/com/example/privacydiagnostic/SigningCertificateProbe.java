@@ -0,0 +1,182 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.Signature;
+import android.content.pm.SigningInfo;
+import android.os.Build;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups installed packages by signing certificate, which shows which apps come from the same
+ * developer (and can share data through signature permissions or a shared UID), and flags
+ * updated or platform-signed apps. Optionally adds the SHA-256 of each APK via
+ * {@link ApkDigestCalculator}.
+ */
+final class SigningCertificateProbe {
+    private static final int DIGEST_PREFIX = 16;
+    private static final int MAX_GROUPS = 10;
+    private static final int MAX_LISTED = 10;
+
+    private final Context context;
+    private final ApkDigestCalculator digestCalculator;
+
+    /** @param digestCalculator hashes updated system APKs, or null to skip APK hashing */
+    SigningCertificateProbe(Context context, ApkDigestCalculator digestCalculator) {
+        this.context = context;
+        this.digestCalculator = digestCalculator;
+    }
+
+    @SuppressWarnings("deprecation")
+    String collect() throws NoSuchAlgorithmException {
+        PackageManager pm = context.getPackageManager();
+        int flags = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                ? PackageManager.GET_SIGNING_CERTIFICATES : PackageManager.GET_SIGNATURES;
+        List<PackageInfo> packages = pm.getInstalledPackages(flags);
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+
+        String platformSigner = null;
+        Map<String, List<String>> bySigner = new HashMap<>();
+        int rotated = 0;
+        int multipleSigners = 0;
+        List<String> updatedSystem = new ArrayList<>();
+        List<File> updatedApks = new ArrayList<>();
+        List<String> nonSystemPlatform = new ArrayList<>();
+        String[] signerOf = new String[packages.size()];
+
+        for (int i = 0; i < packages.size(); i++) {
+            PackageInfo info = packages.get(i);
+            Signature[] signatures;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                SigningInfo signing = info.signingInfo;
+                if (signing == null) continue;
+                if (signing.hasMultipleSigners()) {
+                    multipleSigners++;
+                    signatures = signing.getApkContentsSigners();
+                } else {
+                    signatures = signing.getSigningCertificateHistory();
+                    if (signatures != null && signatures.length > 1) rotated++;
+                    // The history is oldest first; the current key is last
+                    if (signatures != null && signatures.length > 0) {
+                        signatures = new Signature[] {signatures[signatures.length - 1]};
+                    }
+                }
+            } else {
+                signatures = info.signatures;
+                if (signatures != null && signatures.length > 1) multipleSigners++;
+            }
+            if (signatures == null || signatures.length == 0) continue;
+
+            String signer = signerDigest(sha256, signatures);
+            signerOf[i] = signer;
+            List<String> group = bySigner.get(signer);
+            if (group == null) {
+                group = new ArrayList<>();
+                bySigner.put(signer, group);
+            }
+            group.add(info.packageName);
+            if ("android".equals(info.packageName)) {
+                platformSigner = signer;
+            }
+            ApplicationInfo app = info.applicationInfo;
+            if (app != null && (app.flags & ApplicationInfo.FLAG_UPDATED_SYSTEM_APP) != 0) {
+                updatedSystem.add(info.packageName);
+                updatedApks.add(new File(app.sourceDir));
+            }
+        }
+
+        // Platform-key signatures grant signature|privileged permissions; outside the system image they are unusual
+        if (platformSigner != null) {
+            for (int i = 0; i < packages.size(); i++) {
+                ApplicationInfo app = packages.get(i).applicationInfo;
+                if (platformSigner.equals(signerOf[i]) && app != null && (app.flags & ApplicationInfo.FLAG_SYSTEM) == 0) {
+                    nonSystemPlatform.add(packages.get(i).packageName);
+                }
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append("Packages: ").append(packages.size()).append(", Distinct Signers: ").append(bySigner.size()).append("\n");
+        if (platformSigner != null) {
+            report.append("Platform Signer: ").append(platformSigner.substring(0, DIGEST_PREFIX)).append(" (")
+                  .append(bySigner.get(platformSigner).size()).append(" packages)\n");
+        }
+        report.append("Rotated Signing Keys: ").append(rotated).append("\n");
+        report.append("Multiple Signers: ").append(multipleSigners).append("\n");
+
+        List<Map.Entry<String, List<String>>> groups = new ArrayList<>(bySigner.entrySet());
+        Collections.sort(groups, new Comparator<Map.Entry<String, List<String>>>() {
+            @Override
+            public int compare(Map.Entry<String, List<String>> a, Map.Entry<String, List<String>> b) {
+                return b.getValue().size() - a.getValue().size();
+            }
+        });
+        report.append("Shared Signers:\n");
+        int shown = 0;
+        for (Map.Entry<String, List<String>> group : groups) {
+            if (group.getValue().size() < 2 || shown == MAX_GROUPS) break;
+            if (group.getKey().equals(platformSigner)) continue;
+            report.append("  • ").append(group.getKey().substring(0, DIGEST_PREFIX)).append(": ")
+                  .append(group.getValue().size()).append(" packages (").append(joinSample(group.getValue())).append(")\n");
+            shown++;
+        }
+        if (shown == 0) {
+            report.append("  None\n");
+        }
+
+        if (!nonSystemPlatform.isEmpty()) {
+            report.append("⚠️ Non-system apps signed with the platform key: ").append(joinSample(nonSystemPlatform)).append("\n");
+        }
+
+        report.append("Updated System Apps: ").append(updatedSystem.size()).append("\n");
+        if (digestCalculator != null && !updatedApks.isEmpty()) {
+            ApkDigestCalculator.Result digests = digestCalculator.digest(updatedApks.toArray(new File[0]));
+            for (int i = 0; i < updatedSystem.size() && i < MAX_LISTED; i++) {
+                String digest = digests.getDigest(i);
+                report.append("  • ").append(updatedSystem.get(i)).append(": APK ")
+                      .append(digest != null ? digest.substring(0, DIGEST_PREFIX) : "unreadable").append("\n");
+            }
+            digests.appendTo(report);
+        }
+        return report.toString();
+    }
+
+    /** SHA-256 over the sorted per-certificate digests, so signer order does not matter. */
+    private static String signerDigest(MessageDigest sha256, Signature[] signatures) {
+        if (signatures.length == 1) {
+            return ApkDigestCalculator.toHex(sha256.digest(signatures[0].toByteArray()));
+        }
+        List<String> parts = new ArrayList<>();
+        for (Signature signature : signatures) {
+            parts.add(ApkDigestCalculator.toHex(sha256.digest(signature.toByteArray())));
+        }
+        Collections.sort(parts);
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            joined.append(part);
+        }
+        return ApkDigestCalculator.toHex(sha256.digest(joined.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String joinSample(List<String> names) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < names.size() && i < 3; i++) {
+            if (i > 0) out.append(", ");
+            out.append(names.get(i));
+        }
+        if (names.size() > 3) out.append(", ...");
+        return out.toString();
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.privacydiagnostic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Walks shared storage the way any app holding the storage permission could, and buckets
+ * what it finds by type, size and age. Directories are walked in parallel with fork/join.
+ * A directory's listing is cached by its mtime, so a rescan only lists directories whose
+ * entries changed and merely stats the files of the rest: a directory's mtime does not move
+ * when a file in it is rewritten in place. Plain java.io only, so it runs on any JVM.
+ */
+public final class StorageExposureScanner {
+    public static final int TYPE_IMAGE = 0;
+    public static final int TYPE_VIDEO = 1;
+    public static final int TYPE_AUDIO = 2;
+    public static final int TYPE_DOCUMENT = 3;
+    public static final int TYPE_PDF = 4;
+    public static final int TYPE_ARCHIVE = 5;
+    public static final int TYPE_APK = 6;
+    public static final int TYPE_KEY = 7;
+    public static final int TYPE_EXPORT = 8;
+    public static final int TYPE_OTHER = 9;
+    private static final String[] TYPE_NAMES = {
+        "Images", "Videos", "Audio", "Documents", "PDFs", "Archives", "APKs", "Keys/Certificates", "Data Exports", "Other"
+    };
+
+    private static final long[] SIZE_LIMITS = {100L << 10, 10L << 20, 100L << 20, Long.MAX_VALUE};
+    private static final String[] SIZE_NAMES = {"<100KB", "100KB-10MB", "10-100MB", ">100MB"};
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long[] AGE_LIMITS = {7 * DAY_MS, 90 * DAY_MS, 365 * DAY_MS, Long.MAX_VALUE};
+    private static final String[] AGE_NAMES = {"<1 week", "1 week-3 months", "3-12 months", ">1 year"};
+
+    private static final String[] SENSITIVE_KEYWORDS = {
+        "passport", "license", "licence", "identity", "id_card", "idcard", "ssn", "tax", "bank", "statement",
+        "invoice", "payslip", "salary", "contract", "medical", "insurance", "password", "passwd", "backup",
+        "export", "wallet", "seed", "private", "secret", "msgstore", "contacts", "credentials"
+    };
+
+    private static final int CACHE_VERSION = 1;
+    private static final int MAX_SENSITIVE_LISTED = 50;
+
+    private final File cacheFile;
+    private final Map<String, DirEntry> previous = new ConcurrentHashMap<>();
+    private final Map<String, DirEntry> current = new ConcurrentHashMap<>();
+    // Identity of the cache file as this instance last wrote it; 0 when unknown
+    private long savedLength;
+    private long savedModified;
+
+    /** Directory listing as of {@link #mtime}; per-file fields are parallel arrays. */
+    private static final class DirEntry {
+        long mtime;
+        String[] subdirs;
+        String[] fileNames;
+        byte[] types;
+        long[] sizes;
+        long[] mtimes;
+    }
+
+    public StorageExposureScanner(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    public Result scan(File root) throws IOException {
+        long start = System.currentTimeMillis();
+        loadCache();
+        current.clear();
+        File canonicalRoot = root.getCanonicalFile();
+        ForkJoinPool pool = new ForkJoinPool();
+        Result result;
+        try {
+            result = pool.invoke(new DirectoryTask(canonicalRoot, start));
+        } finally {
+            pool.shutdown();
+        }
+        result.root = canonicalRoot.getPath();
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        saveCache();
+        return result;
+    }
+
+    public static final class Result {
+        String root;
+        long elapsedMillis;
+        int directories;
+        int directoriesListed;
+        int unreadableDirectories;
+        long files;
+        long bytes;
+        final long[] countByType = new long[TYPE_NAMES.length];
+        final long[] bytesByType = new long[TYPE_NAMES.length];
+        final long[] countBySize = new long[SIZE_LIMITS.length];
+        final long[] countByAge = new long[AGE_LIMITS.length];
+        long sensitiveCount;
+        final List<String> sensitive = new ArrayList<>();
+
+        public long getFileCount() {
+            return files;
+        }
+
+        public long getSensitiveCount() {
+            return sensitiveCount;
+        }
+
+        public int getDirectoriesListed() {
+            return directoriesListed;
+        }
+
+        void merge(Result other) {
+            directories += other.directories;
+            directoriesListed += other.directoriesListed;
+            unreadableDirectories += other.unreadableDirectories;
+            files += other.files;
+            bytes += other.bytes;
+            for (int i = 0; i < countByType.length; i++) {
+                countByType[i] += other.countByType[i];
+                bytesByType[i] += other.bytesByType[i];
+            }
+            for (int i = 0; i < countBySize.length; i++) countBySize[i] += other.countBySize[i];
+            for (int i = 0; i < countByAge.length; i++) countByAge[i] += other.countByAge[i];
+            sensitiveCount += other.sensitiveCount;
+            for (String path : other.sensitive) {
+                if (sensitive.size() >= MAX_SENSITIVE_LISTED) break;
+                sensitive.add(path);
+            }
+        }
+
+        public void appendTo(StringBuilder out) {
+            out.append("Root: ").append(root).append("\n");
+            out.append("Readable Files: ").append(files).append(" in ").append(directories).append(" directories (")
+               .append(formatBytes(bytes)).append(")\n");
+            if (unreadableDirectories > 0) {
+                out.append("Inaccessible Directories: ").append(unreadableDirectories).append("\n");
+            }
+            out.append("By Type:\n");
+            for (int i = 0; i < TYPE_NAMES.length; i++) {
+                if (countByType[i] == 0) continue;
+                out.append("  • ").append(TYPE_NAMES[i]).append(": ").append(countByType[i])
+                   .append(" (").append(formatBytes(bytesByType[i])).append(")\n");
+            }
+            out.append("By Size: ");
+            for (int i = 0; i < SIZE_NAMES.length; i++) {
+                if (i > 0) out.append(", ");
+                out.append(SIZE_NAMES[i]).append(" ").append(countBySize[i]);
+            }
+            out.append("\nBy Age: ");
+            for (int i = 0; i < AGE_NAMES.length; i++) {
+                if (i > 0) out.append(", ");
+                out.append(AGE_NAMES[i]).append(" ").append(countByAge[i]);
+            }
+            out.append("\nSensitive-Looking Files: ").append(sensitiveCount).append("\n");
+            for (String path : sensitive) {
+                out.append("  ⚠ ").append(path).append("\n");
+            }
+            if (sensitiveCount > sensitive.size()) {
+                out.append("  ... and ").append(sensitiveCount - sensitive.size()).append(" more\n");
+            }
+            out.append("Scan Time: ").append(elapsedMillis).append(" ms (").append(directoriesListed)
+               .append(" of ").append(directories).append(" directories re-listed)\n");
+        }
+    }
+
+    private final class DirectoryTask extends RecursiveTask<Result> {
+        private final File dir;
+        private final long now;
+
+        DirectoryTask(File dir, long now) {
+            this.dir = dir;
+            this.now = now;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result();
+            result.directories = 1;
+            String path = dir.getPath();
+            long mtime = dir.lastModified();
+            DirEntry entry = previous.get(path);
+            if (entry == null || entry.mtime != mtime) {
+                entry = list(dir, mtime);
+                if (entry == null) {
+                    result.unreadableDirectories = 1;
+                    return result;
+                }
+                result.directoriesListed = 1;
+            } else {
+                entry = restat(dir, entry);
+            }
+            current.put(path, entry);
+
+            List<DirectoryTask> children = new ArrayList<>(entry.subdirs.length);
+            for (String name : entry.subdirs) {
+                DirectoryTask child = new DirectoryTask(new File(dir, name), now);
+                child.fork();
+                children.add(child);
+            }
+
+            for (int i = 0; i < entry.fileNames.length; i++) {
+                if (entry.sizes[i] < 0) continue; // deleted since the listing
+                int type = entry.types[i];
+                long size = entry.sizes[i];
+                result.files++;
+                result.bytes += size;
+                result.countByType[type]++;
+                result.bytesByType[type] += size;
+                result.countBySize[bucket(SIZE_LIMITS, size)]++;
+                result.countByAge[bucket(AGE_LIMITS, Math.max(0, now - entry.mtimes[i]))]++;
+                if (isSensitive(entry.fileNames[i], type)) {
+                    result.sensitiveCount++;
+                    if (result.sensitive.size() < MAX_SENSITIVE_LISTED) {
+                        result.sensitive.add(path + File.separator + entry.fileNames[i]);
+                    }
+                }
+            }
+
+            for (DirectoryTask child : children) {
+                result.merge(child.join());
+            }
+            return result;
+        }
+    }
+
+    private static DirEntry list(File dir, long mtime) {
+        File[] children = dir.listFiles();
+        if (children == null) return null;
+        String canonicalDir = dir.getPath();
+        List<String> subdirs = new ArrayList<>();
+        int fileCount = 0;
+        boolean[] isFile = new boolean[children.length];
+        for (int i = 0; i < children.length; i++) {
+            File child = children[i];
+            if (child.isDirectory()) {
+                // Skip symlinked directories so loops and aliases are not walked twice
+                if (isSymlink(child, canonicalDir)) continue;
+                subdirs.add(child.getName());
+            } else if (child.isFile()) {
+                isFile[i] = true;
+                fileCount++;
+            }
+        }
+
+        DirEntry entry = new DirEntry();
+        entry.mtime = mtime;
+        entry.subdirs = subdirs.toArray(new String[0]);
+        entry.fileNames = new String[fileCount];
+        entry.types = new byte[fileCount];
+        entry.sizes = new long[fileCount];
+        entry.mtimes = new long[fileCount];
+        int f = 0;
+        for (int i = 0; i < children.length; i++) {
+            if (!isFile[i]) continue;
+            File child = children[i];
+            entry.fileNames[f] = child.getName();
+            entry.types[f] = (byte) classify(child.getName());
+            entry.sizes[f] = child.length();
+            entry.mtimes[f] = child.lastModified();
+            f++;
+        }
+        return entry;
+    }
+
+    /** The cached listing with every file's size and mtime read again. */
+    private static DirEntry restat(File dir, DirEntry cached) {
+        DirEntry entry = new DirEntry();
+        entry.mtime = cached.mtime;
+        entry.subdirs = cached.subdirs;
+        entry.fileNames = cached.fileNames;
+        entry.types = cached.types;
+        entry.sizes = new long[cached.fileNames.length];
+        entry.mtimes = new long[cached.fileNames.length];
+        for (int i = 0; i < cached.fileNames.length; i++) {
+            File file = new File(dir, cached.fileNames[i]);
+            entry.mtimes[i] = file.lastModified();
+            entry.sizes[i] = entry.mtimes[i] == 0 && !file.exists() ? -1 : file.length();
+        }
+        return entry;
+    }
+
+    private static boolean isSymlink(File child, String parentCanonical) {
+        try {
+            return !child.getCanonicalPath().equals(parentCanonical + File.separator + child.getName());
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    static int classify(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot == name.length() - 1) return TYPE_OTHER;
+        switch (name.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "jpg": case "jpeg": case "png": case "gif": case "webp": case "heic": case "heif": case "bmp": case "dng":
+                return TYPE_IMAGE;
+            case "mp4": case "mkv": case "mov": case "3gp": case "webm": case "avi":
+                return TYPE_VIDEO;
+            case "mp3": case "m4a": case "aac": case "ogg": case "opus": case "wav": case "flac": case "amr":
+                return TYPE_AUDIO;
+            case "pdf":
+                return TYPE_PDF;
+            case "doc": case "docx": case "odt": case "rtf": case "txt": case "xls": case "xlsx": case "ods":
+            case "ppt": case "pptx": case "odp": case "md":
+                return TYPE_DOCUMENT;
+            case "zip": case "rar": case "7z": case "tar": case "gz": case "tgz": case "bz2": case "xz":
+                return TYPE_ARCHIVE;
+            case "apk": case "apks": case "xapk": case "aab":
+                return TYPE_APK;
+            case "pem": case "key": case "p12": case "pfx": case "jks": case "keystore": case "bks": case "kdbx":
+            case "gpg": case "asc": case "ovpn": case "crt": case "cer": case "der":
+                return TYPE_KEY;
+            case "csv": case "vcf": case "ics": case "json": case "xml": case "db": case "sqlite": case "sqlite3":
+            case "bak": case "backup": case "crypt12": case "crypt14": case "crypt15":
+                return TYPE_EXPORT;
+            default:
+                return TYPE_OTHER;
+        }
+    }
+
+    static boolean isSensitive(String name, int type) {
+        if (type == TYPE_KEY || type == TYPE_PDF) return true;
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String keyword : SENSITIVE_KEYWORDS) {
+            if (lower.contains(keyword)) return true;
+        }
+        // Contact, calendar and chat exports are sensitive regardless of name
+        return lower.endsWith(".vcf") || lower.endsWith(".ics") || lower.contains(".crypt");
+    }
+
+    private static int bucket(long[] limits, long value) {
+        int i = 0;
+        while (value >= limits[i]) i++;
+        return i;
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.US, "%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024));
+        return String.format(Locale.US, "%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private void loadCache() {
+        previous.clear();
+        if (cacheFile != null && savedModified != 0
+                && cacheFile.lastModified() == savedModified && cacheFile.length() == savedLength) {
+            // Last written by this instance: the previous scan's listings are still in memory
+            previous.putAll(current);
+            return;
+        }
+        savedModified = 0;
+        if (cacheFile == null || !cacheFile.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_VERSION) return;
+            int dirs = in.readInt();
+            for (int d = 0; d < dirs; d++) {
+                String path = in.readUTF();
+                DirEntry entry = new DirEntry();
+                entry.mtime = in.readLong();
+                entry.subdirs = new String[in.readInt()];
+                for (int i = 0; i < entry.subdirs.length; i++) entry.subdirs[i] = in.readUTF();
+                int files = in.readInt();
+                entry.fileNames = new String[files];
+                entry.types = new byte[files];
+                entry.sizes = new long[files];
+                entry.mtimes = new long[files];
+                for (int i = 0; i < files; i++) {
+                    entry.fileNames[i] = in.readUTF();
+                    entry.types[i] = in.readByte();
+                    entry.sizes[i] = in.readLong();
+                    entry.mtimes[i] = in.readLong();
+                }
+                previous.put(path, entry);
+            }
+        } catch (IOException e) {
+            // A corrupt or truncated cache only costs a full rescan
+            previous.clear();
+        }
+    }
+
+    private void saveCache() {
+        if (cacheFile == null) return;
+        // Unique per writer: the UI and scanner processes can save the same cache at once
+        File temp;
+        try {
+            temp = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getAbsoluteFile().getParentFile());
+        } catch (IOException e) {
+            savedModified = 0;
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(current.size());
+            for (Map.Entry<String, DirEntry> e : current.entrySet()) {
+                DirEntry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(entry.mtime);
+                out.writeInt(entry.subdirs.length);
+                for (String subdir : entry.subdirs) out.writeUTF(subdir);
+                out.writeInt(entry.fileNames.length);
+                for (int i = 0; i < entry.fileNames.length; i++) {
+                    out.writeUTF(entry.fileNames[i]);
+                    out.writeByte(entry.types[i]);
+                    out.writeLong(entry.sizes[i]);
+                    out.writeLong(entry.mtimes[i]);
+                }
+            }
+        } catch (IOException e) {
+            temp.delete();
+            savedModified = 0;
+            return;
+        }
+        if (temp.renameTo(cacheFile)) {
+            savedLength = cacheFile.length();
+            savedModified = cacheFile.lastModified();
+        } else {
+            temp.delete();
+            savedModified = 0;
+        }
+    }
+}
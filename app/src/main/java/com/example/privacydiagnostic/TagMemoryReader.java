@@ -0,0 +1,202 @@
+package com.example.privacydiagnostic;
+
+import android.nfc.tech.NfcA;
+import android.nfc.tech.NfcV;
+import android.os.SystemClock;
+
+import java.io.IOException;
+
+/**
+ * Reads the full memory of MIFARE Ultralight/NTAG (NfcA) and ISO15693 (NfcV) tags.
+ * Reads are batched to the largest frame the reader accepts so a dump takes as few
+ * round-trips as possible.
+ */
+final class TagMemoryReader {
+    private static final byte CMD_UL_READ = 0x30;
+    private static final byte CMD_UL_FAST_READ = 0x3A;
+    private static final byte CMD_UL_GET_VERSION = 0x60;
+
+    private static final byte FLAG_V_HIGH_RATE_ADDRESSED = 0x22;
+    private static final byte FLAG_V_OPTION = 0x40;
+    private static final byte CMD_V_READ_SINGLE = 0x20;
+    private static final byte CMD_V_READ_MULTIPLE = 0x23;
+    private static final byte CMD_V_GET_SYSTEM_INFO = 0x2B;
+
+    private TagMemoryReader() {
+    }
+
+    static TagMemoryDump readUltralight(NfcA nfcA) throws IOException {
+        if (!nfcA.isConnected()) {
+            nfcA.connect();
+        }
+        try {
+            long start = SystemClock.elapsedRealtime();
+            int storageSize = 0;
+            int pages = 0;
+            try {
+                byte[] version = nfcA.transceive(new byte[] {CMD_UL_GET_VERSION});
+                if (version != null && version.length >= 8) {
+                    storageSize = version[6] & 0xFF;
+                    pages = ultralightPageCount(storageSize);
+                }
+            } catch (IOException e) {
+                // Original Ultralight and Ultralight C NAK GET_VERSION and drop to IDLE
+                nfcA.close();
+                nfcA.connect();
+            }
+
+            if (pages == 0) {
+                // Size the dump from the capability container's data area size (CC byte 2)
+                byte[] header = nfcA.transceive(new byte[] {CMD_UL_READ, 0x00});
+                int dataArea = header.length >= 15 ? (header[14] & 0xFF) * 8 : 48;
+                pages = Math.max(16, 4 + dataArea / 4);
+                TagMemoryDump dump = new TagMemoryDump("MIFARE Ultralight", 4, pages);
+                dump.put(0, header, 0, Math.min(16, header.length));
+                dump.recordRoundTrip();
+                readWithRead(nfcA, dump, 4);
+                dump.setTiming("READ (4 pages)", SystemClock.elapsedRealtime() - start);
+                dump.interpretUltralightLocks(storageSize);
+                return dump;
+            }
+
+            TagMemoryDump dump = new TagMemoryDump(ultralightName(storageSize), 4, pages);
+            int pagesPerFrame = Math.max(1, nfcA.getMaxTransceiveLength() / 4);
+            int page = 0;
+            try {
+                while (page < pages) {
+                    int last = Math.min(pages, page + pagesPerFrame) - 1;
+                    byte[] data = nfcA.transceive(new byte[] {CMD_UL_FAST_READ, (byte) page, (byte) last});
+                    dump.put(page, data, 0, Math.min(data.length, (last - page + 1) * 4));
+                    dump.recordRoundTrip();
+                    page = last + 1;
+                }
+                dump.setTiming("FAST_READ (" + pagesPerFrame + " pages/frame)", SystemClock.elapsedRealtime() - start);
+            } catch (IOException e) {
+                // Some controllers cannot return frames this large; finish with plain READ
+                nfcA.close();
+                nfcA.connect();
+                readWithRead(nfcA, dump, page);
+                dump.setTiming("FAST_READ + READ fallback", SystemClock.elapsedRealtime() - start);
+            }
+            dump.interpretUltralightLocks(storageSize);
+            return dump;
+        } finally {
+            nfcA.close();
+        }
+    }
+
+    static TagMemoryDump readIso15693(NfcV nfcV, byte[] uid) throws IOException {
+        if (!nfcV.isConnected()) {
+            nfcV.connect();
+        }
+        try {
+            long start = SystemClock.elapsedRealtime();
+            byte[] info = nfcV.transceive(addressed(CMD_V_GET_SYSTEM_INFO, uid, 0, 0));
+            if (info.length < 10 || (info[0] & 0x01) != 0) {
+                throw new IOException("GET SYSTEM INFO not supported");
+            }
+            int infoFlags = info[1] & 0xFF;
+            int pos = 10;
+            if ((infoFlags & 0x01) != 0) pos++; // DSFID
+            if ((infoFlags & 0x02) != 0) pos++; // AFI
+            if ((infoFlags & 0x04) == 0 || info.length < pos + 2) {
+                throw new IOException("Tag does not report its memory size");
+            }
+            int blocks = (info[pos] & 0xFF) + 1;
+            int blockSize = (info[pos + 1] & 0x1F) + 1;
+
+            TagMemoryDump dump = new TagMemoryDump("ISO15693", blockSize, blocks);
+            dump.recordRoundTrip();
+            byte[] security = new byte[blocks];
+            int stride = blockSize + 1;
+            int blocksPerFrame = Math.max(1, Math.min(256, (nfcV.getMaxTransceiveLength() - 1) / stride));
+            int block = 0;
+            String mode = "READ MULTIPLE BLOCKS (" + blocksPerFrame + " blocks/frame)";
+            try {
+                while (block < blocks) {
+                    int count = Math.min(blocksPerFrame, blocks - block);
+                    byte[] data = nfcV.transceive(addressed(CMD_V_READ_MULTIPLE, uid, block, count - 1));
+                    if ((data[0] & 0x01) != 0 || data.length < 1 + count * stride) {
+                        throw new IOException("READ MULTIPLE BLOCKS rejected");
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int offset = 1 + i * stride;
+                        security[block + i] = data[offset];
+                        dump.put(block + i, data, offset + 1, blockSize);
+                    }
+                    dump.recordRoundTrip();
+                    block += count;
+                }
+            } catch (IOException e) {
+                // Not every ISO15693 tag implements the optional multi-block read
+                mode = block == 0 ? "READ SINGLE BLOCK" : mode + " + single-block fallback";
+                for (; block < blocks; block++) {
+                    byte[] data = nfcV.transceive(addressedSingle(uid, block));
+                    if ((data[0] & 0x01) != 0 || data.length < 1 + stride) {
+                        throw new IOException("READ SINGLE BLOCK failed at block " + block);
+                    }
+                    security[block] = data[1];
+                    dump.put(block, data, 2, blockSize);
+                    dump.recordRoundTrip();
+                }
+            }
+            dump.setTiming(mode, SystemClock.elapsedRealtime() - start);
+            dump.interpretIso15693Security(security);
+            return dump;
+        } finally {
+            nfcV.close();
+        }
+    }
+
+    private static void readWithRead(NfcA nfcA, TagMemoryDump dump, int fromPage) throws IOException {
+        int pages = dump.getUnitCount();
+        for (int page = fromPage; page < pages; page += 4) {
+            // READ always returns 16 bytes and wraps around past the last page
+            byte[] data = nfcA.transceive(new byte[] {CMD_UL_READ, (byte) page});
+            dump.put(page, data, 0, Math.min(data.length, (pages - page) * 4));
+            dump.recordRoundTrip();
+        }
+    }
+
+    private static byte[] addressed(byte command, byte[] uid, int first, int countMinusOne) {
+        boolean read = command == CMD_V_READ_MULTIPLE;
+        byte[] cmd = new byte[read ? 12 : 10];
+        cmd[0] = read ? (byte) (FLAG_V_HIGH_RATE_ADDRESSED | FLAG_V_OPTION) : FLAG_V_HIGH_RATE_ADDRESSED;
+        cmd[1] = command;
+        System.arraycopy(uid, 0, cmd, 2, 8);
+        if (read) {
+            cmd[10] = (byte) first;
+            cmd[11] = (byte) countMinusOne;
+        }
+        return cmd;
+    }
+
+    private static byte[] addressedSingle(byte[] uid, int block) {
+        byte[] cmd = new byte[11];
+        cmd[0] = (byte) (FLAG_V_HIGH_RATE_ADDRESSED | FLAG_V_OPTION);
+        cmd[1] = CMD_V_READ_SINGLE;
+        System.arraycopy(uid, 0, cmd, 2, 8);
+        cmd[10] = (byte) block;
+        return cmd;
+    }
+
+    private static int ultralightPageCount(int storageSize) {
+        switch (storageSize) {
+            case 0x0B: return 20;  // Ultralight EV1 (MF0UL11)
+            case 0x0E: return 41;  // Ultralight EV1 (MF0UL21)
+            case TagMemoryDump.STORAGE_NTAG213: return 45;
+            case TagMemoryDump.STORAGE_NTAG215: return 135;
+            case TagMemoryDump.STORAGE_NTAG216: return 231;
+            default: return 0;
+        }
+    }
+
+    private static String ultralightName(int storageSize) {
+        switch (storageSize) {
+            case TagMemoryDump.STORAGE_NTAG213: return "NTAG213";
+            case TagMemoryDump.STORAGE_NTAG215: return "NTAG215";
+            case TagMemoryDump.STORAGE_NTAG216: return "NTAG216";
+            default: return "MIFARE Ultralight EV1";
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ApkDigestCalculatorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void sha256MatchesKnownDigests() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ApkDigestCalculator.sha256(write("abc.apk", "abc".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                ApkDigestCalculator.sha256(write("empty.apk", new byte[0])));
+    }
+
+    @Test
+    public void sha256SpansSeveralWindows() throws Exception {
+        // Two full windows and a partial third, so every window boundary is crossed
+        long length = 2 * ApkDigestCalculator.WINDOW + 12_345;
+        File apk = temp.newFile("large.apk");
+        MessageDigest expected = MessageDigest.getInstance("SHA-256");
+        byte[] block = new byte[64 * 1024];
+        try (OutputStream out = new FileOutputStream(apk)) {
+            long written = 0;
+            int counter = 0;
+            while (written < length) {
+                // Not periodic in the window size, so a misplaced window changes the digest
+                for (int i = 0; i < block.length; i++, counter++) {
+                    block[i] = (byte) (counter * 31 + (counter >>> 11));
+                }
+                int n = (int) Math.min(block.length, length - written);
+                out.write(block, 0, n);
+                expected.update(block, 0, n);
+                written += n;
+            }
+        }
+        assertEquals(ApkDigestCalculator.toHex(expected.digest()), ApkDigestCalculator.sha256(apk));
+    }
+
+    @Test
+    public void toHexIsLowercaseAndKeepsLeadingZeros() {
+        assertEquals("", ApkDigestCalculator.toHex(new byte[0]));
+        assertEquals("000f10ff7f80", ApkDigestCalculator.toHex(new byte[] {0x00, 0x0F, 0x10, (byte) 0xFF, 0x7F, (byte) 0x80}));
+    }
+
+    @Test
+    public void digestReusesCachedResultsAndReportsUnreadableFiles() throws IOException {
+        File apk = write("app.apk", "abc".getBytes(StandardCharsets.UTF_8));
+        File missing = new File(temp.getRoot(), "missing.apk");
+        File cacheFile = new File(temp.getRoot(), "digests.cache");
+        File[] apks = {apk, missing};
+
+        ApkDigestCalculator.Result first = new ApkDigestCalculator(cacheFile).digest(apks);
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", first.getDigest(0));
+        assertNull(first.getDigest(1));
+        assertEquals(1, first.hashed);
+        assertEquals(1, first.failed);
+
+        ApkDigestCalculator.Result second = new ApkDigestCalculator(cacheFile).digest(apks);
+        assertEquals(first.getDigest(0), second.getDigest(0));
+        assertEquals(0, second.hashed);
+        assertEquals(1, second.cacheHits);
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        File file = temp.newFile(name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        return file;
+    }
+}
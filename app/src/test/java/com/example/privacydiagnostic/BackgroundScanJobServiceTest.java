@@ -0,0 +1,158 @@
+package com.example.privacydiagnostic;
+
+import android.app.Application;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class BackgroundScanJobServiceTest {
+    private static final String DEVICE = "Device Settings";
+    private static final String APPS = "Installed Apps";
+
+    private Application context;
+    private JobScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+    }
+
+    @Test
+    public void intervalBacksOffUntilTheWeeklyCap() {
+        long interval = BackgroundScanJobService.BASE_INTERVAL_MS;
+        interval = BackgroundScanJobService.nextInterval(interval, BackgroundScanJobService.CHANGE_NONE);
+        assertEquals(2 * BackgroundScanJobService.BASE_INTERVAL_MS, interval);
+        for (int i = 0; i < 10; i++) {
+            interval = BackgroundScanJobService.nextInterval(interval, BackgroundScanJobService.CHANGE_NONE);
+        }
+        assertEquals(BackgroundScanJobService.MAX_INTERVAL_MS, interval);
+    }
+
+    @Test
+    public void changesPullTheIntervalBackIn() {
+        long max = BackgroundScanJobService.MAX_INTERVAL_MS;
+        long min = BackgroundScanJobService.MIN_INTERVAL_MS;
+        assertEquals(BackgroundScanJobService.BASE_INTERVAL_MS,
+                BackgroundScanJobService.nextInterval(max, BackgroundScanJobService.CHANGE_MINOR));
+        // A minor change never lengthens an interval a risky one has tightened
+        assertEquals(min, BackgroundScanJobService.nextInterval(min, BackgroundScanJobService.CHANGE_MINOR));
+        assertEquals(min, BackgroundScanJobService.nextInterval(max, BackgroundScanJobService.CHANGE_RISKY));
+    }
+
+    @Test
+    public void firstScanCountsAsMinor() {
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR, BackgroundScanJobService.compare(null, report("No", "40")));
+    }
+
+    @Test
+    public void identicalScansAreUnchanged() {
+        assertEquals(BackgroundScanJobService.CHANGE_NONE,
+                BackgroundScanJobService.compare(report("No", "40"), report("No", "40")));
+    }
+
+    @Test
+    public void worseRiskFieldsAreRisky() {
+        // A flag leaving its safe value, and a count that grows
+        assertEquals(BackgroundScanJobService.CHANGE_RISKY,
+                BackgroundScanJobService.compare(report("No", "40"), report("Yes", "40")));
+        assertEquals(BackgroundScanJobService.CHANGE_RISKY,
+                BackgroundScanJobService.compare(report("No", "40"), report("No", "41")));
+    }
+
+    @Test
+    public void improvementsAndOtherFieldsAreMinor() {
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR,
+                BackgroundScanJobService.compare(report("Yes", "41"), report("No", "40")));
+        ScanReport previous = report("No", "40");
+        ScanReport current = report("No", "40");
+        current.section(DEVICE).put("Screen Lock", "PIN");
+        previous.section(DEVICE).put("Screen Lock", "Pattern");
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR, BackgroundScanJobService.compare(previous, current));
+    }
+
+    @Test
+    public void locationModeIsRiskyOnlyWhenItGetsMorePrecise() {
+        assertEquals(BackgroundScanJobService.CHANGE_RISKY,
+                BackgroundScanJobService.compare(location("Battery Saving"), location("High Accuracy")));
+        assertEquals(BackgroundScanJobService.CHANGE_RISKY,
+                BackgroundScanJobService.compare(location("Off"), location("Sensors Only")));
+        // Downgrades and sideways moves reduce or keep the exposure
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR,
+                BackgroundScanJobService.compare(location("High Accuracy"), location("Battery Saving")));
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR,
+                BackgroundScanJobService.compare(location("Sensors Only"), location("Battery Saving")));
+        assertEquals(BackgroundScanJobService.CHANGE_MINOR,
+                BackgroundScanJobService.compare(location("Unknown"), location("High Accuracy")));
+    }
+
+    @Test
+    public void fieldsMissingFromThePreviousScanAreIgnored() {
+        ScanReport current = report("No", "40");
+        current.section(DEVICE).put("Root Detection", "Root binaries found");
+        assertEquals(BackgroundScanJobService.CHANGE_NONE,
+                BackgroundScanJobService.compare(report("No", "40"), current));
+    }
+
+    @Test
+    public void ensureScheduledQueuesAConstrainedJob() {
+        BackgroundScanJobService.ensureScheduled(context);
+
+        JobInfo job = scheduler.getPendingJob(BackgroundScanJobService.JOB_ID);
+        assertNotNull(job);
+        assertEquals(BackgroundScanJobService.BASE_INTERVAL_MS, job.getMinLatencyMillis());
+        assertTrue(job.isRequireCharging());
+        assertTrue(job.isRequireDeviceIdle());
+        assertTrue(job.isRequireBatteryNotLow());
+        assertTrue(job.isPersisted());
+        assertEquals(JobInfo.NETWORK_TYPE_UNMETERED, job.getNetworkType());
+    }
+
+    @Test
+    public void ensureScheduledKeepsAPendingJob() {
+        BackgroundScanJobService.ensureScheduled(context);
+        context.getSharedPreferences("background_scan", Context.MODE_PRIVATE).edit()
+               .putLong("interval_ms", BackgroundScanJobService.MIN_INTERVAL_MS).commit();
+
+        BackgroundScanJobService.ensureScheduled(context);
+
+        assertEquals(1, scheduler.getAllPendingJobs().size());
+        assertEquals(BackgroundScanJobService.BASE_INTERVAL_MS,
+                scheduler.getPendingJob(BackgroundScanJobService.JOB_ID).getMinLatencyMillis());
+    }
+
+    @Test
+    public void ensureScheduledResumesTheStoredInterval() {
+        context.getSharedPreferences("background_scan", Context.MODE_PRIVATE).edit()
+               .putLong("interval_ms", BackgroundScanJobService.MAX_INTERVAL_MS).commit();
+
+        BackgroundScanJobService.ensureScheduled(context);
+
+        assertEquals(BackgroundScanJobService.MAX_INTERVAL_MS,
+                scheduler.getPendingJob(BackgroundScanJobService.JOB_ID).getMinLatencyMillis());
+    }
+
+    private static ScanReport location(String mode) {
+        ScanReport report = report("No", "40");
+        report.section(ScanReport.SECTION_LOCATION).put("Location Mode", mode);
+        return report;
+    }
+
+    private static ScanReport report(String usbDebugging, String userApps) {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00.000");
+        report.section(DEVICE).put("USB Debugging", usbDebugging);
+        report.section(APPS).put("User Apps", userApps);
+        return report;
+    }
+}
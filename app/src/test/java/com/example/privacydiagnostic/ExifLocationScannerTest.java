@@ -0,0 +1,141 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the scanner over the sample photos in test resources: JPEGs with little- and
+ * big-endian EXIF, a 0,0 "no fix" GPS block, no GPS, no EXIF at all, and a HEIF file
+ * whose EXIF is an item located through iinf/iloc.
+ */
+public class ExifLocationScannerTest {
+    private static final double DELTA = 1e-4;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readsGpsModelSerialAndTimeFromLittleEndianJpeg() throws IOException {
+        ExifLocationScanner.Finding finding = ExifLocationScanner.parse(sample("gps_little_endian.jpg"));
+
+        assertTrue(finding.hasLocation());
+        assertEquals(48.858222, finding.latitude, DELTA);
+        assertEquals(2.294500, finding.longitude, DELTA);
+        assertEquals("Google Pixel 7a", finding.model);
+        assertEquals("SN-7A-00421", finding.serial);
+        // DateTimeOriginal wins over the IFD0 modification time
+        assertEquals("2024:05:01 09:59:58", finding.timestamp);
+    }
+
+    @Test
+    public void appliesSouthAndWestReferencesFromBigEndianJpeg() throws IOException {
+        ExifLocationScanner.Finding finding = ExifLocationScanner.parse(sample("gps_big_endian.jpg"));
+
+        assertEquals(-22.951667, finding.latitude, DELTA);
+        assertEquals(-43.210833, finding.longitude, DELTA);
+        assertEquals("Canon EOS R6", finding.model);
+    }
+
+    @Test
+    public void readsExifItemFromHeif() throws IOException {
+        ExifLocationScanner.Finding finding = ExifLocationScanner.parse(sample("gps.heic"));
+
+        assertEquals(-33.856806, finding.latitude, DELTA);
+        assertEquals(151.215167, finding.longitude, DELTA);
+        assertEquals("Apple iPhone 15 Pro", finding.model);
+    }
+
+    @Test
+    public void treatsZeroZeroAndMissingGpsAsNoLocation() throws IOException {
+        assertFalse(ExifLocationScanner.parse(sample("gps_zero.jpg")).hasLocation());
+        assertFalse(ExifLocationScanner.parse(sample("gps_little_endian_redacted.jpg")).hasLocation());
+
+        ExifLocationScanner.Finding noGps = ExifLocationScanner.parse(sample("no_gps.jpg"));
+        assertFalse(noGps.hasLocation());
+        assertEquals("Apple iPhone 14", noGps.model);
+
+        ExifLocationScanner.Finding plain = ExifLocationScanner.parse(sample("plain.jpg"));
+        assertFalse(plain.hasLocation());
+        assertNull(plain.model);
+    }
+
+    @Test
+    public void findingSurvivesCacheEncoding() throws IOException {
+        ExifLocationScanner.Finding finding = ExifLocationScanner.parse(sample("gps_little_endian.jpg"));
+        ExifLocationScanner.Finding decoded = ExifLocationScanner.Finding.decode(finding.encode());
+
+        assertEquals(finding.latitude, decoded.latitude, 0);
+        assertEquals(finding.longitude, decoded.longitude, 0);
+        assertEquals(finding.model, decoded.model);
+        assertEquals(finding.serial, decoded.serial);
+        assertEquals(finding.timestamp, decoded.timestamp);
+    }
+
+    @Test
+    public void scanCountsPhotosAndServesRepeatsFromCache() throws IOException {
+        File dcim = temp.newFolder("DCIM");
+        for (String name : new String[] {"gps_little_endian.jpg", "gps_big_endian.jpg", "gps.heic", "gps_zero.jpg",
+                "no_gps.jpg", "plain.jpg"}) {
+            copy(name, new File(dcim, name));
+        }
+        // Thumbnail caches are skipped
+        copy("gps_little_endian.jpg", new File(temp.newFolder("DCIM", ".thumbnails"), "thumb.jpg"));
+        ExifLocationScanner scanner = new ExifLocationScanner(new File(temp.getRoot(), "exif_scan.cache"));
+
+        ExifLocationScanner.Result first = scanner.scan(false, dcim);
+        assertEquals(6, first.getPhotoCount());
+        assertEquals(3, first.getLocationCount());
+        assertEquals(3, first.distinctPlaces);
+        assertEquals(1, first.withSerial);
+        assertEquals(0, first.cacheHits);
+
+        ExifLocationScanner.Result second = new ExifLocationScanner(new File(temp.getRoot(), "exif_scan.cache"))
+                .scan(false, dcim);
+        assertEquals(6, second.cacheHits);
+        assertEquals(3, second.getLocationCount());
+    }
+
+    @Test
+    public void redactedReadIsNotServedOnceLocationAccessIsGranted() throws IOException {
+        File dcim = temp.newFolder("DCIM");
+        File photo = new File(dcim, "IMG_0001.jpg");
+        long mtime = 1714550400000L;
+        // Without ACCESS_MEDIA_LOCATION the platform hands out the same file with GPS zeroed
+        copy("gps_little_endian_redacted.jpg", photo);
+        photo.setLastModified(mtime);
+        ExifLocationScanner scanner = new ExifLocationScanner(new File(temp.getRoot(), "exif_scan.cache"));
+        assertEquals(0, scanner.scan(true, dcim).getLocationCount());
+
+        // Granted: same size and mtime on disk, but reads now include GPS
+        copy("gps_little_endian.jpg", photo);
+        photo.setLastModified(mtime);
+        ExifLocationScanner.Result granted = scanner.scan(false, dcim);
+        assertEquals(0, granted.cacheHits);
+        assertEquals(1, granted.getLocationCount());
+    }
+
+    private File sample(String name) throws IOException {
+        File file = new File(temp.getRoot(), name);
+        if (!file.exists()) copy(name, file);
+        return file;
+    }
+
+    private static void copy(String name, File target) throws IOException {
+        try (InputStream in = ExifLocationScannerTest.class.getResourceAsStream("/exif/" + name)) {
+            if (in == null) throw new IOException("Missing test resource exif/" + name);
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.privacydiagnostic;
+
+import android.net.Uri;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowBinder;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class HeadlessScanProviderTest {
+    private static final Uri SCAN = Uri.parse("content://com.example.privacydiagnostic.scan/scan");
+    private static final int APP_UID = 10123;
+
+    private HeadlessScanProvider provider;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.buildContentProvider(HeadlessScanProvider.class).create().get();
+    }
+
+    @Test
+    public void noSectionsMeansAll() {
+        assertNull(HeadlessScanProvider.parseSections(null));
+        assertNull(HeadlessScanProvider.parseSections(" "));
+    }
+
+    @Test
+    public void sectionKeysMapToTitles() {
+        assertEquals(new HashSet<>(Arrays.asList(ScanReport.SECTION_APPS, ScanReport.SECTION_SCORE)),
+                HeadlessScanProvider.parseSections("apps, score"));
+    }
+
+    @Test
+    public void unknownSectionKeysAreRejected() {
+        try {
+            HeadlessScanProvider.parseSections("apps,contacts_dump");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown section: contacts_dump", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shellAndRootNeedNoPermission() {
+        for (int uid : new int[] {2000, 0}) {
+            ShadowBinder.setCallingUid(uid);
+            // Past the caller check, the provider refuses to open its output for writing
+            assertOpenRefused(uid);
+        }
+    }
+
+    @Test
+    public void otherCallersNeedThePermission() {
+        ShadowBinder.setCallingUid(APP_UID);
+        try {
+            provider.openFile(SCAN, "w");
+            fail("Expected SecurityException");
+        } catch (SecurityException expected) {
+        } catch (FileNotFoundException e) {
+            fail("Caller without " + HeadlessScanProvider.PERMISSION + " got past the check");
+        }
+        try {
+            provider.call(HeadlessScanProvider.METHOD_SCAN, "apps", null);
+            fail("Expected SecurityException");
+        } catch (SecurityException expected) {
+        }
+
+        shadowOf(RuntimeEnvironment.getApplication()).grantPermissions(HeadlessScanProvider.PERMISSION);
+        assertOpenRefused(APP_UID);
+    }
+
+    private void assertOpenRefused(int uid) {
+        try {
+            provider.openFile(SCAN, "w");
+            fail("Expected FileNotFoundException for uid " + uid);
+        } catch (FileNotFoundException expected) {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.privacydiagnostic;
+
+import android.Manifest;
+import android.app.Application;
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLocationManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs the probe against the shadow LocationManager, where a fresh fix arrives only when the
+ * test provides one, so the deadline is the only way a silent provider can end the wait.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LocationExposureProbeTest {
+    private static final long DEADLINE_MS = 300;
+
+    private Application context;
+    private ShadowLocationManager shadow;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        shadowOf(context).grantPermissions(Manifest.permission.ACCESS_FINE_LOCATION);
+        shadow = shadowOf((LocationManager) context.getSystemService(Context.LOCATION_SERVICE));
+        shadow.setProviderEnabled(LocationManager.GPS_PROVIDER, true);
+        shadow.setProviderEnabled(LocationManager.NETWORK_PROVIDER, true);
+        shadow.setProviderEnabled(LocationManager.PASSIVE_PROVIDER, true);
+    }
+
+    @Test
+    public void silentProvidersEndAtTheDeadline() {
+        LocationExposureProbe probe = new LocationExposureProbe(context);
+        long start = System.nanoTime();
+        probe.collect(DEADLINE_MS);
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("returned after " + waitedMs + " ms", waitedMs >= DEADLINE_MS && waitedMs < DEADLINE_MS + 2000);
+        String out = render(probe);
+        assertTrue(out, out.contains("gps: none; fresh: none\n"));
+        assertTrue(out, out.contains("network: none; fresh: none\n"));
+        // The passive provider only echoes other apps' fixes and is never asked for one
+        assertTrue(out, out.contains("passive: none\n"));
+        assertFalse(out, out.contains("Most Precise Leak"));
+    }
+
+    @Test
+    public void requestsAreCancelledAtTheDeadline() {
+        LocationExposureProbe probe = new LocationExposureProbe(context);
+        probe.collect(DEADLINE_MS);
+
+        assertTrue(shadow.getLocationRequests(LocationManager.GPS_PROVIDER).isEmpty());
+        assertTrue(shadow.getLocationRequests(LocationManager.NETWORK_PROVIDER).isEmpty());
+        // A fix that turns up late is not delivered into the finished probe
+        shadow.simulateLocation(LocationManager.GPS_PROVIDER, fix(LocationManager.GPS_PROVIDER, 5f));
+        assertTrue(render(probe).contains("gps: none; fresh: none\n"));
+    }
+
+    @Test
+    public void answeredProvidersReturnBeforeTheDeadline() {
+        // The shadow answers a current-location request at once from a recent last known fix
+        shadow.setLastKnownLocation(LocationManager.GPS_PROVIDER, fix(LocationManager.GPS_PROVIDER, 5f));
+        shadow.setLastKnownLocation(LocationManager.NETWORK_PROVIDER, fix(LocationManager.NETWORK_PROVIDER, 40f));
+        LocationExposureProbe probe = new LocationExposureProbe(context);
+        long start = System.nanoTime();
+        probe.collect(30_000);
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("returned after " + waitedMs + " ms", waitedMs < 10_000);
+        String out = render(probe);
+        assertTrue(out, out.contains("gps: 48.858, 2.294 ±5 m, 0 s old; fresh: 48.858, 2.294 ±5 m, 0 s old\n"));
+        assertTrue(out, out.contains("Most Precise Leak: gps (cached) ±5 m\n"));
+    }
+
+    @Test
+    public void disabledProvidersAreNotAskedForAFix() {
+        shadow.setProviderEnabled(LocationManager.GPS_PROVIDER, false);
+        shadow.setProviderEnabled(LocationManager.NETWORK_PROVIDER, false);
+        LocationExposureProbe probe = new LocationExposureProbe(context);
+        long start = System.nanoTime();
+        probe.collect(30_000);
+
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 10_000);
+        assertFalse(render(probe).contains("fresh"));
+    }
+
+    private static Location fix(String provider, float accuracy) {
+        Location location = new Location(provider);
+        location.setLatitude(48.858222);
+        location.setLongitude(2.2941);
+        location.setAccuracy(accuracy);
+        location.setTime(System.currentTimeMillis());
+        location.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos());
+        return location;
+    }
+
+    private static String render(LocationExposureProbe probe) {
+        StringBuilder out = new StringBuilder();
+        probe.appendTo(out);
+        return out.toString();
+    }
+}
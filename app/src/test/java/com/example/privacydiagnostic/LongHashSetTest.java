@@ -0,0 +1,72 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addReportsWhetherTheKeyIsNew() {
+        LongHashSet set = new LongHashSet(4);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(-1));
+        assertTrue(set.contains(42));
+        assertTrue(set.contains(-1));
+        assertFalse(set.contains(43));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void zeroIsAnOrdinaryKey() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+
+        set.clear();
+        assertFalse(set.contains(0));
+        assertEquals(0, set.size());
+        assertTrue(set.add(0));
+    }
+
+    @Test
+    public void growsPastTheExpectedSizeWithoutLosingKeys() {
+        LongHashSet set = new LongHashSet(2);
+        // MAC-like keys sharing one vendor prefix, the clustering case the hash mixes for
+        long prefix = 0x3C5AB4L << 24;
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(set.add(prefix | i));
+        }
+        assertTrue(set.add(0));
+        assertEquals(count + 1, set.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue(set.contains(prefix | i));
+            assertFalse(set.add(prefix | i));
+        }
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(prefix | count));
+        assertEquals(count + 1, set.size());
+    }
+
+    @Test
+    public void clearEmptiesTheSetForReuse() {
+        LongHashSet set = new LongHashSet(4);
+        for (long key = 1; key <= 100; key++) {
+            set.add(key);
+        }
+        set.clear();
+        assertEquals(0, set.size());
+        for (long key = 1; key <= 100; key++) {
+            assertFalse(set.contains(key));
+        }
+        assertTrue(set.add(7));
+        assertEquals(1, set.size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MotionSampleBufferTest {
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    public void statisticsCoverOnlyTheRetainedWindow() {
+        MotionSampleBuffer buffer = new MotionSampleBuffer(4);
+        // Overwritten by the wrap-around below
+        buffer.put(100, 100, 100, 0);
+        buffer.put(100, 100, 100, 1_000_000);
+        for (int i = 0; i < 4; i++) {
+            buffer.put(i, 2 * i, 0, (2 + i) * 1_000_000L);
+        }
+
+        assertEquals(4, buffer.size());
+        assertEquals(6, buffer.totalSamples());
+        assertEquals(1.5, buffer.mean(0), EPSILON);
+        assertEquals(3.0, buffer.mean(1), EPSILON);
+        assertEquals(0, buffer.mean(2), EPSILON);
+        // Sample standard deviation of 0, 1, 2, 3
+        assertEquals(Math.sqrt(5.0 / 3), buffer.stdDev(0), EPSILON);
+        assertEquals(0, buffer.stdDev(2), EPSILON);
+        // 4 samples 1 ms apart
+        assertEquals(1000, buffer.rateHz(), EPSILON);
+    }
+
+    @Test
+    public void quantizationStepIsTheSmallestNonZeroChange() {
+        MotionSampleBuffer buffer = new MotionSampleBuffer(8);
+        float[] values = {1.0f, 1.0f, 1.5f, 1.25f, 2.0f};
+        for (int i = 0; i < values.length; i++) {
+            buffer.put(values[i], 0, 0, i);
+        }
+        assertEquals(0.25, buffer.quantizationStep(0), EPSILON);
+        // A constant axis has no step
+        assertEquals(0, buffer.quantizationStep(1), EPSILON);
+    }
+
+    @Test
+    public void onGridFractionCountsMultiplesOfTheResolution() {
+        MotionSampleBuffer buffer = new MotionSampleBuffer(4);
+        buffer.put(0.5f, 0, 0, 0);
+        buffer.put(1.0f, 0, 0, 1);
+        buffer.put(1.3f, 0, 0, 2);
+        buffer.put(2.0f, 0, 0, 3);
+        assertEquals(0.75, buffer.onGridFraction(0, 0.5), EPSILON);
+        assertEquals(0, buffer.onGridFraction(0, 0), EPSILON);
+    }
+
+    @Test
+    public void biasBitsGrowWithTheBiasOverTheNoiseFloor() {
+        MotionSampleBuffer still = new MotionSampleBuffer(16);
+        MotionSampleBuffer biased = new MotionSampleBuffer(16);
+        for (int i = 0; i < 16; i++) {
+            float noise = (i % 2 == 0 ? 1 : -1) * 0.001f;
+            still.put(noise, noise, noise, i);
+            biased.put(0.05f + noise, 0.05f + noise, 0.05f + noise, i);
+        }
+        assertEquals(0, still.biasEntropyBits(), 0.01);
+        // Each axis: log2(1 + 0.05 / 0.001), the floor being half the 0.002 step
+        assertEquals(3 * Math.log(51) / Math.log(2), biased.biasEntropyBits(), 0.05);
+    }
+
+    @Test
+    public void tooFewSamplesGiveZeros() {
+        MotionSampleBuffer buffer = new MotionSampleBuffer(4);
+        assertEquals(0, buffer.rateHz(), EPSILON);
+        assertEquals(0, buffer.mean(0), EPSILON);
+        buffer.put(1, 1, 1, 0);
+        assertEquals(0, buffer.stdDev(0), EPSILON);
+        assertEquals(0, buffer.biasEntropyBits(), EPSILON);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class NearbyRadioProbeTest {
+    private static final int BEACON_TYPES = NearbyRadioProbe.BEACON_EXPOSURE_NOTIFICATION + 1;
+
+    @Test
+    public void packMacReadsSixHexOctets() {
+        assertEquals(0xAABBCCDDEEFFL, NearbyRadioProbe.packMac("AA:BB:CC:DD:EE:FF"));
+        assertEquals(0xAABBCCDDEEFFL, NearbyRadioProbe.packMac("aa:bb:cc:dd:ee:ff"));
+        assertEquals(0L, NearbyRadioProbe.packMac("00:00:00:00:00:00"));
+        assertEquals(0x020000000001L, NearbyRadioProbe.packMac("02:00:00:00:00:01"));
+    }
+
+    @Test
+    public void packMacRejectsMalformedAddresses() {
+        assertEquals(-1, NearbyRadioProbe.packMac(null));
+        assertEquals(-1, NearbyRadioProbe.packMac(""));
+        assertEquals(-1, NearbyRadioProbe.packMac("AA:BB:CC:DD:EE"));
+        assertEquals(-1, NearbyRadioProbe.packMac("AA:BB:CC:DD:EE:F"));
+        assertEquals(-1, NearbyRadioProbe.packMac("AA:BB:CC:DD:EE:FF:"));
+        assertEquals(-1, NearbyRadioProbe.packMac("AA-BB-CC-DD-EE-FF"));
+        assertEquals(-1, NearbyRadioProbe.packMac("AA:BB:CC:DD:EE:FG"));
+        assertEquals(-1, NearbyRadioProbe.packMac("AABB:CC:DD:EE:FF:"));
+    }
+
+    @Test
+    public void classifyCountsManufacturerAndServiceBeacons() {
+        int[] beacons = new int[BEACON_TYPES];
+        // Apple iBeacon manufacturer data
+        NearbyRadioProbe.classify(ad(0x05, 0xFF, 0x4C, 0x00, 0x02, 0x15), beacons);
+        // Apple Find My
+        NearbyRadioProbe.classify(ad(0x04, 0xFF, 0x4C, 0x00, 0x12), beacons);
+        // Eddystone service data, after a flags structure that is skipped
+        NearbyRadioProbe.classify(ad(0x02, 0x01, 0x06, 0x03, 0x16, 0xAA, 0xFE), beacons);
+        // Tile in the complete 16-bit service UUID list
+        NearbyRadioProbe.classify(ad(0x03, 0x03, 0xED, 0xFE), beacons);
+
+        int[] expected = new int[BEACON_TYPES];
+        expected[NearbyRadioProbe.BEACON_IBEACON] = 1;
+        expected[NearbyRadioProbe.BEACON_FIND_MY] = 1;
+        expected[NearbyRadioProbe.BEACON_EDDYSTONE] = 1;
+        expected[NearbyRadioProbe.BEACON_TRACKER_TAG] = 1;
+        assertArrayEquals(expected, beacons);
+    }
+
+    @Test
+    public void classifyCountsOnlyTheFirstRecognisedStructure() {
+        int[] beacons = new int[BEACON_TYPES];
+        NearbyRadioProbe.classify(ad(0x04, 0xFF, 0x06, 0x00, 0x01, 0x03, 0x16, 0x2C, 0xFE), beacons);
+        assertEquals(1, beacons[NearbyRadioProbe.BEACON_MICROSOFT]);
+        assertEquals(0, beacons[NearbyRadioProbe.BEACON_FAST_PAIR]);
+    }
+
+    @Test
+    public void classifyIgnoresTruncatedAndEmptyStructures() {
+        int[] beacons = new int[BEACON_TYPES];
+        NearbyRadioProbe.classify(null, beacons);
+        NearbyRadioProbe.classify(new byte[0], beacons);
+        NearbyRadioProbe.classify(ad(0x05), beacons);
+        // Length runs past the end of the advertisement
+        NearbyRadioProbe.classify(ad(0x06, 0xFF, 0x4C, 0x00, 0x02), beacons);
+        // A zero-length structure ends the data, even with a beacon after it
+        NearbyRadioProbe.classify(ad(0x00, 0x03, 0x16, 0xAA, 0xFE), beacons);
+        // Manufacturer data too short for a company and subtype
+        NearbyRadioProbe.classify(ad(0x03, 0xFF, 0x4C, 0x00), beacons);
+        // Service data too short for a UUID
+        NearbyRadioProbe.classify(ad(0x02, 0x16, 0xAA), beacons);
+        // Zero padding after the structures, as controllers send it
+        NearbyRadioProbe.classify(ad(0x02, 0x01, 0x06, 0x00, 0x00, 0x00), beacons);
+
+        assertArrayEquals(new int[BEACON_TYPES], beacons);
+    }
+
+    private static byte[] ad(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
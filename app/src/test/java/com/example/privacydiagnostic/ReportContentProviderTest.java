@@ -0,0 +1,50 @@
+package com.example.privacydiagnostic;
+
+import android.content.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class ReportContentProviderTest {
+    @Test
+    public void clipsAreWrittenToTheCacheDir() throws IOException {
+        Context context = RuntimeEnvironment.getApplication();
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 100 * 1024) {
+            text.append("Tracker SDKs: 3 ✓\n");
+        }
+
+        ReportContentProvider.publish(context, text);
+
+        // Under cache-path, which file_paths.xml shares through this provider
+        File clips = new File(context.getCacheDir(), "clips");
+        File[] dirs = clips.listFiles();
+        assertEquals(1, dirs.length);
+        File file = new File(dirs[0], "PrivacyScan.txt");
+        assertEquals(text.toString(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void onlyTheLatestClipsAreKept() throws IOException {
+        Context context = RuntimeEnvironment.getApplication();
+        File clips = new File(context.getCacheDir(), "clips");
+        for (int i = 0; i < 6; i++) {
+            ReportContentProvider.publish(context, "clip " + i);
+            // Distinct times, so eviction order does not depend on the filesystem's resolution
+            for (File dir : clips.listFiles()) {
+                dir.setLastModified(dir.lastModified() - 10_000);
+            }
+        }
+        assertEquals(4, clips.listFiles().length);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.privacydiagnostic;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.RestrictionsManager;
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class ScanEnginePolicyTest {
+    private static final String SIDE_LOADED = "policy \"Side-loaded\"\n\nrule adb_off \"USB debugging is off\"\n"
+            + "    require concerns.\"USB Debugging\" == \"No\"\n";
+    private static final String MANAGED = "policy \"Managed\"\n\nrule adb_off \"USB debugging is off\"\n"
+            + "    require concerns.\"USB Debugging\" == \"No\"\n";
+
+    private Application context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void sideLoadedPolicyComesFromInternalStorage() throws IOException {
+        Files.write(new File(context.getFilesDir(), ScanEngine.POLICY_FILE).toPath(),
+                SIDE_LOADED.getBytes(StandardCharsets.UTF_8));
+        // Other apps can write here on older releases; it must not be read
+        File external = context.getExternalFilesDir(null);
+        external.mkdirs();
+        Files.write(new File(external, ScanEngine.POLICY_FILE).toPath(), "not a policy".getBytes(StandardCharsets.UTF_8));
+
+        ScanReport report = evaluate();
+
+        assertEquals("Side-loaded", report.get(ScanReport.SECTION_POLICY, "Policy"));
+        assertEquals(new File(context.getFilesDir(), ScanEngine.POLICY_FILE).getPath(),
+                report.get(ScanReport.SECTION_POLICY, "Policy Source"));
+        assertEquals(64, report.get(ScanReport.SECTION_POLICY, "Policy SHA-256").length());
+    }
+
+    @Test
+    public void managedConfigurationWins() throws IOException {
+        Files.write(new File(context.getFilesDir(), ScanEngine.POLICY_FILE).toPath(),
+                SIDE_LOADED.getBytes(StandardCharsets.UTF_8));
+        Bundle restrictions = new Bundle();
+        restrictions.putString(ScanEngine.POLICY_RESTRICTION, MANAGED);
+        shadowOf((RestrictionsManager) context.getSystemService(Context.RESTRICTIONS_SERVICE))
+                .setApplicationRestrictions(restrictions);
+
+        ScanReport report = evaluate();
+
+        assertEquals("Managed", report.get(ScanReport.SECTION_POLICY, "Policy"));
+        assertEquals("Managed configuration", report.get(ScanReport.SECTION_POLICY, "Policy Source"));
+        // sha256sum of the policy text
+        assertEquals("8329bae21ed5b2843b8411105e25ac27adc66b77748409044d557519b61668c9",
+                report.get(ScanReport.SECTION_POLICY, "Policy SHA-256"));
+    }
+
+    @Test
+    public void policyThatDoesNotCompileStillShowsItsSource() throws IOException {
+        Files.write(new File(context.getFilesDir(), ScanEngine.POLICY_FILE).toPath(),
+                "rule\n".getBytes(StandardCharsets.UTF_8));
+
+        ScanReport report = evaluate();
+
+        assertTrue(report.get(ScanReport.SECTION_POLICY, "Policy Error").startsWith(
+                new File(context.getFilesDir(), ScanEngine.POLICY_FILE).getPath() + ": "));
+        assertEquals(64, report.get(ScanReport.SECTION_POLICY, "Policy SHA-256").length());
+    }
+
+    private ScanReport evaluate() {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00.000");
+        report.section(ScanReport.SECTION_CONCERNS).put("USB Debugging", "No");
+        new ScanEngine(context).updateDevicePolicy(report);
+        return report;
+    }
+}
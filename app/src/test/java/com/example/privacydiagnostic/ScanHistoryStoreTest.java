@@ -0,0 +1,76 @@
+package com.example.privacydiagnostic;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class ScanHistoryStoreTest {
+    @Before
+    public void clearHistory() {
+        // The store is a process-wide singleton, so scans from earlier tests are still in it
+        SQLiteDatabase db = ScanHistoryStore.get(RuntimeEnvironment.getApplication()).getWritableDatabase();
+        db.delete(ScanHistoryStore.TABLE_SCAN_FIELDS, null, null);
+        db.delete(ScanHistoryStore.TABLE_SCANS, null, null);
+    }
+
+    @Test
+    public void identifiersAndLocationAreNotStored() {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00");
+        report.section(ScanReport.SECTION_DEVICE)
+              .put("Model", "Pixel 7a")
+              .put("Serial", "SN-7A-00421");
+        report.section(ScanReport.SECTION_NETWORK)
+              .put("Network Type", "WIFI")
+              .put("Phone Number", "+15551234567")
+              .put("SIM Serial", "8901260000000000000");
+        report.section(ScanReport.SECTION_LOCATION)
+              .put("Location Mode", "High accuracy")
+              .put("Last Known Location", "48.858, 2.294");
+        report.section(ScanReport.SECTION_IDENTIFIERS)
+              .put("Android ID", "9774d56d682e549c")
+              .put("Advertising ID", "38400000-8cf0-11bd-b23e-10b96e40000d");
+
+        ScanHistoryStore store = ScanHistoryStore.get(RuntimeEnvironment.getApplication());
+        store.insertScan(1000, ScanHistoryStore.TRIGGER_INTERACTIVE, 50, true, report);
+        ScanReport stored = store.loadLatestScan(ScanHistoryStore.TRIGGER_INTERACTIVE);
+
+        assertEquals("Pixel 7a", stored.get(ScanReport.SECTION_DEVICE, "Model"));
+        assertEquals("WIFI", stored.get(ScanReport.SECTION_NETWORK, "Network Type"));
+        assertEquals("High accuracy", stored.get(ScanReport.SECTION_LOCATION, "Location Mode"));
+        assertNull(stored.get(ScanReport.SECTION_DEVICE, "Serial"));
+        assertNull(stored.get(ScanReport.SECTION_NETWORK, "Phone Number"));
+        assertNull(stored.get(ScanReport.SECTION_NETWORK, "SIM Serial"));
+        assertNull(stored.get(ScanReport.SECTION_LOCATION, "Last Known Location"));
+        assertNull(stored.getSection(ScanReport.SECTION_IDENTIFIERS));
+    }
+
+    @Test
+    public void photoLocationsAndPerAppUsageAreNotStored() {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00");
+        report.section(ScanReport.SECTION_CAMERA)
+              .put("Camera Hardware", "Yes")
+              .put("Photo Location Leaks", "\n  📍 IMG_0042.jpg: 48.858, 2.294 at 2024:04:30 18:02:11\n")
+              .put("Sensor Access During Scans (24h)", "\n  10:02 com.example.maps: camera\n");
+        report.section(ScanReport.SECTION_PERMISSIONS)
+              .put("Permission Status", "CAMERA: ✓")
+              .put("Sensitive Access (7 days)", "\nApps Holding Sensitive Access: Location 12\n  com.example.maps: location 3h ago\n");
+
+        ScanHistoryStore store = ScanHistoryStore.get(RuntimeEnvironment.getApplication());
+        store.insertScan(2000, ScanHistoryStore.TRIGGER_INTERACTIVE, 50, true, report);
+        ScanReport stored = store.loadLatestScan(ScanHistoryStore.TRIGGER_INTERACTIVE);
+
+        assertEquals("Yes", stored.get(ScanReport.SECTION_CAMERA, "Camera Hardware"));
+        assertEquals("CAMERA: ✓", stored.get(ScanReport.SECTION_PERMISSIONS, "Permission Status"));
+        assertNull(stored.get(ScanReport.SECTION_CAMERA, "Photo Location Leaks"));
+        assertNull(stored.get(ScanReport.SECTION_CAMERA, "Sensor Access During Scans (24h)"));
+        assertNull(stored.get(ScanReport.SECTION_PERMISSIONS, "Sensitive Access (7 days)"));
+    }
+}
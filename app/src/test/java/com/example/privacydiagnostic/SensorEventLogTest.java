@@ -0,0 +1,109 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SensorEventLogTest {
+
+    /** Copies every drained batch, since the log reuses its arrays. */
+    private static final class Collector implements SensorEventLog.Sink {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<String> subjects = new ArrayList<>();
+        int batches;
+        String[] lastSubjects;
+
+        @Override
+        public void accept(long[] timestamps, int[] sources, boolean[] active, String[] subjects, int count) {
+            batches++;
+            lastSubjects = subjects;
+            for (int i = 0; i < count; i++) {
+                this.timestamps.add(timestamps[i]);
+                this.subjects.add(SensorEventLog.sourceName(sources[i]) + (active[i] ? " on " : " off ") + subjects[i]);
+            }
+        }
+    }
+
+    @Test
+    public void drainHandsOverEventsInOrderAndEmptiesTheLog() {
+        SensorEventLog log = new SensorEventLog(8);
+        log.record(10, SensorEventLog.SOURCE_CAMERA, true, "0");
+        log.record(20, SensorEventLog.SOURCE_MICROPHONE, false, "1");
+        assertEquals(2, log.pending());
+
+        Collector sink = new Collector();
+        assertEquals(2, log.drainTo(sink));
+        assertEquals(1, sink.batches);
+        assertEquals(2, sink.timestamps.size());
+        assertEquals(10L, (long) sink.timestamps.get(0));
+        assertEquals("Camera on 0", sink.subjects.get(0));
+        assertEquals("Microphone off 1", sink.subjects.get(1));
+        // Subjects are released once the sink returns
+        assertNull(sink.lastSubjects[0]);
+        assertEquals(0, log.pending());
+
+        // Nothing new: the sink is not called
+        assertEquals(0, log.drainTo(sink));
+        assertEquals(1, sink.batches);
+        assertEquals(0, log.getDroppedCount());
+    }
+
+    @Test
+    public void eventsWrapAroundTheRing() {
+        SensorEventLog log = new SensorEventLog(4);
+        Collector sink = new Collector();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 3; i++) {
+                log.record(round * 3 + i, SensorEventLog.SOURCE_APP_OP, true, "x");
+            }
+            assertEquals(3, log.drainTo(sink));
+        }
+        long[] expected = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+        long[] drained = new long[sink.timestamps.size()];
+        for (int i = 0; i < drained.length; i++) {
+            drained[i] = sink.timestamps.get(i);
+        }
+        assertArrayEquals(expected, drained);
+        assertEquals(0, log.getDroppedCount());
+    }
+
+    @Test
+    public void aFullLogDropsTheOldestEvents() {
+        SensorEventLog log = new SensorEventLog(4);
+        for (int i = 0; i < 7; i++) {
+            log.record(i, SensorEventLog.SOURCE_CAMERA, true, "Camera " + i);
+        }
+        assertEquals(7, log.pending());
+
+        Collector sink = new Collector();
+        assertEquals(4, log.drainTo(sink));
+        assertEquals(3, log.getDroppedCount());
+        assertEquals(3L, (long) sink.timestamps.get(0));
+        assertEquals(6L, (long) sink.timestamps.get(3));
+        assertEquals(0, log.pending());
+
+        // Later events drain normally and the drop count stays put
+        log.record(7, SensorEventLog.SOURCE_CAMERA, false, "Camera 7");
+        assertEquals(1, log.drainTo(sink));
+        assertEquals(7L, (long) sink.timestamps.get(4));
+        assertEquals(3, log.getDroppedCount());
+    }
+
+    @Test
+    public void capacityMustBeAPowerOfTwo() {
+        assertEquals(16, new SensorEventLog(16).capacity());
+        try {
+            new SensorEventLog(12);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("12"));
+        }
+    }
+}
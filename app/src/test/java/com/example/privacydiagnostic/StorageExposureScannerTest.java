@@ -0,0 +1,131 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StorageExposureScannerTest {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // Directory mtimes are set explicitly; real ones can land in the same millisecond
+    private static final long DIR_TIME = System.currentTimeMillis() - DAY_MS;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File root;
+    private File cache;
+
+    @Before
+    public void setUp() throws IOException {
+        root = temp.newFolder("storage");
+        cache = new File(temp.getRoot(), "storage_scan.cache");
+        write(new File(root, "DCIM/Camera/IMG_0001.jpg"), 50 << 10);
+        write(new File(root, "DCIM/Camera/VID_0001.mp4"), 2 << 20);
+        write(new File(root, "Download/passport_scan.pdf"), 300 << 10);
+        write(new File(root, "Download/contacts.vcf"), 1 << 10);
+        write(new File(root, "Download/notes.txt"), 10);
+        write(new File(root, "Documents/keys/client.p12"), 4 << 10);
+        touchDirectories(root, DIR_TIME);
+    }
+
+    @Test
+    public void countsFilesByTypeSizeAndSensitivity() throws IOException {
+        StorageExposureScanner.Result result = new StorageExposureScanner(cache).scan(root);
+
+        assertEquals(6, result.getFileCount());
+        assertEquals(6, result.directories);
+        assertEquals(6, result.getDirectoriesListed());
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_IMAGE]);
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_VIDEO]);
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_PDF]);
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_EXPORT]);
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_DOCUMENT]);
+        assertEquals(1, result.countByType[StorageExposureScanner.TYPE_KEY]);
+        // <100KB, 100KB-10MB
+        assertEquals(4, result.countBySize[0]);
+        assertEquals(2, result.countBySize[1]);
+        // passport_scan.pdf, contacts.vcf, client.p12
+        assertEquals(3, result.getSensitiveCount());
+    }
+
+    @Test
+    public void unchangedTreeIsNotListedAgain() throws IOException {
+        StorageExposureScanner scanner = new StorageExposureScanner(cache);
+        StorageExposureScanner.Result first = scanner.scan(root);
+        StorageExposureScanner.Result second = scanner.scan(root);
+
+        assertEquals(0, second.getDirectoriesListed());
+        assertEquals(first.getFileCount(), second.getFileCount());
+        assertEquals(first.bytes, second.bytes);
+    }
+
+    @Test
+    public void cacheIsReadBackByANewInstance() throws IOException {
+        new StorageExposureScanner(cache).scan(root);
+        assertTrue(cache.isFile());
+
+        StorageExposureScanner.Result result = new StorageExposureScanner(cache).scan(root);
+        assertEquals(0, result.getDirectoriesListed());
+        assertEquals(6, result.getFileCount());
+    }
+
+    @Test
+    public void fileRewrittenInPlaceIsRestatted() throws IOException {
+        StorageExposureScanner scanner = new StorageExposureScanner(cache);
+        StorageExposureScanner.Result before = scanner.scan(root);
+        assertEquals(0, before.countByAge[0]);
+
+        // Same name, so the directory's mtime stays put; only the file's size and mtime move
+        File notes = new File(root, "Download/notes.txt");
+        write(notes, 20 << 20);
+        notes.setLastModified(System.currentTimeMillis());
+        touchDirectories(root, DIR_TIME);
+        StorageExposureScanner.Result after = scanner.scan(root);
+
+        assertEquals(0, after.getDirectoriesListed());
+        assertEquals(before.bytes - 10 + (20 << 20), after.bytes);
+        // 10-100MB bucket and <1 week bucket
+        assertEquals(1, after.countBySize[2]);
+        assertEquals(1, after.countByAge[0]);
+    }
+
+    @Test
+    public void onlyChangedDirectoryIsListedAgain() throws IOException {
+        StorageExposureScanner scanner = new StorageExposureScanner(cache);
+        scanner.scan(root);
+
+        write(new File(root, "Download/bank_statement.csv"), 100);
+        new File(root, "Download").setLastModified(DIR_TIME + 60_000);
+        StorageExposureScanner.Result result = scanner.scan(root);
+
+        assertEquals(1, result.getDirectoriesListed());
+        assertEquals(7, result.getFileCount());
+        assertEquals(4, result.getSensitiveCount());
+    }
+
+    private static void write(File file, int length) throws IOException {
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[length]);
+        }
+        file.setLastModified(System.currentTimeMillis() - 400 * DAY_MS);
+    }
+
+    private static void touchDirectories(File dir, long time) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) touchDirectories(child, time);
+            }
+        }
+        dir.setLastModified(time);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.privacydiagnostic.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH CSV result files, e.g. from the release branch and from a change:
+ *
+ * <pre>
+ * java -cp benchmarks.jar com.example.privacydiagnostic.bench.CompareResults base.csv new.csv [threshold %]
+ * </pre>
+ *
+ * A benchmark has regressed when it is slower by more than the threshold (10% by default)
+ * and the two results' error intervals do not overlap, so run-to-run noise alone does not
+ * fail the comparison. Benchmarks in only one file are listed as new or missing; a missing one
+ * may have been removed, renamed or left out of the run, and its result is not compared.
+ * Exits with 1 if anything regressed.
+ */
+public final class CompareResults {
+    private CompareResults() {
+    }
+
+    /** One row: score and its 99.9% error, and whether a higher score is better. */
+    private static final class Result {
+        final double score;
+        final double error;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, double error, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args[0].isEmpty()) {
+            System.err.println("Usage: CompareResults <baseline.csv> <candidate.csv> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, Result> baseline = read(args[0]);
+        Map<String, Result> candidate = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf(Locale.US, "%-64s %12s %12s %8s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, Result> entry : candidate.entrySet()) {
+            Result after = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf(Locale.US, "%-64s %12s %12.3f %8s  new%n", entry.getKey(), "-", after.score, "");
+                continue;
+            }
+            // Positive when the candidate is worse, whichever direction the mode counts in
+            double change = (after.score - before.score) / before.score;
+            if (after.higherIsBetter) change = -change;
+            boolean separated = after.higherIsBetter
+                    ? after.score + after.error < before.score - before.error
+                    : after.score - after.error > before.score + before.error;
+            boolean regressed = change > threshold && separated;
+            if (regressed) regressions++;
+            System.out.printf(Locale.US, "%-64s %12.3f %12.3f %+7.1f%% %s%s%n", entry.getKey(), before.score,
+                    after.score, 100 * change, after.unit, regressed ? "  REGRESSION" : "");
+        }
+        int missing = 0;
+        for (Map.Entry<String, Result> entry : baseline.entrySet()) {
+            if (candidate.containsKey(entry.getKey())) continue;
+            missing++;
+            System.out.printf(Locale.US, "%-64s %12.3f %12s %8s  missing%n", entry.getKey(), entry.getValue().score,
+                    "-", "");
+        }
+        System.out.println();
+        if (missing > 0) {
+            System.out.println(missing + " baseline benchmark(s) missing from the candidate");
+        }
+        System.out.println(regressions == 0
+                ? "No regressions beyond " + Math.round(threshold * 100) + "%"
+                : regressions + " benchmark(s) regressed beyond " + Math.round(threshold * 100) + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // "Benchmark","Mode","Threads","Samples","Score","Score Error (99.9%)","Unit","Param: length"
+    private static Map<String, Result> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) return results;
+        List<String> header = split(lines.get(0));
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).trim().isEmpty()) continue;
+            List<String> row = split(lines.get(i));
+            // Class and method name; parameters make the rest of the key
+            String benchmark = row.get(0);
+            int method = benchmark.lastIndexOf('.');
+            StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1));
+            for (int column = 7; column < row.size() && column < header.size(); column++) {
+                if (!row.get(column).isEmpty()) {
+                    key.append(' ').append(header.get(column).replace("Param: ", "")).append('=').append(row.get(column));
+                }
+            }
+            results.put(key.toString(), new Result(Double.parseDouble(row.get(4)), parse(row.get(5)), row.get(6),
+                    "thrpt".equals(row.get(1))));
+        }
+        return results;
+    }
+
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.ScanJsonWriter;
+import com.example.privacydiagnostic.ScanRecordReader;
+import com.example.privacydiagnostic.ScanRecordWriter;
+import com.example.privacydiagnostic.ScanReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** Every form a finished report leaves the app in: text export, JSON Lines, binary record and snapshot. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ExportBenchmark {
+    private ScanReport report;
+    private byte[] record;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+    private final StringWriter json = new StringWriter(64 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        report = Fixtures.report();
+        record = recordWrite();
+    }
+
+    @Benchmark
+    public byte[] text() {
+        return report.render().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int jsonLines() throws IOException {
+        json.getBuffer().setLength(0);
+        ScanJsonWriter writer = new ScanJsonWriter(json);
+        writer.writeHeader(report.getCompletedAt());
+        for (ScanReport.Section section : report.getSections()) {
+            writer.writeSection(section);
+        }
+        writer.writeEnd(ScanJsonWriter.STATUS_COMPLETE, null);
+        return json.getBuffer().length();
+    }
+
+    @Benchmark
+    public byte[] recordWrite() throws IOException {
+        bytes.reset();
+        try (ScanRecordWriter writer = new ScanRecordWriter(bytes)) {
+            writer.write(report);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public ScanReport recordRead() throws IOException {
+        return new ScanRecordReader(ByteBuffer.wrap(record)).read(0);
+    }
+
+    @Benchmark
+    public int snapshot() throws IOException {
+        bytes.reset();
+        report.writeTo(new DataOutputStream(bytes));
+        return bytes.size();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.DevicePolicy;
+import com.example.privacydiagnostic.PrivacyScore;
+import com.example.privacydiagnostic.ScanReport;
+import com.example.privacydiagnostic.TagMemoryDump;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Device input for the benchmarks: the field values a scan of a mid-range phone with about
+ * 150 apps produces, the memory of an NTAG215 tag holding a URI record, and installed APKs
+ * for the tracker scan. Generated from
+ * a fixed seed so every run and every commit measures the same data; change it only
+ * together with a note that results before and after are not comparable.
+ */
+final class Fixtures {
+    static final String COMPLETED_AT = "2024-05-01T10:00:00.000";
+
+    /** Section title, key (null for a free-text line), value; in report order. */
+    static final List<String[]> FIELDS = new ArrayList<>();
+
+    static final byte[] TAG_UID = {0x04, (byte) 0xA1, (byte) 0xB2, 0x3C, 0x4D, 0x5E, (byte) 0x80};
+    static final int NTAG215_PAGES = 135;
+    static final byte[] NTAG215_MEMORY = new byte[NTAG215_PAGES * 4];
+
+    private static final String[] SDKS = {"Google Firebase Analytics", "Google AdMob", "Facebook Analytics",
+            "AppsFlyer", "Adjust", "Firebase Crashlytics", "Unity Ads", "Sentry"};
+    private static final String[] SDK_PACKAGES = {"Lcom/google/firebase/analytics/", "Lcom/google/android/gms/ads/",
+            "Lcom/facebook/appevents/", "Lcom/appsflyer/", "Lcom/adjust/sdk/", "Lcom/google/firebase/crashlytics/",
+            "Lcom/unity3d/ads/", "Lio/sentry/"};
+    private static final String[] SENSOR_VENDORS = {"Bosch", "STMicroelectronics", "AKM", "Google", "Sensortek"};
+
+    static {
+        Random random = new Random(20240501);
+
+        field(ScanReport.SECTION_DEVICE, "Manufacturer", "Google");
+        field(ScanReport.SECTION_DEVICE, "Model", "Pixel 7a");
+        field(ScanReport.SECTION_DEVICE, "Device", "lynx");
+        field(ScanReport.SECTION_DEVICE, "Product", "lynx");
+        field(ScanReport.SECTION_DEVICE, "Brand", "google");
+        field(ScanReport.SECTION_DEVICE, "Hardware", "lynx");
+        field(ScanReport.SECTION_DEVICE, "Serial", "Permission denied");
+        field(ScanReport.SECTION_DEVICE, "Android Version", "14");
+        field(ScanReport.SECTION_DEVICE, "SDK Level", "34");
+        field(ScanReport.SECTION_DEVICE, "Build ID", "AP1A.240405.002");
+        field(ScanReport.SECTION_DEVICE, "Fingerprint", "google/lynx/lynx:14/AP1A.240405.002/11480754:user/release-keys");
+        field(ScanReport.SECTION_DEVICE, "Bootloader", "lynx-1.0-10921218");
+        field(ScanReport.SECTION_DEVICE, "Radio", "g5300g-231023-231108-B-11048567");
+
+        StringBuilder sensors = new StringBuilder("\n");
+        for (int i = 0; i < 32; i++) {
+            sensors.append("  • Sensor ").append(i).append(" (").append(SENSOR_VENDORS[i % SENSOR_VENDORS.length])
+                   .append(", v").append(1 + random.nextInt(3)).append(", ").append(random.nextInt(1000))
+                   .append(" µA)\n");
+        }
+        field(ScanReport.SECTION_HARDWARE, "CPU Architecture", "arm64-v8a");
+        field(ScanReport.SECTION_HARDWARE, "CPU Architecture 2", "");
+        field(ScanReport.SECTION_HARDWARE, "Screen Resolution", "1080x2400");
+        field(ScanReport.SECTION_HARDWARE, "Screen Density", "2.625");
+        field(ScanReport.SECTION_HARDWARE, "Available Sensors", "32");
+        field(ScanReport.SECTION_HARDWARE, "Sensor Details", sensors.toString());
+        field(ScanReport.SECTION_HARDWARE, "Sensor Fingerprinting", "Accelerometer bias 0.0123, -0.0456, 0.0789");
+
+        StringBuilder wifi = new StringBuilder("\n");
+        for (int i = 0; i < 12; i++) {
+            wifi.append("  • Network-").append(random.nextInt(10000)).append(" ").append(-40 - random.nextInt(50))
+                .append(" dBm\n");
+        }
+        field(ScanReport.SECTION_NETWORK, "WiFi MAC Address", "Not accessible");
+        field(ScanReport.SECTION_NETWORK, "Bluetooth MAC Address", "Not accessible");
+        field(ScanReport.SECTION_NETWORK, "Network Type", "WIFI");
+        field(ScanReport.SECTION_NETWORK, "Network Operator", "Example Mobile");
+        field(ScanReport.SECTION_NETWORK, "SIM Country", "us");
+        field(ScanReport.SECTION_NETWORK, "SIM Operator", "310260");
+        field(ScanReport.SECTION_NETWORK, "SIM Serial", "Permission required");
+        field(ScanReport.SECTION_NETWORK, "Phone Number", "Permission required");
+        field(ScanReport.SECTION_NETWORK, "Network Country", "us");
+        field(ScanReport.SECTION_NETWORK, "Nearby Wi-Fi", wifi.toString());
+
+        field(ScanReport.SECTION_LOCATION, "GPS Enabled", "Yes");
+        field(ScanReport.SECTION_LOCATION, "Location Mode", "High Accuracy");
+        field(ScanReport.SECTION_LOCATION, "Last Known Location", "Requires location permission");
+        field(ScanReport.SECTION_LOCATION, "Location Providers", "passive, network, fused, gps");
+
+        StringBuilder trackers = new StringBuilder("\nApps Scanned: 152\nApps With Trackers: 61 (40%)\nMost Common SDKs:\n");
+        for (String sdk : SDKS) {
+            trackers.append("  • ").append(sdk).append(" (").append(10 + random.nextInt(40)).append(" apps)\n");
+        }
+        StringBuilder signers = new StringBuilder("\n");
+        for (int i = 0; i < 152; i++) {
+            String app = "com.example.app" + i;
+            if (i % 3 == 0) {
+                trackers.append("  📦 ").append(app).append(": ").append(SDKS[random.nextInt(SDKS.length)])
+                        .append(", ").append(SDKS[random.nextInt(SDKS.length)]).append('\n');
+            }
+            signers.append("  ").append(app).append(" CN=Developer ").append(random.nextInt(40))
+                   .append(", O=Example, C=US\n");
+        }
+        field(ScanReport.SECTION_APPS, "Total Apps", "412");
+        field(ScanReport.SECTION_APPS, "System Apps", "260");
+        field(ScanReport.SECTION_APPS, "User Apps", "152");
+        field(ScanReport.SECTION_APPS, "App List Sample", "com.example.app0, com.example.app1, com.example.app2");
+        field(ScanReport.SECTION_APPS, "Tracker SDKs", trackers.toString());
+        field(ScanReport.SECTION_APPS, "App Signers", signers.toString());
+
+        field(ScanReport.SECTION_PERSONAL_DATA, null, "Contacts: Permission required\nCall Log: Permission required\n");
+
+        field(ScanReport.SECTION_CAMERA, "Camera Permission", "Not granted");
+        field(ScanReport.SECTION_CAMERA, "Microphone Permission", "Not granted");
+        field(ScanReport.SECTION_CAMERA, "Camera Hardware", "Yes");
+        field(ScanReport.SECTION_CAMERA, "Front Camera", "Yes");
+        field(ScanReport.SECTION_CAMERA, "Back Camera", "Yes");
+
+        field(ScanReport.SECTION_SETTINGS, "Language", "en");
+        field(ScanReport.SECTION_SETTINGS, "Country", "US");
+        field(ScanReport.SECTION_SETTINGS, "Time Zone", "America/New_York");
+        field(ScanReport.SECTION_SETTINGS, "Auto Time", "Yes");
+        field(ScanReport.SECTION_SETTINGS, "Auto Time Zone", "Yes");
+        field(ScanReport.SECTION_SETTINGS, "Screen Timeout", "30 seconds");
+
+        field(ScanReport.SECTION_IDENTIFIERS, "Android ID", "9774d56d682e549c");
+        field(ScanReport.SECTION_IDENTIFIERS, "Advertising ID", "Requires Google Play Services");
+
+        field(ScanReport.SECTION_PERMISSIONS, "Permission Status",
+                "ACCESS_FINE_LOCATION: ✓, ACCESS_COARSE_LOCATION: ✓, READ_PHONE_STATE: ✗, READ_CONTACTS: ✗");
+
+        field(ScanReport.SECTION_CONCERNS, "Root Detection", "No root detected");
+        field(ScanReport.SECTION_CONCERNS, "Emulator Detection", "Real device");
+        field(ScanReport.SECTION_CONCERNS, "Debug Mode", "No");
+        field(ScanReport.SECTION_CONCERNS, "Developer Options", "Yes");
+        field(ScanReport.SECTION_CONCERNS, "USB Debugging", "No");
+
+        // NTAG215: UID and lock bytes, capability container, then an NDEF URI record TLV
+        System.arraycopy(TAG_UID, 0, NTAG215_MEMORY, 0, 3);
+        System.arraycopy(TAG_UID, 3, NTAG215_MEMORY, 4, 4);
+        NTAG215_MEMORY[2 * 4 + 2] = (byte) 0xF0;
+        NTAG215_MEMORY[3 * 4] = (byte) 0xE1;
+        NTAG215_MEMORY[3 * 4 + 1] = 0x10;
+        NTAG215_MEMORY[3 * 4 + 2] = 0x3E;
+        byte[] uri = "example.com/privacy-diagnostic/benchmark".getBytes(StandardCharsets.US_ASCII);
+        int offset = 4 * 4;
+        NTAG215_MEMORY[offset++] = 0x03;
+        NTAG215_MEMORY[offset++] = (byte) (uri.length + 5);
+        NTAG215_MEMORY[offset++] = (byte) 0xD1;
+        NTAG215_MEMORY[offset++] = 0x01;
+        NTAG215_MEMORY[offset++] = (byte) (uri.length + 1);
+        NTAG215_MEMORY[offset++] = 'U';
+        NTAG215_MEMORY[offset++] = 0x04;
+        System.arraycopy(uri, 0, NTAG215_MEMORY, offset, uri.length);
+        NTAG215_MEMORY[offset + uri.length] = (byte) 0xFE;
+        // Dynamic lock bytes after the last user page
+        NTAG215_MEMORY[0x82 * 4] = 0x01;
+    }
+
+    private Fixtures() {
+    }
+
+    private static void field(String section, String key, String value) {
+        FIELDS.add(new String[] {section, key, value});
+    }
+
+    /** Assembles a report from {@link #FIELDS} the way the scan engine does, then scores it. */
+    static ScanReport report() {
+        ScanReport report = new ScanReport(COMPLETED_AT);
+        for (String[] field : FIELDS) {
+            ScanReport.Section section = report.section(field[0]);
+            if (field[1] != null) {
+                section.put(field[1], field[2]);
+            } else {
+                section.text(field[2]);
+            }
+        }
+        PrivacyScore.update(report);
+        return report;
+    }
+
+    /** A tag memory image as the reader would have filled it in. */
+    static TagMemoryDump tagDump() {
+        TagMemoryDump dump = new TagMemoryDump("NTAG215", 4, NTAG215_PAGES);
+        dump.put(0, NTAG215_MEMORY, 0, NTAG215_MEMORY.length);
+        // FAST_READ in 4 chunks, like the reader does for an NTAG215
+        for (int i = 0; i < 4; i++) {
+            dump.recordRoundTrip();
+        }
+        dump.setTiming("FAST_READ", 38);
+        return dump;
+    }
+
+    /** The policy bundled with the app, copied into the benchmark jar's resources. */
+    static DevicePolicy policy() throws IOException, ParseException {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/device_policy.txt")) {
+            if (in == null) throw new IOException("device_policy.txt missing from the benchmark resources");
+            try (Reader source = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return DevicePolicy.compile(source);
+            }
+        }
+    }
+
+    /**
+     * Writes {@code count} APKs into {@code dir}, each with a classes.dex of about
+     * {@code dexBytes} whose data section holds app descriptors and, for two apps in three,
+     * one to three tracker SDKs. Even-numbered APKs store their dex and the rest deflate it,
+     * so both scan paths are measured.
+     */
+    static File[] writeApks(File dir, int count, int dexBytes) throws IOException {
+        Random random = new Random(20240502);
+        File[] apks = new File[count];
+        for (int app = 0; app < count; app++) {
+            StringBuilder data = new StringBuilder(dexBytes);
+            int trackers = app % 3 == 0 ? 0 : 1 + random.nextInt(3);
+            while (data.length() < dexBytes) {
+                if (trackers > 0 && random.nextInt(2000) == 0) {
+                    data.append(SDK_PACKAGES[random.nextInt(SDK_PACKAGES.length)]).append("internal/Impl;");
+                    trackers--;
+                } else {
+                    data.append("Lcom/example/app").append(app).append("/feature").append(random.nextInt(50))
+                        .append("/Class").append(random.nextInt(1000)).append(';');
+                }
+                data.append('\0');
+            }
+            byte[] body = data.toString().getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer dex = ByteBuffer.allocate(0x70 + body.length).order(ByteOrder.LITTLE_ENDIAN);
+            dex.put("dex\n035\0".getBytes(StandardCharsets.US_ASCII));
+            dex.putInt(0x20, dex.capacity());
+            dex.putInt(0x24, 0x70);
+            dex.putInt(0x68, body.length);
+            dex.putInt(0x6C, 0x70);
+            dex.position(0x70);
+            dex.put(body);
+
+            ZipEntry entry = new ZipEntry("classes.dex");
+            if (app % 2 == 0) {
+                CRC32 crc = new CRC32();
+                crc.update(dex.array());
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(dex.capacity());
+                entry.setCompressedSize(dex.capacity());
+                entry.setCrc(crc.getValue());
+            }
+            apks[app] = new File(dir, "app" + app + ".apk");
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apks[app]))) {
+                zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+                zip.write(new byte[2048]);
+                zip.putNextEntry(entry);
+                zip.write(dex.array());
+            }
+        }
+        return apks;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.Bytes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Hex and decimal rendering of NFC fields: a 7-byte UID and a full NTAG215 image. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    @Param({"7", "540"})
+    public int length;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = length == Fixtures.TAG_UID.length
+                ? Fixtures.TAG_UID
+                : Arrays.copyOf(Fixtures.NTAG215_MEMORY, length);
+    }
+
+    @Benchmark
+    public String hex() {
+        return Bytes.toHex(bytes);
+    }
+
+    @Benchmark
+    public String decimal() {
+        return Bytes.toDecimal(bytes);
+    }
+
+    /** The per-byte String.format the activity used before, kept as a reference point. */
+    @Benchmark
+    public String hexStringFormat() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02X", b & 0xFF));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.PrivacyScore;
+import com.example.privacydiagnostic.ScanReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Building the report from probe output, and the single-field refresh the activity does on settings changes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ReportBenchmark {
+    private ScanReport report;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        report = Fixtures.report();
+    }
+
+    @Benchmark
+    public ScanReport assemble() {
+        return Fixtures.report();
+    }
+
+    @Benchmark
+    public String render() {
+        return report.render();
+    }
+
+    @Benchmark
+    public ScanReport refreshField() {
+        toggle = !toggle;
+        report.update(ScanReport.SECTION_LOCATION, "Location Mode", toggle ? "Off" : "High Accuracy");
+        PrivacyScore.update(report);
+        return report;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.DevicePolicy;
+import com.example.privacydiagnostic.PrivacyScore;
+import com.example.privacydiagnostic.ScanReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/** The privacy score and the bundled device policy, both evaluated from report fields. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+    private ScanReport report;
+    private DevicePolicy policy;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        report = Fixtures.report();
+        policy = Fixtures.policy();
+    }
+
+    @Benchmark
+    public int score() {
+        return PrivacyScore.calculate(report);
+    }
+
+    @Benchmark
+    public DevicePolicy.Result evaluatePolicy() {
+        return policy.evaluate(report);
+    }
+
+    @Benchmark
+    public DevicePolicy compilePolicy() throws IOException, ParseException {
+        return Fixtures.policy();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.TagMemoryDump;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NTAG215 memory handling after the tag has been read: lock bit interpretation, locating the
+ * NDEF message TLV and rendering the dump.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TagMemoryBenchmark {
+    private TagMemoryDump dump;
+    private final StringBuilder out = new StringBuilder(32 * 1024);
+
+    @Setup
+    public void setUp() {
+        dump = Fixtures.tagDump();
+        dump.interpretUltralightLocks(TagMemoryDump.STORAGE_NTAG215);
+    }
+
+    @Benchmark
+    public int[] findNdefTlv() {
+        return dump.findNdefTlv(16);
+    }
+
+    @Benchmark
+    public TagMemoryDump interpretLocks() {
+        TagMemoryDump fresh = Fixtures.tagDump();
+        fresh.interpretUltralightLocks(TagMemoryDump.STORAGE_NTAG215);
+        return fresh;
+    }
+
+    @Benchmark
+    public int render() {
+        out.setLength(0);
+        dump.appendTo(out);
+        return out.length();
+    }
+}
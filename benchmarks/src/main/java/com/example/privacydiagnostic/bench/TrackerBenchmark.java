@@ -0,0 +1,88 @@
+package com.example.privacydiagnostic.bench;
+
+import com.example.privacydiagnostic.TrackerSdkDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Tracker SDK detection over 40 generated APKs with 2 MB dex files: one stored and one
+ * deflated APK on their own, and the whole set cold and against a warm verdict cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TrackerBenchmark {
+    private static final int APPS = 40;
+    private static final int DEX_BYTES = 2 << 20;
+
+    private File dir;
+    private File[] apks;
+    private String[] names;
+    private File coldCache;
+    private TrackerSdkDetector warm;
+    private final long[] bytesScanned = new long[1];
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tracker-bench").toFile();
+        apks = Fixtures.writeApks(dir, APPS, DEX_BYTES);
+        names = new String[APPS];
+        for (int i = 0; i < APPS; i++) {
+            names[i] = apks[i].getName();
+        }
+        coldCache = new File(dir, "cold.cache");
+        warm = new TrackerSdkDetector(new File(dir, "warm.cache"));
+        warm.scan(names, apks);
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                child.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public long detectStored() throws IOException, DataFormatException {
+        return TrackerSdkDetector.detect(apks[0], bytesScanned);
+    }
+
+    @Benchmark
+    public long detectDeflated() throws IOException, DataFormatException {
+        return TrackerSdkDetector.detect(apks[1], bytesScanned);
+    }
+
+    @Benchmark
+    public int scanCold() {
+        coldCache.delete();
+        return new TrackerSdkDetector(coldCache).scan(names, apks).getAppsWithTrackers();
+    }
+
+    @Benchmark
+    public int scanCached() {
+        return warm.scan(names, apks).getAppsWithTrackers();
+    }
+}
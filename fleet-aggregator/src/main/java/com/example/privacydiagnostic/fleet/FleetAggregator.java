@@ -0,0 +1,134 @@
+package com.example.privacydiagnostic.fleet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates exported scan reports from a fleet of devices on a plain JVM.
+ *
+ * <pre>
+ * java -jar fleet-aggregator.jar [--threads N] [--top N] &lt;report dir or file&gt;...
+ * </pre>
+ *
+ * Files are handed out to worker threads from a shared index, and each worker parses into its
+ * own {@link FleetStats} that is merged once at the end. Large files are memory-mapped; small
+ * ones are read into a buffer the worker reuses, since each mapping holds an address-space
+ * region until the garbage collector releases it and 100k small mappings would exhaust the
+ * per-process map limit long before the heap fills.
+ */
+public final class FleetAggregator {
+    static final long MAP_THRESHOLD = 256 * 1024;
+
+    private FleetAggregator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int top = 20;
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else {
+                roots.add(Paths.get(args[i]));
+            }
+        }
+        if (roots.isEmpty()) {
+            System.err.println("Usage: fleet-aggregator [--threads N] [--top N] <report dir or file>...");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        List<Path> files = listReports(roots);
+        FleetStats stats = aggregate(files, threads);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        stats.print(System.out, top);
+        System.out.println();
+        System.out.printf("%d files in %d ms on %d threads%n", files.size(), elapsedMillis, threads);
+    }
+
+    /** Regular files under the given roots; directories are walked recursively. */
+    static List<Path> listReports(List<Path> roots) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    walk.filter(Files::isRegularFile).forEach(files::add);
+                }
+            } else {
+                files.add(root);
+            }
+        }
+        return files;
+    }
+
+    public static FleetStats aggregate(List<Path> files, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger nextFile = new AtomicInteger();
+        List<Future<FleetStats>> workers = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    FleetStats stats = new FleetStats();
+                    ReportParser parser = new ReportParser(stats);
+                    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                    int index;
+                    while ((index = nextFile.getAndIncrement()) < files.size()) {
+                        buffer = parseFile(files.get(index), parser, stats, buffer);
+                    }
+                    return stats;
+                }));
+            }
+            FleetStats total = new FleetStats();
+            for (Future<FleetStats> worker : workers) {
+                total.merge(worker.get());
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** @return the read buffer, grown if this file needed a bigger one */
+    private static ByteBuffer parseFile(Path file, ReportParser parser, FleetStats stats, ByteBuffer buffer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                stats.skipped++;
+                return buffer;
+            }
+            ByteBuffer report;
+            if (size >= MAP_THRESHOLD) {
+                report = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                if (buffer.capacity() < size) buffer = ByteBuffer.allocate((int) size);
+                buffer.clear();
+                while (buffer.position() < size && channel.read(buffer) >= 0) {
+                    // Short reads are possible on some file systems
+                }
+                buffer.flip();
+                report = buffer;
+            }
+            if (!parser.parse(report)) stats.skipped++;
+        } catch (IOException e) {
+            System.err.println("Skipping " + file + ": " + e.getMessage());
+            stats.skipped++;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.privacydiagnostic.fleet;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fleet-wide counters. Each worker thread fills its own instance and the instances are merged
+ * at the end, so parsing never contends on shared state.
+ */
+public final class FleetStats {
+    /** Settings that count as risky, as report line prefixes and the value that makes them risky. */
+    static final String[][] RISKY_SETTINGS = {
+        {"USB Debugging", "Yes"},
+        {"Developer Options", "Yes"},
+        {"Root Detection", "Root detected"},
+        {"Emulator Detection", "Emulator detected"},
+        {"Location Mode", "High Accuracy"},
+        {"GPS Enabled", "Yes"},
+        {"Auto Time", "No"},
+        {"Auto Time Zone", "No"},
+    };
+    static final int RISK_ADB = 0;
+    static final int RISK_ROOT = 2;
+    static final int RISK_EMULATOR = 3;
+
+    int reports;
+    int skipped;
+    long bytes;
+
+    // Scores by value 0..100; reports without a score section are not counted
+    final int[] scores = new int[101];
+    final int[] risky = new int[RISKY_SETTINGS.length];
+    // Package -> reports in which the tracker scan flagged it
+    final Map<String, int[]> trackedApps = new HashMap<>();
+    // Tracker SDK -> reports where at least one app embeds it
+    final Map<String, int[]> trackerSdks = new HashMap<>();
+    // Permission group -> total apps holding it, and reports that listed the group
+    final Map<String, long[]> sensitiveHolders = new HashMap<>();
+    // Runtime permission -> reports where the scanner itself had it granted
+    final Map<String, int[]> grantedPermissions = new HashMap<>();
+
+    static void increment(Map<String, int[]> counts, String key, int by) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            counts.put(key, new int[] {by});
+        } else {
+            count[0] += by;
+        }
+    }
+
+    void merge(FleetStats other) {
+        reports += other.reports;
+        skipped += other.skipped;
+        bytes += other.bytes;
+        for (int i = 0; i < scores.length; i++) scores[i] += other.scores[i];
+        for (int i = 0; i < risky.length; i++) risky[i] += other.risky[i];
+        mergeCounts(trackedApps, other.trackedApps);
+        mergeCounts(trackerSdks, other.trackerSdks);
+        mergeCounts(grantedPermissions, other.grantedPermissions);
+        for (Map.Entry<String, long[]> entry : other.sensitiveHolders.entrySet()) {
+            long[] total = sensitiveHolders.get(entry.getKey());
+            if (total == null) {
+                sensitiveHolders.put(entry.getKey(), entry.getValue().clone());
+            } else {
+                total[0] += entry.getValue()[0];
+                total[1] += entry.getValue()[1];
+            }
+        }
+    }
+
+    private static void mergeCounts(Map<String, int[]> into, Map<String, int[]> from) {
+        for (Map.Entry<String, int[]> entry : from.entrySet()) {
+            increment(into, entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    public int getReports() {
+        return reports;
+    }
+
+    /** Share of parsed reports with the given {@code RISKY_SETTINGS} entry, 0..1. */
+    public double rate(int riskySetting) {
+        return reports == 0 ? 0 : (double) risky[riskySetting] / reports;
+    }
+
+    public void print(PrintStream out, int top) {
+        out.printf(Locale.US, "Reports: %d parsed, %d skipped, %.1f MB%n", reports, skipped, bytes / 1048576.0);
+        out.printf(Locale.US, "Root: %.1f%%  Emulator: %.1f%%  ADB: %.1f%%%n",
+                100 * rate(RISK_ROOT), 100 * rate(RISK_EMULATOR), 100 * rate(RISK_ADB));
+
+        int scored = 0;
+        long sum = 0;
+        for (int s = 0; s < scores.length; s++) {
+            scored += scores[s];
+            sum += (long) s * scores[s];
+        }
+        out.println();
+        out.printf(Locale.US, "Privacy score (%d reports, mean %.1f, median %d)%n",
+                scored, scored == 0 ? 0.0 : (double) sum / scored, percentile(scored, 0.5));
+        for (int bucket = 0; bucket < 10; bucket++) {
+            int from = bucket * 10;
+            int to = bucket == 9 ? 100 : from + 9;
+            int count = 0;
+            for (int s = from; s <= to; s++) count += scores[s];
+            out.printf(Locale.US, "  %3d-%-3d %7d  %s%n", from, to, count, bar(count, scored));
+        }
+
+        out.println();
+        out.println("Most common risky settings");
+        Integer[] order = new Integer[risky.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> risky[b] - risky[a]);
+        for (int i : order) {
+            out.printf(Locale.US, "  %-40s %7d  %5.1f%%%n",
+                    RISKY_SETTINGS[i][0] + ": " + RISKY_SETTINGS[i][1], risky[i], 100 * rate(i));
+        }
+
+        printTop(out, "Apps flagged with trackers (reports)", trackedApps, top);
+        printTop(out, "Tracker SDKs (reports)", trackerSdks, top);
+        printTop(out, "Scanner permissions granted (reports)", grantedPermissions, top);
+
+        out.println();
+        out.println("Apps holding sensitive access (mean per device)");
+        for (Map.Entry<String, long[]> entry : sortedByFirst(sensitiveHolders)) {
+            long[] total = entry.getValue();
+            out.printf(Locale.US, "  %-32s %7.1f%n", entry.getKey(), (double) total[0] / total[1]);
+        }
+    }
+
+    private int percentile(int total, double fraction) {
+        int target = (int) Math.ceil(total * fraction);
+        int seen = 0;
+        for (int s = 0; s < scores.length; s++) {
+            seen += scores[s];
+            if (seen >= target && seen > 0) return s;
+        }
+        return 0;
+    }
+
+    private static String bar(int count, int total) {
+        int width = total == 0 ? 0 : (int) Math.round(40.0 * count / total);
+        StringBuilder bar = new StringBuilder(width);
+        for (int i = 0; i < width; i++) bar.append('#');
+        return bar.toString();
+    }
+
+    private void printTop(PrintStream out, String title, Map<String, int[]> counts, int top) {
+        List<Map.Entry<String, int[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> b.getValue()[0] - a.getValue()[0]);
+        out.println();
+        out.println(title);
+        for (int i = 0; i < entries.size() && i < top; i++) {
+            int count = entries.get(i).getValue()[0];
+            out.printf(Locale.US, "  %-48s %7d  %5.1f%%%n", entries.get(i).getKey(), count,
+                    reports == 0 ? 0.0 : 100.0 * count / reports);
+        }
+    }
+
+    private static List<Map.Entry<String, long[]>> sortedByFirst(Map<String, long[]> totals) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        return entries;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.privacydiagnostic.fleet;
+
+import com.example.privacydiagnostic.ScanRecordReader;
+import com.example.privacydiagnostic.ScanRecordWriter;
+import com.example.privacydiagnostic.ScanReport;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Merges stored scan records ({@code .pdsr} files, one report each as the app exports them)
+ * into a single record file.
+ *
+ * <pre>
+ * java -cp fleet-aggregator.jar com.example.privacydiagnostic.fleet.MergeRecords \
+ *         merged.pdsr &lt;record dir or file&gt;...
+ * </pre>
+ *
+ * Each export carries its own string dictionary, so every title, key and common value is
+ * stored once per device; the merged file stores it once for the fleet. Files that are not
+ * record files are skipped. The output is written to a temp file and renamed into place.
+ */
+public final class MergeRecords {
+    private MergeRecords() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: MergeRecords <output file> <record dir or file>...");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> roots = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            roots.add(Paths.get(args[i]));
+        }
+
+        long start = System.nanoTime();
+        Summary summary = merge(FleetAggregator.listReports(roots), output);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        summary.print(System.out, Files.size(output));
+        System.out.printf("%d files in %d ms%n", summary.files, elapsedMillis);
+    }
+
+    static Summary merge(List<Path> files, Path output) throws IOException {
+        Path target = output.toAbsolutePath().normalize();
+        Path dir = target.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        Summary summary = new Summary();
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp));
+                 ScanRecordWriter writer = new ScanRecordWriter(out)) {
+                for (Path file : files) {
+                    // A rerun over the same directory must not read back its own output
+                    if (file.toAbsolutePath().normalize().equals(target)) continue;
+                    summary.files++;
+                    try {
+                        ScanRecordReader records = open(file);
+                        if (records == null) {
+                            summary.skipped++;
+                            continue;
+                        }
+                        // Decode the whole file first, so a corrupt record skips all of it
+                        ScanReport[] reports = new ScanReport[records.getRecordCount()];
+                        for (int record = 0; record < reports.length; record++) {
+                            reports[record] = records.read(record);
+                        }
+                        for (ScanReport report : reports) {
+                            writer.write(report);
+                        }
+                        summary.records += reports.length;
+                        summary.inputBytes += Files.size(file);
+                    } catch (IOException e) {
+                        System.err.println("Skipping " + file + ": " + e.getMessage());
+                        summary.skipped++;
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return summary;
+    }
+
+    /**
+     * Opens {@code file} as a record file, or returns null if it is something else (such as
+     * a text export).
+     */
+    static ScanRecordReader open(Path file) throws IOException {
+        ByteBuffer bytes;
+        // Single-record exports are small; mapping each of them would exhaust the map count
+        if (Files.size(file) >= FleetAggregator.MAP_THRESHOLD) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } else {
+            bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+        byte[] header = new byte[Math.min(4, bytes.limit())];
+        bytes.duplicate().get(header);
+        return ScanRecordReader.isRecordFile(header) ? new ScanRecordReader(bytes) : null;
+    }
+
+    static final class Summary {
+        int files;
+        int skipped;
+        int records;
+        long inputBytes;
+
+        void print(PrintStream out, long outputBytes) {
+            out.printf(Locale.US, "Records: %d from %d files, %d files skipped%n", records, files - skipped, skipped);
+            out.printf(Locale.US, "Size: %.1f MB in, %.1f MB merged%n", inputBytes / 1048576.0, outputBytes / 1048576.0);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.privacydiagnostic.fleet;
+
+import com.example.privacydiagnostic.DevicePolicy;
+import com.example.privacydiagnostic.ScanRecordReader;
+import com.example.privacydiagnostic.ScanReport;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates a device policy against stored scan records ({@code .pdsr} files, as the app
+ * exports them) and reports how many devices fail each rule.
+ *
+ * <pre>
+ * java -cp fleet-aggregator.jar com.example.privacydiagnostic.fleet.PolicyAudit \
+ *         [--threads N] [--top N] policy.txt &lt;record dir or file&gt;...
+ * </pre>
+ *
+ * The policy is compiled once and shared by the worker threads. Each record is evaluated
+ * from only the sections its rules read. Files that are not record files are skipped.
+ */
+public final class PolicyAudit {
+    private PolicyAudit() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int top = 20;
+        Path policyFile = null;
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if (policyFile == null) {
+                policyFile = Paths.get(args[i]);
+            } else {
+                roots.add(Paths.get(args[i]));
+            }
+        }
+        if (roots.isEmpty()) {
+            System.err.println("Usage: PolicyAudit [--threads N] [--top N] <policy file> <record dir or file>...");
+            System.exit(2);
+        }
+
+        DevicePolicy policy;
+        try (Reader source = Files.newBufferedReader(policyFile, StandardCharsets.UTF_8)) {
+            policy = DevicePolicy.compile(source);
+        } catch (ParseException e) {
+            System.err.println(policyFile + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Path> files = FleetAggregator.listReports(roots);
+        Tally tally = audit(policy, files, threads, top);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        tally.print(System.out, policy, top);
+        System.out.println();
+        System.out.printf("%d devices in %d ms on %d threads%n", tally.devices, elapsedMillis, threads);
+    }
+
+    static Tally audit(DevicePolicy policy, List<Path> files, int threads, int top) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger nextFile = new AtomicInteger();
+        List<Future<Tally>> workers = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    Tally tally = new Tally(policy.getRuleCount());
+                    int index;
+                    while ((index = nextFile.getAndIncrement()) < files.size()) {
+                        auditFile(files.get(index), policy, tally, top);
+                    }
+                    return tally;
+                }));
+            }
+            Tally total = new Tally(policy.getRuleCount());
+            for (Future<Tally> worker : workers) {
+                total.merge(worker.get(), top);
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void auditFile(Path file, DevicePolicy policy, Tally tally, int top) {
+        try {
+            ScanRecordReader records = MergeRecords.open(file);
+            if (records == null) {
+                tally.skipped++;
+                return;
+            }
+            for (int record = 0; record < records.getRecordCount(); record++) {
+                DevicePolicy.Result result = policy.evaluate(records, record);
+                tally.add(result, policy.getRuleCount());
+                if (!result.isCompliant() && tally.violations.size() < top) {
+                    tally.violations.add(describe(file, records, record, policy, result));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Skipping " + file + ": " + e.getMessage());
+            tally.skipped++;
+        }
+    }
+
+    private static String describe(Path file, ScanRecordReader records, int record, DevicePolicy policy,
+            DevicePolicy.Result result) throws IOException {
+        StringBuilder line = new StringBuilder();
+        line.append(file.getFileName()).append('#').append(record)
+            .append("  ").append(records.getCompletedAt(record))
+            .append("  ").append(records.get(record, ScanReport.SECTION_DEVICE, "Model"))
+            .append(": ");
+        String separator = "";
+        for (int rule = 0; rule < policy.getRuleCount(); rule++) {
+            if (result.getOutcome(rule) == DevicePolicy.FAIL) {
+                line.append(separator).append(policy.getRuleId(rule));
+                separator = ", ";
+            }
+        }
+        return line.toString();
+    }
+
+    /** Per-thread counts, merged at the end like {@link FleetStats}. */
+    static final class Tally {
+        int devices;
+        int compliant;
+        int skipped;
+        final int[] failed;
+        final int[] notApplicable;
+        final List<String> violations = new ArrayList<>();
+
+        Tally(int rules) {
+            failed = new int[rules];
+            notApplicable = new int[rules];
+        }
+
+        void add(DevicePolicy.Result result, int rules) {
+            devices++;
+            if (result.isCompliant()) compliant++;
+            for (int rule = 0; rule < rules; rule++) {
+                int outcome = result.getOutcome(rule);
+                if (outcome == DevicePolicy.FAIL) {
+                    failed[rule]++;
+                } else if (outcome == DevicePolicy.NOT_APPLICABLE) {
+                    notApplicable[rule]++;
+                }
+            }
+        }
+
+        void merge(Tally other, int top) {
+            devices += other.devices;
+            compliant += other.compliant;
+            skipped += other.skipped;
+            for (int rule = 0; rule < failed.length; rule++) {
+                failed[rule] += other.failed[rule];
+                notApplicable[rule] += other.notApplicable[rule];
+            }
+            for (String violation : other.violations) {
+                if (violations.size() < top) violations.add(violation);
+            }
+        }
+
+        void print(PrintStream out, DevicePolicy policy, int top) {
+            out.printf(Locale.US, "Policy: %s (%d rules)%n", policy.getName(), policy.getRuleCount());
+            out.printf(Locale.US, "Devices: %d evaluated, %d compliant (%.1f%%), %d files skipped%n",
+                    devices, compliant, percent(compliant, devices), skipped);
+
+            out.println();
+            out.printf(Locale.US, "  %-24s %-44s %7s %6s %7s%n", "Rule", "Description", "Failed", "", "N/A");
+            for (int rule = 0; rule < failed.length; rule++) {
+                out.printf(Locale.US, "  %-24s %-44s %7d %5.1f%% %7d%n", policy.getRuleId(rule),
+                        policy.getRuleDescription(rule), failed[rule],
+                        percent(failed[rule], devices - notApplicable[rule]), notApplicable[rule]);
+            }
+
+            if (!violations.isEmpty()) {
+                out.println();
+                out.println("Non-compliant devices (first " + top + ")");
+                for (String violation : violations) {
+                    out.println("  " + violation);
+                }
+            }
+        }
+
+        private static double percent(int count, int total) {
+            return total == 0 ? 0 : 100.0 * count / total;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.privacydiagnostic.fleet;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass parser for exported text reports. It walks the raw UTF-8 bytes line by line
+ * and only decodes the values it aggregates, so most of a report (free text, per-app
+ * listings) is never turned into strings. Field names match what the app's ScanReport
+ * renders: {@code "Key: value"} lines under section headers. One instance per thread.
+ */
+final class ReportParser {
+    private static final byte[] TITLE = bytes("🔍 PRIVACY DIAGNOSTIC SCAN RESULTS");
+    private static final byte[] SCORE = bytes("Overall Privacy Score: ");
+    private static final byte[] PERMISSION_STATUS = bytes("Permission Status: ");
+    private static final byte[] SENSITIVE_ACCESS = bytes("Apps Holding Sensitive Access: ");
+    private static final byte[] COMMON_SDKS = bytes("Most Common SDKs:");
+    private static final byte[] LIST_ITEM = bytes("  • ");
+    private static final byte[] FLAGGED_APP = bytes("  📦 ");
+
+    private static final byte[][] RISKY_KEYS = new byte[FleetStats.RISKY_SETTINGS.length][];
+    private static final byte[][] RISKY_VALUES = new byte[FleetStats.RISKY_SETTINGS.length][];
+
+    static {
+        for (int i = 0; i < RISKY_KEYS.length; i++) {
+            RISKY_KEYS[i] = bytes(FleetStats.RISKY_SETTINGS[i][0] + ": ");
+            RISKY_VALUES[i] = bytes(FleetStats.RISKY_SETTINGS[i][1]);
+        }
+    }
+
+    private final FleetStats stats;
+    // Per-report state: the first score and first value of each setting count
+    private final boolean[] riskySeen = new boolean[RISKY_KEYS.length];
+    private boolean scored;
+    private byte[] scratch = new byte[256];
+
+    ReportParser(FleetStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Adds one report, read from {@code report}'s position to its limit.
+     *
+     * @return false if the bytes are not an exported scan report
+     */
+    boolean parse(ByteBuffer report) {
+        int limit = report.limit();
+        boolean isReport = false;
+        boolean inSdkList = false;
+        scored = false;
+        Arrays.fill(riskySeen, false);
+        int start = report.position();
+        while (start < limit) {
+            int end = start;
+            while (end < limit && report.get(end) != '\n') end++;
+            int next = end + 1;
+            if (end > start && report.get(end - 1) == '\r') end--;
+
+            if (!isReport) {
+                // The export header comes first; nothing counts until the report title
+                isReport = startsWith(report, start, end, TITLE);
+            } else if (inSdkList && startsWith(report, start, end, LIST_ITEM)) {
+                int nameEnd = indexOf(report, start + LIST_ITEM.length, end, (byte) '(');
+                if (nameEnd > 0) {
+                    FleetStats.increment(stats.trackerSdks, decode(report, start + LIST_ITEM.length, nameEnd - 1), 1);
+                }
+            } else {
+                inSdkList = startsWith(report, start, end, COMMON_SDKS);
+                if (!inSdkList) parseLine(report, start, end);
+            }
+            start = next;
+        }
+        if (!isReport) return false;
+        stats.reports++;
+        stats.bytes += limit - report.position();
+        for (int i = 0; i < riskySeen.length; i++) {
+            if (riskySeen[i]) stats.risky[i]++;
+        }
+        return true;
+    }
+
+    private void parseLine(ByteBuffer report, int start, int end) {
+        if (startsWith(report, start, end, FLAGGED_APP)) {
+            int nameEnd = indexOf(report, start + FLAGGED_APP.length, end, (byte) ':');
+            if (nameEnd > 0) {
+                FleetStats.increment(stats.trackedApps, decode(report, start + FLAGGED_APP.length, nameEnd), 1);
+            }
+        } else if (!scored && startsWith(report, start, end, SCORE)) {
+            scored = true;
+            int score = parseInt(report, start + SCORE.length, end);
+            if (score >= 0 && score <= 100) stats.scores[score]++;
+        } else if (startsWith(report, start, end, PERMISSION_STATUS)) {
+            parsePermissionStatus(decode(report, start + PERMISSION_STATUS.length, end));
+        } else if (startsWith(report, start, end, SENSITIVE_ACCESS)) {
+            parseSensitiveAccess(decode(report, start + SENSITIVE_ACCESS.length, end));
+        } else {
+            for (int i = 0; i < RISKY_KEYS.length; i++) {
+                if (!riskySeen[i] && startsWith(report, start, end, RISKY_KEYS[i])) {
+                    riskySeen[i] = startsWith(report, start + RISKY_KEYS[i].length, end, RISKY_VALUES[i]);
+                    break;
+                }
+            }
+        }
+    }
+
+    // "ACCESS_FINE_LOCATION: ✓, READ_SMS: ✗"
+    private void parsePermissionStatus(String value) {
+        for (String entry : value.split(", ")) {
+            int colon = entry.indexOf(": ");
+            if (colon > 0 && entry.endsWith("✓")) {
+                FleetStats.increment(stats.grantedPermissions, entry.substring(0, colon), 1);
+            }
+        }
+    }
+
+    // "Location 12, Camera 5, Microphone 3"
+    private void parseSensitiveAccess(String value) {
+        for (String entry : value.split(", ")) {
+            int space = entry.lastIndexOf(' ');
+            if (space <= 0) continue;
+            try {
+                long holders = Long.parseLong(entry.substring(space + 1));
+                String group = entry.substring(0, space);
+                long[] total = stats.sensitiveHolders.get(group);
+                if (total == null) {
+                    stats.sensitiveHolders.put(group, new long[] {holders, 1});
+                } else {
+                    total[0] += holders;
+                    total[1]++;
+                }
+            } catch (NumberFormatException ignored) {
+                // Not a count; the line format changed or the entry was truncated
+            }
+        }
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    /** Leading decimal digits, or -1 if there are none. */
+    private static int parseInt(ByteBuffer buffer, int start, int end) {
+        int value = 0;
+        int i = start;
+        while (i < end && i - start < 9) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+            i++;
+        }
+        return i == start ? -1 : value;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.privacydiagnostic.fleet;
+
+import com.example.privacydiagnostic.ScanRecordReader;
+import com.example.privacydiagnostic.ScanRecordWriter;
+import com.example.privacydiagnostic.ScanReport;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MergeRecordsTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void recordsFromEveryFileEndUpInOne() throws IOException {
+        Path first = write("a.pdsr", report("2024-05-01T10:00:00.000", "Pixel 7a"));
+        Path second = write("b.pdsr", report("2024-05-02T10:00:00.000", "Galaxy S23"),
+                report("2024-05-03T10:00:00.000", "Pixel 7a"));
+        Path text = temp.getRoot().toPath().resolve("c.txt");
+        Files.write(text, report("t", "Pixel 8").render().getBytes(StandardCharsets.UTF_8));
+        Path output = temp.getRoot().toPath().resolve("merged.pdsr");
+
+        MergeRecords.Summary summary = MergeRecords.merge(
+                FleetAggregator.listReports(Collections.singletonList(temp.getRoot().toPath())), output);
+
+        assertEquals(3, summary.records);
+        assertEquals(1, summary.skipped);
+        assertEquals(Files.size(first) + Files.size(second), summary.inputBytes);
+        ScanRecordReader merged = ScanRecordReader.open(output.toFile());
+        assertEquals(3, merged.getRecordCount());
+        String[] models = new String[3];
+        for (int i = 0; i < 3; i++) {
+            models[i] = merged.get(i, ScanReport.SECTION_DEVICE, "Model");
+        }
+        Arrays.sort(models);
+        assertEquals(Arrays.asList("Galaxy S23", "Pixel 7a", "Pixel 7a"), Arrays.asList(models));
+        // Shared titles, keys and values are stored once
+        assertTrue(Files.size(output) < summary.inputBytes);
+    }
+
+    @Test
+    public void corruptFilesAreSkippedWhole() throws IOException {
+        Path good = write("a.pdsr", report("2024-05-01T10:00:00.000", "Pixel 7a"));
+        Path bad = write("b.pdsr", report("2024-05-02T10:00:00.000", "Galaxy S23"));
+        byte[] bytes = Files.readAllBytes(bad);
+        Files.write(bad, Arrays.copyOf(bytes, bytes.length - 3));
+        Path output = temp.getRoot().toPath().resolve("merged.pdsr");
+
+        MergeRecords.Summary summary = MergeRecords.merge(Arrays.asList(good, bad), output);
+
+        assertEquals(1, summary.records);
+        assertEquals(1, summary.skipped);
+        assertEquals(1, ScanRecordReader.open(output.toFile()).getRecordCount());
+        // Only the output is left; the temp file was renamed into place
+        assertEquals(Arrays.asList("a.pdsr", "b.pdsr", "merged.pdsr"), sortedNames());
+    }
+
+    private static ScanReport report(String completedAt, String model) {
+        ScanReport report = new ScanReport(completedAt);
+        report.section(ScanReport.SECTION_DEVICE)
+              .put("Manufacturer", "Google")
+              .put("Model", model)
+              .put("Android Version", "14");
+        report.section(ScanReport.SECTION_SETTINGS)
+              .put("USB Debugging", "No")
+              .put("Developer Options", "No");
+        return report;
+    }
+
+    private Path write(String name, ScanReport... reports) throws IOException {
+        Path file = temp.getRoot().toPath().resolve(name);
+        try (ScanRecordWriter writer = new ScanRecordWriter(new FileOutputStream(file.toFile()))) {
+            for (ScanReport report : reports) {
+                writer.write(report);
+            }
+        }
+        return file;
+    }
+
+    private List<String> sortedNames() {
+        String[] names = temp.getRoot().list();
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+}
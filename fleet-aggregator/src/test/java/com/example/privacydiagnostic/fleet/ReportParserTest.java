@@ -0,0 +1,141 @@
+package com.example.privacydiagnostic.fleet;
+
+import com.example.privacydiagnostic.PrivacyScore;
+import com.example.privacydiagnostic.ScanReport;
+import com.example.privacydiagnostic.TrackerSdkDetector;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pins the text format shared with the app: the fixture is rendered by scan-core's
+ * ScanReport, PrivacyScore and TrackerSdkDetector, so a change to how they write a line the
+ * aggregator reads fails here rather than as silently empty fleet counts.
+ */
+public class ReportParserTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void countsComeBackFromARenderedReport() throws IOException {
+        FleetStats stats = new FleetStats();
+        assertTrue(new ReportParser(stats).parse(utf8(report().render())));
+
+        assertEquals(1, stats.getReports());
+        // Serial and both MACs readable, location on, network known: 100 - 15 - 10 - 10 - 15 - 5
+        assertEquals(1, stats.scores[45]);
+        assertEquals(1, stats.risky[FleetStats.RISK_ADB]);
+        assertEquals(0, stats.risky[FleetStats.RISK_ROOT]);
+        // Location Mode: High Accuracy
+        assertEquals(1, stats.risky[4]);
+        assertEquals(1, count(stats.grantedPermissions, "ACCESS_FINE_LOCATION"));
+        assertNull(stats.grantedPermissions.get("READ_PHONE_STATE"));
+        assertArrayEquals(new long[] {12, 1}, stats.sensitiveHolders.get("Location"));
+        assertArrayEquals(new long[] {3, 1}, stats.sensitiveHolders.get("Microphone"));
+        assertEquals(1, count(stats.trackerSdks, "AppsFlyer"));
+        assertEquals(1, count(stats.trackerSdks, "Sentry"));
+        assertEquals(1, count(stats.trackedApps, "Maps"));
+        assertEquals(1, count(stats.trackedApps, "Weather"));
+        assertNull(stats.trackedApps.get("Notes"));
+    }
+
+    @Test
+    public void textWithoutTheReportTitleIsSkipped() {
+        FleetStats stats = new FleetStats();
+        ScanReport report = new ScanReport("t");
+        report.section(ScanReport.SECTION_SCORE).put("Overall Privacy Score", "80/100");
+        String withoutTitle = report.render().substring(ScanReport.TITLE.length() + 1);
+
+        assertFalse(new ReportParser(stats).parse(utf8(withoutTitle)));
+        assertEquals(0, stats.getReports());
+        assertEquals(0, stats.scores[80]);
+    }
+
+    private ScanReport report() throws IOException {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00.000");
+        report.section(ScanReport.SECTION_DEVICE)
+              .put("Model", "Pixel 7a")
+              .put("Serial", "SN-7A-00421");
+        report.section(ScanReport.SECTION_NETWORK)
+              .put("Network Type", "WIFI")
+              .put("WiFi MAC Address", "02:00:00:00:00:00")
+              .put("Bluetooth MAC Address", "02:00:00:00:00:00")
+              .put("Phone Number", "Permission required")
+              .put("SIM Serial", "Permission required");
+        report.section(ScanReport.SECTION_LOCATION)
+              .put("GPS Enabled", "No")
+              .put("Location Mode", "High Accuracy");
+
+        StringBuilder trackers = new StringBuilder();
+        new TrackerSdkDetector(new File(temp.getRoot(), "trackers.cache"))
+                .scan(new String[] {"Maps", "Weather", "Notes"}, new File[] {
+                        apk("maps.apk", "Lcom/example/maps/Main;\0Lcom/appsflyer/AppsFlyerLib;\0"),
+                        apk("weather.apk", "Lio/sentry/Sentry;\0Lcom/appsflyer/AppsFlyerLib;\0"),
+                        apk("notes.apk", "Lcom/example/notes/Main;\0")})
+                .appendTo(trackers);
+        report.section(ScanReport.SECTION_APPS)
+              .put("Total Apps", "3")
+              .put("Tracker SDKs", "\n" + trackers);
+
+        report.section(ScanReport.SECTION_SETTINGS)
+              .put("Developer Options", "No")
+              .put("Root Detection", "Not detected")
+              .put("USB Debugging", "Yes");
+        // As ScanEngine.getPermissionStatus and SensitiveAccessProbe.describe write them
+        report.section(ScanReport.SECTION_PERMISSIONS)
+              .put("Permission Status", "ACCESS_FINE_LOCATION: ✓, READ_PHONE_STATE: ✗")
+              .put("Sensitive Access (7 days)", "\nApps Holding Sensitive Access: Location 12, Camera 5, Microphone 3\n");
+        PrivacyScore.update(report);
+        return report;
+    }
+
+    /** An APK whose one deflated classes.dex has {@code data} as its data section. */
+    private File apk(String name, String data) throws IOException {
+        byte[] body = data.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer dex = ByteBuffer.allocate(0x70 + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        dex.put("dex\n035\0".getBytes(StandardCharsets.US_ASCII));
+        dex.putInt(0x20, dex.capacity());
+        dex.putInt(0x24, 0x70);
+        dex.putInt(0x28, 0x12345678);
+        dex.putInt(0x68, body.length);
+        dex.putInt(0x6C, 0x70);
+        dex.position(0x70);
+        dex.put(body);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(dex.array());
+        }
+        File file = new File(temp.getRoot(), name);
+        Files.write(file.toPath(), bytes.toByteArray());
+        return file;
+    }
+
+    private static int count(Map<String, int[]> counts, String key) {
+        int[] count = counts.get(key);
+        return count == null ? 0 : count[0];
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
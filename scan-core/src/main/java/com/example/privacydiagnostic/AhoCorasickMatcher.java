@@ -0,0 +1,156 @@
+package com.example.privacydiagnostic;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Byte-level Aho-Corasick automaton compiled to a dense transition table, so matching is one
+ * table lookup per input byte with no backtracking. Each pattern carries a label index
+ * (at most 64) and a scan reports the set of labels seen as a bit mask. Immutable once built
+ * and safe to share between threads; the caller carries the state across chunks.
+ */
+public final class AhoCorasickMatcher {
+    public static final int MAX_LABELS = 64;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final int[] byteClass;
+    private final int alphabet;
+    private final int[] delta;
+    private final long[] output;
+
+    private AhoCorasickMatcher(int[] byteClass, int alphabet, int[] delta, long[] output) {
+        this.byteClass = byteClass;
+        this.alphabet = alphabet;
+        this.delta = delta;
+        this.output = output;
+    }
+
+    /** Collects patterns and compiles them into a matcher. */
+    public static final class Builder {
+        private final List<byte[]> patterns = new ArrayList<>();
+        private final List<Integer> labels = new ArrayList<>();
+
+        public Builder add(String pattern, int label) {
+            if (label < 0 || label >= MAX_LABELS) {
+                throw new IllegalArgumentException("Label out of range: " + label);
+            }
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            patterns.add(pattern.getBytes(ASCII));
+            labels.add(label);
+            return this;
+        }
+
+        public AhoCorasickMatcher build() {
+            // Bytes that occur in no pattern share class 0, which keeps the table narrow
+            int[] byteClass = new int[256];
+            int alphabet = 1;
+            for (byte[] pattern : patterns) {
+                for (byte b : pattern) {
+                    if (byteClass[b & 0xFF] == 0) byteClass[b & 0xFF] = alphabet++;
+                }
+            }
+
+            // Trie over byte classes; -1 marks a missing edge until the failure pass fills it
+            List<int[]> trie = new ArrayList<>();
+            List<Long> out = new ArrayList<>();
+            trie.add(newRow(alphabet));
+            out.add(0L);
+            for (int p = 0; p < patterns.size(); p++) {
+                int state = 0;
+                for (byte b : patterns.get(p)) {
+                    int c = byteClass[b & 0xFF];
+                    if (trie.get(state)[c] < 0) {
+                        trie.get(state)[c] = trie.size();
+                        trie.add(newRow(alphabet));
+                        out.add(0L);
+                    }
+                    state = trie.get(state)[c];
+                }
+                out.set(state, out.get(state) | (1L << labels.get(p)));
+            }
+
+            int states = trie.size();
+            int[] delta = new int[states * alphabet];
+            long[] output = new long[states];
+            int[] fail = new int[states];
+            for (int s = 0; s < states; s++) {
+                output[s] = out.get(s);
+            }
+
+            // Breadth-first failure links, folding each state's missing edges into its
+            // failure state's already-complete row to get a full DFA
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            int[] root = trie.get(0);
+            for (int c = 0; c < alphabet; c++) {
+                if (root[c] > 0) {
+                    delta[c] = root[c];
+                    fail[root[c]] = 0;
+                    queue.add(root[c]);
+                } else {
+                    delta[c] = 0;
+                }
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                output[s] |= output[fail[s]];
+                int[] row = trie.get(s);
+                for (int c = 0; c < alphabet; c++) {
+                    int next = row[c];
+                    if (next > 0) {
+                        fail[next] = delta[fail[s] * alphabet + c];
+                        delta[s * alphabet + c] = next;
+                        queue.add(next);
+                    } else {
+                        delta[s * alphabet + c] = delta[fail[s] * alphabet + c];
+                    }
+                }
+            }
+            return new AhoCorasickMatcher(byteClass, alphabet, delta, output);
+        }
+
+        private static int[] newRow(int alphabet) {
+            int[] row = new int[alphabet];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+
+    public int stateCount() {
+        return output.length;
+    }
+
+    /**
+     * Runs the automaton over {@code buffer[from, to)} without moving its position.
+     *
+     * @param state in: the state to resume from (0 to start); out: the state after the last byte
+     * @return the labels matched in this range
+     */
+    public long scan(ByteBuffer buffer, int from, int to, int[] state) {
+        int s = state[0];
+        long found = 0;
+        for (int i = from; i < to; i++) {
+            s = delta[s * alphabet + byteClass[buffer.get(i) & 0xFF]];
+            found |= output[s];
+        }
+        state[0] = s;
+        return found;
+    }
+
+    /** Same as {@link #scan(ByteBuffer, int, int, int[])} for a heap array. */
+    public long scan(byte[] data, int from, int to, int[] state) {
+        int s = state[0];
+        long found = 0;
+        for (int i = from; i < to; i++) {
+            s = delta[s * alphabet + byteClass[data[i] & 0xFF]];
+            found |= output[s];
+        }
+        state[0] = s;
+        return found;
+    }
+}
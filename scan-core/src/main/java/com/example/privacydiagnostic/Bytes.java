@@ -0,0 +1,32 @@
+package com.example.privacydiagnostic;
+
+/** Renders raw bytes such as NFC tag IDs and protocol fields for the report. */
+public final class Bytes {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Bytes() {
+    }
+
+    /** Uppercase hex without separators, e.g. {@code "04A1B2"}; {@code "null"} for null. */
+    public static String toHex(byte[] bytes) {
+        if (bytes == null) return "null";
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            hex[2 * i] = HEX_DIGITS[v >>> 4];
+            hex[2 * i + 1] = HEX_DIGITS[v & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    /** Unsigned byte values separated by ", ", e.g. {@code "4, 161, 178"}; {@code "null"} for null. */
+    public static String toDecimal(byte[] bytes) {
+        if (bytes == null) return "null";
+        StringBuilder sb = new StringBuilder(bytes.length * 5);
+        for (int i = 0; i < bytes.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(bytes[i] & 0xFF);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,624 @@
+package com.example.privacydiagnostic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A device policy compiled from declarative rules:
+ *
+ * <pre>
+ * policy "Corporate baseline"
+ *
+ * rule adb_off "USB debugging is off"
+ *     require concerns."USB Debugging" == "No"
+ *
+ * rule kiosk_location "Kiosks do not use high-accuracy location"
+ *     when device."Model" in ("ET40", "TC52")
+ *     require location."Location Mode" != "High Accuracy"
+ * </pre>
+ *
+ * A field is {@code section."Key"}, with the section keys of {@link ScanReport#sectionKey}.
+ * Operators are {@code == != contains startswith in (...)}, {@code matches} (a regular
+ * expression found anywhere in the value), {@code < <= > >=} on the value's leading number,
+ * so {@code "72/100"} compares as 72, and {@code present} / {@code missing}. A missing field
+ * satisfies only {@code missing}, so a section that did not run fails the rules that need it.
+ * Conditions combine with {@code and}, {@code or}, {@code not} and parentheses; all of a
+ * rule's require lines must hold, and a rule whose when line does not hold is not applicable.
+ *
+ * <p>Compiling resolves every field to a slot. Evaluation is then one pass over the report to
+ * fill the slots and a walk of the predicate trees, with no lookups or parsing. Immutable and
+ * safe to share between threads.
+ */
+public final class DevicePolicy {
+    public static final int PASS = 0;
+    public static final int FAIL = 1;
+    public static final int NOT_APPLICABLE = 2;
+
+    private static final int MAX_DETAIL_CHARS = 60;
+
+    private final String name;
+    private final String[] ruleIds;
+    private final String[] ruleDescriptions;
+    private final Node[] guards;
+    private final Node[] requirements;
+    // Slots each requirement reads, reported next to a failure
+    private final int[][] requirementSlots;
+    private final String[] slotKeys;
+    // Section titles read, and per title the key -> slot table
+    private final String[] inputTitles;
+    private final List<Map<String, Integer>> inputSlots;
+
+    private DevicePolicy(Compiler compiler) {
+        name = compiler.name;
+        int rules = compiler.ruleIds.size();
+        ruleIds = compiler.ruleIds.toArray(new String[rules]);
+        ruleDescriptions = compiler.ruleDescriptions.toArray(new String[rules]);
+        guards = compiler.guards.toArray(new Node[rules]);
+        requirements = compiler.requirements.toArray(new Node[rules]);
+        requirementSlots = compiler.requirementSlots.toArray(new int[rules][]);
+        slotKeys = compiler.slotKeys.toArray(new String[0]);
+        inputTitles = compiler.slotsByTitle.keySet().toArray(new String[0]);
+        inputSlots = new ArrayList<>(inputTitles.length);
+        for (String title : inputTitles) {
+            inputSlots.add(compiler.slotsByTitle.get(title));
+        }
+    }
+
+    /**
+     * Compiles a rules file.
+     *
+     * @throws ParseException on a syntax error; the error offset is the 1-based line number
+     */
+    public static DevicePolicy compile(Reader source) throws IOException, ParseException {
+        Compiler compiler = new Compiler();
+        BufferedReader lines = new BufferedReader(source);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            compiler.statement(new Tokens(line, ++number));
+        }
+        compiler.finishRule();
+        return new DevicePolicy(compiler);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRuleCount() {
+        return ruleIds.length;
+    }
+
+    public String getRuleId(int rule) {
+        return ruleIds[rule];
+    }
+
+    public String getRuleDescription(int rule) {
+        return ruleDescriptions[rule];
+    }
+
+    /** Whether any rule reads a field of the section with this title. */
+    public boolean reads(String sectionTitle) {
+        for (String title : inputTitles) {
+            if (title.equals(sectionTitle)) return true;
+        }
+        return false;
+    }
+
+    public Result evaluate(ScanReport report) {
+        String[] slots = new String[slotKeys.length];
+        for (int t = 0; t < inputTitles.length; t++) {
+            fill(slots, inputSlots.get(t), report.getSection(inputTitles[t]));
+        }
+        return evaluate(slots);
+    }
+
+    /** Evaluates one stored record, decoding only the sections the rules read. */
+    public Result evaluate(ScanRecordReader records, int record) throws IOException {
+        String[] slots = new String[slotKeys.length];
+        for (int t = 0; t < inputTitles.length; t++) {
+            fill(slots, inputSlots.get(t), records.readSection(record, inputTitles[t]));
+        }
+        return evaluate(slots);
+    }
+
+    private static void fill(String[] slots, Map<String, Integer> keys, ScanReport.Section section) {
+        if (section == null) return;
+        for (int i = 0; i < section.size(); i++) {
+            String key = section.getKey(i);
+            Integer slot = key != null ? keys.get(key) : null;
+            if (slot != null && slots[slot] == null) slots[slot] = section.getValue(i);
+        }
+    }
+
+    private Result evaluate(String[] slots) {
+        int[] outcomes = new int[ruleIds.length];
+        for (int rule = 0; rule < outcomes.length; rule++) {
+            if (guards[rule] != null && !guards[rule].test(slots)) {
+                outcomes[rule] = NOT_APPLICABLE;
+            } else {
+                outcomes[rule] = requirements[rule].test(slots) ? PASS : FAIL;
+            }
+        }
+        return new Result(outcomes, slots);
+    }
+
+    /** Outcome of every rule for one device. */
+    public final class Result {
+        private final int[] outcomes;
+        private final String[] slots;
+        private final int failures;
+
+        Result(int[] outcomes, String[] slots) {
+            this.outcomes = outcomes;
+            this.slots = slots;
+            int failed = 0;
+            for (int outcome : outcomes) {
+                if (outcome == FAIL) failed++;
+            }
+            failures = failed;
+        }
+
+        public boolean isCompliant() {
+            return failures == 0;
+        }
+
+        public int getFailureCount() {
+            return failures;
+        }
+
+        /** {@link #PASS}, {@link #FAIL} or {@link #NOT_APPLICABLE}. */
+        public int getOutcome(int rule) {
+            return outcomes[rule];
+        }
+
+        /** The fields a failed rule requires and their values on this device, e.g. {@code "USB Debugging: Yes"}. */
+        public String describeFailure(int rule) {
+            StringBuilder detail = new StringBuilder();
+            for (int slot : requirementSlots[rule]) {
+                if (detail.length() > 0) detail.append(", ");
+                detail.append(slotKeys[slot]).append(": ").append(summarize(slots[slot]));
+            }
+            return detail.toString();
+        }
+
+        /** Replaces the report's policy section with these outcomes. */
+        public void writeTo(ScanReport report) {
+            ScanReport.Section section = report.section(ScanReport.SECTION_POLICY).clear();
+            section.put("Policy", name);
+            int applicable = 0;
+            for (int outcome : outcomes) {
+                if (outcome != NOT_APPLICABLE) applicable++;
+            }
+            section.put("Result", isCompliant()
+                    ? "Compliant ✓ (" + applicable + " rules)"
+                    : "Non-compliant ✗ (" + failures + " of " + applicable + " rules failed)");
+            for (int rule = 0; rule < outcomes.length; rule++) {
+                if (outcomes[rule] == PASS) {
+                    section.put(ruleDescriptions[rule], "✓ Pass");
+                } else if (outcomes[rule] == FAIL) {
+                    section.put(ruleDescriptions[rule], "✗ Fail (" + describeFailure(rule) + ")");
+                } else {
+                    section.put(ruleDescriptions[rule], "– Not applicable");
+                }
+            }
+        }
+    }
+
+    private static String summarize(String value) {
+        if (value == null) return "missing";
+        String line = value.trim();
+        int newline = line.indexOf('\n');
+        if (newline >= 0) line = line.substring(0, newline);
+        return line.length() > MAX_DETAIL_CHARS ? line.substring(0, MAX_DETAIL_CHARS) + "…" : line;
+    }
+
+    // Predicate trees
+
+    private interface Node {
+        boolean test(String[] slots);
+    }
+
+    private static final class And implements Node {
+        private final Node[] terms;
+
+        And(Node[] terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        public boolean test(String[] slots) {
+            for (Node term : terms) {
+                if (!term.test(slots)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Or implements Node {
+        private final Node[] terms;
+
+        Or(Node[] terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        public boolean test(String[] slots) {
+            for (Node term : terms) {
+                if (term.test(slots)) return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Not implements Node {
+        private final Node term;
+
+        Not(Node term) {
+            this.term = term;
+        }
+
+        @Override
+        public boolean test(String[] slots) {
+            return !term.test(slots);
+        }
+    }
+
+    private static final class Compare implements Node {
+        static final int EQUALS = 0;
+        static final int NOT_EQUALS = 1;
+        static final int CONTAINS = 2;
+        static final int STARTS_WITH = 3;
+        static final int MATCHES = 4;
+        static final int IN = 5;
+        static final int LESS = 6;
+        static final int LESS_OR_EQUAL = 7;
+        static final int GREATER = 8;
+        static final int GREATER_OR_EQUAL = 9;
+        static final int PRESENT = 10;
+        static final int MISSING = 11;
+
+        private final int slot;
+        private final int operator;
+        private final String text;
+        private final double number;
+        private final Pattern pattern;
+        private final Set<String> values;
+
+        Compare(int slot, int operator, String text, double number, Pattern pattern, Set<String> values) {
+            this.slot = slot;
+            this.operator = operator;
+            this.text = text;
+            this.number = number;
+            this.pattern = pattern;
+            this.values = values;
+        }
+
+        @Override
+        public boolean test(String[] slots) {
+            String value = slots[slot];
+            if (operator == MISSING) return value == null;
+            if (value == null) return false;
+            switch (operator) {
+                case PRESENT: return true;
+                case EQUALS: return value.equals(text);
+                case NOT_EQUALS: return !value.equals(text);
+                case CONTAINS: return value.contains(text);
+                case STARTS_WITH: return value.startsWith(text);
+                case MATCHES: return pattern.matcher(value).find();
+                case IN: return values.contains(value);
+                default: break;
+            }
+            double actual = leadingNumber(value);
+            if (Double.isNaN(actual)) return false;
+            switch (operator) {
+                case LESS: return actual < number;
+                case LESS_OR_EQUAL: return actual <= number;
+                case GREATER: return actual > number;
+                default: return actual >= number;
+            }
+        }
+
+        // "72/100" -> 72, "-3.5 dB" -> -3.5; NaN without leading digits
+        private static double leadingNumber(String value) {
+            int end = 0;
+            int length = value.length();
+            if (end < length && value.charAt(end) == '-') end++;
+            int digits = end;
+            while (end < length && (Character.isDigit(value.charAt(end)) || value.charAt(end) == '.')) end++;
+            if (end == digits) return Double.NaN;
+            try {
+                return Double.parseDouble(value.substring(0, end));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+    }
+
+    // Compilation
+
+    private static final class Compiler {
+        String name = "Device policy";
+        final List<String> ruleIds = new ArrayList<>();
+        final List<String> ruleDescriptions = new ArrayList<>();
+        final List<Node> guards = new ArrayList<>();
+        final List<Node> requirements = new ArrayList<>();
+        final List<int[]> requirementSlots = new ArrayList<>();
+        final List<String> slotKeys = new ArrayList<>();
+        final Map<String, Map<String, Integer>> slotsByTitle = new HashMap<>();
+
+        // The rule being read
+        private String ruleId;
+        private int ruleLine;
+        private Node guard;
+        private final List<Node> required = new ArrayList<>();
+        private final Set<Integer> requiredSlots = new LinkedHashSet<>();
+        private Set<Integer> collecting;
+
+        void statement(Tokens tokens) throws ParseException {
+            if (tokens.atEnd()) return;
+            collecting = null;
+            String keyword = tokens.identifier("a statement");
+            if ("policy".equals(keyword)) {
+                name = tokens.string("a policy name");
+            } else if ("rule".equals(keyword)) {
+                finishRule();
+                ruleId = tokens.identifier("a rule id");
+                if (ruleIds.contains(ruleId)) throw tokens.error("Duplicate rule " + ruleId);
+                ruleLine = tokens.line;
+                ruleIds.add(ruleId);
+                ruleDescriptions.add(tokens.atEnd() ? ruleId : tokens.string("a rule description"));
+            } else if ("when".equals(keyword) || "require".equals(keyword)) {
+                if (ruleId == null) throw tokens.error("'" + keyword + "' outside a rule");
+                if ("when".equals(keyword)) {
+                    if (guard != null) throw tokens.error("Rule " + ruleId + " already has a when line");
+                    guard = expression(tokens);
+                } else {
+                    collecting = requiredSlots;
+                    required.add(expression(tokens));
+                }
+            } else {
+                throw tokens.error("Unknown statement '" + keyword + "'");
+            }
+            if (!tokens.atEnd()) throw tokens.error("Unexpected " + tokens.describeNext());
+        }
+
+        void finishRule() throws ParseException {
+            if (ruleId == null) return;
+            if (required.isEmpty()) {
+                throw new ParseException("Line " + ruleLine + ": rule " + ruleId + " has no require line", ruleLine);
+            }
+            guards.add(guard);
+            requirements.add(required.size() == 1 ? required.get(0) : new And(required.toArray(new Node[0])));
+            int[] slots = new int[requiredSlots.size()];
+            int i = 0;
+            for (int slot : requiredSlots) slots[i++] = slot;
+            requirementSlots.add(slots);
+            ruleId = null;
+            guard = null;
+            required.clear();
+            requiredSlots.clear();
+        }
+
+        // expression := and ("or" and)*
+        private Node expression(Tokens tokens) throws ParseException {
+            List<Node> terms = new ArrayList<>();
+            terms.add(conjunction(tokens));
+            while (tokens.accept("or")) terms.add(conjunction(tokens));
+            return terms.size() == 1 ? terms.get(0) : new Or(terms.toArray(new Node[0]));
+        }
+
+        // and := unary ("and" unary)*
+        private Node conjunction(Tokens tokens) throws ParseException {
+            List<Node> terms = new ArrayList<>();
+            terms.add(unary(tokens));
+            while (tokens.accept("and")) terms.add(unary(tokens));
+            return terms.size() == 1 ? terms.get(0) : new And(terms.toArray(new Node[0]));
+        }
+
+        // unary := "not" unary | "(" expression ")" | comparison
+        private Node unary(Tokens tokens) throws ParseException {
+            if (tokens.accept("not")) return new Not(unary(tokens));
+            if (tokens.accept("(")) {
+                Node inner = expression(tokens);
+                tokens.expect(")");
+                return inner;
+            }
+            return comparison(tokens);
+        }
+
+        // comparison := section "." "Key" operator [literal | "(" literal ("," literal)* ")"]
+        private Node comparison(Tokens tokens) throws ParseException {
+            String sectionKey = tokens.identifier("a section");
+            String title = ScanReport.sectionTitle(sectionKey);
+            if (title == null) throw tokens.error("Unknown section '" + sectionKey + "'");
+            tokens.expect(".");
+            int slot = slot(title, tokens.string("a field name"));
+
+            String operator = tokens.operator();
+            switch (operator) {
+                case "present":
+                    return new Compare(slot, Compare.PRESENT, null, 0, null, null);
+                case "missing":
+                    return new Compare(slot, Compare.MISSING, null, 0, null, null);
+                case "==":
+                    return new Compare(slot, Compare.EQUALS, tokens.literal(), 0, null, null);
+                case "!=":
+                    return new Compare(slot, Compare.NOT_EQUALS, tokens.literal(), 0, null, null);
+                case "contains":
+                    return new Compare(slot, Compare.CONTAINS, tokens.literal(), 0, null, null);
+                case "startswith":
+                    return new Compare(slot, Compare.STARTS_WITH, tokens.literal(), 0, null, null);
+                case "matches":
+                    String regex = tokens.string("a regular expression");
+                    try {
+                        return new Compare(slot, Compare.MATCHES, regex, 0, Pattern.compile(regex), null);
+                    } catch (PatternSyntaxException e) {
+                        throw tokens.error("Bad regular expression: " + e.getDescription());
+                    }
+                case "in":
+                    Set<String> values = new HashSet<>();
+                    tokens.expect("(");
+                    do {
+                        values.add(tokens.literal());
+                    } while (tokens.accept(","));
+                    tokens.expect(")");
+                    return new Compare(slot, Compare.IN, null, 0, null, values);
+                case "<":
+                    return new Compare(slot, Compare.LESS, null, tokens.number(), null, null);
+                case "<=":
+                    return new Compare(slot, Compare.LESS_OR_EQUAL, null, tokens.number(), null, null);
+                case ">":
+                    return new Compare(slot, Compare.GREATER, null, tokens.number(), null, null);
+                case ">=":
+                    return new Compare(slot, Compare.GREATER_OR_EQUAL, null, tokens.number(), null, null);
+                default:
+                    throw tokens.error("Unknown operator '" + operator + "'");
+            }
+        }
+
+        private int slot(String title, String key) {
+            Map<String, Integer> keys = slotsByTitle.get(title);
+            if (keys == null) {
+                keys = new HashMap<>();
+                slotsByTitle.put(title, keys);
+            }
+            Integer slot = keys.get(key);
+            if (slot == null) {
+                slot = slotKeys.size();
+                slotKeys.add(key);
+                keys.put(key, slot);
+            }
+            if (collecting != null) collecting.add(slot);
+            return slot;
+        }
+    }
+
+    /** One line split into identifiers, quoted strings, numbers and punctuation. */
+    private static final class Tokens {
+        final int line;
+        private final List<String> tokens = new ArrayList<>();
+        // Parallel to tokens: whether each one was quoted
+        private final List<Boolean> quoted = new ArrayList<>();
+        private int next;
+
+        Tokens(String text, int line) throws ParseException {
+            this.line = line;
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (c == '#') break;
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '"') {
+                    StringBuilder value = new StringBuilder();
+                    i++;
+                    while (i < text.length() && text.charAt(i) != '"') {
+                        if (text.charAt(i) == '\\' && i + 1 < text.length()) i++;
+                        value.append(text.charAt(i++));
+                    }
+                    if (i >= text.length()) throw error("Unterminated string");
+                    i++;
+                    add(value.toString(), true);
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '-') {
+                    int start = i++;
+                    while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i))
+                            || text.charAt(i) == '_' || (text.charAt(i) == '.' && (Character.isDigit(c) || c == '-')))) {
+                        i++;
+                    }
+                    add(text.substring(start, i), false);
+                } else if ((c == '=' || c == '!' || c == '<' || c == '>')
+                        && i + 1 < text.length() && text.charAt(i + 1) == '=') {
+                    add(text.substring(i, i + 2), false);
+                    i += 2;
+                } else if ("().,<>".indexOf(c) >= 0) {
+                    add(String.valueOf(c), false);
+                    i++;
+                } else {
+                    throw error("Unexpected character '" + c + "'");
+                }
+            }
+        }
+
+        private void add(String token, boolean isQuoted) {
+            tokens.add(token);
+            quoted.add(isQuoted);
+        }
+
+        boolean atEnd() {
+            return next >= tokens.size();
+        }
+
+        String describeNext() {
+            return atEnd() ? "end of line" : "'" + tokens.get(next) + "'";
+        }
+
+        boolean accept(String punctuation) {
+            if (atEnd() || quoted.get(next) || !tokens.get(next).equals(punctuation)) return false;
+            next++;
+            return true;
+        }
+
+        void expect(String punctuation) throws ParseException {
+            if (!accept(punctuation)) throw error("Expected '" + punctuation + "' but found " + describeNext());
+        }
+
+        String identifier(String what) throws ParseException {
+            if (atEnd() || quoted.get(next) || !isIdentifier(tokens.get(next))) {
+                throw error("Expected " + what + " but found " + describeNext());
+            }
+            return tokens.get(next++);
+        }
+
+        String string(String what) throws ParseException {
+            if (atEnd() || !quoted.get(next)) throw error("Expected " + what + " in quotes but found " + describeNext());
+            return tokens.get(next++);
+        }
+
+        String operator() throws ParseException {
+            if (atEnd() || quoted.get(next)) throw error("Expected an operator but found " + describeNext());
+            return tokens.get(next++);
+        }
+
+        /** A quoted string or a bare number, compared as text. */
+        String literal() throws ParseException {
+            if (!atEnd() && (quoted.get(next) || isNumber(tokens.get(next)))) return tokens.get(next++);
+            throw error("Expected a quoted value but found " + describeNext());
+        }
+
+        double number() throws ParseException {
+            if (atEnd() || quoted.get(next) || !isNumber(tokens.get(next))) {
+                throw error("Expected a number but found " + describeNext());
+            }
+            return Double.parseDouble(tokens.get(next++));
+        }
+
+        ParseException error(String message) {
+            return new ParseException("Line " + line + ": " + message, line);
+        }
+
+        private static boolean isIdentifier(String token) {
+            return Character.isLetter(token.charAt(0)) || token.charAt(0) == '_';
+        }
+
+        private static boolean isNumber(String token) {
+            try {
+                Double.parseDouble(token);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
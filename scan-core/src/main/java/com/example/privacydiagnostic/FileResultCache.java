@@ -0,0 +1,126 @@
+package com.example.privacydiagnostic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent per-file result cache keyed by path and validated by size + mtime, for probes
+ * that derive an expensive value from a file's content. Safe for concurrent lookups.
+ * Only entries used since {@link #load()} are written back, so deleted files age out.
+ * A long-lived instance skips re-reading the file when it was the last one to write it.
+ */
+public final class FileResultCache {
+    private static final int VERSION = 1;
+
+    private static final class Entry {
+        final long size;
+        final long mtime;
+        final String value;
+
+        Entry(long size, long mtime, String value) {
+            this.size = size;
+            this.mtime = mtime;
+            this.value = value;
+        }
+    }
+
+    private final File file;
+    private final Map<String, Entry> loaded = new ConcurrentHashMap<>();
+    private final Map<String, Entry> used = new ConcurrentHashMap<>();
+    // Identity of the file as this instance last wrote it; 0 when unknown
+    private long savedLength;
+    private long savedModified;
+
+    public FileResultCache(File file) {
+        this.file = file;
+    }
+
+    /** @return the cached value, or null if the file is unknown or has changed */
+    public String get(String path, long size, long mtime) {
+        Entry entry = loaded.get(path);
+        if (entry == null || entry.size != size || entry.mtime != mtime) {
+            return null;
+        }
+        used.put(path, entry);
+        return entry.value;
+    }
+
+    public void put(String path, long size, long mtime, String value) {
+        used.put(path, new Entry(size, mtime, value));
+    }
+
+    public int size() {
+        return used.size();
+    }
+
+    public void load() {
+        if (file != null && savedModified != 0
+                && file.lastModified() == savedModified && file.length() == savedLength) {
+            // Nobody has rewritten the file since our save, so the entries in memory are current
+            Map<String, Entry> written = new HashMap<>(used);
+            loaded.clear();
+            loaded.putAll(written);
+            used.clear();
+            return;
+        }
+        loaded.clear();
+        used.clear();
+        savedModified = 0;
+        if (file == null || !file.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long mtime = in.readLong();
+                loaded.put(path, new Entry(size, mtime, in.readUTF()));
+            }
+        } catch (IOException e) {
+            // Unreadable cache: everything is recomputed
+            loaded.clear();
+        }
+    }
+
+    public void save() {
+        if (file == null) return;
+        // Unique per writer: the UI and scanner processes can save the same cache at once
+        File temp;
+        try {
+            temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        } catch (IOException e) {
+            savedModified = 0;
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(used.size());
+            for (Map.Entry<String, Entry> e : used.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().size);
+                out.writeLong(e.getValue().mtime);
+                out.writeUTF(e.getValue().value);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            savedModified = 0;
+            return;
+        }
+        if (temp.renameTo(file)) {
+            savedLength = file.length();
+            savedModified = file.lastModified();
+        } else {
+            temp.delete();
+            savedModified = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.privacydiagnostic;
+
+/**
+ * The privacy score, computed from report fields rather than by querying the device, so a
+ * single refreshed field re-scores without re-querying everything else.
+ */
+public final class PrivacyScore {
+    /** Sections {@link #calculate} reads its fields from. */
+    public static final String[] INPUT_SECTIONS = {ScanReport.SECTION_DEVICE, ScanReport.SECTION_NETWORK,
+            ScanReport.SECTION_LOCATION};
+
+    private PrivacyScore() {
+    }
+
+    /** Writes the score section from the report's current fields. */
+    public static void update(ScanReport report) {
+        int privacyScore = calculate(report);
+        report.section(ScanReport.SECTION_SCORE)
+              .put("Overall Privacy Score", privacyScore + "/100")
+              .put("Risk Level", riskLevel(privacyScore))
+              .put("Recommendations", recommendations(privacyScore));
+    }
+
+    public static int calculate(ScanReport report) {
+        int score = 100;
+        
+        // Deduct points for sensitive information exposure
+        if (!"Permission denied".equals(report.get(ScanReport.SECTION_DEVICE, "Serial"))) score -= 15;
+        if (!"Not accessible".equals(report.get(ScanReport.SECTION_NETWORK, "WiFi MAC Address"))) score -= 10;
+        if (!"Not accessible".equals(report.get(ScanReport.SECTION_NETWORK, "Bluetooth MAC Address"))) score -= 10;
+        if (!"Off".equals(report.get(ScanReport.SECTION_LOCATION, "Location Mode"))) score -= 15;
+        if (!"Unknown".equals(report.get(ScanReport.SECTION_NETWORK, "Network Type"))) score -= 5;
+        if (!"Permission required".equals(report.get(ScanReport.SECTION_NETWORK, "Phone Number"))) score -= 10;
+        if (!"Permission required".equals(report.get(ScanReport.SECTION_NETWORK, "SIM Serial"))) score -= 10;
+        
+        return Math.max(0, Math.min(100, score));
+    }
+
+    public static String riskLevel(int score) {
+        if (score >= 80) return "Low Risk 🟢";
+        else if (score >= 60) return "Medium Risk 🟡";
+        else if (score >= 40) return "High Risk 🟠";
+        else return "Very High Risk 🔴";
+    }
+
+    public static String recommendations(int score) {
+        if (score >= 80) {
+            return "Good privacy practices. Consider disabling location services when not needed.";
+        } else if (score >= 60) {
+            return "Moderate privacy exposure. Review app permissions and disable unnecessary features.";
+        } else if (score >= 40) {
+            return "High privacy exposure. Consider using privacy-focused apps and VPN services.";
+        } else {
+            return "Very high privacy exposure. Immediate action recommended: review all permissions, use privacy tools.";
+        }
+    }
+}
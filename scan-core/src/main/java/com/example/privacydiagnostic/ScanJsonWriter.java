@@ -0,0 +1,106 @@
+package com.example.privacydiagnostic;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a scan as JSON Lines: a header record, one record per section as it completes, and
+ * an end record with the outcome. Each record is flushed on its own line, so a reader on the
+ * other end of a pipe can act on sections before the scan finishes.
+ *
+ * <pre>
+ * {"type":"scan","completedAt":"2024-05-01T10:00:00"}
+ * {"type":"section","section":"apps","title":"...","fields":{"Total Apps":"212"},"text":[]}
+ * {"type":"end","status":"complete"}
+ * </pre>
+ */
+public final class ScanJsonWriter {
+    public static final String STATUS_COMPLETE = "complete";
+    public static final String STATUS_CANCELLED = "cancelled";
+    public static final String STATUS_FAILED = "failed";
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(4 * 1024);
+
+    public ScanJsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeHeader(String completedAt) throws IOException {
+        line.append("{\"type\":\"scan\",\"completedAt\":");
+        appendString(line, completedAt);
+        line.append('}');
+        flushLine();
+    }
+
+    public void writeSection(ScanReport.Section section) throws IOException {
+        line.append("{\"type\":\"section\",\"section\":");
+        appendString(line, ScanReport.sectionKey(section.getTitle()));
+        line.append(",\"title\":");
+        appendString(line, section.getTitle());
+        line.append(",\"fields\":{");
+        boolean first = true;
+        for (int i = 0; i < section.size(); i++) {
+            if (section.getKey(i) == null) continue;
+            if (!first) line.append(',');
+            first = false;
+            appendString(line, section.getKey(i));
+            line.append(':');
+            appendString(line, section.getValue(i));
+        }
+        line.append("},\"text\":[");
+        first = true;
+        for (int i = 0; i < section.size(); i++) {
+            if (section.getKey(i) != null) continue;
+            if (!first) line.append(',');
+            first = false;
+            appendString(line, section.getValue(i));
+        }
+        line.append("]}");
+        flushLine();
+    }
+
+    /** @param error message for {@link #STATUS_FAILED}, otherwise null */
+    public void writeEnd(String status, String error) throws IOException {
+        line.append("{\"type\":\"end\",\"status\":");
+        appendString(line, status);
+        if (error != null) {
+            line.append(",\"error\":");
+            appendString(line, error);
+        }
+        line.append('}');
+        flushLine();
+    }
+
+    private void flushLine() throws IOException {
+        line.append('\n');
+        out.write(line.toString());
+        out.flush();
+        line.setLength(0);
+    }
+
+    static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
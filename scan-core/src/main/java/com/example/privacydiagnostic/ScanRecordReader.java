@@ -0,0 +1,233 @@
+package com.example.privacydiagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads record files written by {@link ScanRecordWriter}. Opening a file only indexes the
+ * dictionary and records; strings are decoded on first use and then shared by every record
+ * that references them, and single sections can be read without decoding the rest of a
+ * record. Not thread-safe; threads sharing a file each open their own reader over
+ * {@link ByteBuffer#duplicate()}.
+ */
+public final class ScanRecordReader {
+    private static final int TRAILER_LENGTH = 4 + ScanRecordWriter.MAGIC.length;
+
+    private final ByteBuffer file;
+    private final int[] stringOffsets;
+    private final int[] stringLengths;
+    private final String[] strings;
+    private final int[] recordOffsets;
+    private int position;
+
+    public ScanRecordReader(ByteBuffer file) throws IOException {
+        this.file = file.slice();
+        int size = this.file.limit();
+        if (size < ScanRecordWriter.MAGIC.length + 1 + TRAILER_LENGTH
+                || !hasMagic(0) || !hasMagic(size - ScanRecordWriter.MAGIC.length)) {
+            throw new IOException("Not a scan record file");
+        }
+        int version = this.file.get(ScanRecordWriter.MAGIC.length);
+        if (version != ScanRecordWriter.VERSION) {
+            throw new IOException("Unsupported record version " + version);
+        }
+
+        position = size - TRAILER_LENGTH;
+        int footerOffset = this.file.getInt(position);
+        if (footerOffset < ScanRecordWriter.MAGIC.length + 1 || footerOffset > position) {
+            throw new IOException("Corrupt record file: footer offset " + footerOffset);
+        }
+        position = footerOffset;
+        int footerEnd = size - TRAILER_LENGTH;
+        // Every string and record index entry takes at least a byte, so a count larger than
+        // what is left of the footer is corrupt; checked before the arrays are sized from it
+        int stringCount = readCount();
+        if (stringCount > footerEnd - position) {
+            throw new IOException("Corrupt record file: " + stringCount + " strings in a "
+                    + (footerEnd - footerOffset) + " byte footer");
+        }
+        stringOffsets = new int[stringCount];
+        stringLengths = new int[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int length = readCount();
+            if (length > footerEnd - position) {
+                throw new IOException("Corrupt record file: string " + i + " runs past the footer");
+            }
+            stringOffsets[i] = position;
+            stringLengths[i] = length;
+            position += length;
+        }
+        strings = new String[stringCount];
+
+        int recordCount = readCount();
+        if (recordCount > footerEnd - position) {
+            throw new IOException("Corrupt record file: " + recordCount + " records in a "
+                    + (footerEnd - footerOffset) + " byte footer");
+        }
+        recordOffsets = new int[recordCount + 1];
+        recordOffsets[0] = ScanRecordWriter.MAGIC.length + 1;
+        for (int i = 0; i < recordCount; i++) {
+            int length = readCount();
+            if (length > footerOffset - recordOffsets[i]) {
+                throw new IOException("Corrupt record file: record " + i + " runs past the footer");
+            }
+            recordOffsets[i + 1] = recordOffsets[i] + length;
+        }
+        if (recordOffsets[recordCount] != footerOffset || position > footerEnd) {
+            throw new IOException("Corrupt record file: index does not match records");
+        }
+    }
+
+    /** Maps {@code file} read-only; the mapping lives as long as the reader. */
+    public static ScanRecordReader open(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            return new ScanRecordReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Whether {@code header} starts like a record file, for telling it apart from a text export. */
+    public static boolean isRecordFile(byte[] header) {
+        if (header.length < ScanRecordWriter.MAGIC.length) return false;
+        for (int i = 0; i < ScanRecordWriter.MAGIC.length; i++) {
+            if (header[i] != ScanRecordWriter.MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    public int getRecordCount() {
+        return recordOffsets.length - 1;
+    }
+
+    public String getCompletedAt(int record) throws IOException {
+        position = recordOffsets[record];
+        return readRef();
+    }
+
+    public ScanReport read(int record) throws IOException {
+        position = recordOffsets[record];
+        ScanReport report = new ScanReport(readRef());
+        // Each directory entry takes at least two bytes, a title ref and a length
+        int sectionCount = readCount(record, 2);
+        // The directory is walked once up front; section bodies follow it in the same order
+        String[] titles = new String[sectionCount];
+        for (int s = 0; s < sectionCount; s++) {
+            titles[s] = readRef();
+            readCount();
+        }
+        for (String title : titles) {
+            readFields(report.section(title), record);
+        }
+        checkWithin(record);
+        return report;
+    }
+
+    /** Decodes one section of a record, or returns null if the record does not have it. */
+    public ScanReport.Section readSection(int record, String title) throws IOException {
+        position = recordOffsets[record];
+        readRef();
+        int sectionCount = readCount(record, 2);
+        int bodyOffset = 0;
+        int found = -1;
+        for (int s = 0; s < sectionCount; s++) {
+            String sectionTitle = readRef();
+            int length = readCount();
+            if (found < 0 && title.equals(sectionTitle)) {
+                found = bodyOffset;
+            } else if (found < 0) {
+                bodyOffset += length;
+            }
+        }
+        if (found < 0) return null;
+        position += found;
+        ScanReport.Section section = new ScanReport.Section(title);
+        readFields(section, record);
+        checkWithin(record);
+        return section;
+    }
+
+    /** Looks up one field, or null if the record lacks the section or key. */
+    public String get(int record, String sectionTitle, String key) throws IOException {
+        ScanReport.Section section = readSection(record, sectionTitle);
+        return section != null ? section.get(key) : null;
+    }
+
+    private void readFields(ScanReport.Section section, int record) throws IOException {
+        // Each field takes at least two bytes, a key ref and a value ref
+        int fields = readCount(record, 2);
+        for (int i = 0; i < fields; i++) {
+            section.add(readRef(), readRef());
+        }
+    }
+
+    private void checkWithin(int record) throws IOException {
+        if (position > recordOffsets[record + 1]) {
+            throw new IOException("Corrupt record " + record + ": section runs past its end");
+        }
+    }
+
+    private String readRef() throws IOException {
+        int ref = readCount();
+        if (ref == 0) return null;
+        if (ref > strings.length) {
+            throw new IOException("Corrupt record file: string " + ref + " of " + strings.length);
+        }
+        String value = strings[ref - 1];
+        if (value == null) {
+            int start = stringOffsets[ref - 1];
+            int length = stringLengths[ref - 1];
+            if (file.hasArray()) {
+                value = new String(file.array(), file.arrayOffset() + start, length, StandardCharsets.UTF_8);
+            } else {
+                byte[] bytes = new byte[length];
+                ByteBuffer view = file.duplicate();
+                view.position(start);
+                view.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            strings[ref - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * A count of entries that each take at least {@code entryBytes} bytes; checked against what
+     * is left of the record before anything is sized from it.
+     */
+    private int readCount(int record, int entryBytes) throws IOException {
+        int count = readCount();
+        if (count > (recordOffsets[record + 1] - position) / entryBytes) {
+            throw new IOException("Corrupt record " + record + ": " + count + " entries in "
+                    + (recordOffsets[record + 1] - position) + " bytes");
+        }
+        return count;
+    }
+
+    /** An unsigned varint that must fit a non-negative int. */
+    private int readCount() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position >= file.limit()) {
+                throw new IOException("Corrupt record file: truncated at " + position);
+            }
+            byte b = file.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) break;
+                return value;
+            }
+        }
+        throw new IOException("Corrupt record file: bad varint at " + position);
+    }
+
+    private boolean hasMagic(int offset) {
+        for (int i = 0; i < ScanRecordWriter.MAGIC.length; i++) {
+            if (file.get(offset + i) != ScanRecordWriter.MAGIC[i]) return false;
+        }
+        return true;
+    }
+}
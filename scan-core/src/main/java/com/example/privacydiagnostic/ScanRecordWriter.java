@@ -0,0 +1,139 @@
+package com.example.privacydiagnostic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes scan reports to a versioned binary record file, read back by {@link ScanRecordReader}.
+ * Every string is stored once in a per-file dictionary and referenced by index, so the build
+ * fingerprints, provider, sensor and permission names that every scan repeats cost a byte or
+ * two after their first occurrence. Each record starts with a section directory of titles and
+ * lengths, so a reader can jump to one section without decoding the others.
+ *
+ * <pre>
+ * file      := MAGIC version:u8 record* footer footerOffset:u32 MAGIC
+ * record    := completedAt:ref sectionCount:varint (title:ref length:varint)* section*
+ * section   := fieldCount:varint (key:ref value:ref)*
+ * footer    := stringCount:varint (byteLength:varint utf8)* recordCount:varint (byteLength:varint)*
+ * ref       := varint, dictionary index + 1; 0 is null (a free-text line's key)
+ * </pre>
+ *
+ * Records are streamed as they are written; the dictionary is only known at the end, so it
+ * goes in the footer. Not thread-safe.
+ */
+public final class ScanRecordWriter implements Closeable {
+    public static final String FILE_EXTENSION = ".pdsr";
+    static final byte[] MAGIC = {'P', 'D', 'S', 'R'};
+    static final int VERSION = 1;
+
+    private final OutputStream out;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final VarintBuffer record = new VarintBuffer(16 * 1024);
+    private final VarintBuffer sectionBodies = new VarintBuffer(16 * 1024);
+    private int[] recordLengths = new int[16];
+    private int recordCount;
+    private long offset;
+    private boolean closed;
+
+    public ScanRecordWriter(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(MAGIC);
+        out.write(VERSION);
+        offset = MAGIC.length + 1;
+    }
+
+    public void write(ScanReport report) throws IOException {
+        if (closed) throw new IOException("Writer is closed");
+        record.reset();
+        sectionBodies.reset();
+        List<ScanReport.Section> sections = report.getSections();
+        record.writeVarint(ref(report.getCompletedAt()));
+        record.writeVarint(sections.size());
+        for (ScanReport.Section section : sections) {
+            int start = sectionBodies.size();
+            sectionBodies.writeVarint(section.size());
+            for (int i = 0; i < section.size(); i++) {
+                sectionBodies.writeVarint(ref(section.getKey(i)));
+                sectionBodies.writeVarint(ref(section.getValue(i)));
+            }
+            record.writeVarint(ref(section.getTitle()));
+            record.writeVarint(sectionBodies.size() - start);
+        }
+        sectionBodies.writeTo(record);
+
+        if (recordCount == recordLengths.length) {
+            int[] grown = new int[recordCount * 2];
+            System.arraycopy(recordLengths, 0, grown, 0, recordCount);
+            recordLengths = grown;
+        }
+        recordLengths[recordCount++] = record.size();
+        record.writeTo(out);
+        offset += record.size();
+    }
+
+    /** Writes the dictionary and record index, then closes the underlying stream. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Record file exceeds 2 GiB");
+            }
+            VarintBuffer footer = new VarintBuffer(64 * 1024);
+            footer.writeVarint(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                footer.writeVarint(bytes.length);
+                footer.write(bytes, 0, bytes.length);
+            }
+            footer.writeVarint(recordCount);
+            for (int i = 0; i < recordCount; i++) {
+                footer.writeVarint(recordLengths[i]);
+            }
+            int footerOffset = (int) offset;
+            footer.write(footerOffset >>> 24);
+            footer.write(footerOffset >>> 16);
+            footer.write(footerOffset >>> 8);
+            footer.write(footerOffset);
+            footer.write(MAGIC, 0, MAGIC.length);
+            footer.writeTo(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private int ref(String value) {
+        if (value == null) return 0;
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(value, index);
+            strings.add(value);
+        }
+        return index + 1;
+    }
+
+    private static final class VarintBuffer extends ByteArrayOutputStream {
+        VarintBuffer(int size) {
+            super(size);
+        }
+
+        // Unsigned LEB128: seven bits per byte, high bit set on all but the last
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.privacydiagnostic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scan result as ordered sections of key/value fields, so single fields can be refreshed
+ * and the score recomputed without rerunning the scan. {@link #render()} produces the text
+ * report shown on screen and exported. Not thread-safe; build it on one thread, then hand it over.
+ */
+public final class ScanReport {
+    public static final String TITLE = "🔍 PRIVACY DIAGNOSTIC SCAN RESULTS";
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // Section titles, shared by the interactive scan, background scans and stored history
+    public static final String SECTION_DEVICE = "📱 DEVICE INFORMATION";
+    public static final String SECTION_HARDWARE = "🔧 HARDWARE INFORMATION";
+    public static final String SECTION_NETWORK = "🌐 NETWORK INFORMATION";
+    public static final String SECTION_LOCATION = "📍 LOCATION INFORMATION";
+    public static final String SECTION_APPS = "📱 INSTALLED APPLICATIONS";
+    public static final String SECTION_PERSONAL_DATA = "👥 PERSONAL DATA ACCESS";
+    public static final String SECTION_FILES = "💾 FILE SYSTEM ACCESS";
+    public static final String SECTION_CAMERA = "📷 CAMERA & MEDIA ACCESS";
+    public static final String SECTION_SETTINGS = "⚙️ SYSTEM SETTINGS";
+    public static final String SECTION_IDENTIFIERS = "🆔 UNIQUE IDENTIFIERS";
+    public static final String SECTION_PERMISSIONS = "🔐 PERMISSION ANALYSIS";
+    public static final String SECTION_MISSING_PERMISSIONS = "⚠️ MISSING PERMISSIONS";
+    public static final String SECTION_SCORE = "📊 PRIVACY SCORE";
+    public static final String SECTION_CONCERNS = "⚠️ ADDITIONAL PRIVACY CONCERNS";
+    public static final String SECTION_POLICY = "📋 DEVICE POLICY";
+
+    // Plain identifiers for the sections, for tools that select or parse them; report order
+    private static final String[][] SECTION_KEYS = {
+        {"device", SECTION_DEVICE},
+        {"hardware", SECTION_HARDWARE},
+        {"network", SECTION_NETWORK},
+        {"location", SECTION_LOCATION},
+        {"apps", SECTION_APPS},
+        {"personal_data", SECTION_PERSONAL_DATA},
+        {"files", SECTION_FILES},
+        {"camera", SECTION_CAMERA},
+        {"settings", SECTION_SETTINGS},
+        {"identifiers", SECTION_IDENTIFIERS},
+        {"permissions", SECTION_PERMISSIONS},
+        {"missing_permissions", SECTION_MISSING_PERMISSIONS},
+        {"score", SECTION_SCORE},
+        {"concerns", SECTION_CONCERNS},
+        {"policy", SECTION_POLICY}
+    };
+
+    /** One titled block of the report. A null key marks a free-text line. */
+    public static final class Section {
+        private final String title;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+
+        Section(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /** Adds the field, or replaces its value if the key is already present. */
+        public Section put(String key, String value) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                values.set(index, value);
+            } else {
+                keys.add(key);
+                values.add(value);
+            }
+            return this;
+        }
+
+        public Section text(String text) {
+            keys.add(null);
+            values.add(text);
+            return this;
+        }
+
+        /** Appends a field as stored, without looking for an existing key. */
+        void add(String key, String value) {
+            keys.add(key);
+            values.add(value);
+        }
+
+        public Section clear() {
+            keys.clear();
+            values.clear();
+            return this;
+        }
+
+        public String get(String key) {
+            int index = indexOf(key);
+            return index >= 0 ? values.get(index) : null;
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        public String getKey(int index) {
+            return keys.get(index);
+        }
+
+        public String getValue(int index) {
+            return values.get(index);
+        }
+
+        private int indexOf(String key) {
+            if (key == null) return -1;
+            for (int i = 0; i < keys.size(); i++) {
+                if (key.equals(keys.get(i))) return i;
+            }
+            return -1;
+        }
+
+        void renderTo(StringBuilder out) {
+            out.append(title).append('\n');
+            for (int i = 0; i < title.length(); i++) {
+                out.append('-');
+            }
+            out.append('\n');
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                String value = String.valueOf(values.get(i));
+                if (key != null) {
+                    // Multi-line values start on the line after their key
+                    out.append(key).append(value.startsWith("\n") ? ":" : ": ");
+                }
+                out.append(value);
+                if (!value.endsWith("\n")) out.append('\n');
+            }
+            out.append('\n');
+        }
+    }
+
+    private final String completedAt;
+    private final List<Section> sections = new ArrayList<>();
+
+    public ScanReport(String completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    /** Returns the section with this title, appending an empty one if it does not exist yet. */
+    public Section section(String title) {
+        Section section = getSection(title);
+        if (section == null) {
+            section = new Section(title);
+            sections.add(section);
+        }
+        return section;
+    }
+
+    /** Like {@link #section(String)}, but a new section is placed right after {@code previousTitle}. */
+    public Section sectionAfter(String previousTitle, String title) {
+        Section section = getSection(title);
+        if (section == null) {
+            section = new Section(title);
+            sections.add(sections.indexOf(getSection(previousTitle)) + 1, section);
+        }
+        return section;
+    }
+
+    public boolean removeSection(String title) {
+        return sections.remove(getSection(title));
+    }
+
+    public Section getSection(String title) {
+        for (Section section : sections) {
+            if (section.title.equals(title)) return section;
+        }
+        return null;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /** Looks up one field, or null if the section or key is missing. */
+    public String get(String sectionTitle, String key) {
+        Section section = getSection(sectionTitle);
+        return section != null ? section.get(key) : null;
+    }
+
+    /**
+     * Replaces one existing field.
+     *
+     * @return true if the field exists and its value changed
+     */
+    public boolean update(String sectionTitle, String key, String value) {
+        Section section = getSection(sectionTitle);
+        if (section == null) return false;
+        String previous = section.get(key);
+        if (previous == null || previous.equals(value)) return false;
+        section.put(key, value);
+        return true;
+    }
+
+    /** The section title for a plain key such as {@code "apps"}, or null if unknown. */
+    public static String sectionTitle(String key) {
+        for (String[] entry : SECTION_KEYS) {
+            if (entry[0].equals(key)) return entry[1];
+        }
+        return null;
+    }
+
+    /** The plain key for a section title, or null for a title the scan does not produce. */
+    public static String sectionKey(String title) {
+        for (String[] entry : SECTION_KEYS) {
+            if (entry[1].equals(title)) return entry[0];
+        }
+        return null;
+    }
+
+    /**
+     * Writes the report as a binary snapshot of one report, readable by {@link #readFrom}.
+     * Files holding many reports use {@link ScanRecordWriter} instead.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        writeString(out, completedAt);
+        out.writeInt(sections.size());
+        for (Section section : sections) {
+            writeString(out, section.title);
+            out.writeInt(section.keys.size());
+            for (int i = 0; i < section.keys.size(); i++) {
+                writeString(out, section.keys.get(i));
+                writeString(out, section.values.get(i));
+            }
+        }
+    }
+
+    public static ScanReport readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        ScanReport report = new ScanReport(readString(in));
+        int sectionCount = in.readInt();
+        for (int s = 0; s < sectionCount; s++) {
+            Section section = report.section(readString(in));
+            int fields = in.readInt();
+            for (int i = 0; i < fields; i++) {
+                section.add(readString(in), readString(in));
+            }
+        }
+        return report;
+    }
+
+    // Length-prefixed UTF-8 rather than writeUTF, which caps strings at 64 KiB
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        out.append(TITLE).append('\n');
+        out.append("=====================================\n");
+        out.append("Scan completed: ").append(completedAt).append("\n\n");
+        for (Section section : sections) {
+            section.renderTo(out);
+        }
+        return out.toString();
+    }
+}
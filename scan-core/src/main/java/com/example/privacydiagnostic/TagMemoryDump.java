@@ -0,0 +1,222 @@
+package com.example.privacydiagnostic;
+
+/**
+ * Raw memory image of an NFC tag plus the per-page lock state needed to render it.
+ * Holds no Android types so the rendering and lock-bit interpretation can run anywhere.
+ */
+public final class TagMemoryDump {
+    public static final int LOCK_UNKNOWN = 0;
+    public static final int LOCK_WRITABLE = 1;
+    public static final int LOCK_LOCKED = 2;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // NTAG21x storage sizes reported by GET_VERSION (byte 6)
+    public static final int STORAGE_NTAG213 = 0x0F;
+    public static final int STORAGE_NTAG215 = 0x11;
+    public static final int STORAGE_NTAG216 = 0x13;
+
+    private final String tagType;
+    private final byte[] memory;
+    private final int unitSize;
+    private final int unitCount;
+    private final byte[] lockState;
+    private final String[] unitNotes;
+    private int roundTrips;
+    private long elapsedMillis;
+    private String readMode = "";
+
+    public TagMemoryDump(String tagType, int unitSize, int unitCount) {
+        this.tagType = tagType;
+        this.unitSize = unitSize;
+        this.unitCount = unitCount;
+        this.memory = new byte[unitSize * unitCount];
+        this.lockState = new byte[unitCount];
+        this.unitNotes = new String[unitCount];
+    }
+
+    public byte[] getMemory() {
+        return memory;
+    }
+
+    public int getUnitSize() {
+        return unitSize;
+    }
+
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    public void setLockState(int unit, int state) {
+        lockState[unit] = (byte) state;
+    }
+
+    public int getLockState(int unit) {
+        return lockState[unit];
+    }
+
+    public void setUnitNote(int unit, String note) {
+        unitNotes[unit] = note;
+    }
+
+    /** Copies response bytes into the preallocated image at the given unit offset. */
+    public void put(int firstUnit, byte[] data, int dataOffset, int length) {
+        int start = firstUnit * unitSize;
+        int count = Math.min(length, memory.length - start);
+        if (count > 0) {
+            System.arraycopy(data, dataOffset, memory, start, count);
+        }
+    }
+
+    public void recordRoundTrip() {
+        roundTrips++;
+    }
+
+    public void setTiming(String readMode, long elapsedMillis) {
+        this.readMode = readMode;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Applies MIFARE Ultralight / NTAG21x static and dynamic lock bits to every page.
+     * Pages 0-2 hold the UID and lock bytes and page 3 the capability container.
+     *
+     * @param storageSize GET_VERSION storage byte, or 0 when the tag did not answer it
+     */
+    public void interpretUltralightLocks(int storageSize) {
+        if (unitCount < 4) return;
+        setUnitNote(0, "UID");
+        setUnitNote(1, "UID");
+        setUnitNote(2, "UID/lock bytes");
+        setUnitNote(3, "Capability container");
+        setLockState(0, LOCK_LOCKED);
+        setLockState(1, LOCK_LOCKED);
+
+        int lock0 = memory[2 * 4 + 2] & 0xFF;
+        int lock1 = memory[2 * 4 + 3] & 0xFF;
+        // Lock bits are one-time programmable, so page 2 only stops changing once all are set
+        setLockState(2, (lock0 & lock1) == 0xFF ? LOCK_LOCKED : LOCK_WRITABLE);
+        setLockState(3, (lock0 & 0x08) != 0 ? LOCK_LOCKED : LOCK_WRITABLE);
+        for (int page = 4; page < Math.min(16, unitCount); page++) {
+            // Lock byte 0 bits 4-7 cover pages 4-7, lock byte 1 bits 0-7 cover pages 8-15
+            boolean locked = page < 8
+                    ? (lock0 & (1 << page)) != 0
+                    : (lock1 & (1 << (page - 8))) != 0;
+            setLockState(page, locked ? LOCK_LOCKED : LOCK_WRITABLE);
+        }
+
+        int userEnd;
+        int pagesPerBit;
+        switch (storageSize) {
+            case STORAGE_NTAG213: userEnd = 0x27; pagesPerBit = 2; break;
+            case STORAGE_NTAG215: userEnd = 0x81; pagesPerBit = 16; break;
+            case STORAGE_NTAG216: userEnd = 0xE1; pagesPerBit = 16; break;
+            default:
+                // No dynamic lock map known; everything past page 15 is reported as unknown
+                return;
+        }
+        int dynamicLockPage = userEnd + 1;
+        if (dynamicLockPage >= unitCount) return;
+        int dyn = (memory[dynamicLockPage * 4] & 0xFF) | ((memory[dynamicLockPage * 4 + 1] & 0xFF) << 8);
+        for (int page = 16; page <= userEnd; page++) {
+            int bit = (page - 16) / pagesPerBit;
+            setLockState(page, (dyn & (1 << bit)) != 0 ? LOCK_LOCKED : LOCK_WRITABLE);
+        }
+        setUnitNote(dynamicLockPage, "Dynamic lock bytes");
+        for (int page = dynamicLockPage + 1; page < unitCount; page++) {
+            setUnitNote(page, "Configuration");
+        }
+    }
+
+    /** Applies ISO15693 block security status bytes (bit 0 set = block locked). */
+    public void interpretIso15693Security(byte[] securityStatus) {
+        for (int block = 0; block < unitCount; block++) {
+            setLockState(block, (securityStatus[block] & 0x01) != 0 ? LOCK_LOCKED : LOCK_WRITABLE);
+        }
+    }
+
+    /**
+     * Locates the first NDEF message TLV (type 0x03) in Type 2 tag user memory.
+     *
+     * @return {offset of value, length}, or null when there is none
+     */
+    public int[] findNdefTlv(int firstUserByte) {
+        int i = firstUserByte;
+        while (i < memory.length) {
+            int type = memory[i] & 0xFF;
+            if (type == 0x00) { i++; continue; }
+            if (type == 0xFE || i + 1 >= memory.length) return null;
+            int length = memory[i + 1] & 0xFF;
+            int header = 2;
+            if (length == 0xFF) {
+                if (i + 3 >= memory.length) return null;
+                length = ((memory[i + 2] & 0xFF) << 8) | (memory[i + 3] & 0xFF);
+                header = 4;
+            }
+            if (type == 0x03) return new int[] {i + header, length};
+            i += header + length;
+        }
+        return null;
+    }
+
+    public void appendTo(StringBuilder results) {
+        int lockedUnits = 0;
+        for (byte state : lockState) {
+            if (state == LOCK_LOCKED) lockedUnits++;
+        }
+        String unitName = unitSize == 4 ? "Page" : "Block";
+
+        results.append("Memory Dump (").append(tagType).append("):\n");
+        results.append("• Size: ").append(unitCount).append(" ").append(unitName.toLowerCase()).append("s x ")
+               .append(unitSize).append(" bytes = ").append(memory.length).append(" bytes\n");
+        results.append("• Read: ").append(readMode).append(", ").append(roundTrips).append(" round-trips, ")
+               .append(elapsedMillis).append(" ms\n");
+        results.append("• Locked ").append(unitName.toLowerCase()).append("s: ").append(lockedUnits)
+               .append(" of ").append(unitCount).append("\n");
+        if (unitSize == 4) {
+            int[] ndef = findNdefTlv(16);
+            if (ndef != null) {
+                results.append("• NDEF TLV: ").append(ndef[1]).append(" bytes at offset ").append(ndef[0]).append("\n");
+            }
+        }
+
+        char[] line = new char[6 + unitSize * 4 + 3];
+        for (int unit = 0; unit < unitCount; unit++) {
+            int pos = 0;
+            line[pos++] = '[';
+            line[pos++] = HEX_DIGITS[(unit >>> 8) & 0x0F];
+            line[pos++] = HEX_DIGITS[(unit >>> 4) & 0x0F];
+            line[pos++] = HEX_DIGITS[unit & 0x0F];
+            line[pos++] = ']';
+            line[pos++] = ' ';
+            int base = unit * unitSize;
+            for (int b = 0; b < unitSize; b++) {
+                int v = memory[base + b] & 0xFF;
+                line[pos++] = HEX_DIGITS[v >>> 4];
+                line[pos++] = HEX_DIGITS[v & 0x0F];
+                line[pos++] = ' ';
+            }
+            line[pos++] = '|';
+            for (int b = 0; b < unitSize; b++) {
+                int v = memory[base + b] & 0xFF;
+                line[pos++] = v >= 0x20 && v < 0x7F ? (char) v : '.';
+            }
+            line[pos++] = '|';
+            line[pos++] = ' ';
+            results.append("  ").append(line, 0, pos);
+            switch (lockState[unit]) {
+                case LOCK_LOCKED: results.append("LOCKED"); break;
+                case LOCK_WRITABLE: results.append("RW"); break;
+                default: results.append("?"); break;
+            }
+            if (unitNotes[unit] != null) {
+                results.append(" (").append(unitNotes[unit]).append(")");
+            }
+            results.append("\n");
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.privacydiagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Detects known analytics, advertising and crash-reporting SDKs embedded in APKs. Each APK is
+ * memory-mapped, its classes*.dex entries located through the ZIP central directory, and the
+ * dex data section (where the type descriptor strings live) run through one Aho-Corasick pass
+ * over every signature at once. APKs are scanned in parallel and verdicts cached by size + mtime.
+ */
+public final class TrackerSdkDetector {
+    private static final int PARALLEL_THRESHOLD = 4;
+    private static final int CHUNK = 64 * 1024;
+    private static final int MAX_LISTED_APPS = 15;
+    // Not a reachable mask with fewer than 64 signatures
+    private static final long UNREADABLE = -1L;
+
+    /** Bump whenever {@link #SIGNATURES} changes so cached verdicts are recomputed. */
+    private static final int SIGNATURES_VERSION = 1;
+
+    // Name, category, then dex type-descriptor prefixes of the SDK's packages
+    private static final String[][] SIGNATURES = {
+            {"Google Firebase Analytics", "Analytics", "Lcom/google/firebase/analytics/"},
+            {"Google Analytics", "Analytics", "Lcom/google/android/gms/analytics/"},
+            {"Google AdMob", "Ads", "Lcom/google/android/gms/ads/"},
+            {"Firebase Crashlytics", "Crash reporting", "Lcom/google/firebase/crashlytics/", "Lcom/crashlytics/"},
+            {"Facebook Analytics", "Analytics", "Lcom/facebook/appevents/"},
+            {"Facebook Audience Network", "Ads", "Lcom/facebook/ads/"},
+            {"AppsFlyer", "Attribution", "Lcom/appsflyer/"},
+            {"Adjust", "Attribution", "Lcom/adjust/sdk/"},
+            {"Branch", "Attribution", "Lio/branch/"},
+            {"Kochava", "Attribution", "Lcom/kochava/"},
+            {"Singular", "Attribution", "Lcom/singular/sdk/"},
+            {"Amplitude", "Analytics", "Lcom/amplitude/"},
+            {"Mixpanel", "Analytics", "Lcom/mixpanel/"},
+            {"Segment", "Analytics", "Lcom/segment/analytics/"},
+            {"Flurry", "Analytics", "Lcom/flurry/"},
+            {"Yandex AppMetrica", "Analytics", "Lcom/yandex/metrica/"},
+            {"Microsoft App Center", "Analytics", "Lcom/microsoft/appcenter/"},
+            {"comScore", "Analytics", "Lcom/comscore/"},
+            {"CleverTap", "Analytics", "Lcom/clevertap/"},
+            {"Braze", "Analytics", "Lcom/braze/", "Lcom/appboy/"},
+            {"OneSignal", "Analytics", "Lcom/onesignal/"},
+            {"AppLovin", "Ads", "Lcom/applovin/"},
+            {"Unity Ads", "Ads", "Lcom/unity3d/ads/", "Lcom/unity3d/services/"},
+            {"ironSource", "Ads", "Lcom/ironsource/"},
+            {"Vungle", "Ads", "Lcom/vungle/"},
+            {"Chartboost", "Ads", "Lcom/chartboost/"},
+            {"InMobi", "Ads", "Lcom/inmobi/"},
+            {"MoPub", "Ads", "Lcom/mopub/"},
+            {"Pangle", "Ads", "Lcom/bytedance/sdk/openadsdk/"},
+            {"Huawei Ads", "Ads", "Lcom/huawei/hms/ads/"},
+            {"Sentry", "Crash reporting", "Lio/sentry/"},
+            {"Bugsnag", "Crash reporting", "Lcom/bugsnag/"},
+            {"Tencent Bugly", "Crash reporting", "Lcom/tencent/bugly/"},
+            {"Instabug", "Crash reporting", "Lcom/instabug/"},
+            {"New Relic", "Crash reporting", "Lcom/newrelic/agent/"},
+    };
+
+    private static final AhoCorasickMatcher MATCHER;
+
+    static {
+        AhoCorasickMatcher.Builder builder = new AhoCorasickMatcher.Builder();
+        for (int i = 0; i < SIGNATURES.length; i++) {
+            for (int p = 2; p < SIGNATURES[i].length; p++) {
+                builder.add(SIGNATURES[i][p], i);
+            }
+        }
+        MATCHER = builder.build();
+    }
+
+    public static final class Result {
+        int apps;
+        int cacheHits;
+        int unreadable;
+        int appsWithTrackers;
+        long bytesScanned;
+        long elapsedMillis;
+        final int[] appsPerSdk = new int[SIGNATURES.length];
+        final List<String> flaggedApps = new ArrayList<>();
+
+        public int getAppsWithTrackers() {
+            return appsWithTrackers;
+        }
+
+        public void appendTo(StringBuilder out) {
+            out.append("Apps Scanned: ").append(apps).append(" (").append(cacheHits).append(" cached, ")
+               .append(formatMegabytes(bytesScanned)).append(" of dex scanned, ").append(elapsedMillis).append(" ms)\n");
+            out.append("Apps With Trackers: ").append(appsWithTrackers);
+            if (apps > 0) {
+                out.append(String.format(Locale.US, " (%.0f%%)", 100.0 * appsWithTrackers / apps));
+            }
+            out.append("\n");
+            if (unreadable > 0) {
+                out.append("Unreadable APKs: ").append(unreadable).append("\n");
+            }
+            boolean header = false;
+            for (int sdk : bySdkFrequency()) {
+                if (appsPerSdk[sdk] == 0) break;
+                if (!header) {
+                    out.append("Most Common SDKs:\n");
+                    header = true;
+                }
+                out.append("  • ").append(SIGNATURES[sdk][0]).append(" (").append(SIGNATURES[sdk][1]).append("): ")
+                   .append(appsPerSdk[sdk]).append(appsPerSdk[sdk] == 1 ? " app\n" : " apps\n");
+            }
+            for (int i = 0; i < flaggedApps.size() && i < MAX_LISTED_APPS; i++) {
+                out.append("  📦 ").append(flaggedApps.get(i)).append("\n");
+            }
+            if (flaggedApps.size() > MAX_LISTED_APPS) {
+                out.append("  ... and ").append(flaggedApps.size() - MAX_LISTED_APPS).append(" more\n");
+            }
+        }
+
+        private int[] bySdkFrequency() {
+            int[] order = new int[SIGNATURES.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            // Insertion sort; the table is a few dozen entries
+            for (int i = 1; i < order.length; i++) {
+                int v = order[i];
+                int j = i - 1;
+                while (j >= 0 && appsPerSdk[order[j]] < appsPerSdk[v]) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = v;
+            }
+            return order;
+        }
+    }
+
+    private final FileResultCache cache;
+
+    public TrackerSdkDetector(File cacheFile) {
+        this.cache = new FileResultCache(cacheFile);
+    }
+
+    /**
+     * @param names display name of each app, parallel to {@code apks}
+     * @param apks  the base APK of each app
+     */
+    public Result scan(String[] names, File[] apks) {
+        long start = System.currentTimeMillis();
+        cache.load();
+        long[] masks = new long[apks.length];
+        long[] scanned = new long[apks.length];
+        boolean[] cached = new boolean[apks.length];
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new ScanRange(apks, masks, scanned, cached, 0, apks.length));
+        } finally {
+            pool.shutdown();
+        }
+        cache.save();
+
+        Result result = new Result();
+        result.apps = apks.length;
+        for (int i = 0; i < apks.length; i++) {
+            if (cached[i]) result.cacheHits++;
+            result.bytesScanned += scanned[i];
+            long mask = masks[i];
+            if (mask == UNREADABLE) {
+                result.unreadable++;
+                continue;
+            }
+            if (mask == 0) continue;
+            result.appsWithTrackers++;
+            StringBuilder line = new StringBuilder(names[i]).append(": ");
+            for (int sdk = 0; sdk < SIGNATURES.length; sdk++) {
+                if ((mask & (1L << sdk)) != 0) {
+                    result.appsPerSdk[sdk]++;
+                    line.append(SIGNATURES[sdk][0]).append(", ");
+                }
+            }
+            line.setLength(line.length() - 2);
+            result.flaggedApps.add(line.toString());
+        }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    @SuppressWarnings("serial") // Never serialized; ForkJoinTask is Serializable by inheritance
+    private final class ScanRange extends RecursiveAction {
+        private final File[] apks;
+        private final long[] masks;
+        private final long[] scanned;
+        private final boolean[] cached;
+        private final int from;
+        private final int to;
+
+        ScanRange(File[] apks, long[] masks, long[] scanned, boolean[] cached, int from, int to) {
+            this.apks = apks;
+            this.masks = masks;
+            this.scanned = scanned;
+            this.cached = cached;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ScanRange(apks, masks, scanned, cached, from, mid),
+                          new ScanRange(apks, masks, scanned, cached, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                File apk = apks[i];
+                String path = apk.getPath();
+                long size = apk.length();
+                long mtime = apk.lastModified();
+                String hit = cache.get(path, size, mtime);
+                String prefix = SIGNATURES_VERSION + ":";
+                if (hit != null && hit.startsWith(prefix)) {
+                    masks[i] = Long.parseLong(hit.substring(prefix.length()), 16);
+                    cached[i] = true;
+                    continue;
+                }
+                try {
+                    long[] bytes = new long[1];
+                    masks[i] = detect(apk, bytes);
+                    scanned[i] = bytes[0];
+                    cache.put(path, size, mtime, prefix + Long.toHexString(masks[i]));
+                } catch (IOException | DataFormatException | RuntimeException e) {
+                    masks[i] = UNREADABLE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans every classes*.dex entry of one APK.
+     *
+     * @param bytesScanned receives the number of dex bytes run through the matcher
+     * @return bit i set when SDK i was found
+     */
+    public static long detect(File apk, long[] bytesScanned) throws IOException, DataFormatException {
+        try (RandomAccessFile file = new RandomAccessFile(apk, "r"); FileChannel channel = file.getChannel()) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("APK too large to map");
+            }
+            MappedByteBuffer zip = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            zip.order(ByteOrder.LITTLE_ENDIAN);
+
+            int eocd = findEndOfCentralDirectory(zip);
+            if (eocd < 0) {
+                throw new IOException("Not a ZIP archive");
+            }
+            int entries = zip.getShort(eocd + 10) & 0xFFFF;
+            int entry = zip.getInt(eocd + 16);
+            long mask = 0;
+            for (int e = 0; e < entries; e++) {
+                if (entry < 0 || entry + 46 > zip.limit() || zip.getInt(entry) != 0x02014b50) {
+                    throw new IOException("Corrupt central directory");
+                }
+                int method = zip.getShort(entry + 10) & 0xFFFF;
+                int compressedSize = zip.getInt(entry + 20);
+                int nameLength = zip.getShort(entry + 28) & 0xFFFF;
+                int extraLength = zip.getShort(entry + 30) & 0xFFFF;
+                int commentLength = zip.getShort(entry + 32) & 0xFFFF;
+                int localHeader = zip.getInt(entry + 42);
+                if (isDexEntry(zip, entry + 46, nameLength)) {
+                    int data = localHeader + 30 + (zip.getShort(localHeader + 26) & 0xFFFF)
+                            + (zip.getShort(localHeader + 28) & 0xFFFF);
+                    if (method == 0) {
+                        mask |= scanStoredDex(zip, data, compressedSize, bytesScanned);
+                    } else if (method == 8) {
+                        mask |= scanDeflatedDex(zip, data, compressedSize, bytesScanned);
+                    }
+                }
+                entry += 46 + nameLength + extraLength + commentLength;
+            }
+            return mask;
+        }
+    }
+
+    private static int findEndOfCentralDirectory(MappedByteBuffer zip) {
+        // The record is 22 bytes plus a comment of at most 64 KiB
+        int lowest = Math.max(0, zip.limit() - 22 - 0xFFFF);
+        for (int i = zip.limit() - 22; i >= lowest; i--) {
+            if (zip.getInt(i) == 0x06054b50) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isDexEntry(MappedByteBuffer zip, int name, int length) {
+        // classes.dex, classes2.dex, ... at the archive root
+        if (length < 11 || zip.get(name) != 'c' || zip.get(name + length - 4) != '.') return false;
+        String entryName = readAscii(zip, name, length);
+        return entryName.startsWith("classes") && entryName.endsWith(".dex") && entryName.indexOf('/') < 0;
+    }
+
+    private static String readAscii(MappedByteBuffer zip, int from, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (zip.get(from + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private static long scanStoredDex(MappedByteBuffer zip, int dex, int size, long[] bytesScanned) {
+        if (size < 0x70 || zip.get(dex) != 'd' || zip.get(dex + 1) != 'e' || zip.get(dex + 2) != 'x') return 0;
+        int dataSize = zip.getInt(dex + 0x68);
+        int dataOffset = zip.getInt(dex + 0x6C);
+        int from = dex + Math.max(0, Math.min(dataOffset, size));
+        int to = dex + (int) Math.min(size, (long) dataOffset + dataSize);
+        if (to <= from) return 0;
+        bytesScanned[0] += to - from;
+        return MATCHER.scan(zip, from, to, new int[1]);
+    }
+
+    private static long scanDeflatedDex(MappedByteBuffer zip, int data, int compressedSize,
+                                        long[] bytesScanned) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            byte[] in = new byte[CHUNK];
+            byte[] out = new byte[CHUNK];
+            int consumed = 0;
+            long position = 0;
+            long regionStart = -1;
+            long regionEnd = -1;
+            int[] state = new int[1];
+            long mask = 0;
+            while (!inflater.finished()) {
+                // Fill a whole chunk before matching so the dex header arrives in one piece
+                int filled = 0;
+                while (filled < out.length && !inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        if (consumed >= compressedSize) break;
+                        int n = Math.min(in.length, compressedSize - consumed);
+                        for (int i = 0; i < n; i++) {
+                            in[i] = zip.get(data + consumed + i);
+                        }
+                        consumed += n;
+                        inflater.setInput(in, 0, n);
+                    }
+                    int n = inflater.inflate(out, filled, out.length - filled);
+                    if (n == 0 && inflater.needsDictionary()) {
+                        throw new DataFormatException("Preset dictionary in APK entry");
+                    }
+                    filled += n;
+                }
+                if (filled == 0) break;
+                if (regionStart < 0) {
+                    if (filled < 0x70 || out[0] != 'd' || out[1] != 'e' || out[2] != 'x') return 0;
+                    long dataSize = readInt(out, 0x68) & 0xFFFFFFFFL;
+                    regionStart = readInt(out, 0x6C) & 0xFFFFFFFFL;
+                    regionEnd = regionStart + dataSize;
+                }
+                int from = (int) Math.max(0, Math.min(filled, regionStart - position));
+                int to = (int) Math.max(0, Math.min(filled, regionEnd - position));
+                if (to > from) {
+                    mask |= MATCHER.scan(out, from, to, state);
+                    bytesScanned[0] += to - from;
+                }
+                position += filled;
+                if (position >= regionEnd) break;
+            }
+            return mask;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8 | (b[offset + 2] & 0xFF) << 16 | (b[offset + 3] & 0xFF) << 24;
+    }
+
+    public static String formatMegabytes(long bytes) {
+        return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
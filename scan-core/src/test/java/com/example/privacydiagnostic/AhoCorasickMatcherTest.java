@@ -0,0 +1,103 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class AhoCorasickMatcherTest {
+    private static final AhoCorasickMatcher CLASSIC = new AhoCorasickMatcher.Builder()
+            .add("he", 0).add("she", 1).add("his", 2).add("hers", 3).build();
+
+    @Test
+    public void reportsOverlappingAndNestedPatterns() {
+        assertEquals(0b1011, scan(CLASSIC, "ushers"));
+        assertEquals(0b0100, scan(CLASSIC, "this"));
+        assertEquals(0, scan(CLASSIC, "sh e rs"));
+    }
+
+    @Test
+    public void patternsCanShareALabel() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher.Builder()
+                .add("Lcom/braze/", 5).add("Lcom/appboy/", 5).add("Lio/sentry/", 63).build();
+        assertEquals(1L << 5, scan(matcher, "xxLcom/appboy/Appboy;"));
+        assertEquals(1L << 5 | 1L << 63, scan(matcher, "Lio/sentry/Hub;Lcom/braze/Braze;"));
+    }
+
+    @Test
+    public void stateCarriesAcrossChunks() {
+        byte[] text = "ushers and his hershey".getBytes(StandardCharsets.US_ASCII);
+        long whole = CLASSIC.scan(text, 0, text.length, new int[1]);
+        for (int split = 0; split <= text.length; split++) {
+            int[] state = new int[1];
+            long mask = CLASSIC.scan(text, 0, split, state);
+            mask |= CLASSIC.scan(text, split, text.length, state);
+            assertEquals("split at " + split, whole, mask);
+        }
+    }
+
+    @Test
+    public void matchesBruteForceOnRandomInput() {
+        // Small alphabet so patterns overlap and share prefixes and suffixes often
+        Random random = new Random(20240501);
+        for (int round = 0; round < 200; round++) {
+            String[] patterns = new String[1 + random.nextInt(12)];
+            AhoCorasickMatcher.Builder builder = new AhoCorasickMatcher.Builder();
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = randomText(random, 1 + random.nextInt(5));
+                builder.add(patterns[i], i);
+            }
+            AhoCorasickMatcher matcher = builder.build();
+            String text = randomText(random, random.nextInt(200));
+
+            long expected = 0;
+            for (int i = 0; i < patterns.length; i++) {
+                if (text.contains(patterns[i])) expected |= 1L << i;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(text, expected, matcher.scan(bytes, 0, bytes.length, new int[1]));
+            assertEquals(text, expected, matcher.scan(ByteBuffer.wrap(bytes), 0, bytes.length, new int[1]));
+        }
+    }
+
+    @Test
+    public void bufferScanHonoursTheRangeAndLeavesThePosition() {
+        ByteBuffer buffer = ByteBuffer.wrap("she|his".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        assertEquals(0b0011, CLASSIC.scan(buffer, 0, 3, new int[1]));
+        assertEquals(0b0100, CLASSIC.scan(buffer, 4, 7, new int[1]));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void rejectsEmptyPatternsAndLabelsOutOfRange() {
+        assertRejected("", 0);
+        assertRejected("x", -1);
+        assertRejected("x", AhoCorasickMatcher.MAX_LABELS);
+    }
+
+    private static void assertRejected(String pattern, int label) {
+        try {
+            new AhoCorasickMatcher.Builder().add(pattern, label);
+            fail("Expected IllegalArgumentException for \"" + pattern + "\", " + label);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static long scan(AhoCorasickMatcher matcher, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return matcher.scan(bytes, 0, bytes.length, new int[1]);
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+}
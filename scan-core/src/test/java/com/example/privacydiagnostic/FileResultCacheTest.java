@@ -0,0 +1,79 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileResultCacheTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void entriesSurviveAReloadUntilTheFileChanges() throws IOException {
+        File file = new File(temp.getRoot(), "results.cache");
+        FileResultCache writer = new FileResultCache(file);
+        writer.load();
+        writer.put("/data/app/a/base.apk", 100, 1000, "1:40");
+        writer.save();
+
+        FileResultCache reader = new FileResultCache(file);
+        reader.load();
+        assertEquals("1:40", reader.get("/data/app/a/base.apk", 100, 1000));
+        assertNull(reader.get("/data/app/a/base.apk", 101, 1000));
+        assertNull(reader.get("/data/app/a/base.apk", 100, 1001));
+    }
+
+    @Test
+    public void unusedEntriesAreDroppedOnSave() throws IOException {
+        File file = new File(temp.getRoot(), "results.cache");
+        FileResultCache cache = new FileResultCache(file);
+        cache.load();
+        cache.put("kept", 1, 1, "k");
+        cache.put("dropped", 1, 1, "d");
+        cache.save();
+
+        FileResultCache next = new FileResultCache(file);
+        next.load();
+        next.get("kept", 1, 1);
+        next.save();
+
+        FileResultCache last = new FileResultCache(file);
+        last.load();
+        assertEquals("k", last.get("kept", 1, 1));
+        assertNull(last.get("dropped", 1, 1));
+    }
+
+    @Test
+    public void anotherWritersTempFileIsLeftAlone() throws IOException {
+        // What a save in the other process leaves behind while it is still writing
+        File file = new File(temp.getRoot(), "results.cache");
+        File foreign = temp.newFolder("results.cache.tmp");
+
+        FileResultCache cache = new FileResultCache(file);
+        cache.load();
+        cache.put("a", 1, 1, "v");
+        cache.save();
+
+        assertTrue(foreign.isDirectory());
+        FileResultCache reader = new FileResultCache(file);
+        reader.load();
+        assertEquals("v", reader.get("a", 1, 1));
+        // The writer's own temp file was renamed into place
+        assertEquals(Arrays.asList("results.cache", "results.cache.tmp"), sortedNames(temp.getRoot()));
+    }
+
+    private static List<String> sortedNames(File dir) {
+        String[] names = dir.list();
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class ScanJsonWriterTest {
+    /** Counts flushes, so the test can tell each record reaches the reader on its own. */
+    private static final class FlushCountingWriter extends StringWriter {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    @Test
+    public void writesOneFlushedRecordPerLine() throws IOException {
+        ScanReport report = new ScanReport("2024-05-01T10:00:00.000");
+        report.section(ScanReport.SECTION_APPS)
+              .put("Total Apps", "212")
+              .text("Largest: com.example.maps")
+              .put("System Apps", "148");
+        FlushCountingWriter out = new FlushCountingWriter();
+
+        ScanJsonWriter json = new ScanJsonWriter(out);
+        json.writeHeader(report.getCompletedAt());
+        assertEquals(1, out.flushes);
+        json.writeSection(report.getSection(ScanReport.SECTION_APPS));
+        assertEquals(2, out.flushes);
+        json.writeEnd(ScanJsonWriter.STATUS_COMPLETE, null);
+        assertEquals(3, out.flushes);
+
+        assertEquals("{\"type\":\"scan\",\"completedAt\":\"2024-05-01T10:00:00.000\"}\n"
+                + "{\"type\":\"section\",\"section\":\"apps\",\"title\":\"" + ScanReport.SECTION_APPS + "\","
+                + "\"fields\":{\"Total Apps\":\"212\",\"System Apps\":\"148\"},\"text\":[\"Largest: com.example.maps\"]}\n"
+                + "{\"type\":\"end\",\"status\":\"complete\"}\n", out.toString());
+    }
+
+    @Test
+    public void escapesStringsAndWritesNullAsNull() throws IOException {
+        ScanReport report = new ScanReport("t");
+        report.section(ScanReport.SECTION_DEVICE)
+              .put("Quote \"Key\"", "back\\slash\ttab\nline\r\u0001")
+              .put("Serial", null);
+        StringWriter out = new StringWriter();
+
+        new ScanJsonWriter(out).writeSection(report.getSection(ScanReport.SECTION_DEVICE));
+
+        assertEquals("{\"type\":\"section\",\"section\":\"device\",\"title\":\"" + ScanReport.SECTION_DEVICE + "\","
+                + "\"fields\":{\"Quote \\\"Key\\\"\":\"back\\\\slash\\ttab\\nline\\r\\u0001\",\"Serial\":null},"
+                + "\"text\":[]}\n", out.toString());
+    }
+
+    @Test
+    public void sectionsOutsideTheScanHaveNoKey() throws IOException {
+        ScanReport report = new ScanReport("t");
+        report.section("Custom").text("only text");
+        StringWriter out = new StringWriter();
+
+        new ScanJsonWriter(out).writeSection(report.getSection("Custom"));
+
+        assertEquals("{\"type\":\"section\",\"section\":null,\"title\":\"Custom\",\"fields\":{},"
+                + "\"text\":[\"only text\"]}\n", out.toString());
+    }
+
+    @Test
+    public void endRecordCarriesTheStatusAndError() throws IOException {
+        StringWriter out = new StringWriter();
+        ScanJsonWriter json = new ScanJsonWriter(out);
+        json.writeEnd(ScanJsonWriter.STATUS_CANCELLED, null);
+        json.writeEnd(ScanJsonWriter.STATUS_FAILED, "Probe \"wifi\" failed");
+
+        assertEquals("{\"type\":\"end\",\"status\":\"cancelled\"}\n"
+                + "{\"type\":\"end\",\"status\":\"failed\",\"error\":\"Probe \\\"wifi\\\" failed\"}\n", out.toString());
+    }
+}
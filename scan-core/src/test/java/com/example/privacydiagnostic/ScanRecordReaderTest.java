@@ -0,0 +1,118 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ScanRecordReaderTest {
+    // Largest varint that still fits an int
+    private static final byte[] MAX_COUNT = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+    @Test
+    public void recordsReadBackAsWritten() throws IOException {
+        ScanReport first = new ScanReport("2024-05-01T10:00:00.000");
+        first.section(ScanReport.SECTION_DEVICE).put("Model", "Pixel 7a").text("free text");
+        first.section(ScanReport.SECTION_SETTINGS).put("USB Debugging", "No");
+        ScanReport second = new ScanReport("2024-05-02T10:00:00.000");
+        second.section(ScanReport.SECTION_SETTINGS).put("USB Debugging", "Yes");
+
+        ScanRecordReader reader = new ScanRecordReader(ByteBuffer.wrap(write(first, second)));
+
+        assertEquals(2, reader.getRecordCount());
+        assertEquals(first.render(), reader.read(0).render());
+        assertEquals(second.render(), reader.read(1).render());
+        assertEquals("2024-05-02T10:00:00.000", reader.getCompletedAt(1));
+        assertEquals("No", reader.get(0, ScanReport.SECTION_SETTINGS, "USB Debugging"));
+        assertNull(reader.readSection(1, ScanReport.SECTION_DEVICE));
+    }
+
+    @Test
+    public void countsLargerThanTheFooterAreRejected() {
+        // Footer holding only a string count of Integer.MAX_VALUE
+        assertCorrupt(file(MAX_COUNT));
+        // No strings, then a record count of Integer.MAX_VALUE
+        byte[] footer = new byte[1 + MAX_COUNT.length];
+        System.arraycopy(MAX_COUNT, 0, footer, 1, MAX_COUNT.length);
+        assertCorrupt(file(footer));
+    }
+
+    @Test
+    public void recordCountsLargerThanTheRecordAreRejected() throws IOException {
+        // completedAt null, then a section count of Integer.MAX_VALUE
+        assertCorruptRecord(record(new byte[] {0}, MAX_COUNT));
+        // One section titled "T" with a 5 byte body, whose field count is Integer.MAX_VALUE
+        assertCorruptRecord(record(new byte[] {0, 1, 1, 5}, MAX_COUNT));
+    }
+
+    @Test
+    public void truncatedFilesAreRejected() throws IOException {
+        ScanReport report = new ScanReport("t");
+        report.section(ScanReport.SECTION_DEVICE).put("Model", "Pixel 7a");
+        byte[] bytes = write(report);
+        for (int length = 0; length < bytes.length; length++) {
+            assertCorrupt(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    /** A record file with no records, whose footer is {@code footer}. */
+    private static byte[] file(byte[] footer) {
+        ByteBuffer file = ByteBuffer.allocate(5 + footer.length + 8);
+        file.put(ScanRecordWriter.MAGIC).put((byte) ScanRecordWriter.VERSION).put(footer);
+        file.putInt(5).put(ScanRecordWriter.MAGIC);
+        return file.array();
+    }
+
+    /** A file holding one record made of {@code parts}, with "T" as its only string. */
+    private static byte[] record(byte[]... parts) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            record.write(part, 0, part.length);
+        }
+        int footerOffset = 5 + record.size();
+        // One string "T", one record of the given length
+        byte[] footer = {1, 1, 'T', 1, (byte) record.size()};
+        ByteBuffer file = ByteBuffer.allocate(footerOffset + footer.length + 8);
+        file.put(ScanRecordWriter.MAGIC).put((byte) ScanRecordWriter.VERSION).put(record.toByteArray()).put(footer);
+        file.putInt(footerOffset).put(ScanRecordWriter.MAGIC);
+        return file.array();
+    }
+
+    private static void assertCorruptRecord(byte[] bytes) throws IOException {
+        ScanRecordReader reader = new ScanRecordReader(ByteBuffer.wrap(bytes));
+        try {
+            reader.read(0);
+            fail("Expected IOException from read");
+        } catch (IOException expected) {
+        }
+        try {
+            reader.readSection(0, "T");
+            fail("Expected IOException from readSection");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static byte[] write(ScanReport... reports) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ScanRecordWriter writer = new ScanRecordWriter(bytes)) {
+            for (ScanReport report : reports) {
+                writer.write(report);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertCorrupt(byte[] bytes) {
+        try {
+            new ScanRecordReader(ByteBuffer.wrap(bytes));
+            fail("Expected IOException for " + bytes.length + " bytes");
+        } catch (IOException expected) {
+        }
+    }
+}
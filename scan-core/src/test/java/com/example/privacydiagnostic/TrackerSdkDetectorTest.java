@@ -0,0 +1,217 @@
+package com.example.privacydiagnostic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TrackerSdkDetectorTest {
+    // Indices into TrackerSdkDetector.SIGNATURES
+    private static final long APPSFLYER = 1L << 6;
+    private static final long FLURRY = 1L << 14;
+    private static final long SENTRY = 1L << 30;
+    private static final int INFLATER_CHUNK = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void findsSdksInStoredAndDeflatedDex() throws Exception {
+        byte[] first = dex("", "Lcom/example/Main;\0Lcom/appsflyer/AppsFlyerLib;\0", "");
+        byte[] second = dex("", "Lio/sentry/Sentry;\0", "");
+        File apk = apk("app.apk", null,
+                stored("classes.dex", first), deflated("classes2.dex", second));
+
+        long[] scanned = new long[1];
+        assertEquals(APPSFLYER | SENTRY, TrackerSdkDetector.detect(apk, scanned));
+        assertEquals(dataSize(first) + dataSize(second), scanned[0]);
+    }
+
+    @Test
+    public void onlyTheDexDataSectionIsMatched() throws Exception {
+        // Descriptors in the id tables and the link section are not class references
+        byte[] dex = dex("Lcom/flurry/", "Lcom/example/Main;\0", "Lio/sentry/");
+        assertEquals(0, TrackerSdkDetector.detect(apk("stored.apk", null, stored("classes.dex", dex)), new long[1]));
+        assertEquals(0, TrackerSdkDetector.detect(apk("deflated.apk", null, deflated("classes.dex", dex)), new long[1]));
+    }
+
+    @Test
+    public void dexOutsideTheArchiveRootIsIgnored() throws Exception {
+        byte[] dex = dex("", "Lcom/flurry/sdk/Agent;\0", "");
+        File apk = apk("app.apk", null,
+                stored("assets/classes.dex", dex), deflated("res/raw/classes2.dex", dex),
+                stored("classes.jar", dex), stored("classes.dex", dex("", "Lcom/example/Main;\0", "")));
+        assertEquals(0, TrackerSdkDetector.detect(apk, new long[1]));
+    }
+
+    @Test
+    public void entriesThatAreNotDexAreSkipped() throws Exception {
+        byte[] notDex = "Lcom/flurry/sdk/Agent;".getBytes(StandardCharsets.US_ASCII);
+        File apk = apk("app.apk", null, stored("classes.dex", notDex), deflated("classes2.dex", notDex));
+        assertEquals(0, TrackerSdkDetector.detect(apk, new long[1]));
+    }
+
+    @Test
+    public void descriptorSplitAcrossInflaterChunksIsFound() throws Exception {
+        // "Lio/sentry/" starts five bytes before the first 64 KiB chunk ends
+        String descriptor = "Lio/sentry/Sentry;";
+        char[] filler = new char[INFLATER_CHUNK - 0x70 - 5];
+        Arrays.fill(filler, 'x');
+        byte[] dex = dex("", new String(filler) + descriptor + "\0", "");
+
+        assertEquals(SENTRY, TrackerSdkDetector.detect(apk("deflated.apk", null, deflated("classes.dex", dex)), new long[1]));
+        assertEquals(SENTRY, TrackerSdkDetector.detect(apk("stored.apk", null, stored("classes.dex", dex)), new long[1]));
+    }
+
+    @Test
+    public void centralDirectoryIsFoundBehindAnArchiveComment() throws Exception {
+        char[] comment = new char[4000];
+        Arrays.fill(comment, 'c');
+        File apk = apk("app.apk", new String(comment), deflated("classes.dex", dex("", "Lcom/flurry/sdk/Agent;\0", "")));
+        assertEquals(FLURRY, TrackerSdkDetector.detect(apk, new long[1]));
+    }
+
+    @Test
+    public void nonZipAndCorruptArchivesAreRejected() throws Exception {
+        File text = temp.newFile("notes.apk");
+        write(text, "not an archive".getBytes(StandardCharsets.US_ASCII));
+        assertRejected(text);
+
+        File apk = apk("corrupt.apk", null, stored("classes.dex", dex("", "Lio/sentry/Sentry;\0", "")));
+        byte[] bytes = Files.readAllBytes(apk.toPath());
+        // Point the end record's central directory offset past the end of the file
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length - 22 + 16, bytes.length + 100);
+        write(apk, bytes);
+        assertRejected(apk);
+    }
+
+    @Test
+    public void scanAggregatesPerSdkAndCachesVerdicts() throws Exception {
+        // More APKs than the parallel threshold, so the scan is split across workers
+        String[] names = {"a", "b", "c", "d", "e", "f"};
+        File[] apks = {
+                apk("a.apk", null, stored("classes.dex", dex("", "Lcom/appsflyer/A;\0Lio/sentry/B;\0", ""))),
+                apk("b.apk", null, deflated("classes.dex", dex("", "Lio/sentry/B;\0", ""))),
+                apk("c.apk", null, stored("classes.dex", dex("", "Lcom/example/C;\0", ""))),
+                apk("d.apk", null, deflated("classes.dex", dex("", "Lcom/example/D;\0", ""))),
+                apk("e.apk", null, stored("classes.dex", dex("", "Lio/sentry/E;\0", ""))),
+                temp.newFile("f.apk")};
+        File cacheFile = new File(temp.getRoot(), "tracker_scan.cache");
+
+        TrackerSdkDetector.Result first = new TrackerSdkDetector(cacheFile).scan(names, apks);
+        assertEquals(6, first.apps);
+        assertEquals(0, first.cacheHits);
+        assertEquals(1, first.unreadable);
+        assertEquals(3, first.getAppsWithTrackers());
+        assertEquals(1, first.appsPerSdk[6]);
+        assertEquals(3, first.appsPerSdk[30]);
+        assertEquals(Arrays.asList("a: AppsFlyer, Sentry", "b: Sentry", "e: Sentry"), first.flaggedApps);
+        StringBuilder out = new StringBuilder();
+        first.appendTo(out);
+        assertTrue(out.toString(), out.toString().contains("Apps With Trackers: 3 (50%)\nUnreadable APKs: 1\n"
+                + "Most Common SDKs:\n  • Sentry (Crash reporting): 3 apps\n  • AppsFlyer (Attribution): 1 app\n"));
+
+        // Another process reading the same cache; only the unreadable APK is opened again
+        TrackerSdkDetector.Result second = new TrackerSdkDetector(cacheFile).scan(names, apks);
+        assertEquals(5, second.cacheHits);
+        assertEquals(0, second.bytesScanned);
+        assertEquals(first.flaggedApps, second.flaggedApps);
+
+        // An update changes the APK's size and is scanned again
+        apk("c.apk", null, stored("classes.dex", dex("", "Lcom/example/C;\0Lcom/flurry/sdk/Agent;\0", "")));
+        TrackerSdkDetector.Result third = new TrackerSdkDetector(cacheFile).scan(names, apks);
+        assertEquals(4, third.cacheHits);
+        assertEquals(4, third.getAppsWithTrackers());
+        assertTrue(third.flaggedApps.contains("c: Flurry"));
+    }
+
+    private static void assertRejected(File apk) throws Exception {
+        try {
+            TrackerSdkDetector.detect(apk, new long[1]);
+            fail("Expected IOException for " + apk.getName());
+        } catch (IOException expected) {
+        }
+    }
+
+    /**
+     * A dex image whose header points data_off/data_size at {@code data}, with {@code before}
+     * standing in for the id tables and {@code after} for the link section.
+     */
+    private static byte[] dex(String before, String data, String after) {
+        byte[] head = before.getBytes(StandardCharsets.US_ASCII);
+        byte[] body = data.getBytes(StandardCharsets.US_ASCII);
+        byte[] tail = after.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer dex = ByteBuffer.allocate(0x70 + head.length + body.length + tail.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        dex.put("dex\n035\0".getBytes(StandardCharsets.US_ASCII));
+        dex.putInt(0x20, dex.capacity());
+        dex.putInt(0x24, 0x70);
+        dex.putInt(0x28, 0x12345678);
+        dex.putInt(0x68, body.length);
+        dex.putInt(0x6C, 0x70 + head.length);
+        dex.position(0x70);
+        dex.put(head).put(body).put(tail);
+        return dex.array();
+    }
+
+    private static int dataSize(byte[] dex) {
+        return ByteBuffer.wrap(dex).order(ByteOrder.LITTLE_ENDIAN).getInt(0x68);
+    }
+
+    private static Object[] stored(String name, byte[] data) {
+        return new Object[] {name, data, ZipEntry.STORED};
+    }
+
+    private static Object[] deflated(String name, byte[] data) {
+        return new Object[] {name, data, ZipEntry.DEFLATED};
+    }
+
+    private File apk(String name, String comment, Object[]... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zip.write(new byte[64]);
+            for (Object[] e : entries) {
+                byte[] data = (byte[]) e[1];
+                ZipEntry entry = new ZipEntry((String) e[0]);
+                entry.setMethod((Integer) e[2]);
+                if (entry.getMethod() == ZipEntry.STORED) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setSize(data.length);
+                    entry.setCompressedSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(data);
+            }
+            if (comment != null) zip.setComment(comment);
+        }
+        File file = new File(temp.getRoot(), name);
+        write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+}